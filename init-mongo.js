@@ -52,11 +52,11 @@ db.grades.createIndex({ "student": 1, "assignment": 1 }, { unique: true });
 db.grades.createIndex({ "status": 1 });
 
 // Attendance indexes
-db.attendance.createIndex({ "student": 1 });
-db.attendance.createIndex({ "course": 1 });
-db.attendance.createIndex({ "date": 1 });
-db.attendance.createIndex({ "student": 1, "course": 1, "date": 1 }, { unique: true });
-db.attendance.createIndex({ "status": 1 });
+db.attendance.createIndex({ "student.studentId": 1, "course.courseCode": 1, "date": 1 }, { unique: true, name: "student_course_date_unique" });
+db.attendance.createIndex({ "student.studentId": 1, "date": 1 }, { name: "student_date_idx" });
+db.attendance.createIndex({ "course.courseCode": 1, "date": 1 }, { name: "course_date_idx" });
+db.attendance.createIndex({ "date": 1, "status": 1 }, { name: "date_status_idx" });
+db.attendance.createIndex({ "status": 1, "date": 1 }, { name: "status_date_idx" });
 
 print('Database initialization completed!');
 
@@ -0,0 +1,68 @@
+package com.eduai.schoolmanagement.config;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.AssignmentService;
+
+/**
+ * Recomputes the assignment submissions, graded, scoreSum and scoreCount counters from the
+ * stored submissions once, so the incremental updates start from the real totals rather than
+ * from whatever was counted after the counters appeared (or was overwritten before).
+ * A finished run is recorded in the migrations collection; delete that document to run it again.
+ */
+@Component
+public class AssignmentScoreBackfillRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentScoreBackfillRunner.class);
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "assignment-counters";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Value("${app.migration.assignment-scores.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping assignment counter backfill: {}", e.getMessage());
+            return;
+        }
+
+        Query completed = Query.query(Criteria.where("_id").is(MIGRATION_ID));
+        if (mongoTemplate.exists(completed, MIGRATIONS_COLLECTION)) {
+            logger.debug("Assignment counter backfill already completed, skipping");
+            return;
+        }
+
+        try {
+            int updated = assignmentService.backfillCounters();
+            mongoTemplate.upsert(completed, new Update().set("completedAt", LocalDateTime.now())
+                    .set("updated", updated), MIGRATIONS_COLLECTION);
+            logger.info("✅ Assignment counter backfill finished: {} assignments updated", updated);
+        } catch (Exception e) {
+            logger.error("❌ Assignment counter backfill failed: {}", e.getMessage());
+        }
+    }
+}
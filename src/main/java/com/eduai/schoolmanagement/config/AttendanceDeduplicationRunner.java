@@ -0,0 +1,132 @@
+package com.eduai.schoolmanagement.config;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.AttendanceRollupService;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Removes duplicate attendance records left by writes made before the
+ * student_course_date_unique index existed, keeping the most recently updated
+ * record of each student, course and day, so {@link IndexConfiguration} can build
+ * the index. Runs before it, once: a finished run is recorded in the migrations
+ * collection (with the number of records removed; their _ids are logged) and
+ * delete that document to run it again.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AttendanceDeduplicationRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceDeduplicationRunner.class);
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "attendance-deduplication";
+    private static final String STUDENT_COURSE_DATE_INDEX = "student_course_date_unique";
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @Value("${app.migration.attendance-dedup.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping attendance deduplication: {}", e.getMessage());
+            return;
+        }
+
+        Query completed = Query.query(Criteria.where("_id").is(MIGRATION_ID));
+        if (mongoTemplate.exists(completed, MIGRATIONS_COLLECTION)) {
+            logger.debug("Attendance deduplication already completed, skipping");
+            return;
+        }
+
+        try {
+            MongoCollection<Document> attendance = mongoTemplate.getCollection("attendance");
+            int removed = hasUniqueIndex(attendance) ? 0 : removeDuplicates(attendance);
+            if (removed > 0) {
+                logger.warn("⚠️ Removed {} duplicate attendance records; rebuilding rollups", removed);
+                attendanceRollupService.rebuild();
+            }
+            mongoTemplate.upsert(completed, new Update().set("completedAt", LocalDateTime.now())
+                    .set("removed", removed), MIGRATIONS_COLLECTION);
+            logger.info("✅ Attendance deduplication finished: {} records removed", removed);
+        } catch (Exception e) {
+            // Remaining duplicates are picked up again on the next start
+            logger.error("❌ Attendance deduplication failed: {}", e.getMessage());
+        }
+    }
+
+    private static boolean hasUniqueIndex(MongoCollection<Document> attendance) {
+        for (Document index : attendance.listIndexes()) {
+            if (STUDENT_COURSE_DATE_INDEX.equals(index.getString("name"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int removeDuplicates(MongoCollection<Document> attendance) {
+        List<Bson> pipeline = List.of(
+            Aggregates.sort(Sorts.descending("updatedAt", "markedAt", "_id")),
+            Aggregates.group(
+                new Document("studentId", "$student.studentId")
+                    .append("courseCode", "$course.courseCode")
+                    .append("date", "$date"),
+                Accumulators.push("ids", "$_id"),
+                Accumulators.sum("count", 1)),
+            Aggregates.match(Filters.gt("count", 1)));
+
+        List<Object> duplicates = new ArrayList<>();
+        int removed = 0;
+        for (Document group : attendance.aggregate(pipeline).allowDiskUse(true)) {
+            List<?> ids = group.getList("ids", Object.class);
+            duplicates.addAll(ids.subList(1, ids.size()));
+            if (duplicates.size() >= BATCH_SIZE) {
+                removed += delete(attendance, duplicates);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            removed += delete(attendance, duplicates);
+        }
+        return removed;
+    }
+
+    private static int delete(MongoCollection<Document> attendance, List<Object> duplicates) {
+        int deleted = (int) attendance.deleteMany(Filters.in("_id", duplicates)).getDeletedCount();
+        logger.warn("⚠️ Removed duplicate attendance records: {}", duplicates);
+        duplicates.clear();
+        return deleted;
+    }
+}
@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.DeadlineScheduler;
+
+/**
+ * Loads open deadlines into the deadline scheduler's timing wheel at startup
+ */
+@Component
+public class DeadlineSchedulerRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineSchedulerRunner.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Override
+    public void run(String... args) {
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, deadline notifications disabled: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            logger.info("✅ Deadline scheduler started with {} pending timers", deadlineScheduler.rebuild());
+        } catch (Exception e) {
+            // Ticks are no-ops until a rebuild succeeds
+            logger.error("❌ Deadline scheduler rebuild failed: {}", e.getMessage());
+        }
+    }
+}
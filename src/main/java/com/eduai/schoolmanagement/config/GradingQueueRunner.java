@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.GradingQueueService;
+
+/**
+ * Queues submissions that were submitted before the grading queue existed
+ */
+@Component
+public class GradingQueueRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradingQueueRunner.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private GradingQueueService gradingQueueService;
+
+    @Override
+    public void run(String... args) {
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping grading queue backfill: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            logger.info("✅ Grading queue backfilled from {} ungraded submissions", gradingQueueService.backfill());
+        } catch (Exception e) {
+            // New submissions are still queued as they come in
+            logger.error("❌ Grading queue backfill failed: {}", e.getMessage());
+        }
+    }
+}
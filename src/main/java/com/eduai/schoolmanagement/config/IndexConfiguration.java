@@ -8,26 +8,40 @@ import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
-@Profile("prod") // Only run in production to avoid startup issues in development
 public class IndexConfiguration implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexConfiguration.class);
 
+    private static final String STUDENT_COURSE_DATE_INDEX = "student_course_date_unique";
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Value("${app.idempotency.ttl-hours:72}")
+    private long idempotencyTtlHours = 72;
+
     @Override
     public void run(String... args) throws Exception {
         createIndexesSafely();
     }
 
     private void createIndexesSafely() {
+        try {
+            // Skip quickly when MongoDB is not reachable (e.g. dev profile without a local mongod)
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping index creation: {}", e.getMessage());
+            return;
+        }
+
         try {
             // Create Student collection indexes
             createStudentIndexes();
@@ -35,6 +49,18 @@ public class IndexConfiguration implements CommandLineRunner {
             // Create User collection indexes
             createUserIndexes();
 
+            // Create Attendance collection indexes
+            createAttendanceIndexes();
+
+            // Expire idempotency keys
+            createIdempotencyIndexes();
+
+            // Lookups on embedded reference ids
+            createReferenceIndexes();
+
+            // Grading queue claim order
+            createGradingQueueIndexes();
+
             // Create other collection indexes as needed
 
             logger.info("✅ All indexes created successfully");
@@ -97,6 +123,153 @@ public class IndexConfiguration implements CommandLineRunner {
         }
     }
 
+    private void createAttendanceIndexes() {
+        MongoCollection<Document> attendance = mongoTemplate.getCollection("attendance");
+
+        // One record per student, course and day; concurrent marks upsert instead of duplicating
+        createStudentCourseDateIndex(attendance);
+
+        try {
+            // Student history and date-range queries
+            Document studentDateIndex = new Document()
+                .append("student.studentId", 1)
+                .append("date", 1);
+            createIndexSafely(attendance, "student_date",
+                studentDateIndex,
+                new IndexOptions().name("student_date_idx"));
+
+            // Course history, course/day roster and course date-range queries
+            Document courseDateIndex = new Document()
+                .append("course.courseCode", 1)
+                .append("date", 1);
+            createIndexSafely(attendance, "course_date",
+                courseDateIndex,
+                new IndexOptions().name("course_date_idx"));
+
+            // Daily/monthly reports and per-day status counts
+            Document dateStatusIndex = new Document()
+                .append("date", 1)
+                .append("status", 1);
+            createIndexSafely(attendance, "date_status",
+                dateStatusIndex,
+                new IndexOptions().name("date_status_idx"));
+
+            // Status listings and exports
+            Document statusDateIndex = new Document()
+                .append("status", 1)
+                .append("date", 1);
+            createIndexSafely(attendance, "status_date",
+                statusDateIndex,
+                new IndexOptions().name("status_date_idx"));
+
+            logger.info("✅ Attendance indexes created/verified");
+
+        } catch (Exception e) {
+            logger.warn("⚠️ Attendance index creation warning: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Roster, gate-scan and sync upserts depend on this index for uniqueness.
+     * Duplicates left by writes made before it existed are removed by
+     * {@link AttendanceDeduplicationRunner}; if some remain, the build fails and
+     * startup carries on without the index.
+     */
+    private void createStudentCourseDateIndex(MongoCollection<Document> attendance) {
+        for (Document index : attendance.listIndexes()) {
+            if (STUDENT_COURSE_DATE_INDEX.equals(index.getString("name"))) {
+                return;
+            }
+        }
+
+        try {
+            attendance.createIndex(
+                Indexes.ascending("student.studentId", "course.courseCode", "date"),
+                new IndexOptions().unique(true).name(STUDENT_COURSE_DATE_INDEX));
+            logger.info("✅ Created index: {}", STUDENT_COURSE_DATE_INDEX);
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not create {}, attendance upserts may duplicate records until it exists"
+                + " (delete the attendance-deduplication migration record to remove duplicates again): {}",
+                STUDENT_COURSE_DATE_INDEX, e.getMessage());
+        }
+    }
+
+    private void createIdempotencyIndexes() {
+        try {
+            MongoCollection<Document> idempotencyKeys = mongoTemplate.getCollection("idempotency_keys");
+
+            // Retries older than the TTL are treated as new operations
+            createIndexSafely(idempotencyKeys, "created_at_ttl",
+                Indexes.ascending("createdAt"),
+                new IndexOptions().name("created_at_ttl_idx").expireAfter(idempotencyTtlHours, TimeUnit.HOURS));
+
+            logger.info("✅ Idempotency key indexes created/verified");
+
+        } catch (Exception e) {
+            logger.warn("⚠️ Idempotency key index creation warning: {}", e.getMessage());
+        }
+    }
+
+    private void createReferenceIndexes() {
+        try {
+            MongoCollection<Document> grades = mongoTemplate.getCollection("grades");
+            createIndexSafely(grades, "student_ref",
+                Indexes.ascending("student._id"), new IndexOptions().name("student_ref_idx"));
+            createIndexSafely(grades, "course_ref",
+                Indexes.ascending("course._id"), new IndexOptions().name("course_ref_idx"));
+            createIndexSafely(grades, "assignment_ref",
+                Indexes.ascending("assignment._id"), new IndexOptions().name("assignment_ref_idx"));
+            // Gradebook reads a course's grades in studentId order
+            createIndexSafely(grades, "course_student_ref",
+                Indexes.ascending("course._id", "student.studentId"),
+                new IndexOptions().name("course_student_ref_idx"));
+
+            MongoCollection<Document> submissions = mongoTemplate.getCollection("submissions");
+            createIndexSafely(submissions, "assignment_student_ref",
+                Indexes.ascending("assignment._id", "student._id"),
+                new IndexOptions().name("assignment_student_ref_idx"));
+            createIndexSafely(submissions, "student_ref",
+                Indexes.ascending("student._id"), new IndexOptions().name("student_ref_idx"));
+
+            createIndexSafely(mongoTemplate.getCollection("invoices"), "student_ref",
+                Indexes.ascending("student._id"), new IndexOptions().name("student_ref_idx"));
+            createIndexSafely(mongoTemplate.getCollection("payments"), "student_ref",
+                Indexes.ascending("student._id"), new IndexOptions().name("student_ref_idx"));
+
+            MongoCollection<Document> parents = mongoTemplate.getCollection("parents");
+            createIndexSafely(parents, "children_ref",
+                Indexes.ascending("children._id"), new IndexOptions().name("children_ref_idx"));
+            createIndexSafely(parents, "user_ref",
+                Indexes.ascending("user._id"), new IndexOptions().name("user_ref_idx"));
+
+            logger.info("✅ Embedded reference indexes created/verified");
+
+        } catch (Exception e) {
+            logger.warn("⚠️ Embedded reference index creation warning: {}", e.getMessage());
+        }
+    }
+
+    private void createGradingQueueIndexes() {
+        try {
+            MongoCollection<Document> gradingQueue = mongoTemplate.getCollection("grading_queue");
+
+            // Claims walk these in priority order and skip leased items
+            createIndexSafely(gradingQueue, "claim_order",
+                Indexes.ascending("dueDate", "late", "submittedAt", "leaseExpiresAt"),
+                new IndexOptions().name("claim_order_idx"));
+            createIndexSafely(gradingQueue, "course_claim_order",
+                Indexes.ascending("courseCode", "dueDate", "late", "submittedAt", "leaseExpiresAt"),
+                new IndexOptions().name("course_claim_order_idx"));
+            createIndexSafely(gradingQueue, "lease_owner",
+                Indexes.ascending("leaseOwner"), new IndexOptions().name("lease_owner_idx"));
+
+            logger.info("✅ Grading queue indexes created/verified");
+
+        } catch (Exception e) {
+            logger.warn("⚠️ Grading queue index creation warning: {}", e.getMessage());
+        }
+    }
+
     private void createIndexSafely(MongoCollection<Document> collection, String indexName,
                                  Bson keys, IndexOptions options) {
         try {
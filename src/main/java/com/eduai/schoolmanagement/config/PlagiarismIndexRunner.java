@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.PlagiarismService;
+
+/**
+ * Fingerprints submitted work that predates the plagiarism index
+ */
+@Component
+public class PlagiarismIndexRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlagiarismIndexRunner.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PlagiarismService plagiarismService;
+
+    @Override
+    public void run(String... args) {
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping plagiarism index backfill: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            logger.info("✅ Plagiarism index backfilled: {} submissions", plagiarismService.backfill());
+        } catch (Exception e) {
+            // Submissions are still fingerprinted as they are submitted or checked
+            logger.error("❌ Plagiarism index backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.RankingService;
+
+/**
+ * Loads the in-memory class rankings from grade_rollups at startup
+ */
+@Component
+public class RankingIndexRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingIndexRunner.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Override
+    public void run(String... args) {
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping ranking index load: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            logger.info("✅ Ranking index loaded: {} students", rankingService.rebuild());
+        } catch (Exception e) {
+            // Rankings fill in as grades are saved; POST /grades/gpa/recompute reloads them in full
+            logger.error("❌ Ranking index load failed: {}", e.getMessage());
+        }
+    }
+}
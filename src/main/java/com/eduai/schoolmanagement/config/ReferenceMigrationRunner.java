@@ -0,0 +1,69 @@
+package com.eduai.schoolmanagement.config;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.ReferenceMigrationService;
+
+/**
+ * Converts any remaining @DBRef links to embedded references at startup.
+ * A finished run is recorded in the migrations collection and later starts skip the
+ * (unindexed) $ref scans entirely; delete that document to force another pass.
+ */
+@Component
+public class ReferenceMigrationRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceMigrationRunner.class);
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "embedded-references";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReferenceMigrationService referenceMigrationService;
+
+    @Value("${app.migration.references.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping reference migration: {}", e.getMessage());
+            return;
+        }
+
+        Query completed = Query.query(Criteria.where("_id").is(MIGRATION_ID));
+        if (mongoTemplate.exists(completed, MIGRATIONS_COLLECTION)) {
+            logger.debug("Reference migration already completed, skipping");
+            return;
+        }
+
+        try {
+            Map<String, Object> migrated = referenceMigrationService.migrateAll();
+            mongoTemplate.upsert(completed, new Update().set("completedAt", LocalDateTime.now())
+                    .set("migrated", migrated), MIGRATIONS_COLLECTION);
+            logger.info("✅ Reference migration finished: {}", migrated);
+        } catch (Exception e) {
+            // Unmigrated documents are picked up again on the next start
+            logger.error("❌ Reference migration failed: {}", e.getMessage());
+        }
+    }
+}
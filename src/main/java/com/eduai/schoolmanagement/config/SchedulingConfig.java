@@ -0,0 +1,12 @@
+package com.eduai.schoolmanagement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (nightly attendance analytics and the like)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.service.SearchService;
+
+/**
+ * Loads students, parents, teachers, employees and courses into the search index at startup
+ */
+@Component
+public class SearchIndexRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexRunner.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Override
+    public void run(String... args) {
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (Exception e) {
+            logger.warn("⚠️ MongoDB not reachable, skipping search index load: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            logger.info("✅ Search index loaded: {} entries", searchService.rebuild());
+        } catch (Exception e) {
+            // Entries fill in as entities are saved; POST /search/rebuild reloads them in full
+            logger.error("❌ Search index load failed: {}", e.getMessage());
+        }
+    }
+}
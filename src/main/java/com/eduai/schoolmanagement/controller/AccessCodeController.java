@@ -5,6 +5,7 @@ import com.eduai.schoolmanagement.service.AccessCodeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,7 +19,7 @@ import java.util.Optional;
 @RequestMapping("/api/access-codes")
 @RequiredArgsConstructor
 @Tag(name = "Access Code Management", description = "Manage access codes for student and parent portal registration")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class AccessCodeController {
 
     private final AccessCodeService accessCodeService;
@@ -29,9 +30,9 @@ public class AccessCodeController {
 
     @GetMapping
     @Operation(summary = "Get all access codes")
-    public ResponseEntity<List<AccessCode>> getAllAccessCodes() {
-        List<AccessCode> accessCodes = accessCodeService.getAllAccessCodes();
-        return ResponseEntity.ok(accessCodes);
+    public ResponseEntity<List<AccessCode>> getAllAccessCodes(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(accessCodeService.getAccessCodesPage(cursor, limit));
     }
 
     @GetMapping("/{accessCode}")
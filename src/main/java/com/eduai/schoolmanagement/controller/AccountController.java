@@ -5,6 +5,7 @@ import com.eduai.schoolmanagement.entity.Account.AccountType;
 import com.eduai.schoolmanagement.entity.Account.AccountCategory;
 import com.eduai.schoolmanagement.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,7 +15,7 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/accounts")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class AccountController {
 
     @Autowired
@@ -1,12 +1,16 @@
 package com.eduai.schoolmanagement.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.eduai.schoolmanagement.entity.Assignment;
 import com.eduai.schoolmanagement.entity.Course;
@@ -33,7 +38,7 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/assignments")
 @RequiredArgsConstructor
 @Tag(name = "Assignment Management", description = "Assignment creation, distribution, and management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class AssignmentController {
 
     private final AssignmentService assignmentService;
@@ -41,9 +46,9 @@ public class AssignmentController {
 
     @GetMapping
     @Operation(summary = "Get all assignments")
-    public ResponseEntity<List<Assignment>> getAllAssignments() {
-        List<Assignment> assignments = assignmentService.getAllAssignments();
-        return ResponseEntity.ok(assignments);
+    public ResponseEntity<List<Assignment>> getAllAssignments(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(assignmentService.getAssignmentsPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -200,6 +205,20 @@ public class AssignmentController {
         }
     }
 
+    @PostMapping(value = "/{id}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload a file to an assignment")
+    public ResponseEntity<Assignment> addAttachment(@PathVariable String id, @RequestParam("file") MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            Assignment assignment = assignmentService.addAttachment(id, content,
+                    file.getOriginalFilename(), file.getContentType());
+            return ResponseEntity.ok(assignment);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/bulk")
     @Operation(summary = "Create multiple assignments")
     public ResponseEntity<List<Assignment>> createBulkAssignments(@Valid @RequestBody List<Assignment> assignments) {
@@ -211,41 +230,6 @@ public class AssignmentController {
         }
     }
 
-    @PostMapping("/{id}/update-submission-count")
-    @Operation(summary = "Update submission count")
-    public ResponseEntity<Assignment> updateSubmissionCount(@PathVariable String id) {
-        try {
-            Assignment updatedAssignment = assignmentService.updateSubmissionCount(id);
-            return ResponseEntity.ok(updatedAssignment);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-    @PostMapping("/{id}/update-graded-count")
-    @Operation(summary = "Update graded count")
-    public ResponseEntity<Assignment> updateGradedCount(@PathVariable String id) {
-        try {
-            Assignment updatedAssignment = assignmentService.updateGradedCount(id);
-            return ResponseEntity.ok(updatedAssignment);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-    @PostMapping("/{id}/update-average-score")
-    @Operation(summary = "Update average score")
-    public ResponseEntity<Assignment> updateAverageScore(
-            @PathVariable String id,
-            @RequestParam Double averageScore) {
-        try {
-            Assignment updatedAssignment = assignmentService.updateAverageScore(id, averageScore);
-            return ResponseEntity.ok(updatedAssignment);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
     @GetMapping("/search-advanced")
     @Operation(summary = "Advanced search assignments")
     public ResponseEntity<List<Assignment>> searchAssignmentsByCriteria(
@@ -0,0 +1,116 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.eduai.schoolmanagement.entity.Attachment;
+import com.eduai.schoolmanagement.service.AttachmentService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/attachments")
+@RequiredArgsConstructor
+@Tag(name = "Attachments", description = "Content-addressed submission and assignment files")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class AttachmentController {
+
+    private final AttachmentService attachmentService;
+
+    @GetMapping("/{hash}/info")
+    @Operation(summary = "Get stored attachment metadata")
+    public ResponseEntity<Attachment> getAttachmentInfo(@PathVariable String hash) {
+        return attachmentService.getAttachment(hash)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{hash}")
+    @Operation(summary = "Download an attachment",
+               description = "Supports single byte ranges; the content hash is the ETag, so the response never changes")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String hash,
+                                                          @RequestHeader HttpHeaders requestHeaders) {
+        Optional<Attachment> attachmentOpt = attachmentService.getAttachment(hash);
+        if (attachmentOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Attachment attachment = attachmentOpt.get();
+        long length = attachment.getSize();
+        String etag = "\"" + hash + "\"";
+
+        if (requestHeaders.getIfNoneMatch().contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            return rangeNotSatisfiable(length);
+        }
+        // Multiple ranges and stale If-Range validators get the whole file
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ranges.size() == 1 && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                return rangeNotSatisfiable(length);
+            }
+            partial = true;
+        }
+
+        long position = start;
+        long count = end - start + 1;
+        StreamingResponseBody body = outputStream -> attachmentService.transfer(hash, position, count, outputStream);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                .contentType(mediaType(attachment.getContentType()))
+                .contentLength(count);
+        if (attachment.getOriginalName() != null) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.inline().filename(attachment.getOriginalName()).build().toString());
+        }
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return response.body(body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> rangeNotSatisfiable(long length) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+    }
+
+    private static MediaType mediaType(String contentType) {
+        try {
+            return contentType == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
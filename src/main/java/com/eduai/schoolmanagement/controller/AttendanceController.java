@@ -6,8 +6,11 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +21,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.eduai.schoolmanagement.dto.AttendanceExportRequest;
+import com.eduai.schoolmanagement.dto.AttendanceSyncItem;
+import com.eduai.schoolmanagement.dto.GateScanRequest;
 import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceAnalyticsRun;
+import com.eduai.schoolmanagement.service.AttendanceAnalyticsService;
+import com.eduai.schoolmanagement.service.AttendanceExportService;
+import com.eduai.schoolmanagement.service.AttendanceMatrixService;
 import com.eduai.schoolmanagement.service.AttendanceService;
+import com.eduai.schoolmanagement.service.GateScanIngestService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,16 +43,20 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/attendance")
 @RequiredArgsConstructor
 @Tag(name = "Attendance Management", description = "Attendance tracking and management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceExportService attendanceExportService;
+    private final AttendanceMatrixService attendanceMatrixService;
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+    private final GateScanIngestService gateScanIngestService;
 
     @GetMapping
     @Operation(summary = "Get all attendance records")
-    public ResponseEntity<List<Attendance>> getAllAttendance() {
-        List<Attendance> attendance = attendanceService.getAllAttendance();
-        return ResponseEntity.ok(attendance);
+    public ResponseEntity<List<Attendance>> getAllAttendance(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(attendanceService.getAttendancePage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -82,6 +98,36 @@ public class AttendanceController {
         return ResponseEntity.ok(attendance);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Stream attendance records as CSV or NDJSON",
+               description = "Streams from a Mongo cursor with constant memory; columns selects the exported fields")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) String courseId) {
+        AttendanceExportRequest request = new AttendanceExportRequest();
+        request.setFormat(format);
+        request.setColumns(columns);
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        request.setStatus(status);
+        request.setStudentId(studentId);
+        request.setCourseId(courseId);
+        attendanceExportService.validate(request);
+
+        boolean csv = AttendanceExportService.FORMAT_CSV.equals(request.getFormat());
+        StreamingResponseBody body = outputStream -> attendanceExportService.export(request, outputStream);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"attendance-export." + (csv ? "csv" : "ndjson") + "\"")
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/student/{studentId}/date-range")
     @Operation(summary = "Get student attendance by date range")
     public ResponseEntity<List<Attendance>> getStudentAttendanceByDateRange(
@@ -122,6 +168,43 @@ public class AttendanceController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedAttendance);
     }
 
+    @PostMapping("/course/{courseCode}/date/{date}/roster")
+    @Operation(summary = "Mark attendance for a whole course roster",
+               description = "Takes a map of studentId to status (PRESENT, ABSENT, LATE, EXCUSED) and returns a result per student")
+    public ResponseEntity<Map<String, Object>> markRosterAttendance(
+            @PathVariable String courseCode,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody Map<String, String> statuses,
+            Authentication authentication) {
+        String markedBy = authentication != null ? authentication.getName() : null;
+        Map<String, Object> result = attendanceService.markRosterAttendance(courseCode, date, statuses, markedBy);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/sync")
+    @Operation(summary = "Sync attendance marked offline",
+               description = "Items carry device-generated operation ids; retries are deduplicated and the newest markedAt wins")
+    public ResponseEntity<Map<String, Object>> syncAttendance(
+            @RequestBody List<AttendanceSyncItem> items,
+            Authentication authentication) {
+        String markedBy = authentication != null ? authentication.getName() : null;
+        Map<String, Object> result = attendanceService.syncAttendance(items, markedBy);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/scans")
+    @Operation(summary = "Ingest gate check-in/check-out scans")
+    public ResponseEntity<Map<String, Object>> ingestGateScans(@RequestBody List<GateScanRequest> scans) {
+        int accepted = gateScanIngestService.submit(scans);
+        if (accepted < scans.size()) {
+            // Queue is full: the client resends the rest, duplicates are harmless
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("accepted", accepted, "rejected", scans.size() - accepted));
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update attendance record")
     public ResponseEntity<Attendance> updateAttendance(@PathVariable String id, @Valid @RequestBody Attendance attendance) {
@@ -203,6 +286,79 @@ public class AttendanceController {
         return ResponseEntity.ok(attendance);
     }
 
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild attendance rollups from raw attendance records")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        Map<String, Object> result = attendanceService.rebuildRollups();
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/matrix/course/{courseCode}/chronic-absences")
+    @Operation(summary = "Get students with a run of consecutive absences in a term")
+    public ResponseEntity<Map<String, Object>> getChronicAbsences(
+            @PathVariable String courseCode,
+            @RequestParam(required = false) String semesterCode,
+            @RequestParam(defaultValue = "3") int threshold) {
+        Map<String, Object> result = attendanceMatrixService.getChronicAbsences(courseCode, semesterCode, threshold);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/matrix/course/{courseCode}/rolling-rate")
+    @Operation(summary = "Get course and student attendance rates over a rolling window")
+    public ResponseEntity<Map<String, Object>> getRollingAttendanceRate(
+            @PathVariable String courseCode,
+            @RequestParam(required = false) String semesterCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "30") int windowDays) {
+        LocalDate windowEnd = asOf != null ? asOf : LocalDate.now();
+        Map<String, Object> result = attendanceMatrixService.getRollingRate(courseCode, semesterCode, windowEnd, windowDays);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/matrix/course/{courseCode}/weekly-trends")
+    @Operation(summary = "Get weekly attendance rates for a course term")
+    public ResponseEntity<Map<String, Object>> getWeeklyAttendanceTrends(
+            @PathVariable String courseCode,
+            @RequestParam(required = false) String semesterCode,
+            @RequestParam(required = false) String studentId) {
+        Map<String, Object> result = attendanceMatrixService.getWeeklyTrends(courseCode, semesterCode, studentId);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/matrix/course/{courseCode}/rebuild")
+    @Operation(summary = "Rebuild a course's term attendance matrix from raw attendance records")
+    public ResponseEntity<Map<String, Object>> rebuildAttendanceMatrix(
+            @PathVariable String courseCode,
+            @RequestParam(required = false) String semesterCode) {
+        Map<String, Object> result = attendanceMatrixService.rebuild(courseCode, semesterCode);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/analytics/run")
+    @Operation(summary = "Run or resume the attendance analytics job")
+    public ResponseEntity<Map<String, Object>> runAttendanceAnalytics() {
+        Map<String, Object> result = attendanceAnalyticsService.runAnalytics();
+        if ("ALREADY_RUNNING".equals(result.get("status"))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/analytics/runs/latest")
+    @Operation(summary = "Get the latest attendance analytics run and its checkpoint")
+    public ResponseEntity<AttendanceAnalyticsRun> getLatestAnalyticsRun() {
+        AttendanceAnalyticsRun run = attendanceAnalyticsService.getLatestRun();
+        return run != null ? ResponseEntity.ok(run) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/analytics/at-risk")
+    @Operation(summary = "Get students at a given attendance risk level")
+    public ResponseEntity<List<Map<String, Object>>> getStudentsByRiskLevel(
+            @RequestParam(defaultValue = "HIGH") String riskLevel) {
+        List<Map<String, Object>> students = attendanceAnalyticsService.getStudentsByRiskLevel(riskLevel);
+        return ResponseEntity.ok(students);
+    }
+
     @GetMapping("/analytics/trends")
     @Operation(summary = "Get attendance trends and analytics")
     public ResponseEntity<Map<String, Object>> getAttendanceTrends(
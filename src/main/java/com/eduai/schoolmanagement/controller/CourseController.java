@@ -3,8 +3,7 @@ package com.eduai.schoolmanagement.controller;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -30,16 +29,16 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/courses")
 @RequiredArgsConstructor
 @Tag(name = "Course Management", description = "Course management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class CourseController {
 
     private final CourseService courseService;
 
     @GetMapping
     @Operation(summary = "Get all courses")
-    public ResponseEntity<List<Course>> getAllCourses() {
-        List<Course> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<Course>> getAllCourses(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(courseService.getCoursesPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -88,10 +87,9 @@ public class CourseController {
 
     @GetMapping("/search")
     @Operation(summary = "Search courses by name")
-    public ResponseEntity<Page<Course>> searchCoursesByName(
-            @RequestParam String name, Pageable pageable) {
-        Page<Course> courses = courseService.searchCoursesByName(name, pageable);
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<Course>> searchCoursesByName(@RequestParam String name,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(courseService.searchCoursesByName(name, cursor, limit));
     }
 
     @GetMapping("/active")
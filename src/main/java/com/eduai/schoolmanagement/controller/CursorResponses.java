@@ -0,0 +1,37 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.eduai.schoolmanagement.dto.CursorPage;
+
+/**
+ * List endpoints keep returning a plain JSON array; the cursor for the next
+ * page travels in the X-Next-Cursor header and as a ready-made Link rel="next"
+ * URL. Neither header is sent on the last page. Both are listed as exposed
+ * headers in the CORS configuration and on every @CrossOrigin, or browser
+ * clients could not read them.
+ */
+final class CursorResponses {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private CursorResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR, page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+}
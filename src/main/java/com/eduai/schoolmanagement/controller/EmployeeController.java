@@ -5,8 +5,7 @@ import com.eduai.schoolmanagement.service.EmployeeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,7 +18,7 @@ import java.util.Optional;
 @RequestMapping("/employees")
 @RequiredArgsConstructor
 @Tag(name = "Employee Management", description = "Employee management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class EmployeeController {
 
     private final EmployeeService employeeService;
@@ -30,9 +29,9 @@ public class EmployeeController {
 
     @GetMapping
     @Operation(summary = "Get all employees")
-    public ResponseEntity<List<Employee>> getAllEmployees() {
-        List<Employee> employees = employeeService.getAllEmployees();
-        return ResponseEntity.ok(employees);
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(employeeService.getEmployeesPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -114,11 +113,9 @@ public class EmployeeController {
 
     @GetMapping("/search")
     @Operation(summary = "Search employees by name")
-    public ResponseEntity<Page<Employee>> searchEmployeesByName(
-            @RequestParam String name,
-            Pageable pageable) {
-        Page<Employee> employees = employeeService.searchEmployeesByName(name, pageable);
-        return ResponseEntity.ok(employees);
+    public ResponseEntity<List<Employee>> searchEmployeesByName(@RequestParam String name,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(employeeService.searchEmployeesByName(name, cursor, limit));
     }
 
     @GetMapping("/manager/{manager}")
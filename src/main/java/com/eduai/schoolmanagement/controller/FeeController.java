@@ -3,6 +3,7 @@ package com.eduai.schoolmanagement.controller;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -28,16 +29,16 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/fees")
 @RequiredArgsConstructor
 @Tag(name = "Fee Management", description = "Fee structure and management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class FeeController {
 
     private final FeeService feeService;
 
     @GetMapping
     @Operation(summary = "Get all fees")
-    public ResponseEntity<List<Fee>> getAllFees() {
-        List<Fee> fees = feeService.getAllFees();
-        return ResponseEntity.ok(fees);
+    public ResponseEntity<List<Fee>> getAllFees(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(feeService.getFeesPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
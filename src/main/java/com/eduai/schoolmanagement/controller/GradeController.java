@@ -1,8 +1,10 @@
 package com.eduai.schoolmanagement.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,12 +19,19 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.AssignmentRef;
 import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.CourseRef;
 import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.GradingJob;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.repository.AssignmentRepository;
 import com.eduai.schoolmanagement.service.CourseService;
+import com.eduai.schoolmanagement.service.GpaService;
 import com.eduai.schoolmanagement.service.GradeService;
+import com.eduai.schoolmanagement.service.GradingJobService;
+import com.eduai.schoolmanagement.service.RankingService;
 import com.eduai.schoolmanagement.service.StudentService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,19 +43,22 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/grades")
 @RequiredArgsConstructor
 @Tag(name = "Grade Management", description = "Grade management and AI grading operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class GradeController {
 
     private final GradeService gradeService;
     private final StudentService studentService;
     private final CourseService courseService;
     private final AssignmentRepository assignmentRepository;
+    private final GpaService gpaService;
+    private final GradingJobService gradingJobService;
+    private final RankingService rankingService;
 
     @GetMapping
     @Operation(summary = "Get all grades")
-    public ResponseEntity<List<Grade>> getAllGrades() {
-        List<Grade> grades = gradeService.getAllGrades();
-        return ResponseEntity.ok(grades);
+    public ResponseEntity<List<Grade>> getAllGrades(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(gradeService.getGradesPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -176,24 +188,13 @@ public class GradeController {
     }
 
     @PostMapping("/batch-ai-grade")
-    @Operation(summary = "Batch AI grading")
-    public ResponseEntity<List<Grade>> batchAIGrade(@RequestBody List<String> gradeIds) {
+    @Operation(summary = "Queue batch AI grading; progress at /grading-jobs/{id}")
+    public ResponseEntity<Object> batchAIGrade(@RequestBody List<String> gradeIds) {
         try {
-            List<Grade> gradedGrades = gradeIds.stream()
-                .map(gradeService::getGradeById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(grade -> {
-                    // Simulate AI grading with random scores and feedback
-                    double aiScore = 75 + (Math.random() * 25); // Random score between 75-100
-                    double confidence = 0.8 + (Math.random() * 0.2); // Random confidence 0.8-1.0
-                    String feedback = generateAIFeedback(aiScore);
-                    return gradeService.generateAIGrade(grade, aiScore, confidence, feedback);
-                })
-                .toList();
-            return ResponseEntity.ok(gradedGrades);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            GradingJob job = gradingJobService.submit(GradingJob.TARGET_GRADE, gradeIds, null);
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
         }
     }
 
@@ -261,9 +262,9 @@ public class GradeController {
                 .map(Optional::get)
                 .map(student -> {
                     Grade grade = new Grade();
-                    grade.setStudent(student);
-                    grade.setCourse(course);
-                    grade.setAssignment(assignment);
+                    grade.setStudent(StudentRef.of(student));
+                    grade.setCourse(CourseRef.of(course));
+                    grade.setAssignment(AssignmentRef.of(assignment));
                     grade.setMaxScore(assignment.getMaxScore());
                     grade.setScore(0.0);
                     grade.setPercentage(0.0);
@@ -287,9 +288,7 @@ public class GradeController {
                 return ResponseEntity.notFound().build();
             }
 
-            List<Grade> grades = gradeService.getGradesByCourse(courseOpt.get());
-
-            var analytics = calculateGradeAnalytics(grades);
+            var analytics = gradeService.getCourseGradeAnalytics(courseOpt.get());
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -305,15 +304,78 @@ public class GradeController {
                 return ResponseEntity.notFound().build();
             }
 
-            List<Grade> grades = gradeService.getGradesByStudent(studentOpt.get());
-
-            var analytics = calculateGradeAnalytics(grades);
+            var analytics = gradeService.getStudentGradeAnalytics(studentOpt.get());
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/gpa/student/{studentId}")
+    @Operation(summary = "Get a student's current GPA and per-course breakdown")
+    public ResponseEntity<Map<String, Object>> getStudentGpa(@PathVariable String studentId) {
+        Optional<Student> studentOpt = studentService.getStudentByStudentId(studentId);
+        if (studentOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(gpaService.getStudentGpa(studentOpt.get()));
+    }
+
+    @PostMapping("/gpa/recompute")
+    @Operation(summary = "Recompute all GPA rollups from grades, one course per task")
+    public ResponseEntity<Map<String, Object>> recomputeGpa() {
+        Map<String, Object> result = gpaService.recomputeAll();
+        if ("ALREADY_RUNNING".equals(result.get("status"))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/rank/student/{studentId}/course/{courseCode}")
+    @Operation(summary = "Get a student's rank and percentile in a course")
+    public ResponseEntity<Map<String, Object>> getCourseRank(@PathVariable String studentId, @PathVariable String courseCode) {
+        Optional<Student> studentOpt = studentService.getStudentByStudentId(studentId);
+        Optional<Course> courseOpt = courseService.getCourseByCourseCode(courseCode);
+        if (studentOpt.isEmpty() || courseOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> rank = rankingService.getCourseRank(courseOpt.get().getId(), studentOpt.get().getId());
+        return rank == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(rank);
+    }
+
+    @GetMapping("/rank/student/{studentId}/grade-level")
+    @Operation(summary = "Get a student's GPA rank and percentile within their grade level")
+    public ResponseEntity<Map<String, Object>> getGradeLevelRank(@PathVariable String studentId) {
+        Optional<Student> studentOpt = studentService.getStudentByStudentId(studentId);
+        if (studentOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> rank = rankingService.getGradeLevelRank(studentOpt.get().getGrade(), studentOpt.get().getId());
+        return rank == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(rank);
+    }
+
+    @GetMapping("/rank/course/{courseCode}/percentile")
+    @Operation(summary = "Get the course average at a percentile of the class")
+    public ResponseEntity<Map<String, Object>> getCoursePercentileScore(
+            @PathVariable String courseCode, @RequestParam(defaultValue = "90") double p) {
+        Optional<Course> courseOpt = courseService.getCourseByCourseCode(courseCode);
+        if (courseOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Double score = rankingService.getCourseScoreAtPercentile(courseOpt.get().getId(), p);
+        return score == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(Map.of("courseCode", courseCode, "percentile", p, "score", score));
+    }
+
+    @GetMapping("/rank/grade-level/{gradeLevel}/percentile")
+    @Operation(summary = "Get the GPA at a percentile of a grade level")
+    public ResponseEntity<Map<String, Object>> getGradeLevelPercentileScore(
+            @PathVariable String gradeLevel, @RequestParam(defaultValue = "90") double p) {
+        Double gpa = rankingService.getGradeLevelScoreAtPercentile(gradeLevel, p);
+        return gpa == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(Map.of("gradeLevel", gradeLevel, "percentile", p, "gpa", gpa));
+    }
+
     @PutMapping("/{id}/publish")
     @Operation(summary = "Publish grade to student")
     public ResponseEntity<Grade> publishGrade(@PathVariable String id) {
@@ -331,72 +393,4 @@ public class GradeController {
             return ResponseEntity.badRequest().build();
         }
     }
-
-    private String generateAIFeedback(double score) {
-        if (score >= 90) {
-            return "Excellent work! Your understanding of the concepts is clearly demonstrated.";
-        } else if (score >= 80) {
-            return "Good work! You show solid understanding with minor areas for improvement.";
-        } else if (score >= 70) {
-            return "Satisfactory work. Consider reviewing the key concepts and practice more.";
-        } else if (score >= 60) {
-            return "Your work shows some understanding, but significant improvement is needed.";
-        } else {
-            return "This work requires major revision. Please seek additional help and practice.";
-        }
-    }
-
-    private Object calculateGradeAnalytics(List<Grade> grades) {
-        if (grades.isEmpty()) {
-            return java.util.Map.of("message", "No grades available for analysis");
-        }
-
-        // Filter out grades with no score (score = 0.0 means not graded yet)
-        List<Grade> gradedGrades = grades.stream()
-            .filter(g -> g.getScore() > 0)
-            .toList();
-
-        double totalScore = gradedGrades.stream()
-            .mapToDouble(Grade::getScore)
-            .sum();
-        double averageScore = gradedGrades.isEmpty() ? 0.0 : totalScore / gradedGrades.size();
-
-        double totalPercentage = gradedGrades.stream()
-            .mapToDouble(Grade::getPercentage)
-            .sum();
-        double averagePercentage = gradedGrades.isEmpty() ? 0.0 : totalPercentage / gradedGrades.size();
-
-        long pendingCount = grades.stream()
-            .filter(g -> "PENDING".equals(g.getStatus()))
-            .count();
-
-        long gradedCount = grades.stream()
-            .filter(g -> "GRADED".equals(g.getStatus()) || "PUBLISHED".equals(g.getStatus()))
-            .count();
-
-        var letterGradeDistribution = grades.stream()
-            .filter(g -> g.getLetterGrade() != null && !g.getLetterGrade().isEmpty())
-            .collect(java.util.stream.Collectors.groupingBy(
-                Grade::getLetterGrade,
-                java.util.stream.Collectors.counting()));
-
-        // Calculate passing rate only for grades that have been graded (percentage > 0)
-        long passingGrades = grades.stream()
-            .filter(g -> g.getPercentage() >= 60)
-            .count();
-
-        double passingRate = gradedGrades.isEmpty() ? 0.0 :
-            (double) passingGrades * 100.0 / gradedGrades.size();
-
-        return java.util.Map.of(
-            "totalGrades", grades.size(),
-            "gradedGrades", gradedGrades.size(),
-            "averageScore", Math.round(averageScore * 100.0) / 100.0,
-            "averagePercentage", Math.round(averagePercentage * 100.0) / 100.0,
-            "pendingGrades", pendingCount,
-            "gradedCount", gradedCount,
-            "letterGradeDistribution", letterGradeDistribution,
-            "passingRate", Math.round(passingRate * 100.0) / 100.0
-        );
-    }
 }
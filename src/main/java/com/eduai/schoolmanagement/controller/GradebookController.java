@@ -0,0 +1,47 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.service.CourseService;
+import com.eduai.schoolmanagement.service.GradebookService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/gradebook")
+@RequiredArgsConstructor
+@Tag(name = "Gradebook", description = "Course gradebook matrix")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class GradebookController {
+
+    private final GradebookService gradebookService;
+    private final CourseService courseService;
+
+    @GetMapping("/{courseCode}")
+    @Operation(summary = "Stream the course gradebook (students x assignments)",
+               description = "Rows and cells are positional arrays; studentColumns, assignmentColumns and cellColumns name their fields")
+    public ResponseEntity<StreamingResponseBody> getGradebook(@PathVariable String courseCode) {
+        Optional<Course> courseOpt = courseService.getCourseByCourseCode(courseCode);
+        if (courseOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Course course = courseOpt.get();
+        StreamingResponseBody body = outputStream -> gradebookService.writeGradebook(course, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,58 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduai.schoolmanagement.dto.GradingJobRequest;
+import com.eduai.schoolmanagement.entity.GradingJob;
+import com.eduai.schoolmanagement.service.GradingJobService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/grading-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Grading Jobs", description = "Asynchronous batch AI grading")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class GradingJobController {
+
+    private final GradingJobService gradingJobService;
+
+    @PostMapping
+    @Operation(summary = "Queue AI grading for a batch of grades or submissions")
+    public ResponseEntity<Object> createJob(@RequestBody GradingJobRequest request) {
+        try {
+            GradingJob job = gradingJobService.submit(request.getTargetType(),
+                    request.getIds() == null ? List.of() : request.getIds(), request.getModel());
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Queue is full: the client retries the whole batch later
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get grading job progress and results")
+    public ResponseEntity<GradingJob> getJob(@PathVariable String id) {
+        return gradingJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,75 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduai.schoolmanagement.entity.GradingQueueItem;
+import com.eduai.schoolmanagement.service.GradingQueueService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/grading-queue")
+@RequiredArgsConstructor
+@Tag(name = "Grading Queue", description = "Lease-based work queue for human graders")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class GradingQueueController {
+
+    private final GradingQueueService gradingQueueService;
+
+    @PostMapping("/claim")
+    @Operation(summary = "Claim the next batch of submissions to grade")
+    public ResponseEntity<Object> claim(@RequestParam String grader,
+                                        @RequestParam(required = false) String courseCode,
+                                        @RequestParam(defaultValue = "10") int batchSize) {
+        try {
+            return ResponseEntity.ok(gradingQueueService.claim(grader, courseCode, batchSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{submissionId}/renew")
+    @Operation(summary = "Extend the lease on a claimed submission")
+    public ResponseEntity<Object> renew(@PathVariable String submissionId, @RequestParam String grader) {
+        return gradingQueueService.renew(submissionId, grader)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Lease expired or held by another grader")));
+    }
+
+    @PostMapping("/{submissionId}/release")
+    @Operation(summary = "Return a claimed submission to the queue")
+    public ResponseEntity<Object> release(@PathVariable String submissionId, @RequestParam String grader) {
+        if (gradingQueueService.release(submissionId, grader)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Lease expired or held by another grader"));
+    }
+
+    @GetMapping("/claimed")
+    @Operation(summary = "Submissions currently leased by a grader")
+    public ResponseEntity<List<GradingQueueItem>> getClaimed(@RequestParam String grader) {
+        return ResponseEntity.ok(gradingQueueService.getClaimedBy(grader));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Available and leased queue depth, optionally for one course")
+    public ResponseEntity<Map<String, Object>> getStats(@RequestParam(required = false) String courseCode) {
+        return ResponseEntity.ok(gradingQueueService.getQueueStats(courseCode));
+    }
+}
@@ -6,6 +6,7 @@ import com.eduai.schoolmanagement.service.IDGenerationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,7 +20,7 @@ import java.util.Optional;
 @RequestMapping("/id-configurations")
 @RequiredArgsConstructor
 @Tag(name = "ID Configuration Management", description = "Auto-ID generation configuration and management")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class IDConfigurationController {
 
     private final IDConfigurationRepository idConfigRepository;
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,7 +24,7 @@ import java.util.Optional;
 @RequestMapping("/invoices")
 @RequiredArgsConstructor
 @Tag(name = "Invoice Management", description = "Invoice generation and management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
@@ -32,9 +33,9 @@ public class InvoiceController {
 
     @GetMapping
     @Operation(summary = "Get all invoices")
-    public ResponseEntity<List<Invoice>> getAllInvoices() {
-        List<Invoice> invoices = invoiceService.getAllInvoices();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<Invoice>> getAllInvoices(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(invoiceService.getInvoicesPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
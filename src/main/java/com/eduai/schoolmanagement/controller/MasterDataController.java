@@ -5,6 +5,7 @@ import com.eduai.schoolmanagement.service.MasterDataService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,7 +19,7 @@ import java.util.Optional;
 @RequestMapping("/api/master-data")
 @RequiredArgsConstructor
 @Tag(name = "Master Data Management", description = "Manage grade levels, sections, departments, employment types, and semesters")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class MasterDataController {
 
     private final MasterDataService masterDataService;
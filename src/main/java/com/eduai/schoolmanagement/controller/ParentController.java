@@ -7,6 +7,7 @@ import com.eduai.schoolmanagement.service.StudentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,7 +20,7 @@ import java.util.Optional;
 @RequestMapping("/parents")
 @RequiredArgsConstructor
 @Tag(name = "Parent Management", description = "Parent management and parent-child relationship operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class ParentController {
 
     private final ParentService parentService;
@@ -27,16 +28,16 @@ public class ParentController {
 
     @GetMapping
     @Operation(summary = "Get all parents")
-    public ResponseEntity<List<Parent>> getAllParents() {
-        List<Parent> parents = parentService.getAllParents();
-        return ResponseEntity.ok(parents);
+    public ResponseEntity<List<Parent>> getAllParents(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(parentService.getParentsPage(cursor, limit));
     }
 
     @GetMapping("/active")
     @Operation(summary = "Get all active parents")
-    public ResponseEntity<List<Parent>> getAllActiveParents() {
-        List<Parent> parents = parentService.getAllActiveParents();
-        return ResponseEntity.ok(parents);
+    public ResponseEntity<List<Parent>> getAllActiveParents(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(parentService.getActiveParentsPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -33,7 +34,7 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/payments")
 @RequiredArgsConstructor
 @Tag(name = "Payment Management", description = "Payment processing and tracking operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class PaymentController {
 
     private final PaymentService paymentService;
@@ -42,9 +43,9 @@ public class PaymentController {
 
     @GetMapping
     @Operation(summary = "Get all payments")
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<Payment>> getAllPayments(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(paymentService.getPaymentsPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -5,11 +5,9 @@ import com.eduai.schoolmanagement.entity.Salary.SalaryStatus;
 import com.eduai.schoolmanagement.entity.Salary.PaymentMethod;
 import com.eduai.schoolmanagement.service.SalaryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,7 +18,7 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/salary")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class SalaryController {
 
     @Autowired
@@ -168,17 +166,16 @@ public class SalaryController {
 
     @GetMapping("/institution/{institutionId}")
     public ResponseEntity<?> getSalariesByInstitution(@PathVariable String institutionId,
-                                                     @RequestParam(defaultValue = "0") int page,
-                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") Integer limit,
                                                      @RequestParam(defaultValue = "payrollYear") String sortBy,
                                                      @RequestParam(defaultValue = "desc") String sortDir) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-
-            Page<Salary> salaries = salaryService.getSalariesByInstitution(institutionId, pageable);
-            return ResponseEntity.ok(salaries);
+            Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+            return CursorResponses.ok(salaryService.getSalariesByInstitution(
+                institutionId, sortBy, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to retrieve institution salaries", "message", e.getMessage()));
@@ -0,0 +1,45 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduai.schoolmanagement.dto.SearchHit;
+import com.eduai.schoolmanagement.service.SearchService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Type-ahead search across students, parents, teachers, employees and courses")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    @Operation(summary = "Ranked matches for a partial name, email, ID or phone number",
+               description = "types is a comma separated subset of STUDENT, PARENT, TEACHER, EMPLOYEE, COURSE")
+    public ResponseEntity<List<SearchHit>> search(@RequestParam String q,
+                                                  @RequestParam(required = false) List<String> types,
+                                                  @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.search(q, types, limit));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Reload the search index from the database")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        return ResponseEntity.ok(Map.of("indexed", searchService.rebuild()));
+    }
+}
@@ -6,8 +6,7 @@ import com.eduai.schoolmanagement.service.StudentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,16 +20,16 @@ import java.util.Optional;
 @RequestMapping("/students")
 @RequiredArgsConstructor
 @Tag(name = "Student Management", description = "Student management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class StudentController {
 
     private final StudentService studentService;
 
     @GetMapping
     @Operation(summary = "Get all students")
-    public ResponseEntity<List<Student>> getAllStudents() {
-        List<Student> students = studentService.getAllStudents();
-        return ResponseEntity.ok(students);
+    public ResponseEntity<List<Student>> getAllStudents(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(studentService.getStudentsPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -74,10 +73,9 @@ public class StudentController {
 
     @GetMapping("/search")
     @Operation(summary = "Search students by name")
-    public ResponseEntity<Page<Student>> searchStudentsByName(
-            @RequestParam String name, Pageable pageable) {
-        Page<Student> students = studentService.searchStudentsByName(name, pageable);
-        return ResponseEntity.ok(students);
+    public ResponseEntity<List<Student>> searchStudentsByName(@RequestParam String name,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(studentService.searchStudentsByName(name, cursor, limit));
     }
 
     @GetMapping("/at-risk")
@@ -0,0 +1,74 @@
+package com.eduai.schoolmanagement.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.eduai.schoolmanagement.entity.StudentImportJob;
+import com.eduai.schoolmanagement.service.StudentImportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/students/imports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Student Imports", description = "Bulk student enrollment from CSV or XLSX files")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
+public class StudentImportController {
+
+    private final StudentImportService studentImportService;
+
+    @PostMapping
+    @Operation(summary = "Queue a bulk enrollment import",
+               description = "Columns: firstName, lastName, email, grade (required), section, phone, dateOfBirth, gender, "
+                       + "address, studentId, admissionNumber, rollNumber, enrollmentDate, emergencyContact, "
+                       + "emergencyContactPhone, and parent1FirstName, parent1LastName, parent1Email, parent1Phone, "
+                       + "parent1Relationship (parent2..., and so on). Missing IDs and roll numbers are generated.")
+    public ResponseEntity<Object> createImport(@RequestParam("file") MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            StudentImportJob job = studentImportService.submit(content, file.getOriginalFilename());
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Student import upload failed for {}: {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import progress and row errors")
+    public ResponseEntity<StudentImportJob> getImport(@PathVariable String id) {
+        return studentImportService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume a failed import from its last committed batch")
+    public ResponseEntity<Object> resumeImport(@PathVariable String id) {
+        try {
+            return ResponseEntity.accepted().body(studentImportService.resume(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.eduai.schoolmanagement.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,34 +22,43 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.GradingJob;
 import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.entity.SubmissionRevision;
 import com.eduai.schoolmanagement.service.AssignmentService;
+import com.eduai.schoolmanagement.service.GradingJobService;
 import com.eduai.schoolmanagement.service.StudentService;
+import com.eduai.schoolmanagement.service.SubmissionRevisionService;
 import com.eduai.schoolmanagement.service.SubmissionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @RestController
 @RequestMapping("/submissions")
 @RequiredArgsConstructor
+@Slf4j
 @Tag(name = "Submission Management", description = "Student submission and grading operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class SubmissionController {
 
     private final SubmissionService submissionService;
     private final AssignmentService assignmentService;
     private final StudentService studentService;
+    private final GradingJobService gradingJobService;
+    private final SubmissionRevisionService submissionRevisionService;
 
     @GetMapping
     @Operation(summary = "Get all submissions")
-    public ResponseEntity<List<Submission>> getAllSubmissions() {
-        List<Submission> submissions = submissionService.getAllSubmissions();
-        return ResponseEntity.ok(submissions);
+    public ResponseEntity<List<Submission>> getAllSubmissions(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(submissionService.getSubmissionsPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -187,6 +200,14 @@ public class SubmissionController {
     public ResponseEntity<Submission> submitAssignment(@PathVariable String id) {
         try {
             Submission submission = submissionService.submitAssignment(id);
+            if (submission.getAssignment().isAiGradingEnabled()) {
+                try {
+                    gradingJobService.submit(GradingJob.TARGET_SUBMISSION, List.of(id), null);
+                } catch (IllegalStateException e) {
+                    // Still submitted; the submission stays in the pending grading list
+                    log.warn("Could not queue AI grading for submission {}: {}", id, e.getMessage());
+                }
+            }
             return ResponseEntity.ok(submission);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -194,18 +215,12 @@ public class SubmissionController {
     }
 
     @PostMapping("/{id}/ai-grade")
-    @Operation(summary = "Perform AI grading")
-    public ResponseEntity<Submission> performAIGrading(@PathVariable String id) {
-        try {
-            Optional<Submission> submissionOpt = submissionService.getSubmissionById(id);
-            if (submissionOpt.isPresent()) {
-                Submission submission = submissionService.performAIGrading(submissionOpt.get());
-                return ResponseEntity.ok(submission);
-            }
+    @Operation(summary = "Queue AI grading; progress at /grading-jobs/{id}")
+    public ResponseEntity<Object> performAIGrading(@PathVariable String id) {
+        if (submissionService.getSubmissionById(id).isEmpty()) {
             return ResponseEntity.notFound().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
         }
+        return queueAIGrading(List.of(id));
     }
 
     @PostMapping("/{id}/review-ai-grading")
@@ -248,6 +263,47 @@ public class SubmissionController {
         }
     }
 
+    @PostMapping(value = "/{id}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload a file to a draft submission")
+    public ResponseEntity<Submission> addAttachment(@PathVariable String id, @RequestParam("file") MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            Submission submission = submissionService.addAttachment(id, content,
+                file.getOriginalFilename(), file.getContentType());
+            return ResponseEntity.ok(submission);
+        } catch (IOException e) {
+            log.error("Attachment upload failed for submission {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "List draft revisions of a submission")
+    public ResponseEntity<List<SubmissionRevision>> getRevisions(@PathVariable String id) {
+        return ResponseEntity.ok(submissionRevisionService.listRevisions(id));
+    }
+
+    @GetMapping("/{id}/revisions/{revision}")
+    @Operation(summary = "Get the text of one draft revision")
+    public ResponseEntity<Map<String, Object>> getRevisionText(@PathVariable String id, @PathVariable int revision) {
+        return submissionRevisionService.getRevisionText(id, revision)
+                .map(text -> ResponseEntity.ok(Map.<String, Object>of(
+                    "submissionId", id, "revision", revision, "textContent", text)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/revisions/at")
+    @Operation(summary = "Get the draft text as it stood at a point in time")
+    public ResponseEntity<Map<String, Object>> getTextAt(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        return submissionRevisionService.getTextAt(id, timestamp)
+                .map(text -> ResponseEntity.ok(Map.<String, Object>of(
+                    "submissionId", id, "timestamp", timestamp, "textContent", text)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{id}/grade")
     @Operation(summary = "Grade submission manually")
     public ResponseEntity<Submission> gradeSubmission(
@@ -376,37 +432,9 @@ public class SubmissionController {
     }
 
     @PostMapping("/bulk-ai-grade")
-    @Operation(summary = "Perform bulk AI grading")
+    @Operation(summary = "Queue bulk AI grading; progress at /grading-jobs/{id}")
     public ResponseEntity<Object> performBulkAIGrading(@RequestBody List<String> submissionIds) {
-        try {
-            int successful = 0;
-            int failed = 0;
-
-            for (String submissionId : submissionIds) {
-                try {
-                    Optional<Submission> submissionOpt = submissionService.getSubmissionById(submissionId);
-                    if (submissionOpt.isPresent()) {
-                        submissionService.performAIGrading(submissionOpt.get());
-                        successful++;
-                    } else {
-                        failed++;
-                    }
-                } catch (Exception e) {
-                    failed++;
-                }
-            }
-
-            return ResponseEntity.ok(Map.of(
-                "total", submissionIds.size(),
-                "successful", successful,
-                "failed", failed,
-                "message", String.format("Bulk AI grading completed: %d successful, %d failed", successful, failed)
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of(
-                "error", "Bulk AI grading failed: " + e.getMessage()
-            ));
-        }
+        return queueAIGrading(submissionIds);
     }
 
     @PostMapping("/bulk-plagiarism-check")
@@ -492,4 +520,13 @@ public class SubmissionController {
             return ResponseEntity.badRequest().body(Map.of("valid", false, "message", e.getMessage()));
         }
     }
+
+    private ResponseEntity<Object> queueAIGrading(List<String> submissionIds) {
+        try {
+            GradingJob job = gradingJobService.submit(GradingJob.TARGET_SUBMISSION, submissionIds, null);
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
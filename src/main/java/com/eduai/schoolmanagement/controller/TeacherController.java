@@ -3,8 +3,7 @@ package com.eduai.schoolmanagement.controller;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -30,16 +29,16 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/teachers")
 @RequiredArgsConstructor
 @Tag(name = "Teacher Management", description = "Teacher management operations")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class TeacherController {
 
     private final TeacherService teacherService;
 
     @GetMapping
     @Operation(summary = "Get all teachers")
-    public ResponseEntity<List<Teacher>> getAllTeachers() {
-        List<Teacher> teachers = teacherService.getAllTeachers();
-        return ResponseEntity.ok(teachers);
+    public ResponseEntity<List<Teacher>> getAllTeachers(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(teacherService.getTeachersPage(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -89,10 +88,9 @@ public class TeacherController {
 
     @GetMapping("/search")
     @Operation(summary = "Search teachers by name")
-    public ResponseEntity<Page<Teacher>> searchTeachersByName(
-            @RequestParam String name, Pageable pageable) {
-        Page<Teacher> teachers = teacherService.searchTeachersByName(name, pageable);
-        return ResponseEntity.ok(teachers);
+    public ResponseEntity<List<Teacher>> searchTeachersByName(@RequestParam String name,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return CursorResponses.ok(teacherService.searchTeachersByName(name, cursor, limit));
     }
 
     @GetMapping("/high-performing")
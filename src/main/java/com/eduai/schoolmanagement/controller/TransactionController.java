@@ -7,11 +7,9 @@ import com.eduai.schoolmanagement.entity.Transaction.TransactionStatus;
 import com.eduai.schoolmanagement.entity.Transaction.ApprovalStatus;
 import com.eduai.schoolmanagement.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,7 +21,7 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/transactions")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CursorResponses.NEXT_CURSOR, HttpHeaders.LINK})
 public class TransactionController {
 
     @Autowired
@@ -131,20 +129,19 @@ public class TransactionController {
         }
     }
 
-    // Get transactions by institution (with pagination)
+    // Get transactions by institution (with cursor pagination)
     @GetMapping("/institution/{institutionId}")
     public ResponseEntity<?> getTransactionsByInstitution(@PathVariable String institutionId,
-                                                        @RequestParam(defaultValue = "0") int page,
-                                                        @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") Integer limit,
                                                         @RequestParam(defaultValue = "createdDate") String sortBy,
                                                         @RequestParam(defaultValue = "desc") String sortDir) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-
-            Page<Transaction> transactions = transactionService.getTransactionsByInstitution(institutionId, pageable);
-            return ResponseEntity.ok(transactions);
+            Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+            return CursorResponses.ok(transactionService.getTransactionsByInstitution(
+                institutionId, sortBy, direction, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to retrieve transactions", "message", e.getMessage()));
@@ -0,0 +1,15 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.util.List;
+
+import com.eduai.schoolmanagement.entity.Assignment;
+
+import lombok.Data;
+
+@Data
+public class AIGradingRequest {
+    private String itemId; // grade or submission _id
+    private String textContent;
+    private double maxScore;
+    private List<Assignment.RubricCriterion> rubric; // empty when the assignment has none
+}
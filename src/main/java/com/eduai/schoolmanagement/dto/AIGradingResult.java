@@ -0,0 +1,14 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class AIGradingResult {
+    private double score;
+    private double confidence;
+    private String feedback;
+    private Map<String, Double> rubricScores; // criterion name -> score
+    private String model;
+}
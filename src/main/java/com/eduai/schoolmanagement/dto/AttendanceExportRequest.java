@@ -0,0 +1,18 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class AttendanceExportRequest {
+    private String format = "csv"; // csv, ndjson
+    private List<String> columns; // defaults to AttendanceExportService.DEFAULT_COLUMNS
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private String studentId;
+    private String courseId;
+}
@@ -0,0 +1,18 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class AttendanceSyncItem {
+    private String operationId; // generated on the device, stable across retries
+    private String studentId;
+    private String courseCode;
+    private LocalDate date;
+    private String status; // PRESENT, ABSENT, LATE, EXCUSED
+    private LocalDateTime markedAt; // when the teacher marked it on the device; newest wins
+    private String reason;
+    private String notes;
+}
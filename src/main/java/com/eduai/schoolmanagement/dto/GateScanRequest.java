@@ -0,0 +1,14 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class GateScanRequest {
+    private String studentId;
+    private String courseCode;
+    private String direction; // IN, OUT
+    private LocalDateTime scannedAt; // defaults to the time the scan is accepted
+    private String deviceId;
+}
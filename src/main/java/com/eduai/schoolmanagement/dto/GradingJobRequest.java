@@ -0,0 +1,12 @@
+package com.eduai.schoolmanagement.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class GradingJobRequest {
+    private String targetType; // GRADE, SUBMISSION
+    private List<String> ids;
+    private String model; // defaults to app.grading.default-model
+}
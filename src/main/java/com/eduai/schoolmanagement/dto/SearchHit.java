@@ -0,0 +1,14 @@
+package com.eduai.schoolmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchHit {
+    private String type; // STUDENT, PARENT, TEACHER, EMPLOYEE, COURSE
+    private String id; // the entity's _id
+    private String title;
+    private String subtitle;
+    private int score;
+}
@@ -35,7 +35,9 @@ public class Assignment extends BaseEntity {
 
     private int submissions;
     private int graded;
-    private double averageScore;
+    private double averageScore; // scoreSum / scoreCount, in percent
+    private double scoreSum;
+    private int scoreCount;
 
     private boolean aiGradingEnabled;
     private String instructions;
@@ -0,0 +1,39 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Embedded assignment snapshot; id is the assignment's _id. Carries the due date
+ * and grading flags so submissions can be checked without loading the assignment.
+ */
+@Data
+public class AssignmentRef {
+    @NotBlank(message = "Assignment reference id is required")
+    private String id;
+
+    private String title;
+    private String type;
+    private String courseCode;
+    private double maxScore;
+    private double weight;
+    private LocalDateTime dueDate;
+    private boolean aiGradingEnabled;
+
+    public static AssignmentRef of(Assignment assignment) {
+        AssignmentRef ref = new AssignmentRef();
+        ref.setId(assignment.getId());
+        ref.setTitle(assignment.getTitle());
+        ref.setType(assignment.getType());
+        if (assignment.getCourse() != null) {
+            ref.setCourseCode(assignment.getCourse().getCourseCode());
+        }
+        ref.setMaxScore(assignment.getMaxScore());
+        ref.setWeight(assignment.getWeight());
+        ref.setDueDate(assignment.getDueDate());
+        ref.setAiGradingEnabled(assignment.isAiGradingEnabled());
+        return ref;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One stored file, keyed by the SHA-256 of its content. Submissions and
+ * assignments list these ids in their attachments; refCount is the number of
+ * such references, and the file is deleted when it drops to zero.
+ */
+@Data
+@Document(collection = "attachments")
+public class Attachment {
+
+    @Id
+    private String id; // lowercase hex SHA-256 of the content
+
+    private long size;
+    private String contentType;
+    private String originalName; // name of the first upload of this content
+
+    private int refCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime lastReferencedAt;
+}
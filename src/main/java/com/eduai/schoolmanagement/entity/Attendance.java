@@ -2,7 +2,6 @@ package com.eduai.schoolmanagement.entity;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -39,20 +38,6 @@ public class Attendance extends BaseEntity {
     private String notes;
     private String markedBy; // Teacher/Admin who marked attendance
 
-    // AI Analytics
-    private AttendanceAnalytics analytics;
-
-    @Data
-    public static class AttendanceAnalytics {
-        private double weeklyRate;
-        private double monthlyRate;
-        private double semesterRate;
-        private String absencePattern;
-        private String riskLevel; // LOW, MEDIUM, HIGH
-        private List<String> aiRecommendations;
-        private LocalDateTime lastAnalyzed;
-    }
-
     @Data
     public static class StudentInfo {
         @NotBlank(message = "Student ID is required")
@@ -0,0 +1,45 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Checkpoint for one attendance analytics run. Students are split into
+ * studentId ranges; each finished partition is recorded here so an
+ * interrupted run resumes from the remaining partitions.
+ */
+@Data
+@Document(collection = "attendance_analytics_runs")
+public class AttendanceAnalyticsRun {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String status; // RUNNING, COMPLETED, FAILED
+
+    private LocalDate asOf;
+    private LocalDate termStart;
+
+    // Partition i covers studentIds in [bounds[i], bounds[i + 1]); the first and last are open-ended
+    private List<String> partitionBounds = new ArrayList<>();
+    private List<Integer> completedPartitions = new ArrayList<>();
+    private List<Integer> failedPartitions = new ArrayList<>();
+
+    private long studentsProcessed;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastCheckpoint;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Double studentsPerSecond;
+}
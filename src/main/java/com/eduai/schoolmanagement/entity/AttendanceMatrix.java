@@ -0,0 +1,274 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Student x day attendance grid for one course and term. Each cell holds a
+ * 3-bit status code spread over three bit planes, so a 40-student class over
+ * a 180-day term fits in under 3 KB and range counts are popcounts over a
+ * handful of words.
+ */
+@Data
+@Document(collection = "attendance_matrices")
+public class AttendanceMatrix {
+
+    public static final int UNMARKED = 0;
+    public static final int PRESENT = 1;
+    public static final int ABSENT = 2;
+    public static final int LATE = 3;
+    public static final int EXCUSED = 4;
+
+    private static final int PLANES = 3;
+
+    @Id
+    private String id; // <courseCode>:<semesterCode>
+
+    private String courseCode;
+    private String semesterCode;
+    private LocalDate startDate;
+    private int days;
+    private int wordsPerPlane;
+
+    // Row order of the cells array
+    private List<String> studentIds = new ArrayList<>();
+
+    // For row r, plane p and word w: cells[(r * 3 + p) * wordsPerPlane + w]
+    private long[] cells = new long[0];
+
+    @Version
+    private Long version;
+
+    private LocalDateTime lastUpdated;
+
+    @Transient
+    private Map<String, Integer> rowIndex;
+
+    public static String idOf(String courseCode, String semesterCode) {
+        return courseCode + ":" + semesterCode;
+    }
+
+    public static AttendanceMatrix create(String courseCode, Semester semester) {
+        AttendanceMatrix matrix = new AttendanceMatrix();
+        matrix.setId(idOf(courseCode, semester.getSemesterCode()));
+        matrix.setCourseCode(courseCode);
+        matrix.setSemesterCode(semester.getSemesterCode());
+        matrix.setStartDate(semester.getStartDate());
+        matrix.setDays((int) ChronoUnit.DAYS.between(semester.getStartDate(), semester.getEndDate()) + 1);
+        matrix.setWordsPerPlane((matrix.getDays() + 63) / 64);
+        return matrix;
+    }
+
+    public static int statusCode(String status) {
+        if (status == null) {
+            return UNMARKED;
+        }
+        switch (status) {
+            case "PRESENT":
+                return PRESENT;
+            case "ABSENT":
+                return ABSENT;
+            case "LATE":
+                return LATE;
+            case "EXCUSED":
+                return EXCUSED;
+            default:
+                return UNMARKED;
+        }
+    }
+
+    public static String statusName(int code) {
+        switch (code) {
+            case PRESENT:
+                return "PRESENT";
+            case ABSENT:
+                return "ABSENT";
+            case LATE:
+                return "LATE";
+            case EXCUSED:
+                return "EXCUSED";
+            default:
+                return null;
+        }
+    }
+
+    public boolean covers(LocalDate date) {
+        return date != null && !date.isBefore(startDate) && dayIndex(date) < days;
+    }
+
+    public int dayIndex(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(startDate, date);
+    }
+
+    public LocalDate dateOf(int day) {
+        return startDate.plusDays(day);
+    }
+
+    public int getStudentCount() {
+        return studentIds.size();
+    }
+
+    /**
+     * Set the status for a student and day; a null status clears the cell
+     */
+    public void set(String studentId, LocalDate date, String status) {
+        if (!covers(date)) {
+            return;
+        }
+        int code = statusCode(status);
+        Integer row = rowOf(studentId);
+        if (row == null) {
+            if (code == UNMARKED) {
+                return;
+            }
+            row = addRow(studentId);
+        }
+        int day = dayIndex(date);
+        int word = day >>> 6;
+        long bit = 1L << (day & 63);
+        for (int plane = 0; plane < PLANES; plane++) {
+            int index = cellIndex(row, plane, word);
+            if (((code >>> plane) & 1) != 0) {
+                cells[index] |= bit;
+            } else {
+                cells[index] &= ~bit;
+            }
+        }
+    }
+
+    public String get(String studentId, LocalDate date) {
+        Integer row = rowOf(studentId);
+        if (row == null || !covers(date)) {
+            return null;
+        }
+        int day = dayIndex(date);
+        int code = 0;
+        for (int plane = 0; plane < PLANES; plane++) {
+            code |= (int) ((cells[cellIndex(row, plane, day >>> 6)] >>> (day & 63)) & 1) << plane;
+        }
+        return statusName(code);
+    }
+
+    /**
+     * Count {marked, present} cells for a row between two day indexes (inclusive)
+     */
+    public long[] countRow(int row, int fromDay, int toDay) {
+        long marked = 0;
+        long present = 0;
+        fromDay = Math.max(fromDay, 0);
+        toDay = Math.min(toDay, days - 1);
+        for (int word = fromDay >>> 6; word <= (toDay >>> 6) && fromDay <= toDay; word++) {
+            long mask = rangeMask(word, fromDay, toDay);
+            marked += Long.bitCount(markedWord(row, word) & mask);
+            present += Long.bitCount(presentWord(row, word) & mask);
+        }
+        return new long[] { marked, present };
+    }
+
+    /**
+     * Count {marked, present} cells over all rows (or one row) for a day range
+     */
+    public long[] count(String studentId, int fromDay, int toDay) {
+        long[] total = new long[2];
+        for (int row : rows(studentId)) {
+            long[] counts = countRow(row, fromDay, toDay);
+            total[0] += counts[0];
+            total[1] += counts[1];
+        }
+        return total;
+    }
+
+    /**
+     * Longest and trailing runs of consecutive absences, skipping unmarked days
+     * (weekends, holidays), for one row: {longestRun, currentRun}
+     */
+    public int[] absenceRuns(int row) {
+        int run = 0;
+        int longest = 0;
+        for (int word = 0; word < wordsPerPlane; word++) {
+            long marked = markedWord(row, word);
+            long absent = absentWord(row, word);
+            while (marked != 0) {
+                long bit = Long.lowestOneBit(marked);
+                if ((absent & bit) != 0) {
+                    run++;
+                    longest = Math.max(longest, run);
+                } else {
+                    run = 0;
+                }
+                marked &= marked - 1;
+            }
+        }
+        return new int[] { longest, run };
+    }
+
+    private List<Integer> rows(String studentId) {
+        if (studentId != null) {
+            Integer row = rowOf(studentId);
+            return row == null ? List.of() : List.of(row);
+        }
+        List<Integer> rows = new ArrayList<>(studentIds.size());
+        for (int row = 0; row < studentIds.size(); row++) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Integer rowOf(String studentId) {
+        if (rowIndex == null) {
+            rowIndex = new HashMap<>();
+            for (int row = 0; row < studentIds.size(); row++) {
+                rowIndex.put(studentIds.get(row), row);
+            }
+        }
+        return rowIndex.get(studentId);
+    }
+
+    private int addRow(String studentId) {
+        int row = studentIds.size();
+        studentIds.add(studentId);
+        rowIndex.put(studentId, row);
+        cells = Arrays.copyOf(cells, (row + 1) * PLANES * wordsPerPlane);
+        return row;
+    }
+
+    private int cellIndex(int row, int plane, int word) {
+        return (row * PLANES + plane) * wordsPerPlane + word;
+    }
+
+    private long planeWord(int row, int plane, int word) {
+        return cells[cellIndex(row, plane, word)];
+    }
+
+    private long markedWord(int row, int word) {
+        return planeWord(row, 0, word) | planeWord(row, 1, word) | planeWord(row, 2, word);
+    }
+
+    private long presentWord(int row, int word) {
+        return planeWord(row, 0, word) & ~planeWord(row, 1, word) & ~planeWord(row, 2, word);
+    }
+
+    private long absentWord(int row, int word) {
+        return ~planeWord(row, 0, word) & planeWord(row, 1, word) & ~planeWord(row, 2, word);
+    }
+
+    private static long rangeMask(int word, int fromDay, int toDay) {
+        int low = Math.max(fromDay - (word << 6), 0);
+        int high = Math.min(toDay - (word << 6), 63);
+        long upTo = high == 63 ? -1L : (1L << (high + 1)) - 1;
+        return upTo & (-1L << low);
+    }
+}
@@ -0,0 +1,68 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Pre-aggregated attendance status counters for one student, course,
+ * student/course pair or calendar day. Maintained with $inc on every
+ * attendance write so rates and summaries never touch raw records.
+ */
+@Data
+@Document(collection = "attendance_rollups")
+@CompoundIndexes({
+    @CompoundIndex(name = "scope_course_idx", def = "{'scope': 1, 'courseCode': 1}"),
+    @CompoundIndex(name = "scope_date_idx", def = "{'scope': 1, 'date': 1}")
+})
+public class AttendanceRollup {
+
+    public static final String SCOPE_STUDENT = "STUDENT";
+    public static final String SCOPE_COURSE = "COURSE";
+    public static final String SCOPE_STUDENT_COURSE = "STUDENT_COURSE";
+    public static final String SCOPE_DATE = "DATE";
+
+    @Id
+    private String id; // <scope>:<key>, see idOf
+
+    private String scope; // STUDENT, COURSE, STUDENT_COURSE, DATE
+    private String studentId;
+    private String courseCode;
+    private LocalDate date;
+
+    private Map<String, Long> statusCounts = new HashMap<>(); // PRESENT, ABSENT, LATE, EXCUSED
+    private long total;
+
+    private LocalDateTime lastUpdated;
+
+    public static String idOf(String scope, String studentId, String courseCode, LocalDate date) {
+        switch (scope) {
+            case SCOPE_STUDENT:
+                return scope + ":" + studentId;
+            case SCOPE_COURSE:
+                return scope + ":" + courseCode;
+            case SCOPE_STUDENT_COURSE:
+                return scope + ":" + studentId + "|" + courseCode;
+            case SCOPE_DATE:
+                return scope + ":" + date;
+            default:
+                throw new IllegalArgumentException("Unknown rollup scope: " + scope);
+        }
+    }
+
+    public long getCount(String status) {
+        return statusCounts == null ? 0 : statusCounts.getOrDefault(status, 0L);
+    }
+
+    public double getAttendanceRate() {
+        return total <= 0 ? 0.0 : (double) getCount("PRESENT") / total * 100;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eduai.schoolmanagement.entity;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Embedded course snapshot; id is the course's _id
+ */
+@Data
+public class CourseRef {
+    @NotBlank(message = "Course reference id is required")
+    private String id;
+
+    private String courseCode;
+    private String courseName;
+    private String department;
+    private String semester;
+    private int credits;
+
+    public static CourseRef of(Course course) {
+        CourseRef ref = new CourseRef();
+        ref.setId(course.getId());
+        ref.setCourseCode(course.getCourseCode());
+        ref.setCourseName(course.getCourseName());
+        ref.setDepartment(course.getDepartment());
+        ref.setSemester(course.getSemester());
+        ref.setCredits(course.getCredits());
+        return ref;
+    }
+}
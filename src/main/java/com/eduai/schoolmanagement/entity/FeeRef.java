@@ -0,0 +1,30 @@
+package com.eduai.schoolmanagement.entity;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Embedded fee snapshot; id is the fee's _id
+ */
+@Data
+public class FeeRef {
+    @NotBlank(message = "Fee reference id is required")
+    private String id;
+
+    private String feeName;
+    private String feeType;
+    private String category;
+    private String academicYear;
+    private Double amount;
+
+    public static FeeRef of(Fee fee) {
+        FeeRef ref = new FeeRef();
+        ref.setId(fee.getId());
+        ref.setFeeName(fee.getFeeName());
+        ref.setFeeType(fee.getFeeType());
+        ref.setCategory(fee.getCategory());
+        ref.setAcademicYear(fee.getAcademicYear());
+        ref.setAmount(fee.getAmount());
+        return ref;
+    }
+}
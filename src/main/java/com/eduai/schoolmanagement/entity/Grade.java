@@ -3,9 +3,9 @@ package com.eduai.schoolmanagement.entity;
 import java.time.LocalDateTime;
 import java.util.Map;
 
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,17 +15,17 @@ import lombok.EqualsAndHashCode;
 @Document(collection = "grades")
 public class Grade extends BaseEntity {
 
-    @DBRef
+    @Valid
     @NotNull(message = "Student reference is required")
-    private Student student;
+    private StudentRef student;
 
-    @DBRef
+    @Valid
     @NotNull(message = "Course reference is required")
-    private Course course;
+    private CourseRef course;
 
-    @DBRef
+    @Valid
     @NotNull(message = "Assignment reference is required")
-    private Assignment assignment;
+    private AssignmentRef assignment;
 
     private double score;
     private double maxScore;
@@ -0,0 +1,47 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Weighted running sums of one student's graded work in one course.
+ * Maintained with $inc on every grade write so GPA never re-reads grades.
+ * studentId and courseId are the referenced documents' _ids.
+ */
+@Data
+@Document(collection = "grade_rollups")
+@CompoundIndexes({
+    @CompoundIndex(name = "student_idx", def = "{'studentId': 1}"),
+    @CompoundIndex(name = "course_idx", def = "{'courseId': 1}")
+})
+public class GradeRollup {
+
+    @Id
+    private String id; // <studentId>|<courseId>, see idOf
+
+    private String studentId;
+    private String courseId;
+    private String courseCode;
+    private String gradeLevel; // the student's grade, for grade-level ranking
+    private int credits;
+
+    private double weightedPercentage; // sum of percentage x assignment weight
+    private double totalWeight;
+    private long gradeCount;
+
+    private LocalDateTime lastUpdated;
+
+    public static String idOf(String studentId, String courseId) {
+        return studentId + "|" + courseId;
+    }
+
+    public double getAveragePercentage() {
+        return gradeCount <= 0 || totalWeight <= 0 ? 0.0 : weightedPercentage / totalWeight;
+    }
+}
@@ -0,0 +1,64 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One batch of AI gradings. Workers record each finished item in results and
+ * bump the counters atomically, so the document is the job's live progress.
+ */
+@Data
+@Document(collection = "grading_jobs")
+public class GradingJob {
+
+    public static final String TARGET_GRADE = "GRADE";
+    public static final String TARGET_SUBMISSION = "SUBMISSION";
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+
+    public static final String ITEM_GRADED = "GRADED";
+    public static final String ITEM_FAILED = "FAILED";
+    public static final String ITEM_NOT_FOUND = "NOT_FOUND";
+
+    @Id
+    private String id;
+
+    private String targetType; // GRADE, SUBMISSION
+    private String model;
+
+    @Indexed
+    private String status; // QUEUED, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS
+
+    private List<String> itemIds = new ArrayList<>();
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int retries; // extra model calls beyond the first attempt, across all items
+    private List<ItemResult> results = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+
+    @Data
+    public static class ItemResult {
+        private String itemId;
+        private String status; // GRADED, FAILED, NOT_FOUND
+        private Double score;
+        private Double confidence;
+        private int attempts;
+        private String error;
+        private LocalDateTime finishedAt;
+    }
+}
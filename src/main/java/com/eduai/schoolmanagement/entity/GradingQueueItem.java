@@ -0,0 +1,38 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One submission waiting for a human grader; id is the submission's _id. An
+ * item is claimable while leaseExpiresAt is in the past, so a lease a grader
+ * abandons puts the item back in the queue when it runs out.
+ */
+@Data
+@Document(collection = "grading_queue")
+public class GradingQueueItem {
+
+    @Id
+    private String id;
+
+    private String assignmentId;
+    private String assignmentTitle;
+    private String courseCode;
+    private String studentId;
+    private String studentName;
+
+    // Claim order: earliest due date first, on-time work ahead of late work, then first submitted
+    private LocalDateTime dueDate; // submission time when the assignment has no due date
+    private boolean late;
+    private LocalDateTime submittedAt;
+
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private int claimCount;
+
+    private LocalDateTime enqueuedAt;
+}
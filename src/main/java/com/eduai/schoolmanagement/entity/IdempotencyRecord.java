@@ -0,0 +1,34 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A client-supplied operation id that has already been seen. Records expire
+ * through a TTL index on createdAt (see IndexConfiguration).
+ */
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Id
+    private String id; // <scope>:<operationId>
+
+    private String scope;
+    private String operationId;
+    private String status; // PENDING, COMPLETED
+    private String result;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public static String idOf(String scope, String operationId) {
+        return scope + ":" + operationId;
+    }
+}
@@ -4,9 +4,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -20,9 +20,9 @@ public class Invoice extends BaseEntity {
     @NotBlank(message = "Invoice number is required")
     private String invoiceNumber;
 
-    @DBRef
+    @Valid
     @NotNull(message = "Student reference is required")
-    private Student student;
+    private StudentRef student;
 
     // Invoice details
     private String academicYear;
@@ -62,8 +62,7 @@ public class Invoice extends BaseEntity {
 
     @Data
     public static class InvoiceItem {
-        @DBRef
-        private Fee fee;
+        private FeeRef fee;
 
         private String description;
         private Integer quantity;
@@ -3,7 +3,6 @@ package com.eduai.schoolmanagement.entity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
@@ -15,15 +14,13 @@ import java.util.ArrayList;
 @EqualsAndHashCode(callSuper = true)
 @Document(collection = "parents")
 public class Parent extends BaseEntity {
-    @DBRef
-    private User user;
+    private UserRef user;
 
     @NotBlank(message = "Parent ID is required")
     @Indexed(unique = true)
     private String parentId;
 
-    @DBRef
-    private List<Student> children = new ArrayList<>();
+    private List<StudentRef> children = new ArrayList<>();
 
     private String relationship; // Father, Mother, Guardian, etc.
     private String occupation;
@@ -50,15 +47,15 @@ public class Parent extends BaseEntity {
         if (children == null) {
             children = new ArrayList<>();
         }
-        if (!children.contains(student)) {
-            children.add(student);
+        if (children.stream().noneMatch(child -> student.getId().equals(child.getId()))) {
+            children.add(StudentRef.of(student));
         }
     }
 
     // Remove child from parent
     public void removeChild(Student student) {
         if (children != null) {
-            children.remove(student);
+            children.removeIf(child -> student.getId().equals(child.getId()));
         }
     }
 }
@@ -4,9 +4,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -17,13 +17,13 @@ import lombok.EqualsAndHashCode;
 @Document(collection = "payments")
 public class Payment extends BaseEntity {
 
-    @DBRef
+    @Valid
     @NotNull(message = "Student reference is required")
-    private Student student;
+    private StudentRef student;
 
-    @DBRef
+    @Valid
     @NotNull(message = "Fee reference is required")
-    private Fee fee;
+    private FeeRef fee;
 
     // Payment details
     @NotNull(message = "Payment amount is required")
@@ -17,7 +17,9 @@ import java.util.HashMap;
 @CompoundIndexes({
     @CompoundIndex(name = "employee_payroll_idx", def = "{'employeeId': 1, 'payrollMonth': 1, 'payrollYear': 1}"),
     @CompoundIndex(name = "institution_payroll_idx", def = "{'institutionId': 1, 'payrollMonth': 1, 'payrollYear': 1}"),
-    @CompoundIndex(name = "department_payroll_idx", def = "{'departmentId': 1, 'payrollMonth': 1, 'payrollYear': 1}")
+    @CompoundIndex(name = "department_payroll_idx", def = "{'departmentId': 1, 'payrollMonth': 1, 'payrollYear': 1}"),
+    @CompoundIndex(name = "institution_year_cursor_idx", def = "{'institutionId': 1, 'payrollYear': -1, '_id': -1}"),
+    @CompoundIndex(name = "institution_date_cursor_idx", def = "{'institutionId': 1, 'payrollDate': -1, '_id': -1}")
 })
 public class Salary {
 
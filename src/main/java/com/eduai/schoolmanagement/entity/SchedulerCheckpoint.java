@@ -0,0 +1,24 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * How far an in-process scheduler has fired; id names the scheduler. After a
+ * restart everything due between firedThrough and now is fired once on the
+ * first tick instead of being lost or repeated.
+ */
+@Data
+@Document(collection = "scheduler_checkpoints")
+public class SchedulerCheckpoint {
+
+    @Id
+    private String id;
+
+    private LocalDateTime firedThrough;
+    private LocalDateTime updatedAt;
+}
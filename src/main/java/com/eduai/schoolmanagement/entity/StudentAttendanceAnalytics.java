@@ -0,0 +1,41 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Nightly attendance analytics for one student, written once per student by
+ * the analytics job instead of onto every attendance record. A rate is null
+ * when its window holds no attendance records.
+ */
+@Data
+@Document(collection = "student_attendance_analytics")
+@CompoundIndexes({
+    @CompoundIndex(name = "risk_level_idx", def = "{'riskLevel': 1}")
+})
+public class StudentAttendanceAnalytics {
+
+    @Id
+    private String studentId;
+
+    private Attendance.StudentInfo student; // snapshot from the latest record in the window
+
+    private Double weeklyRate;
+    private Double monthlyRate;
+    private Double semesterRate;
+    private String absencePattern;
+    private String riskLevel; // LOW, MEDIUM, HIGH
+    private List<String> aiRecommendations;
+
+    private LocalDate asOf;
+    private String runId;
+    private LocalDateTime lastAnalyzed;
+}
@@ -0,0 +1,63 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One bulk enrollment import. The uploaded file is kept on disk until the job
+ * completes; rowsProcessed is the last file row whose batch was committed, so
+ * an interrupted or failed import resumes with the rows after it.
+ */
+@Data
+@Document(collection = "student_import_jobs")
+public class StudentImportJob {
+
+    public static final String FORMAT_CSV = "CSV";
+    public static final String FORMAT_XLSX = "XLSX";
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    private String fileName;
+    private String format; // CSV, XLSX
+    private String filePath;
+
+    @Indexed
+    private String status; // QUEUED, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS, FAILED
+
+    private int rowsProcessed; // file row number, the header being row 1
+    private int imported;
+    private int failed;
+    private int parentsCreated;
+    private int parentsLinked;
+    private int accessCodes;
+    private List<RowError> errors = new ArrayList<>(); // capped at app.students.import.max-errors
+    private String error; // why the job itself failed
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastCheckpoint;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+
+    @Data
+    public static class RowError {
+        private int row;
+        private String email;
+        private String message;
+        private boolean studentImported; // true when only a parent or access code failed
+    }
+}
@@ -0,0 +1,35 @@
+package com.eduai.schoolmanagement.entity;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Embedded student snapshot for documents that point at a student. The id is the
+ * student's _id, so the full document can still be loaded through ReferenceResolver.
+ */
+@Data
+public class StudentRef {
+    @NotBlank(message = "Student reference id is required")
+    private String id;
+
+    private String studentId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String grade;
+    private String section;
+
+    public static StudentRef of(Student student) {
+        StudentRef ref = new StudentRef();
+        ref.setId(student.getId());
+        ref.setStudentId(student.getStudentId());
+        if (student.getUser() != null) {
+            ref.setFirstName(student.getUser().getFirstName());
+            ref.setLastName(student.getUser().getLastName());
+            ref.setEmail(student.getUser().getEmail());
+        }
+        ref.setGrade(student.getGrade());
+        ref.setSection(student.getSection());
+        return ref;
+    }
+}
@@ -4,9 +4,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,13 +16,13 @@ import lombok.EqualsAndHashCode;
 @Document(collection = "submissions")
 public class Submission extends BaseEntity {
 
-    @DBRef
+    @Valid
     @NotNull(message = "Assignment reference is required")
-    private Assignment assignment;
+    private AssignmentRef assignment;
 
-    @DBRef
+    @Valid
     @NotNull(message = "Student reference is required")
-    private Student student;
+    private StudentRef student;
 
     // Submission content
     private String textContent;
@@ -88,6 +88,15 @@ public class Submission extends BaseEntity {
         private Double similarityPercentage;
         private String matchedText;
         private String sourceType; // WEB, STUDENT_PAPER, JOURNAL, etc.
+        private String sourceSubmissionId; // for STUDENT_PAPER matches
+        private String sourceStudentId;
+        private List<MatchSpan> spans; // matching ranges of this submission's text
+    }
+
+    @Data
+    public static class MatchSpan {
+        private int start; // character offsets into textContent, end exclusive
+        private int end;
     }
 
     @Data
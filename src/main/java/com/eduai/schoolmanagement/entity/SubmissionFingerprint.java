@@ -0,0 +1,38 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * MinHash signature of one submission's text; id is the submission's _id.
+ * bandKeys is the LSH index: submissions sharing a band key within the same
+ * assignment or course are the only ones compared in a plagiarism check.
+ */
+@Data
+@Document(collection = "submission_fingerprints")
+@CompoundIndexes({
+    @CompoundIndex(name = "assignment_band_idx", def = "{'assignmentId': 1, 'bandKeys': 1}"),
+    @CompoundIndex(name = "course_band_idx", def = "{'courseCode': 1, 'bandKeys': 1}")
+})
+public class SubmissionFingerprint {
+
+    @Id
+    private String id;
+
+    private String assignmentId;
+    private String courseCode;
+    private String studentId; // Student _id; a student's own attempts never match each other
+
+    private List<Integer> signature;
+    private List<Long> bandKeys;
+    private int shingleCount;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,42 @@
+package com.eduai.schoolmanagement.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One saved state of a submission's text. SNAPSHOT revisions hold the whole
+ * text deflated; DELTA revisions hold copy/insert instructions against the
+ * SNAPSHOT named by baseRevision, so any revision is rebuilt from at most two
+ * documents.
+ */
+@Data
+@Document(collection = "submission_revisions")
+@CompoundIndexes({
+    @CompoundIndex(name = "submission_revision_idx", def = "{'submissionId': 1, 'revision': 1}", unique = true),
+    @CompoundIndex(name = "submission_created_idx", def = "{'submissionId': 1, 'createdAt': 1}")
+})
+public class SubmissionRevision {
+
+    public static final String SNAPSHOT = "SNAPSHOT";
+    public static final String DELTA = "DELTA";
+
+    @Id
+    private String id;
+
+    private String submissionId;
+    private int revision;
+    private String type; // SNAPSHOT, DELTA
+    private int baseRevision; // Snapshot a delta applies to; a snapshot's own revision
+
+    private byte[] data;
+    private int textLength;
+    private int storedBytes;
+
+    private LocalDateTime createdAt;
+}
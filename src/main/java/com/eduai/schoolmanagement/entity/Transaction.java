@@ -2,6 +2,8 @@ package com.eduai.schoolmanagement.entity;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
@@ -10,6 +12,10 @@ import java.util.List;
 import java.util.ArrayList;
 
 @Document(collection = "transactions")
+@CompoundIndexes({
+    @CompoundIndex(name = "institution_created_idx", def = "{'institutionId': 1, 'createdDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "institution_transaction_date_idx", def = "{'institutionId': 1, 'transactionDate': -1, '_id': -1}")
+})
 public class Transaction {
 
     @Id
@@ -0,0 +1,26 @@
+package com.eduai.schoolmanagement.entity;
+
+import lombok.Data;
+
+/**
+ * Embedded user snapshot; id is the user's _id (null while the account has not been saved)
+ */
+@Data
+public class UserRef {
+    private String id;
+
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+
+    public static UserRef of(User user) {
+        UserRef ref = new UserRef();
+        ref.setId(user.getId());
+        ref.setFirstName(user.getFirstName());
+        ref.setLastName(user.getLastName());
+        ref.setEmail(user.getEmail());
+        ref.setPhone(user.getPhone());
+        return ref;
+    }
+}
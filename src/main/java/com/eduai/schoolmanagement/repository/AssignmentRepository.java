@@ -71,8 +71,8 @@ public interface AssignmentRepository extends MongoRepository<Assignment, String
     @Query("{'submissions': {$gt: 0}}")
     List<Assignment> findAssignmentsWithSubmissions();
 
-    // Find assignments pending grading
-    @Query("{'submissions': {$gt: 0}, 'graded': {$lt: '$submissions'}}")
+    // Find assignments pending grading (comparing two fields needs $expr)
+    @Query("{'submissions': {$gt: 0}, $expr: {$lt: ['$graded', '$submissions']}}")
     List<Assignment> findAssignmentsPendingGrading();
 
     // Find assignments by weight range
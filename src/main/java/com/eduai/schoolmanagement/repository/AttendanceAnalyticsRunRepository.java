@@ -0,0 +1,14 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.AttendanceAnalyticsRun;
+
+@Repository
+public interface AttendanceAnalyticsRunRepository extends MongoRepository<AttendanceAnalyticsRun, String> {
+
+    Optional<AttendanceAnalyticsRun> findFirstByOrderByStartedAtDesc();
+}
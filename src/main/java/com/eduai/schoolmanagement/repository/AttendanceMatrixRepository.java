@@ -0,0 +1,10 @@
+package com.eduai.schoolmanagement.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.AttendanceMatrix;
+
+@Repository
+public interface AttendanceMatrixRepository extends MongoRepository<AttendanceMatrix, String> {
+}
@@ -1,6 +1,7 @@
 package com.eduai.schoolmanagement.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -35,14 +36,15 @@ public interface AttendanceRepository extends MongoRepository<Attendance, String
     @Query("{'course.courseCode': ?0, 'date': ?1}")
     List<Attendance> findByCourseCourseCodeAndDate(String courseCode, LocalDate date);
 
+    @Query(value = "{'course.courseCode': ?0, 'date': ?1, 'student.studentId': {$in: ?2}}",
+           fields = "{'student.studentId': 1, 'status': 1}")
+    List<Attendance> findStatusesByCourseCodeAndDateAndStudentIdIn(String courseCode, LocalDate date, Collection<String> studentIds);
+
     List<Attendance> findByStatus(String status);
 
     @Query("{'date': {$gte: ?0, $lte: ?1}}")
     List<Attendance> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
-    @Query("{'analytics.riskLevel': ?0}")
-    List<Attendance> findByRiskLevel(String riskLevel);
-
     @Query("{'student.studentId': ?0, 'status': ?1}")
     long countByStudentStudentIdAndStatus(String studentId, String status);
 
@@ -0,0 +1,20 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.AttendanceRollup;
+
+@Repository
+public interface AttendanceRollupRepository extends MongoRepository<AttendanceRollup, String> {
+
+    @Query(value = "{'scope': 'STUDENT_COURSE', 'courseCode': ?0, 'total': {$gt: 0}}", count = true)
+    long countStudentsByCourseCode(String courseCode);
+
+    @Query("{'scope': 'DATE', 'date': {$gte: ?0, $lte: ?1}}")
+    List<AttendanceRollup> findDailyRollupsBetween(LocalDate startDate, LocalDate endDate);
+}
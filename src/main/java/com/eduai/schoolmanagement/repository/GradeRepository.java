@@ -7,23 +7,20 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import com.eduai.schoolmanagement.entity.Assignment;
-import com.eduai.schoolmanagement.entity.Course;
 import com.eduai.schoolmanagement.entity.Grade;
-import com.eduai.schoolmanagement.entity.Student;
 
 @Repository
 public interface GradeRepository extends MongoRepository<Grade, String> {
 
-    List<Grade> findByStudent(Student student);
+    List<Grade> findByStudentId(String studentId);
 
-    List<Grade> findByCourse(Course course);
+    List<Grade> findByCourseId(String courseId);
 
-    List<Grade> findByAssignment(Assignment assignment);
+    List<Grade> findByAssignmentId(String assignmentId);
 
-    Optional<Grade> findByStudentAndAssignment(Student student, Assignment assignment);
+    Optional<Grade> findByStudentIdAndAssignmentId(String studentId, String assignmentId);
 
-    List<Grade> findByStudentAndCourse(Student student, Course course);
+    List<Grade> findByStudentIdAndCourseId(String studentId, String courseId);
 
     List<Grade> findByStatus(String status);
 
@@ -36,7 +33,7 @@ public interface GradeRepository extends MongoRepository<Grade, String> {
     @Query("{'percentage': {$gte: ?0, $lte: ?1}}")
     List<Grade> findByPercentageBetween(double minPercentage, double maxPercentage);
 
-    @Query("{'student': ?0}")
+    @Query("{'student.studentId': ?0}")
     List<Grade> findGradesByStudentId(String studentId);
 
     double countByStatus(String status);
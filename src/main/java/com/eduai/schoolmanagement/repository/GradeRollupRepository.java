@@ -0,0 +1,17 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.GradeRollup;
+
+@Repository
+public interface GradeRollupRepository extends MongoRepository<GradeRollup, String> {
+
+    List<GradeRollup> findByStudentId(String studentId);
+
+    List<GradeRollup> findByStudentIdIn(Collection<String> studentIds);
+}
@@ -0,0 +1,15 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.GradingQueueItem;
+
+@Repository
+public interface GradingQueueItemRepository extends MongoRepository<GradingQueueItem, String> {
+
+    List<GradingQueueItem> findByLeaseOwnerAndLeaseExpiresAtAfter(String leaseOwner, LocalDateTime now);
+}
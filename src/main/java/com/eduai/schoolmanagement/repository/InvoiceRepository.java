@@ -10,14 +10,13 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.eduai.schoolmanagement.entity.Invoice;
-import com.eduai.schoolmanagement.entity.Student;
 
 @Repository
 public interface InvoiceRepository extends MongoRepository<Invoice, String> {
 
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
-    List<Invoice> findByStudent(Student student);
+    List<Invoice> findByStudentId(String studentId);
 
     List<Invoice> findByStatus(String status);
 
@@ -39,17 +38,17 @@ public interface InvoiceRepository extends MongoRepository<Invoice, String> {
     @Query("{'dueDate': {$lt: ?0}, 'paymentStatus': {$in: ['UNPAID', 'PARTIAL']}}")
     List<Invoice> findOverdueInvoices(LocalDate currentDate);
 
-    @Query("{'student': ?0, 'academicYear': ?1}")
-    List<Invoice> findByStudentAndAcademicYear(Student student, String academicYear);
+    @Query("{'student.id': ?0, 'academicYear': ?1}")
+    List<Invoice> findByStudentAndAcademicYear(String studentId, String academicYear);
 
-    @Query("{'student': ?0, 'paymentStatus': 'UNPAID'}")
-    List<Invoice> findUnpaidInvoicesByStudent(Student student);
+    @Query("{'student.id': ?0, 'paymentStatus': 'UNPAID'}")
+    List<Invoice> findUnpaidInvoicesByStudent(String studentId);
 
-    @Query("{'student': ?0, 'paymentStatus': 'PARTIAL'}")
-    List<Invoice> findPartiallyPaidInvoicesByStudent(Student student);
+    @Query("{'student.id': ?0, 'paymentStatus': 'PARTIAL'}")
+    List<Invoice> findPartiallyPaidInvoicesByStudent(String studentId);
 
-    @Query("{'student': ?0, 'paymentStatus': 'PAID'}")
-    List<Invoice> findPaidInvoicesByStudent(Student student);
+    @Query("{'student.id': ?0, 'paymentStatus': 'PAID'}")
+    List<Invoice> findPaidInvoicesByStudent(String studentId);
 
     @Query("{'emailSent': false, 'status': 'SENT'}")
     List<Invoice> findInvoicesPendingEmailNotification();
@@ -1,8 +1,6 @@
 package com.eduai.schoolmanagement.repository;
 
 import com.eduai.schoolmanagement.entity.Parent;
-import com.eduai.schoolmanagement.entity.Student;
-import com.eduai.schoolmanagement.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,15 +13,13 @@ public interface ParentRepository extends MongoRepository<Parent, String> {
 
     Optional<Parent> findByParentId(String parentId);
 
-    Optional<Parent> findByUser(User user);
+    Optional<Parent> findByUserId(String userId);
 
     Optional<Parent> findByUserEmail(String email);
 
     List<Parent> findByIsActiveTrue();
 
-    List<Parent> findByChildrenContaining(Student student);
-
-    @Query("{ 'children._id': ?0 }")
+    @Query("{ 'children.id': ?0 }")
     List<Parent> findParentsByChildId(String childId);
 
     @Query("{ 'children.studentId': ?0 }")
@@ -32,7 +28,7 @@ public interface ParentRepository extends MongoRepository<Parent, String> {
     @Query("{ 'user.email': ?0, 'isActive': true }")
     Optional<Parent> findActiveParentByEmail(String email);
 
-    @Query("{ 'isPrimary': true, 'children._id': ?0 }")
+    @Query("{ 'isPrimary': true, 'children.id': ?0 }")
     Optional<Parent> findPrimaryParentByChildId(String childId);
 
     List<Parent> findByCanMakePaymentsTrue();
@@ -8,16 +8,14 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import com.eduai.schoolmanagement.entity.Fee;
 import com.eduai.schoolmanagement.entity.Payment;
-import com.eduai.schoolmanagement.entity.Student;
 
 @Repository
 public interface PaymentRepository extends MongoRepository<Payment, String> {
 
-    List<Payment> findByStudent(Student student);
+    List<Payment> findByStudentId(String studentId);
 
-    List<Payment> findByFee(Fee fee);
+    List<Payment> findByFeeId(String feeId);
 
     List<Payment> findByStatus(String status);
 
@@ -38,11 +36,11 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
     @Query("{'dueDate': {$lt: ?0}, 'status': {$in: ['PENDING', 'FAILED']}}")
     List<Payment> findOverduePayments(LocalDateTime currentDate);
 
-    @Query("{'student': ?0, 'status': 'COMPLETED'}")
-    List<Payment> findCompletedPaymentsByStudent(Student student);
+    @Query("{'student.id': ?0, 'status': 'COMPLETED'}")
+    List<Payment> findCompletedPaymentsByStudent(String studentId);
 
-    @Query("{'student': ?0, 'status': {$in: ['PENDING', 'FAILED']}}")
-    List<Payment> findPendingPaymentsByStudent(Student student);
+    @Query("{'student.id': ?0, 'status': {$in: ['PENDING', 'FAILED']}}")
+    List<Payment> findPendingPaymentsByStudent(String studentId);
 
     @Query("{'fee.feeType': ?0}")
     List<Payment> findByFeeType(String feeType);
@@ -70,8 +68,8 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
     long countPendingPayments();
 
     // Student-specific queries
-    @Query("{'student': ?0, 'fee': ?1}")
-    Optional<Payment> findByStudentAndFee(Student student, Fee fee);
+    @Query("{'student.id': ?0, 'fee.id': ?1}")
+    Optional<Payment> findByStudentAndFee(String studentId, String feeId);
 
     @Query("{'student.studentId': ?0, 'status': 'COMPLETED'}")
     List<Payment> findStudentCompletedPayments(String studentId);
@@ -0,0 +1,14 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.StudentAttendanceAnalytics;
+
+@Repository
+public interface StudentAttendanceAnalyticsRepository extends MongoRepository<StudentAttendanceAnalytics, String> {
+
+    List<StudentAttendanceAnalytics> findByRiskLevel(String riskLevel);
+}
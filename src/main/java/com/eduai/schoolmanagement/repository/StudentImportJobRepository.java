@@ -0,0 +1,15 @@
+package com.eduai.schoolmanagement.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduai.schoolmanagement.entity.StudentImportJob;
+
+@Repository
+public interface StudentImportJobRepository extends MongoRepository<StudentImportJob, String> {
+
+    List<StudentImportJob> findByStatusIn(Collection<String> statuses);
+}
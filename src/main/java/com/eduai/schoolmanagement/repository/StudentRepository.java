@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,10 @@ public interface StudentRepository extends MongoRepository<Student, String> {
     @Query("{'user.lastName': {$regex: ?0, $options: 'i'}}")
     Page<Student> findByLastNameContainingIgnoreCase(String lastName, Pageable pageable);
 
+    @Query(value = "{'studentId': {$in: ?0}}",
+           fields = "{'studentId': 1, 'user.firstName': 1, 'user.lastName': 1, 'user.email': 1, 'grade': 1, 'section': 1, 'rollNumber': 1}")
+    List<Student> findSnapshotsByStudentIdIn(Collection<String> studentIds);
+
     List<Student> findByAcademicStatus(String academicStatus);
 
     @Query("{'aiInsights.riskScore': {$gte: ?0}}")
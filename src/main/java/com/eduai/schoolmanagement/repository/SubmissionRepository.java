@@ -8,25 +8,20 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import com.eduai.schoolmanagement.entity.Assignment;
-import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.entity.Submission;
 
 @Repository
 public interface SubmissionRepository extends MongoRepository<Submission, String> {
 
-    // Find by assignment
-    List<Submission> findByAssignment(Assignment assignment);
-
     // Find by student
-    List<Submission> findByStudent(Student student);
+    List<Submission> findByStudentId(String studentId);
 
     // Find by assignment and student
-    Optional<Submission> findByAssignmentAndStudent(Assignment assignment, Student student);
+    Optional<Submission> findByAssignmentIdAndStudentId(String assignmentId, String studentId);
 
     // Find latest submission by assignment and student
-    @Query("{'assignment': ?0, 'student': ?1, 'latestAttempt': true}")
-    Optional<Submission> findLatestSubmissionByAssignmentAndStudent(Assignment assignment, Student student);
+    @Query("{'assignment.id': ?0, 'student.id': ?1, 'latestAttempt': true}")
+    Optional<Submission> findLatestSubmissionByAssignmentAndStudent(String assignmentId, String studentId);
 
     // Find by status
     List<Submission> findByStatus(String status);
@@ -72,22 +67,22 @@ public interface SubmissionRepository extends MongoRepository<Submission, String
     List<Submission> findPlagiarismFlaggedSubmissions();
 
     // Find submissions by assignment and status
-    @Query("{'assignment': ?0, 'status': ?1}")
-    List<Submission> findByAssignmentAndStatus(Assignment assignment, String status);
+    @Query("{'assignment.id': ?0, 'status': ?1}")
+    List<Submission> findByAssignmentAndStatus(String assignmentId, String status);
 
     // Find graded submissions by assignment
-    @Query("{'assignment': ?0, 'status': 'GRADED'}")
-    List<Submission> findGradedSubmissionsByAssignment(Assignment assignment);
+    @Query("{'assignment.id': ?0, 'status': 'GRADED'}")
+    List<Submission> findGradedSubmissionsByAssignment(String assignmentId);
 
     // Find student submissions for course
-    @Query("{'student': ?0, 'assignment.course.courseCode': ?1}")
-    List<Submission> findByStudentAndCourseCode(Student student, String courseCode);
+    @Query("{'student.id': ?0, 'assignment.courseCode': ?1}")
+    List<Submission> findByStudentAndCourseCode(String studentId, String courseCode);
 
     // Count submissions by assignment
-    long countByAssignment(Assignment assignment);
+    long countByAssignmentId(String assignmentId);
 
     // Count submissions by student
-    long countByStudent(Student student);
+    long countByStudentId(String studentId);
 
     // Count submissions by status
     long countByStatus(String status);
@@ -113,16 +108,16 @@ public interface SubmissionRepository extends MongoRepository<Submission, String
     List<Submission> findOverdueAssignments(LocalDateTime currentTime);
 
     // Find submissions by attempt number
-    @Query("{'assignment': ?0, 'student': ?1, 'attemptNumber': ?2}")
-    Optional<Submission> findByAssignmentAndStudentAndAttemptNumber(Assignment assignment, Student student, int attemptNumber);
+    @Query("{'assignment.id': ?0, 'student.id': ?1, 'attemptNumber': ?2}")
+    Optional<Submission> findByAssignmentAndStudentAndAttemptNumber(String assignmentId, String studentId, int attemptNumber);
 
     // Find all attempts by student and assignment
-    @Query("{'assignment': ?0, 'student': ?1}")
-    List<Submission> findAllAttemptsByAssignmentAndStudent(Assignment assignment, Student student);
+    @Query("{'assignment.id': ?0, 'student.id': ?1}")
+    List<Submission> findAllAttemptsByAssignmentAndStudent(String assignmentId, String studentId);
 
     // Advanced analytics queries
-    @Query(value = "{'assignment': ?0, 'status': 'GRADED'}", fields = "{'score': 1}")
-    List<Submission> findScoresByAssignment(Assignment assignment);
+    @Query(value = "{'assignment.id': ?0, 'status': 'GRADED'}", fields = "{'score': 1}")
+    List<Submission> findScoresByAssignment(String assignmentId);
 
     // Find submissions with plagiarism check
     @Query("{'plagiarismCheck.checked': true}")
@@ -0,0 +1,21 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.AIGradingRequest;
+import com.eduai.schoolmanagement.dto.AIGradingResult;
+
+/**
+ * A model that scores one piece of work. Implementations are Spring beans picked
+ * up by {@link GradingJobService} by name; grade() may block and may throw, the
+ * job runner limits concurrent calls per model and retries failures.
+ */
+public interface AIGradingModel {
+
+    String getName();
+
+    /**
+     * Most calls the job runner lets through to this model at once
+     */
+    int getMaxConcurrency();
+
+    AIGradingResult grade(AIGradingRequest request) throws Exception;
+}
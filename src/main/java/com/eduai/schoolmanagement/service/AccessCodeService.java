@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.AccessCode;
 import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.entity.Parent;
@@ -25,6 +26,8 @@ public class AccessCodeService {
     private final AccessCodeRepository accessCodeRepository;
     private final StudentRepository studentRepository;
     private final ParentRepository parentRepository;
+    private final DeadlineScheduler deadlineScheduler;
+    private final CursorPaginator cursorPaginator;
 
     // ====================
     // ACCESS CODE MANAGEMENT
@@ -34,6 +37,10 @@ public class AccessCodeService {
         return accessCodeRepository.findAll();
     }
 
+    public CursorPage<AccessCode> getAccessCodesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(AccessCode.class, null, cursor, limit);
+    }
+
     public Optional<AccessCode> getAccessCodeByCode(String accessCode) {
         return accessCodeRepository.findByAccessCodeAndActive(accessCode, true);
     }
@@ -78,6 +85,7 @@ public class AccessCodeService {
 
         AccessCode accessCode = AccessCode.createStudentAccessCode(studentId, studentName);
         AccessCode savedCode = accessCodeRepository.save(accessCode);
+        deadlineScheduler.scheduleAccessCode(savedCode);
 
         log.info("Generated student access code {} for student {} ({})",
                  savedCode.getAccessCode(), studentId, studentName);
@@ -137,6 +145,7 @@ public class AccessCodeService {
                 );
 
                 AccessCode savedCode = accessCodeRepository.save(parentCode);
+                deadlineScheduler.scheduleAccessCode(savedCode);
                 parentCodes.add(savedCode);
 
                 log.info("Generated parent access code {} for parent {} (child: {})",
@@ -180,6 +189,7 @@ public class AccessCodeService {
 
         AccessCode accessCode = AccessCode.createParentAccessCode(parentEmail, parentName, studentId, studentName);
         AccessCode savedCode = accessCodeRepository.save(accessCode);
+        deadlineScheduler.scheduleAccessCode(savedCode);
 
         log.info("Generated parent access code {} for parent {} (child: {})",
                  savedCode.getAccessCode(), parentEmail, studentName);
@@ -264,6 +274,7 @@ public class AccessCodeService {
 
         existingCode.regenerate();
         AccessCode savedCode = accessCodeRepository.save(existingCode);
+        deadlineScheduler.scheduleAccessCode(savedCode);
 
         log.info("Regenerated access code for {} ({}): new code = {}",
                  existingCode.getCodeType(), existingCode.getEntityId(), savedCode.getAccessCode());
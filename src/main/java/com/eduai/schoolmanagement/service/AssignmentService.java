@@ -1,15 +1,34 @@
 package com.eduai.schoolmanagement.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.Attachment;
 import com.eduai.schoolmanagement.entity.Course;
 import com.eduai.schoolmanagement.repository.AssignmentRepository;
 import com.eduai.schoolmanagement.repository.CourseRepository;
@@ -24,11 +43,20 @@ public class AssignmentService {
 
     private final AssignmentRepository assignmentRepository;
     private final CourseRepository courseRepository;
+    private final MongoTemplate mongoTemplate;
+    private final AttachmentService attachmentService;
+    private final AssignmentStatisticsService assignmentStatisticsService;
+    private final DeadlineScheduler deadlineScheduler;
+    private final CursorPaginator cursorPaginator;
 
     public List<Assignment> getAllAssignments() {
         return assignmentRepository.findAll();
     }
 
+    public CursorPage<Assignment> getAssignmentsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Assignment.class, null, cursor, limit);
+    }
+
     public Optional<Assignment> getAssignmentById(String id) {
         return assignmentRepository.findById(id);
     }
@@ -88,22 +116,31 @@ public class AssignmentService {
         assignment.setSubmissions(0);
         assignment.setGraded(0);
         assignment.setAverageScore(0.0);
+        assignment.setScoreSum(0.0);
+        assignment.setScoreCount(0);
 
         // Validate business rules
         validateAssignment(assignment);
 
         Assignment savedAssignment = assignmentRepository.save(assignment);
+        attachmentService.retain(savedAssignment.getAttachments());
+        deadlineScheduler.scheduleAssignment(savedAssignment);
         log.info("Assignment created successfully with ID: {}", savedAssignment.getId());
 
         return savedAssignment;
     }
 
+    /**
+     * Overwrite the editable fields with $set; the submission and score counters
+     * are left to their own atomic updates so an edit never rolls them back
+     */
     public Assignment updateAssignment(String id, Assignment assignmentData) {
         log.info("Updating assignment with ID: {}", id);
 
         Optional<Assignment> existingAssignment = assignmentRepository.findById(id);
         if (existingAssignment.isPresent()) {
             Assignment assignment = existingAssignment.get();
+            List<String> previousAttachments = assignment.getAttachments();
 
             // Update fields
             assignment.setTitle(assignmentData.getTitle());
@@ -122,7 +159,24 @@ public class AssignmentService {
             // Validate updated assignment
             validateAssignment(assignment);
 
-            return assignmentRepository.save(assignment);
+            Update update = new Update()
+                    .set("title", assignment.getTitle())
+                    .set("description", assignment.getDescription())
+                    .set("course", assignment.getCourse())
+                    .set("type", assignment.getType())
+                    .set("maxScore", assignment.getMaxScore())
+                    .set("weight", assignment.getWeight())
+                    .set("dueDate", assignment.getDueDate())
+                    .set("submissionStartDate", assignment.getSubmissionStartDate())
+                    .set("aiGradingEnabled", assignment.isAiGradingEnabled())
+                    .set("instructions", assignment.getInstructions())
+                    .set("attachments", assignment.getAttachments())
+                    .set("rubric", assignment.getRubric())
+                    .set("updatedAt", LocalDateTime.now());
+            Assignment saved = modify(id, update);
+            attachmentService.replace(previousAttachments, saved.getAttachments());
+            deadlineScheduler.scheduleAssignment(saved);
+            return saved;
         }
         throw new RuntimeException("Assignment not found with ID: " + id);
     }
@@ -137,6 +191,8 @@ public class AssignmentService {
                 throw new RuntimeException("Cannot delete assignment with existing submissions");
             }
             assignmentRepository.deleteById(id);
+            attachmentService.release(assignment.get().getAttachments());
+            deadlineScheduler.cancelAssignment(id);
         } else {
             throw new RuntimeException("Assignment not found with ID: " + id);
         }
@@ -168,40 +224,135 @@ public class AssignmentService {
             duplicate.setSubmissions(0);
             duplicate.setGraded(0);
             duplicate.setAverageScore(0.0);
+            duplicate.setScoreSum(0.0);
+            duplicate.setScoreCount(0);
 
-            return assignmentRepository.save(duplicate);
+            Assignment saved = assignmentRepository.save(duplicate);
+            attachmentService.retain(saved.getAttachments());
+            deadlineScheduler.scheduleAssignment(saved);
+            return saved;
         }
         throw new RuntimeException("Assignment not found with ID: " + assignmentId);
     }
 
-    public Assignment updateSubmissionCount(String assignmentId) {
-        Optional<Assignment> assignmentOpt = assignmentRepository.findById(assignmentId);
-        if (assignmentOpt.isPresent()) {
-            Assignment assignment = assignmentOpt.get();
-            assignment.setSubmissions(assignment.getSubmissions() + 1);
-            return assignmentRepository.save(assignment);
+    /**
+     * Store an uploaded file and $push it onto the assignment's attachments; identical content is stored once
+     */
+    public Assignment addAttachment(String assignmentId, InputStream content, String fileName, String contentType)
+            throws IOException {
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
         }
-        throw new RuntimeException("Assignment not found with ID: " + assignmentId);
+        Attachment attachment = attachmentService.store(content, fileName, contentType);
+        Assignment assignment = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(assignmentId)),
+                new Update().push("attachments", attachment.getId()).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), Assignment.class);
+        if (assignment == null) {
+            // Deleted while the upload was stored
+            attachmentService.release(List.of(attachment.getId()));
+            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
+        }
+
+        log.info("Attached {} ({} bytes) to assignment {}", fileName, attachment.getSize(), assignmentId);
+        return assignment;
     }
 
-    public Assignment updateGradedCount(String assignmentId) {
-        Optional<Assignment> assignmentOpt = assignmentRepository.findById(assignmentId);
-        if (assignmentOpt.isPresent()) {
-            Assignment assignment = assignmentOpt.get();
-            assignment.setGraded(assignment.getGraded() + 1);
-            return assignmentRepository.save(assignment);
+    /**
+     * Apply counter deltas in one atomic update. Score deltas are in percentage points;
+     * when they are non-zero the same update re-derives averageScore = scoreSum / scoreCount,
+     * so concurrent submissions and gradings never lose an increment or read a stale mean.
+     */
+    public void adjustCounters(String assignmentId, int submissionsDelta, int gradedDelta,
+                               double scoreSumDelta, int scoreCountDelta) {
+        if (assignmentId == null) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("_id").is(assignmentId));
+        if (scoreSumDelta == 0 && scoreCountDelta == 0) {
+            if (submissionsDelta != 0 || gradedDelta != 0) {
+                mongoTemplate.updateFirst(query,
+                        new Update().inc("submissions", submissionsDelta).inc("graded", gradedDelta), Assignment.class);
+            }
+            return;
         }
-        throw new RuntimeException("Assignment not found with ID: " + assignmentId);
-    }
 
-    public Assignment updateAverageScore(String assignmentId, double newAverageScore) {
-        Optional<Assignment> assignmentOpt = assignmentRepository.findById(assignmentId);
-        if (assignmentOpt.isPresent()) {
-            Assignment assignment = assignmentOpt.get();
-            assignment.setAverageScore(newAverageScore);
-            return assignmentRepository.save(assignment);
+        // Pipeline update: the second stage sees the sums written by the first
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(SetOperation.set("submissions").toValue(plus("submissions", submissionsDelta))
+                        .and().set("graded").toValue(plus("graded", gradedDelta))
+                        .and().set("scoreSum").toValue(plus("scoreSum", scoreSumDelta))
+                        .and().set("scoreCount").toValue(plus("scoreCount", scoreCountDelta)))
+                .set(SetOperation.set("averageScore").toValue(ConditionalOperators
+                        .when(ComparisonOperators.valueOf("scoreCount").greaterThanValue(0))
+                        .thenValueOf(ArithmeticOperators.valueOf("scoreSum").divideBy("scoreCount"))
+                        .otherwise(0.0)));
+        mongoTemplate.updateFirst(query, update, Assignment.class);
+    }
+
+    /**
+     * Recompute every counter (submissions, graded, scoreSum, scoreCount and
+     * averageScore) from the stored submissions, for assignments whose counters
+     * predate the incremental updates or drifted from them; returns the number
+     * of assignments updated
+     */
+    public int backfillCounters() {
+        Aggregation submitted = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").in("SUBMITTED", "LATE", "GRADED")),
+                Aggregation.group("assignment._id").count().as("submissions")
+                        .sum(ConditionalOperators.when(ComparisonOperators.valueOf("status").equalToValue("GRADED"))
+                                .then(1).otherwise(0)).as("graded"));
+        Aggregation scored = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is("GRADED").and("percentage").ne(null)),
+                Aggregation.group("assignment._id").sum("percentage").as("scoreSum").count().as("scoreCount"));
+
+        Map<Object, Document> counters = new HashMap<>();
+        for (Document count : mongoTemplate.aggregate(submitted, "submissions", Document.class).getMappedResults()) {
+            counters.put(count.get("_id"), count);
         }
-        throw new RuntimeException("Assignment not found with ID: " + assignmentId);
+        for (Document sum : mongoTemplate.aggregate(scored, "submissions", Document.class).getMappedResults()) {
+            counters.computeIfAbsent(sum.get("_id"), id -> new Document()).putAll(sum);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assignment.class);
+        List<Object> counted = new ArrayList<>();
+        for (Map.Entry<Object, Document> entry : counters.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            Document counter = entry.getValue();
+            double scoreSum = numberOf(counter, "scoreSum").doubleValue();
+            int scoreCount = numberOf(counter, "scoreCount").intValue();
+            bulk.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())), new Update()
+                    .set("submissions", numberOf(counter, "submissions").intValue())
+                    .set("graded", numberOf(counter, "graded").intValue())
+                    .set("scoreSum", scoreSum)
+                    .set("scoreCount", scoreCount)
+                    .set("averageScore", scoreCount > 0 ? scoreSum / scoreCount : 0.0));
+            counted.add(entry.getKey());
+        }
+        // Assignments with no submitted work start from zero
+        bulk.updateMulti(Query.query(Criteria.where("_id").nin(counted)), new Update()
+                .set("submissions", 0).set("graded", 0)
+                .set("scoreSum", 0.0).set("scoreCount", 0).set("averageScore", 0.0));
+        return bulk.execute().getModifiedCount();
+    }
+
+    private Assignment modify(String assignmentId, Update update) {
+        Assignment assignment = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(assignmentId)), update,
+                FindAndModifyOptions.options().returnNew(true), Assignment.class);
+        if (assignment == null) {
+            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
+        }
+        return assignment;
+    }
+
+    private static Number numberOf(Document document, String key) {
+        Number value = document.get(key, Number.class);
+        return value == null ? 0 : value;
+    }
+
+    private static AggregationExpression plus(String field, Number delta) {
+        return ArithmeticOperators.valueOf(ConditionalOperators.ifNull(field).then(0)).add(delta);
     }
 
     public List<Assignment> getAssignmentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
@@ -230,25 +381,7 @@ public class AssignmentService {
     }
 
     public Object getAssignmentStatistics() {
-        long totalAssignments = assignmentRepository.count();
-        long overdueAssignments = assignmentRepository.countOverdueAssignments(LocalDateTime.now());
-        long aiGradingEnabled = assignmentRepository.countAIGradingEnabledAssignments();
-        long pendingGrading = assignmentRepository.findAssignmentsPendingGrading().size();
-
-        // Get assignments due in next 7 days
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextWeek = now.plusDays(7);
-        long upcomingAssignments = assignmentRepository.findDueSoon(now, nextWeek).size();
-
-        return Map.of(
-            "totalAssignments", totalAssignments,
-            "overdueAssignments", overdueAssignments,
-            "upcomingAssignments", upcomingAssignments,
-            "pendingGrading", pendingGrading,
-            "aiGradingEnabled", aiGradingEnabled,
-            "assignmentsByType", getAssignmentsByTypeBreakdown(),
-            "averageSubmissionRate", calculateAverageSubmissionRate()
-        );
+        return assignmentStatisticsService.getStatistics();
     }
 
     public Object getTeacherAssignmentAnalytics(String teacherId) {
@@ -308,10 +441,17 @@ public class AssignmentService {
             assignment.setSubmissions(0);
             assignment.setGraded(0);
             assignment.setAverageScore(0.0);
+            assignment.setScoreSum(0.0);
+            assignment.setScoreCount(0);
             validateAssignment(assignment);
         });
 
-        return assignmentRepository.saveAll(assignments);
+        List<Assignment> saved = assignmentRepository.saveAll(assignments);
+        saved.forEach(assignment -> {
+            attachmentService.retain(assignment.getAttachments());
+            deadlineScheduler.scheduleAssignment(assignment);
+        });
+        return saved;
     }
 
     public List<Assignment> getAssignmentsByMultipleCriteria(String titleSearch, List<String> types, List<String> courseCodes) {
@@ -378,27 +518,6 @@ public class AssignmentService {
         }
     }
 
-    private Map<String, Long> getAssignmentsByTypeBreakdown() {
-        Map<String, Long> breakdown = new HashMap<>();
-        breakdown.put("HOMEWORK", assignmentRepository.countByType("HOMEWORK"));
-        breakdown.put("QUIZ", assignmentRepository.countByType("QUIZ"));
-        breakdown.put("TEST", assignmentRepository.countByType("TEST"));
-        breakdown.put("PROJECT", assignmentRepository.countByType("PROJECT"));
-        breakdown.put("PARTICIPATION", assignmentRepository.countByType("PARTICIPATION"));
-        return breakdown;
-    }
-
-    private double calculateAverageSubmissionRate() {
-        List<Assignment> allAssignments = assignmentRepository.findAll();
-        if (allAssignments.isEmpty()) return 0.0;
-
-        return allAssignments.stream()
-            .filter(a -> a.getCourse() != null && a.getCourse().getEnrolledStudents() != null)
-            .mapToDouble(this::calculateSubmissionRate)
-            .average()
-            .orElse(0.0);
-    }
-
     private double calculateSubmissionRate(Assignment assignment) {
         if (assignment.getCourse() == null || assignment.getCourse().getEnrolledStudents() == null) {
             return 0.0;
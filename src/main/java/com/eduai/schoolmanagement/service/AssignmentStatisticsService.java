@@ -0,0 +1,229 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DataTypeOperators;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Assignment dashboard figures from one $facet aggregation over assignments:
+ * the counters, the per-type breakdown and the average submission rate are
+ * each a facet, so the collection is read once. The result is kept as a
+ * snapshot; once it is older than ttl-seconds the next caller starts a
+ * background refresh and is still answered from the snapshot, up to
+ * max-stale-seconds. All callers that need a refresh at the same time share
+ * the one in-flight aggregation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssignmentStatisticsService {
+
+    private static final List<String> TYPES = List.of("HOMEWORK", "QUIZ", "TEST", "PROJECT", "PARTICIPATION");
+
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "assignment-statistics");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private volatile Snapshot snapshot;
+
+    @Value("${app.assignments.statistics.ttl-seconds:15}")
+    private long ttlSeconds = 15;
+
+    @Value("${app.assignments.statistics.max-stale-seconds:300}")
+    private long maxStaleSeconds = 300;
+
+    private record Snapshot(Map<String, Object> statistics, long computedAtNanos) {
+        long ageNanos() {
+            return System.nanoTime() - computedAtNanos;
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        if (current != null && current.ageNanos() < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            return current.statistics();
+        }
+        CompletableFuture<Snapshot> refresh = refresh();
+        if (current != null && current.ageNanos() < TimeUnit.SECONDS.toNanos(maxStaleSeconds)) {
+            return current.statistics();
+        }
+        return refresh.join().statistics();
+    }
+
+    /**
+     * Start a refresh unless one is already running; either way return the running one
+     */
+    private CompletableFuture<Snapshot> refresh() {
+        while (true) {
+            CompletableFuture<Snapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Snapshot> started = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, started)) {
+                refresher.execute(() -> {
+                    try {
+                        Snapshot computed = new Snapshot(compute(), System.nanoTime());
+                        snapshot = computed;
+                        inFlight.set(null);
+                        started.complete(computed);
+                    } catch (RuntimeException e) {
+                        log.warn("Assignment statistics refresh failed: {}", e.getMessage());
+                        inFlight.set(null);
+                        started.completeExceptionally(e);
+                    }
+                });
+                return started;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private Map<String, Object> compute() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Date nowDate = toDate(now);
+        Date nextWeek = toDate(now.plusDays(7));
+
+        AggregationExpression hasDueDate = ComparisonOperators.Eq.valueOf(DataTypeOperators.Type.typeOf("dueDate"))
+                .equalToValue("date");
+        AggregationExpression overdue = BooleanOperators.And.and(hasDueDate,
+                ComparisonOperators.Lt.valueOf("dueDate").lessThanValue(nowDate));
+        AggregationExpression upcoming = BooleanOperators.And.and(hasDueDate,
+                ComparisonOperators.Gte.valueOf("dueDate").greaterThanEqualToValue(nowDate),
+                ComparisonOperators.Lte.valueOf("dueDate").lessThanEqualToValue(nextWeek));
+        AggregationExpression pendingGrading = BooleanOperators.And.and(
+                ComparisonOperators.Gt.valueOf("submissions").greaterThanValue(0),
+                ComparisonOperators.Lt.valueOf("graded").lessThan("submissions"));
+        AggregationExpression aiGrading = ComparisonOperators.Eq.valueOf("aiGradingEnabled").equalToValue(true);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(Aggregation.group()
+                                .count().as("total")
+                                .sum(count(overdue)).as("overdue")
+                                .sum(count(upcoming)).as("upcoming")
+                                .sum(count(pendingGrading)).as("pendingGrading")
+                                .sum(count(aiGrading)).as("aiGradingEnabled")).as("totals")
+                        .and(Aggregation.group("type").count().as("count")).as("byType")
+                        .and(submissionRateStages()).as("submissionRate"));
+
+        Document result = mongoTemplate.aggregate(aggregation, "assignments", Document.class).getUniqueMappedResult();
+        Document totals = first(result, "totals");
+
+        Map<String, Long> byType = new LinkedHashMap<>();
+        TYPES.forEach(type -> byType.put(type, 0L));
+        if (result != null) {
+            for (Document group : result.getList("byType", Document.class, List.of())) {
+                if (byType.containsKey(group.get("_id"))) {
+                    byType.put(group.getString("_id"), number(group, "count"));
+                }
+            }
+        }
+        Document rate = first(result, "submissionRate");
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalAssignments", number(totals, "total"));
+        statistics.put("overdueAssignments", number(totals, "overdue"));
+        statistics.put("upcomingAssignments", number(totals, "upcoming"));
+        statistics.put("pendingGrading", number(totals, "pendingGrading"));
+        statistics.put("aiGradingEnabled", number(totals, "aiGradingEnabled"));
+        statistics.put("assignmentsByType", byType);
+        statistics.put("averageSubmissionRate", rate != null && rate.get("rate") instanceof Number value
+                ? value.doubleValue() : 0.0);
+        statistics.put("computedAt", now);
+
+        log.debug("Computed assignment statistics in {} ms", System.currentTimeMillis() - startTime);
+        return statistics;
+    }
+
+    /**
+     * Average of submissions / enrolled students over assignments whose course has a roster.
+     * Assignment.course is a DBRef, whose $id cannot be named in a field path, so it is read
+     * through $objectToArray and the course is joined with only the roster size projected.
+     */
+    private static AggregationOperation[] submissionRateStages() {
+        Document courseId = new Document("$arrayElemAt", List.of(new Document("$map", new Document()
+                .append("input", new Document("$filter", new Document()
+                        .append("input", new Document("$objectToArray", new Document("$ifNull", List.of("$course", new Document()))))
+                        .append("cond", new Document("$eq", List.of("$$this.k", new Document("$literal", "$id"))))))
+                .append("in", "$$this.v")), 0));
+        Document enrolled = new Document("$cond", Arrays.asList(
+                new Document("$isArray", "$enrolledStudents"),
+                new Document("$size", "$enrolledStudents"),
+                null));
+        Document lookup = new Document("from", "courses")
+                .append("let", new Document("courseId", "$courseId"))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", "$$courseId")))),
+                        new Document("$project", new Document("_id", 0).append("enrolled", enrolled))))
+                .append("as", "roster");
+        Document rate = new Document("$cond", List.of(
+                new Document("$eq", List.of("$roster.enrolled", 0)),
+                0,
+                new Document("$divide", List.of(new Document("$multiply", List.of("$submissions", 100)), "$roster.enrolled"))));
+
+        return new AggregationOperation[] {
+            stage(new Document("$project", new Document("submissions", 1).append("courseId", courseId))),
+            stage(new Document("$lookup", lookup)),
+            stage(new Document("$unwind", "$roster")),
+            stage(new Document("$match", new Document("roster.enrolled", new Document("$ne", null)))),
+            stage(new Document("$group", new Document("_id", null).append("rate", new Document("$avg", rate))))
+        };
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    private static AggregationExpression count(AggregationExpression condition) {
+        return ConditionalOperators.when(condition).then(1).otherwise(0);
+    }
+
+    private static Document first(Document result, String facet) {
+        if (result == null) {
+            return null;
+        }
+        List<Document> documents = result.getList(facet, Document.class, List.of());
+        return documents.isEmpty() ? null : documents.get(0);
+    }
+
+    private static long number(Document document, String field) {
+        return document != null && document.get(field) instanceof Number value ? value.longValue() : 0L;
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,217 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Attachment;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content-addressed file store on local disk. An upload is streamed to a temp
+ * file while it is hashed, then moved to objects/ab/cd/<sha256> unless that
+ * content is already stored, so identical files are kept once however often
+ * they are uploaded. Reference counts live in the attachments collection;
+ * per-hash locks keep a final release from deleting a file that a concurrent
+ * upload of the same content has just claimed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentService {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final MongoTemplate mongoTemplate;
+    private final Object[] locks = newLocks();
+
+    @Value("${app.attachments.root:./data/attachments}")
+    private String root = "./data/attachments";
+
+    private Path objectsDir;
+    private Path uploadsDir;
+
+    @PostConstruct
+    void init() throws IOException {
+        objectsDir = Paths.get(root).toAbsolutePath().resolve("objects");
+        uploadsDir = Paths.get(root).toAbsolutePath().resolve("uploads");
+        Files.createDirectories(objectsDir);
+        Files.createDirectories(uploadsDir);
+    }
+
+    /**
+     * True for attachment entries that name stored content rather than an external path or URL
+     */
+    public static boolean isStored(String ref) {
+        return ref != null && SHA256.matcher(ref).matches();
+    }
+
+    /**
+     * Store an upload and take one reference to it; returns the stored attachment whose id is the content hash
+     */
+    public Attachment store(InputStream content, String originalName, String contentType) throws IOException {
+        Path upload = Files.createTempFile(uploadsDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+
+            synchronized (lockFor(hash)) {
+                if (Files.exists(target)) {
+                    log.info("Deduplicated upload {} ({} bytes) as {}", originalName, size, hash);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                return mongoTemplate.findAndModify(byId(hash),
+                        new Update().inc("refCount", 1)
+                                .set("lastReferencedAt", now)
+                                .setOnInsert("size", size)
+                                .setOnInsert("contentType", contentType)
+                                .setOnInsert("originalName", originalName)
+                                .setOnInsert("createdAt", now),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), Attachment.class);
+            }
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Take one more reference to each stored attachment in the list, e.g. when a new attempt or a copy lists it
+     */
+    public void retain(Collection<String> refs) {
+        if (refs == null) {
+            return;
+        }
+        for (String ref : refs) {
+            if (!isStored(ref)) {
+                continue;
+            }
+            synchronized (lockFor(ref)) {
+                mongoTemplate.updateFirst(byId(ref),
+                        new Update().inc("refCount", 1).set("lastReferencedAt", LocalDateTime.now()), Attachment.class);
+            }
+        }
+    }
+
+    /**
+     * Drop one reference to each stored attachment in the list, deleting content nothing refers to any more
+     */
+    public void release(Collection<String> refs) {
+        if (refs == null) {
+            return;
+        }
+        for (String ref : refs) {
+            if (!isStored(ref)) {
+                continue;
+            }
+            synchronized (lockFor(ref)) {
+                Attachment attachment = mongoTemplate.findAndModify(byId(ref), new Update().inc("refCount", -1),
+                        FindAndModifyOptions.options().returnNew(true), Attachment.class);
+                if (attachment != null && attachment.getRefCount() <= 0) {
+                    mongoTemplate.remove(byId(ref), Attachment.class);
+                    try {
+                        Files.deleteIfExists(pathOf(ref));
+                        log.info("Freed attachment {} ({} bytes)", ref, attachment.getSize());
+                    } catch (IOException e) {
+                        log.warn("Could not delete unreferenced attachment {}: {}", ref, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Move references from an old attachment list to a new one; entries in both keep their count
+     */
+    public void replace(Collection<String> before, Collection<String> after) {
+        // Retain first so shared entries never touch zero
+        retain(after);
+        release(before);
+    }
+
+    public Optional<Attachment> getAttachment(String hash) {
+        return isStored(hash) ? Optional.ofNullable(mongoTemplate.findById(hash, Attachment.class)) : Optional.empty();
+    }
+
+    /**
+     * Write count bytes of the stored content from position on. The servlet stream is only
+     * wrapped as a channel, so transferTo copies through a heap buffer here rather than
+     * handing the file to sendfile; this is not a zero-copy path.
+     */
+    public void transfer(String hash, long position, long count, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long sent = 0;
+            while (sent < count) {
+                long written = channel.transferTo(position + sent, count - sent, target);
+                if (written <= 0) {
+                    break;
+                }
+                sent += written;
+            }
+        }
+    }
+
+    Path pathOf(String hash) {
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private static Query byId(String hash) {
+        return Query.query(Criteria.where("_id").is(hash));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
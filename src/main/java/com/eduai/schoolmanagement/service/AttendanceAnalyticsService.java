@@ -0,0 +1,446 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceAnalyticsRun;
+import com.eduai.schoolmanagement.entity.Semester;
+import com.eduai.schoolmanagement.entity.StudentAttendanceAnalytics;
+import com.eduai.schoolmanagement.repository.AttendanceAnalyticsRunRepository;
+import com.eduai.schoolmanagement.repository.SemesterRepository;
+import com.eduai.schoolmanagement.repository.StudentAttendanceAnalyticsRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly job that computes one {@link StudentAttendanceAnalytics} document per
+ * student. Students are split into studentId ranges and processed on a bounded
+ * pool: one aggregation per range computes weekly, monthly and term rates, and
+ * one unordered bulk of upserts writes the results. Finished ranges are
+ * checkpointed so a run restarted the same day only redoes the unfinished ones.
+ * A completed run removes the documents it did not write, so students without
+ * records in the window drop out instead of keeping an old risk level. Only
+ * one instance runs at a time: the job holds a lease document in job_leases,
+ * renewed as partitions finish, and a lease left by a crashed instance expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceAnalyticsService {
+
+    private static final int FALLBACK_TERM_DAYS = 120;
+    private static final int CONSECUTIVE_ABSENCE_THRESHOLD = 3;
+
+    static final String LEASE_COLLECTION = "job_leases";
+    private static final String LEASE_ID = "attendance-analytics";
+
+    private final AttendanceAnalyticsRunRepository runRepository;
+    private final StudentAttendanceAnalyticsRepository studentAnalyticsRepository;
+    private final SemesterRepository semesterRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.attendance.analytics.threads:4}")
+    private int threads = 4;
+
+    @Value("${app.attendance.analytics.partitions:16}")
+    private int partitions = 16;
+
+    @Value("${app.attendance.analytics.lease-minutes:30}")
+    private long leaseMinutes = 30;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile double lastStudentsPerSecond;
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("attendance.analytics.throughput", this, service -> service.lastStudentsPerSecond);
+    }
+
+    @Scheduled(cron = "${app.attendance.analytics.cron:0 30 2 * * *}")
+    public void runNightly() {
+        Map<String, Object> result = runAnalytics();
+        log.info("Nightly attendance analytics finished: {}", result);
+    }
+
+    /**
+     * Run (or resume) the analytics job; returns immediately if a run is already in progress on any instance
+     */
+    public Map<String, Object> runAnalytics() {
+        if (!acquireLease()) {
+            return Map.of("status", "ALREADY_RUNNING");
+        }
+        try {
+            return execute(resumeOrStart());
+        } finally {
+            releaseLease();
+        }
+    }
+
+    public boolean isRunning() {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(LEASE_ID)
+                .and("expiresAt").gt(LocalDateTime.now())), LEASE_COLLECTION);
+    }
+
+    public AttendanceAnalyticsRun getLatestRun() {
+        return runRepository.findFirstByOrderByStartedAtDesc().orElse(null);
+    }
+
+    /**
+     * One entry per student whose latest analytics put them at the given risk level
+     */
+    public List<Map<String, Object>> getStudentsByRiskLevel(String riskLevel) {
+        List<Map<String, Object>> students = new ArrayList<>();
+        for (StudentAttendanceAnalytics analytics : studentAnalyticsRepository.findByRiskLevel(riskLevel.toUpperCase())) {
+            Map<String, Object> student = new HashMap<>();
+            student.put("student", analytics.getStudent());
+            student.put("analytics", analytics);
+            students.add(student);
+        }
+        return students;
+    }
+
+    /**
+     * Resume today's unfinished run; a run left over from an earlier day is
+     * abandoned, since its windows end on that day rather than today
+     */
+    private AttendanceAnalyticsRun resumeOrStart() {
+        LocalDate asOf = LocalDate.now();
+        AttendanceAnalyticsRun latest = runRepository.findFirstByOrderByStartedAtDesc().orElse(null);
+        if (latest != null && !AttendanceAnalyticsRun.STATUS_COMPLETED.equals(latest.getStatus())
+                && asOf.equals(latest.getAsOf())) {
+            log.info("Resuming attendance analytics run {} ({} of {} partitions done)", latest.getId(),
+                    latest.getCompletedPartitions().size(), latest.getPartitionBounds().size());
+            latest.setStatus(AttendanceAnalyticsRun.STATUS_RUNNING);
+            latest.setFailedPartitions(new ArrayList<>());
+            return runRepository.save(latest);
+        }
+
+        AttendanceAnalyticsRun run = new AttendanceAnalyticsRun();
+        run.setStatus(AttendanceAnalyticsRun.STATUS_RUNNING);
+        run.setAsOf(asOf);
+        run.setTermStart(semesterRepository.findActiveSemesterByDate(asOf)
+                .map(Semester::getStartDate)
+                .orElse(asOf.minusDays(FALLBACK_TERM_DAYS - 1L)));
+        run.setPartitionBounds(partitionBounds());
+        run.setStartedAt(LocalDateTime.now());
+        return runRepository.save(run);
+    }
+
+    private Map<String, Object> execute(AttendanceAnalyticsRun run) {
+        long startTime = System.currentTimeMillis();
+        List<Integer> pending = new ArrayList<>();
+        for (int partition = 0; partition < run.getPartitionBounds().size(); partition++) {
+            if (!run.getCompletedPartitions().contains(partition)) {
+                pending.add(partition);
+            }
+        }
+
+        long students = 0;
+        List<Integer> failed = new ArrayList<>();
+        if (!pending.isEmpty()) {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, pending.size()));
+            try {
+                Map<Integer, Future<Integer>> futures = new HashMap<>();
+                for (int partition : pending) {
+                    futures.put(partition, pool.submit(() -> processPartition(run, partition)));
+                }
+                for (Map.Entry<Integer, Future<Integer>> entry : futures.entrySet()) {
+                    try {
+                        students += entry.getValue().get();
+                    } catch (ExecutionException e) {
+                        failed.add(entry.getKey());
+                        log.error("Attendance analytics partition {} of run {} failed: {}",
+                                entry.getKey(), run.getId(), e.getCause().getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(pending);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        double studentsPerSecond = duration == 0 ? students : students * 1000.0 / duration;
+        String status = failed.isEmpty() ? AttendanceAnalyticsRun.STATUS_COMPLETED : AttendanceAnalyticsRun.STATUS_FAILED;
+        long removed = 0;
+        if (failed.isEmpty()) {
+            // Every partition wrote this run's id; anything else belongs to students with no records in the window
+            removed = mongoTemplate.remove(Query.query(Criteria.where("runId").ne(run.getId())),
+                    StudentAttendanceAnalytics.class).getDeletedCount();
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(run.getId())),
+                new Update().set("status", status)
+                        .set("failedPartitions", failed)
+                        .set("finishedAt", LocalDateTime.now())
+                        .set("durationMs", duration)
+                        .set("studentsPerSecond", studentsPerSecond),
+                AttendanceAnalyticsRun.class);
+
+        lastStudentsPerSecond = studentsPerSecond;
+        meterRegistry.timer("attendance.analytics.duration", "status", status)
+                .record(Duration.ofMillis(duration));
+        log.info("Attendance analytics run {} {}: {} students in {} partitions, {} ms ({} students/s)",
+                run.getId(), status, students, pending.size(), duration, String.format("%.1f", studentsPerSecond));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("runId", run.getId());
+        result.put("status", status);
+        result.put("asOf", run.getAsOf());
+        result.put("partitions", run.getPartitionBounds().size());
+        result.put("partitionsProcessed", pending.size() - failed.size());
+        result.put("failedPartitions", failed);
+        result.put("studentsProcessed", students);
+        result.put("staleRemoved", removed);
+        result.put("durationMs", duration);
+        result.put("studentsPerSecond", studentsPerSecond);
+        return result;
+    }
+
+    /**
+     * Aggregate one studentId range, bulk-write its analytics and checkpoint it
+     */
+    private int processPartition(AttendanceAnalyticsRun run, int partition) {
+        LocalDate asOf = run.getAsOf();
+        LocalDate weekStart = asOf.minusDays(6);
+        LocalDate monthStart = asOf.minusDays(29);
+        LocalDate termStart = run.getTermStart();
+        LocalDate windowStart = termStart.isBefore(monthStart) ? termStart : monthStart;
+
+        Criteria criteria = partitionCriteria(run.getPartitionBounds(), partition)
+                .and("date").gte(toDate(windowStart)).lte(toDate(asOf));
+        AggregationExpression present = ComparisonOperators.Eq.valueOf("status").equalToValue("PRESENT");
+        AggregationExpression inTerm = ComparisonOperators.Gte.valueOf("date").greaterThanEqualToValue(toDate(termStart));
+        AggregationExpression inMonth = ComparisonOperators.Gte.valueOf("date").greaterThanEqualToValue(toDate(monthStart));
+        AggregationExpression inWeek = ComparisonOperators.Gte.valueOf("date").greaterThanEqualToValue(toDate(weekStart));
+
+        TypedAggregation<Attendance> aggregation = Aggregation.newAggregation(Attendance.class,
+                Aggregation.match(criteria),
+                Aggregation.group("student.studentId")
+                        .first("student").as("student")
+                        .sum(count(inTerm)).as("termTotal")
+                        .sum(count(BooleanOperators.And.and(inTerm, present))).as("termPresent")
+                        .sum(count(inMonth)).as("monthTotal")
+                        .sum(count(BooleanOperators.And.and(inMonth, present))).as("monthPresent")
+                        .sum(count(inWeek)).as("weekTotal")
+                        .sum(count(BooleanOperators.And.and(inWeek, present))).as("weekPresent")
+                        // Absence dates come back raw; weekday bucketing happens in the local zone below
+                        .push(ConditionalOperators.when(BooleanOperators.And.and(inMonth,
+                                ComparisonOperators.Eq.valueOf("status").equalToValue("ABSENT")))
+                                .thenValueOf("date").otherwise(false)).as("absences"));
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                StudentAttendanceAnalytics.class);
+        LocalDateTime now = LocalDateTime.now();
+        int students = 0;
+        for (Document group : mongoTemplate.aggregate(aggregation, Document.class)) {
+            Double termRate = rate(group, "termPresent", "termTotal");
+            Double monthlyRate = rate(group, "monthPresent", "monthTotal");
+            String pattern = absencePattern(toLocalDates(group.getList("absences", Object.class)));
+            // aiRecommendations is left alone so recommendations survive the nightly refresh
+            bulkOps.upsert(Query.query(Criteria.where("_id").is(group.getString("_id"))),
+                    new Update().set("student", group.get("student"))
+                            .set("weeklyRate", rate(group, "weekPresent", "weekTotal"))
+                            .set("monthlyRate", monthlyRate)
+                            .set("semesterRate", termRate)
+                            .set("absencePattern", pattern)
+                            .set("riskLevel", riskLevel(termRate, monthlyRate, pattern))
+                            .set("asOf", asOf)
+                            .set("runId", run.getId())
+                            .set("lastAnalyzed", now));
+            students++;
+        }
+        if (students > 0) {
+            bulkOps.execute();
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(run.getId())),
+                new Update().addToSet("completedPartitions", partition)
+                        .inc("studentsProcessed", students)
+                        .set("lastCheckpoint", LocalDateTime.now()),
+                AttendanceAnalyticsRun.class);
+        renewLease();
+        meterRegistry.counter("attendance.analytics.students").increment(students);
+        return students;
+    }
+
+    /**
+     * Take the job lease unless another instance holds an unexpired one; the upsert of a held
+     * lease collides on _id instead of matching, so exactly one caller wins
+     */
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(LEASE_ID).and("expiresAt").lt(now)),
+                    new Update().set("owner", instanceId).set("expiresAt", now.plusMinutes(leaseMinutes)),
+                    LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void renewLease() {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(instanceId)),
+                new Update().set("expiresAt", LocalDateTime.now().plusMinutes(leaseMinutes)), LEASE_COLLECTION);
+    }
+
+    private void releaseLease() {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(instanceId)),
+                LEASE_COLLECTION);
+    }
+
+    /**
+     * Split the distinct studentIds into at most {@code partitions} contiguous ranges
+     */
+    private List<String> partitionBounds() {
+        List<String> studentIds = mongoTemplate.findDistinct(new Query(), "student.studentId", Attendance.class, String.class)
+                .stream()
+                .filter(id -> id != null)
+                .sorted()
+                .collect(Collectors.toList());
+        int count = Math.min(partitions, studentIds.size());
+        List<String> bounds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bounds.add(studentIds.get((int) ((long) i * studentIds.size() / count)));
+        }
+        return bounds;
+    }
+
+    private static Criteria partitionCriteria(List<String> bounds, int partition) {
+        Criteria criteria = Criteria.where("student.studentId");
+        // Open-ended first and last ranges pick up students added since the bounds were taken
+        if (partition > 0) {
+            criteria.gte(bounds.get(partition));
+        }
+        if (partition < bounds.size() - 1) {
+            criteria.lt(bounds.get(partition + 1));
+        }
+        if (bounds.size() == 1) {
+            criteria.exists(true);
+        }
+        return criteria;
+    }
+
+    /**
+     * Classify absences over the last 30 days: NONE, CONSECUTIVE (a run of
+     * school-day absences), FREQUENT_<DAY> (half or more on one weekday) or SPORADIC
+     */
+    static String absencePattern(List<LocalDate> absences) {
+        if (absences.isEmpty()) {
+            return "NONE";
+        }
+        List<LocalDate> sorted = absences.stream().distinct().sorted().collect(Collectors.toList());
+        int run = 1;
+        int longest = 1;
+        for (int i = 1; i < sorted.size(); i++) {
+            run = nextSchoolDay(sorted.get(i - 1)).equals(sorted.get(i)) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+        }
+        if (longest >= CONSECUTIVE_ABSENCE_THRESHOLD) {
+            return "CONSECUTIVE";
+        }
+
+        if (sorted.size() >= CONSECUTIVE_ABSENCE_THRESHOLD) {
+            Map<DayOfWeek, Integer> byWeekday = new EnumMap<>(DayOfWeek.class);
+            for (LocalDate date : sorted) {
+                byWeekday.merge(date.getDayOfWeek(), 1, Integer::sum);
+            }
+            for (Map.Entry<DayOfWeek, Integer> entry : byWeekday.entrySet()) {
+                if (entry.getValue() * 2 >= sorted.size()) {
+                    return "FREQUENT_" + entry.getKey();
+                }
+            }
+        }
+        return "SPORADIC";
+    }
+
+    /**
+     * A null rate means its window had no records and is left out of the decision
+     */
+    static String riskLevel(Double termRate, Double monthlyRate, String absencePattern) {
+        if (below(termRate, 75) || below(monthlyRate, 70) || "CONSECUTIVE".equals(absencePattern)) {
+            return "HIGH";
+        }
+        if (below(termRate, 90) || below(monthlyRate, 85) || absencePattern.startsWith("FREQUENT_")) {
+            return "MEDIUM";
+        }
+        return "LOW";
+    }
+
+    private static LocalDate nextSchoolDay(LocalDate date) {
+        LocalDate next = date.plusDays(1);
+        while (next.getDayOfWeek() == DayOfWeek.SATURDAY || next.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            next = next.plusDays(1);
+        }
+        return next;
+    }
+
+    private static AggregationExpression count(AggregationExpression condition) {
+        return ConditionalOperators.when(condition).then(1).otherwise(0);
+    }
+
+    private static boolean below(Double rate, double threshold) {
+        return rate != null && rate < threshold;
+    }
+
+    private static Double rate(Document group, String presentField, String totalField) {
+        long total = ((Number) group.get(totalField)).longValue();
+        return total == 0 ? null : ((Number) group.get(presentField)).doubleValue() / total * 100;
+    }
+
+    private static List<LocalDate> toLocalDates(List<Object> values) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (Object value : values) {
+            if (value instanceof Date) {
+                dates.add(LocalDate.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()));
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * LocalDate as the Date Spring Data writes for it (midnight in the system zone)
+     */
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
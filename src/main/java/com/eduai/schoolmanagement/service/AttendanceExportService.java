@@ -0,0 +1,214 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.dto.AttendanceExportRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams attendance records straight from a Mongo cursor to the response as
+ * CSV or NDJSON. Only the requested columns are projected and documents are
+ * fetched in bounded batches, so memory stays flat however large the export.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * Exportable columns mapped to their document paths
+     */
+    public static final Map<String, String> COLUMNS = columns(
+            "id", "_id",
+            "studentId", "student.studentId",
+            "firstName", "student.firstName",
+            "lastName", "student.lastName",
+            "grade", "student.grade",
+            "section", "student.section",
+            "rollNumber", "student.rollNumber",
+            "courseCode", "course.courseCode",
+            "courseName", "course.courseName",
+            "date", "date",
+            "status", "status",
+            "checkInTime", "checkInTime",
+            "checkOutTime", "checkOutTime",
+            "markedAt", "markedAt",
+            "markedBy", "markedBy",
+            "reason", "reason",
+            "notes", "notes");
+
+    public static final List<String> DEFAULT_COLUMNS = List.of(
+            "studentId", "firstName", "lastName", "courseCode", "date", "status");
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.attendance.export.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Normalize and check the request up front, before any bytes are streamed
+     */
+    public void validate(AttendanceExportRequest request) {
+        String format = request.getFormat() == null ? FORMAT_CSV : request.getFormat().toLowerCase();
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + request.getFormat());
+        }
+        request.setFormat(format);
+
+        if (request.getColumns() == null || request.getColumns().isEmpty()) {
+            request.setColumns(DEFAULT_COLUMNS);
+        }
+        for (String column : request.getColumns()) {
+            if (!COLUMNS.containsKey(column)) {
+                throw new IllegalArgumentException("Unknown export column: " + column
+                        + ". Supported columns: " + COLUMNS.keySet());
+            }
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+    }
+
+    /**
+     * Write every matching record to the stream and return the number of rows written
+     */
+    public long export(AttendanceExportRequest request, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        List<String> columns = request.getColumns();
+        boolean csv = FORMAT_CSV.equals(request.getFormat());
+        long rows = 0;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        if (csv) {
+            writeCsvRow(writer, columns);
+        }
+
+        try (Stream<Document> documents = mongoTemplate.stream(buildQuery(request), Document.class, "attendance")) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                Map<String, String> row = new LinkedHashMap<>();
+                for (String column : columns) {
+                    row.put(column, format(column, document.getEmbedded(Arrays.asList(COLUMNS.get(column).split("\\.")), Object.class)));
+                }
+                if (csv) {
+                    writeCsvRow(writer, row.values());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} attendance records as {} in {} ms", rows, request.getFormat(),
+                System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    Query buildQuery(AttendanceExportRequest request) {
+        Criteria criteria = new Criteria();
+        if (request.getStartDate() != null || request.getEndDate() != null) {
+            criteria = Criteria.where("date");
+            if (request.getStartDate() != null) {
+                criteria.gte(request.getStartDate());
+            }
+            if (request.getEndDate() != null) {
+                criteria.lte(request.getEndDate());
+            }
+        }
+        if (request.getStatus() != null) {
+            criteria.and("status").is(request.getStatus());
+        }
+        if (request.getStudentId() != null) {
+            criteria.and("student.studentId").is(request.getStudentId());
+        }
+        if (request.getCourseId() != null) {
+            criteria.and("course.courseCode").is(request.getCourseId());
+        }
+
+        Query query = Query.query(criteria).cursorBatchSize(batchSize);
+        for (String column : request.getColumns()) {
+            query.fields().include(COLUMNS.get(column));
+        }
+        if (!request.getColumns().contains("id")) {
+            query.fields().exclude("_id");
+        }
+        return query;
+    }
+
+    private static String format(String column, Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Date) {
+            // Dates are written by Spring Data in the system time zone
+            if ("date".equals(column)) {
+                return LocalDate.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()).toString();
+            }
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()).toString();
+        }
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        }
+        return value.toString();
+    }
+
+    private static void writeCsvRow(Writer writer, Iterable<String> values) throws IOException {
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(value));
+            first = false;
+        }
+        writer.write("\r\n");
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Map<String, String> columns(String... namesAndPaths) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndPaths.length; i += 2) {
+            columns.put(namesAndPaths[i], namesAndPaths[i + 1]);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,378 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceMatrix;
+import com.eduai.schoolmanagement.entity.Semester;
+import com.eduai.schoolmanagement.exception.ResourceNotFoundException;
+import com.eduai.schoolmanagement.repository.AttendanceMatrixRepository;
+import com.eduai.schoolmanagement.repository.SemesterRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps one {@link AttendanceMatrix} per course and term in memory, written
+ * through to the attendance_matrices collection on every attendance change.
+ * A cached matrix is reused only while its version matches the stored one, so
+ * marks written through another instance show up on the next read.
+ * Term analytics (absence streaks, rolling rates, weekly trends) are bit scans
+ * over the matrix instead of attendance queries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceMatrixService {
+
+    private static final int SAVE_ATTEMPTS = 3;
+    private static final String MATRIX_COLLECTION = "attendance_matrices";
+
+    private final AttendanceMatrixRepository matrixRepository;
+    private final SemesterRepository semesterRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, AttendanceMatrix> matrices = new ConcurrentHashMap<>();
+    private volatile List<Semester> terms;
+
+    /**
+     * Clear the cells of removed records, then set the cells of added ones
+     */
+    public void apply(Collection<Attendance> removed, Collection<Attendance> added) {
+        Map<String, MatrixChange> changes = new LinkedHashMap<>();
+        for (Attendance attendance : removed) {
+            collect(changes, attendance, null);
+        }
+        for (Attendance attendance : added) {
+            collect(changes, attendance, attendance.getStatus());
+        }
+
+        for (MatrixChange change : changes.values()) {
+            try {
+                update(change);
+            } catch (Exception e) {
+                log.error("Failed to update attendance matrix for course {} in {}: {}",
+                        change.courseCode, change.semester.getSemesterCode(), e.getMessage());
+                discard(AttendanceMatrix.idOf(change.courseCode, change.semester.getSemesterCode()));
+            }
+        }
+    }
+
+    /**
+     * Students whose longest run of consecutive absences (over marked days) reaches the threshold
+     */
+    public Map<String, Object> getChronicAbsences(String courseCode, String semesterCode, int threshold) {
+        AttendanceMatrix matrix = matrix(courseCode, semesterCode);
+        List<Map<String, Object>> students = new ArrayList<>();
+        synchronized (matrix) {
+            for (int row = 0; row < matrix.getStudentCount(); row++) {
+                int[] runs = matrix.absenceRuns(row);
+                if (runs[0] >= threshold) {
+                    Map<String, Object> student = new HashMap<>();
+                    student.put("studentId", matrix.getStudentIds().get(row));
+                    student.put("longestAbsenceRun", runs[0]);
+                    student.put("currentAbsenceRun", runs[1]);
+                    students.add(student);
+                }
+            }
+        }
+        students.sort(Comparator.comparing((Map<String, Object> s) -> (Integer) s.get("currentAbsenceRun"))
+                .thenComparing(s -> (Integer) s.get("longestAbsenceRun"))
+                .reversed());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("courseCode", courseCode);
+        result.put("semesterCode", matrix.getSemesterCode());
+        result.put("threshold", threshold);
+        result.put("students", students);
+        return result;
+    }
+
+    /**
+     * Course and per-student attendance rates over the window ending on asOf
+     */
+    public Map<String, Object> getRollingRate(String courseCode, String semesterCode, LocalDate asOf, int windowDays) {
+        if (windowDays <= 0) {
+            throw new IllegalArgumentException("windowDays must be positive");
+        }
+        AttendanceMatrix matrix = matrix(courseCode, semesterCode);
+        LocalDate windowStart = asOf.minusDays(windowDays - 1L);
+        Map<String, Double> studentRates = new HashMap<>();
+        long[] total = new long[2];
+        synchronized (matrix) {
+            int toDay = matrix.dayIndex(asOf);
+            int fromDay = matrix.dayIndex(windowStart);
+            for (int row = 0; row < matrix.getStudentCount(); row++) {
+                long[] counts = matrix.countRow(row, fromDay, toDay);
+                if (counts[0] > 0) {
+                    studentRates.put(matrix.getStudentIds().get(row), rate(counts));
+                    total[0] += counts[0];
+                    total[1] += counts[1];
+                }
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("courseCode", courseCode);
+        result.put("semesterCode", matrix.getSemesterCode());
+        result.put("windowStart", windowStart);
+        result.put("windowEnd", asOf);
+        result.put("totalRecords", total[0]);
+        result.put("attendanceRate", rate(total));
+        result.put("studentRates", studentRates);
+        return result;
+    }
+
+    /**
+     * Attendance rate per term week (Week 1 starts on the term start date)
+     */
+    public Map<String, Object> getWeeklyTrends(String courseCode, String semesterCode, String studentId) {
+        AttendanceMatrix matrix = matrix(courseCode, semesterCode);
+        Map<String, Double> weeklyTrends = new LinkedHashMap<>();
+        long[] total = new long[2];
+        synchronized (matrix) {
+            for (int fromDay = 0; fromDay < matrix.getDays(); fromDay += 7) {
+                long[] counts = matrix.count(studentId, fromDay, fromDay + 6);
+                if (counts[0] > 0) {
+                    weeklyTrends.put("Week " + (fromDay / 7 + 1), rate(counts));
+                    total[0] += counts[0];
+                    total[1] += counts[1];
+                }
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("courseCode", courseCode);
+        result.put("semesterCode", matrix.getSemesterCode());
+        result.put("totalRecords", total[0]);
+        result.put("weeklyTrends", weeklyTrends);
+        result.put("overallAttendanceRate", rate(total));
+        return result;
+    }
+
+    /**
+     * Per-date {total, present} counts for a course (and optionally one student),
+     * or empty when the range does not sit inside a single active term
+     */
+    public Optional<Map<LocalDate, long[]>> getDailyCounts(String courseCode, String studentId,
+            LocalDate startDate, LocalDate endDate) {
+        Optional<Semester> term = termFor(startDate);
+        if (term.isEmpty() || !contains(term.get(), endDate)) {
+            return Optional.empty();
+        }
+        AttendanceMatrix matrix = load(courseCode, term.get());
+        Map<LocalDate, long[]> dailyCounts = new HashMap<>();
+        synchronized (matrix) {
+            for (int day = matrix.dayIndex(startDate); day <= matrix.dayIndex(endDate); day++) {
+                long[] counts = matrix.count(studentId, day, day);
+                if (counts[0] > 0) {
+                    dailyCounts.put(matrix.dateOf(day), counts);
+                }
+            }
+        }
+        return Optional.of(dailyCounts);
+    }
+
+    /**
+     * Rebuild one course's matrix from raw attendance records and persist it
+     */
+    public Map<String, Object> rebuild(String courseCode, String semesterCode) {
+        long startTime = System.currentTimeMillis();
+        Semester semester = semester(semesterCode);
+        String id = AttendanceMatrix.idOf(courseCode, semester.getSemesterCode());
+
+        AttendanceMatrix matrix = build(courseCode, semester);
+        matrixRepository.findById(id).ifPresent(existing -> matrix.setVersion(existing.getVersion()));
+        matrix.setLastUpdated(LocalDateTime.now());
+        matrices.put(id, matrixRepository.save(matrix));
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Rebuilt attendance matrix {} ({} students x {} days) in {} ms",
+                id, matrix.getStudentCount(), matrix.getDays(), duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("courseCode", courseCode);
+        result.put("semesterCode", semester.getSemesterCode());
+        result.put("studentCount", matrix.getStudentCount());
+        result.put("days", matrix.getDays());
+        result.put("sizeBytes", matrix.getCells().length * (long) Long.BYTES);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    private void collect(Map<String, MatrixChange> changes, Attendance attendance, String status) {
+        if (attendance == null || attendance.getStudent() == null
+                || attendance.getCourse() == null || attendance.getDate() == null) {
+            return;
+        }
+        Optional<Semester> term = termFor(attendance.getDate());
+        if (term.isEmpty()) {
+            return;
+        }
+        String courseCode = attendance.getCourse().getCourseCode();
+        changes.computeIfAbsent(AttendanceMatrix.idOf(courseCode, term.get().getSemesterCode()),
+                id -> new MatrixChange(courseCode, term.get()))
+                .cells.add(new Cell(attendance.getStudent().getStudentId(), attendance.getDate(), status));
+    }
+
+    /**
+     * Apply a change and save; on a concurrent write from another instance,
+     * reload the stored matrix and replay the change on top of it
+     */
+    private void update(MatrixChange change) {
+        for (int attempt = 1; ; attempt++) {
+            AttendanceMatrix matrix = load(change.courseCode, change.semester);
+            synchronized (matrix) {
+                for (Cell cell : change.cells) {
+                    matrix.set(cell.studentId, cell.date, cell.status);
+                }
+                matrix.setLastUpdated(LocalDateTime.now());
+                try {
+                    matrixRepository.save(matrix);
+                    return;
+                } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                    matrices.remove(matrix.getId());
+                    if (attempt == SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop a matrix that missed a change, cached and stored, so every instance's
+     * next load rebuilds it from the attendance records, which already hold the change
+     */
+    private void discard(String id) {
+        matrices.remove(id);
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), MATRIX_COLLECTION);
+        } catch (Exception e) {
+            log.error("Attendance matrix {} is stale and could not be dropped; rebuild it: {}", id, e.getMessage());
+        }
+    }
+
+    private AttendanceMatrix matrix(String courseCode, String semesterCode) {
+        return load(courseCode, semester(semesterCode));
+    }
+
+    /**
+     * Cached matrix, unless another instance has saved a newer version since it
+     * was loaded; the check is a single projected read of the stored version
+     */
+    private AttendanceMatrix load(String courseCode, Semester semester) {
+        String id = AttendanceMatrix.idOf(courseCode, semester.getSemesterCode());
+        Query versionQuery = Query.query(Criteria.where("_id").is(id));
+        versionQuery.fields().include("version");
+        Document stored = mongoTemplate.findOne(versionQuery, Document.class, MATRIX_COLLECTION);
+
+        AttendanceMatrix cached = matrices.get(id);
+        if (cached != null && Objects.equals(cached.getVersion(), stored == null ? null : versionOf(stored))) {
+            return cached;
+        }
+        AttendanceMatrix fresh = stored == null ? null : matrixRepository.findById(id).orElse(null);
+        if (fresh == null) {
+            fresh = build(courseCode, semester);
+        }
+        matrices.put(id, fresh);
+        return fresh;
+    }
+
+    private static Long versionOf(Document stored) {
+        Object version = stored.get("version");
+        return version instanceof Number ? ((Number) version).longValue() : null;
+    }
+
+    private AttendanceMatrix build(String courseCode, Semester semester) {
+        AttendanceMatrix matrix = AttendanceMatrix.create(courseCode, semester);
+        Query query = Query.query(Criteria.where("course.courseCode").is(courseCode)
+                .and("date").gte(semester.getStartDate()).lte(semester.getEndDate()));
+        query.fields().include("student.studentId").include("date").include("status");
+
+        try (Stream<Document> records = mongoTemplate.stream(query, Document.class, "attendance")) {
+            records.forEach(record -> {
+                Document student = record.get("student", Document.class);
+                if (student != null && record.getDate("date") != null) {
+                    LocalDate date = LocalDate.ofInstant(record.getDate("date").toInstant(), ZoneId.systemDefault());
+                    matrix.set(student.getString("studentId"), date, record.getString("status"));
+                }
+            });
+        }
+        return matrix;
+    }
+
+    private Semester semester(String semesterCode) {
+        if (semesterCode == null) {
+            return semesterRepository.findActiveSemesterByDate(LocalDate.now())
+                    .orElseThrow(() -> new ResourceNotFoundException("No active semester for today"));
+        }
+        return semesterRepository.findBySemesterCode(semesterCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Semester", "semesterCode", semesterCode));
+    }
+
+    /**
+     * Active term containing the date; the term list is cached and reloaded on a miss
+     */
+    private Optional<Semester> termFor(LocalDate date) {
+        List<Semester> cached = terms;
+        if (cached == null || cached.stream().noneMatch(term -> contains(term, date))) {
+            cached = semesterRepository.findByActiveTrue();
+            terms = cached;
+        }
+        return cached.stream().filter(term -> contains(term, date)).findFirst();
+    }
+
+    private static boolean contains(Semester term, LocalDate date) {
+        return term.getStartDate() != null && term.getEndDate() != null && date != null
+                && !date.isBefore(term.getStartDate()) && !date.isAfter(term.getEndDate());
+    }
+
+    private static double rate(long[] counts) {
+        return counts[0] == 0 ? 0.0 : (double) counts[1] / counts[0] * 100;
+    }
+
+    private static class MatrixChange {
+        private final String courseCode;
+        private final Semester semester;
+        private final List<Cell> cells = new ArrayList<>();
+
+        MatrixChange(String courseCode, Semester semester) {
+            this.courseCode = courseCode;
+            this.semester = semester;
+        }
+    }
+
+    private static class Cell {
+        private final String studentId;
+        private final LocalDate date;
+        private final String status;
+
+        Cell(String studentId, LocalDate date, String status) {
+            this.studentId = studentId;
+            this.date = date;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceRollup;
+import com.eduai.schoolmanagement.repository.AttendanceRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the attendance_rollups collection in step with attendance writes.
+ * Every change is turned into per-rollup status deltas and applied as one
+ * unordered bulk of $inc upserts, so concurrent writers never lose counts.
+ * A bulk that fails leaves a rebuild request behind, and a scheduled check
+ * rebuilds the rollups from raw attendance until no request is left.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRollupService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    static final String REBUILD_REQUESTS_COLLECTION = "rebuild_requests";
+    static final String REBUILD_REQUEST_ID = "attendance_rollups";
+
+    private static final List<String> SCOPES = List.of(
+            AttendanceRollup.SCOPE_STUDENT,
+            AttendanceRollup.SCOPE_COURSE,
+            AttendanceRollup.SCOPE_STUDENT_COURSE,
+            AttendanceRollup.SCOPE_DATE);
+
+    private final AttendanceRollupRepository rollupRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public Optional<AttendanceRollup> getStudentRollup(String studentId) {
+        return rollupRepository.findById(
+                AttendanceRollup.idOf(AttendanceRollup.SCOPE_STUDENT, studentId, null, null));
+    }
+
+    public Optional<AttendanceRollup> getCourseRollup(String courseCode) {
+        return rollupRepository.findById(
+                AttendanceRollup.idOf(AttendanceRollup.SCOPE_COURSE, null, courseCode, null));
+    }
+
+    public Optional<AttendanceRollup> getDailyRollup(LocalDate date) {
+        return rollupRepository.findById(
+                AttendanceRollup.idOf(AttendanceRollup.SCOPE_DATE, null, null, date));
+    }
+
+    public List<AttendanceRollup> getDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.findDailyRollupsBetween(startDate, endDate);
+    }
+
+    public long countStudentsInCourse(String courseCode) {
+        return rollupRepository.countStudentsByCourseCode(courseCode);
+    }
+
+    /**
+     * Move one record between status counters without changing totals
+     */
+    public void recordStatusChange(Attendance attendance, String previousStatus) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        accumulate(deltas, attendance, previousStatus, -1);
+        accumulate(deltas, attendance, attendance.getStatus(), 1);
+        flush(deltas);
+    }
+
+    /**
+     * Apply removed and added records as a single batch of counter updates
+     */
+    public void apply(Collection<Attendance> removed, Collection<Attendance> added) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        for (Attendance attendance : removed) {
+            accumulate(deltas, attendance, attendance.getStatus(), -1);
+        }
+        for (Attendance attendance : added) {
+            accumulate(deltas, attendance, attendance.getStatus(), 1);
+        }
+        flush(deltas);
+    }
+
+    /**
+     * Rebuild the rollups when a failed counter update has requested it. The request
+     * is cleared only if no other update failed while the rebuild ran.
+     */
+    @Scheduled(fixedDelayString = "${app.attendance.rollups.rebuild-check-ms:60000}")
+    public void rebuildIfRequested() {
+        Document request;
+        try {
+            request = mongoTemplate.findById(REBUILD_REQUEST_ID, Document.class, REBUILD_REQUESTS_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Could not check for an attendance rollup rebuild request: {}", e.getMessage());
+            return;
+        }
+        if (request == null) {
+            return;
+        }
+        log.info("Attendance rollups missed an update at {}, rebuilding", request.get("requestedAt"));
+        rebuild();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(REBUILD_REQUEST_ID)
+                .and("requestedAt").is(request.get("requestedAt"))), REBUILD_REQUESTS_COLLECTION);
+    }
+
+    /**
+     * Recompute every rollup from the raw attendance collection. Rollups are
+     * overwritten in place with $set upserts, so readers never see an empty or
+     * zeroed collection, and only rollups that were neither rebuilt nor touched
+     * by a concurrent write are deleted afterwards. A mark that lands between
+     * the aggregation and the $set of its rollup may need a second rebuild.
+     */
+    public Map<String, Object> rebuild() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime rebuildStart = LocalDateTime.now();
+        log.info("Rebuilding attendance rollups from raw attendance records");
+
+        Map<String, AttendanceRollup> rollups = new LinkedHashMap<>();
+        for (String scope : SCOPES) {
+            for (Document group : mongoTemplate.aggregate(rebuildAggregation(scope), Document.class)) {
+                Document key = group.get("_id", Document.class);
+                AttendanceRollup rollup = rollups.computeIfAbsent(rollupId(scope, key), id -> newRollup(id, scope, key));
+                long count = ((Number) group.get("count")).longValue();
+                rollup.getStatusCounts().merge(key.getString("status"), count, Long::sum);
+                rollup.setTotal(rollup.getTotal() + count);
+            }
+        }
+
+        List<AttendanceRollup> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (AttendanceRollup rollup : rollups.values()) {
+            batch.add(rollup);
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                overwrite(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            overwrite(batch);
+        }
+
+        // Every rollup still current was stamped by the overwrite or by a write since the rebuild began
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("lastUpdated").lt(rebuildStart)),
+                AttendanceRollup.class).getDeletedCount();
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Rebuilt {} attendance rollups and removed {} stale ones in {} ms", rollups.size(), removed, duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("rollupCount", rollups.size());
+        result.put("removedCount", removed);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    private void overwrite(List<AttendanceRollup> rollups) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (AttendanceRollup rollup : rollups) {
+            Update update = new Update()
+                    .set("scope", rollup.getScope())
+                    .set("studentId", rollup.getStudentId())
+                    .set("courseCode", rollup.getCourseCode())
+                    .set("date", rollup.getDate())
+                    .set("statusCounts", rollup.getStatusCounts())
+                    .set("total", rollup.getTotal())
+                    .set("lastUpdated", now);
+            bulkOps.upsert(Query.query(Criteria.where("_id").is(rollup.getId())), update);
+        }
+        bulkOps.execute();
+    }
+
+    private void accumulate(Map<String, RollupDelta> deltas, Attendance attendance, String status, long delta) {
+        if (attendance == null || status == null || attendance.getStudent() == null
+                || attendance.getCourse() == null || attendance.getDate() == null) {
+            return;
+        }
+        String studentId = attendance.getStudent().getStudentId();
+        String courseCode = attendance.getCourse().getCourseCode();
+        LocalDate date = attendance.getDate();
+
+        for (String scope : SCOPES) {
+            String id = AttendanceRollup.idOf(scope, studentId, courseCode, date);
+            deltas.computeIfAbsent(id, key -> new RollupDelta(scope, studentId, courseCode, date))
+                    .add(status, delta);
+        }
+    }
+
+    private void flush(Map<String, RollupDelta> deltas) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        int updates = 0;
+
+        for (Map.Entry<String, RollupDelta> entry : deltas.entrySet()) {
+            RollupDelta delta = entry.getValue();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            Update update = new Update()
+                    .setOnInsert("scope", delta.scope)
+                    .set("lastUpdated", now)
+                    .inc("total", delta.total);
+            switch (delta.scope) {
+                case AttendanceRollup.SCOPE_STUDENT:
+                    update.setOnInsert("studentId", delta.studentId);
+                    break;
+                case AttendanceRollup.SCOPE_COURSE:
+                    update.setOnInsert("courseCode", delta.courseCode);
+                    break;
+                case AttendanceRollup.SCOPE_STUDENT_COURSE:
+                    update.setOnInsert("studentId", delta.studentId).setOnInsert("courseCode", delta.courseCode);
+                    break;
+                default:
+                    update.setOnInsert("date", delta.date);
+            }
+            delta.statusCounts.forEach((status, count) -> {
+                if (count != 0) {
+                    update.inc("statusCounts." + status, count);
+                }
+            });
+            bulkOps.upsert(Query.query(Criteria.where("_id").is(entry.getKey())), update);
+            updates++;
+        }
+
+        if (updates == 0) {
+            return;
+        }
+        try {
+            bulkOps.execute();
+        } catch (Exception e) {
+            // The attendance write already succeeded; a rebuild brings the counters back in line
+            log.error("Failed to update attendance rollups ({} documents), requesting a rebuild: {}",
+                    updates, e.getMessage());
+            requestRebuild();
+        }
+    }
+
+    private void requestRebuild() {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(REBUILD_REQUEST_ID)),
+                    new Update().set("requestedAt", LocalDateTime.now()), REBUILD_REQUESTS_COLLECTION);
+        } catch (Exception e) {
+            log.error("Attendance rollups are stale and the rebuild request could not be stored; rebuild them: {}",
+                    e.getMessage());
+        }
+    }
+
+    private TypedAggregation<Attendance> rebuildAggregation(String scope) {
+        Fields fields;
+        switch (scope) {
+            case AttendanceRollup.SCOPE_STUDENT:
+                fields = Fields.from(Fields.field("studentId", "student.studentId"), Fields.field("status"));
+                break;
+            case AttendanceRollup.SCOPE_COURSE:
+                fields = Fields.from(Fields.field("courseCode", "course.courseCode"), Fields.field("status"));
+                break;
+            case AttendanceRollup.SCOPE_STUDENT_COURSE:
+                fields = Fields.from(Fields.field("studentId", "student.studentId"),
+                        Fields.field("courseCode", "course.courseCode"), Fields.field("status"));
+                break;
+            default:
+                fields = Fields.from(Fields.field("date"), Fields.field("status"));
+        }
+        return Aggregation.newAggregation(Attendance.class,
+                Aggregation.group(fields).count().as("count"));
+    }
+
+    private static String rollupId(String scope, Document key) {
+        return AttendanceRollup.idOf(scope, key.getString("studentId"), key.getString("courseCode"), toLocalDate(key));
+    }
+
+    private static AttendanceRollup newRollup(String id, String scope, Document key) {
+        AttendanceRollup rollup = new AttendanceRollup();
+        rollup.setId(id);
+        rollup.setScope(scope);
+        rollup.setStudentId(key.getString("studentId"));
+        rollup.setCourseCode(key.getString("courseCode"));
+        rollup.setDate(toLocalDate(key));
+        rollup.setLastUpdated(LocalDateTime.now());
+        return rollup;
+    }
+
+    private static LocalDate toLocalDate(Document key) {
+        return key.getDate("date") == null ? null
+                : LocalDate.ofInstant(key.getDate("date").toInstant(), ZoneId.systemDefault());
+    }
+
+    private static class RollupDelta {
+        private final String scope;
+        private final String studentId;
+        private final String courseCode;
+        private final LocalDate date;
+        private final Map<String, Long> statusCounts = new HashMap<>();
+        private long total;
+
+        RollupDelta(String scope, String studentId, String courseCode, LocalDate date) {
+            this.scope = scope;
+            this.studentId = studentId;
+            this.courseCode = courseCode;
+            this.date = date;
+        }
+
+        void add(String status, long delta) {
+            statusCounts.merge(status, delta, Long::sum);
+            total += delta;
+        }
+
+        boolean isEmpty() {
+            return total == 0 && statusCounts.values().stream().allMatch(count -> count == 0);
+        }
+    }
+}
@@ -1,23 +1,48 @@
 package com.eduai.schoolmanagement.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.AttendanceSyncItem;
+import com.eduai.schoolmanagement.dto.CursorPage;
+import com.eduai.schoolmanagement.dto.GateScanRequest;
 import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceRollup;
 import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.IdempotencyRecord;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.exception.ResourceNotFoundException;
 import com.eduai.schoolmanagement.repository.AttendanceRepository;
 import com.eduai.schoolmanagement.repository.CourseRepository;
 import com.eduai.schoolmanagement.repository.StudentRepository;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,14 +51,27 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class AttendanceService {
 
+    private static final Set<String> ATTENDANCE_STATUSES = Set.of("PRESENT", "ABSENT", "LATE", "EXCUSED");
+    private static final String SYNC_SCOPE = "attendance-sync";
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
     private final AttendanceRepository attendanceRepository;
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceMatrixService attendanceMatrixService;
+    private final IdempotencyService idempotencyService;
+    private final MongoTemplate mongoTemplate;
+    private final CursorPaginator cursorPaginator;
 
     public List<Attendance> getAllAttendance() {
         return attendanceRepository.findAll();
     }
 
+    public CursorPage<Attendance> getAttendancePage(String cursor, Integer limit) {
+        return cursorPaginator.page(Attendance.class, null, cursor, limit);
+    }
+
     public Optional<Attendance> getAttendanceById(String id) {
         return attendanceRepository.findById(id);
     }
@@ -69,113 +107,99 @@ public class AttendanceService {
     public Attendance saveAttendance(Attendance attendance) {
         log.info("Saving attendance for student: {} on date: {}",
                 attendance.getStudent().getStudentId(), attendance.getDate());
-        return attendanceRepository.save(attendance);
+        Attendance previous = attendance.getId() == null ? null
+                : attendanceRepository.findById(attendance.getId()).orElse(null);
+        Attendance saved = attendanceRepository.save(attendance);
+        publishChanges(previous == null ? List.of() : List.of(previous), List.of(saved));
+        return saved;
     }
 
     public List<Attendance> saveBulkAttendance(List<Attendance> attendanceList) {
         log.info("Saving bulk attendance records: {} records", attendanceList.size());
-        return attendanceRepository.saveAll(attendanceList);
+        List<String> existingIds = attendanceList.stream()
+                .map(Attendance::getId)
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+        List<Attendance> previous = existingIds.isEmpty() ? List.of() : attendanceRepository.findAllById(existingIds);
+        List<Attendance> saved = attendanceRepository.saveAll(attendanceList);
+        publishChanges(previous, saved);
+        return saved;
     }
 
     public Attendance updateAttendance(String id, Attendance attendance) {
+        Attendance previous = attendanceRepository.findById(id).orElse(null);
         attendance.setId(id);
-        return attendanceRepository.save(attendance);
+        Attendance saved = attendanceRepository.save(attendance);
+        publishChanges(previous == null ? List.of() : List.of(previous), List.of(saved));
+        return saved;
     }
 
     public void deleteAttendance(String id) {
         log.info("Deleting attendance record with id: {}", id);
+        Optional<Attendance> previous = attendanceRepository.findById(id);
         attendanceRepository.deleteById(id);
+        previous.ifPresent(removed -> publishChanges(List.of(removed), List.of()));
     }
 
     public double getStudentAttendanceRate(String studentId) {
-        List<Attendance> studentAttendance = getAttendanceByStudentId(studentId);
-        if (studentAttendance.isEmpty()) {
-            return 0.0;
-        }
-
-        long presentCount = studentAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus()))
-                .count();
-
-        return (double) presentCount / studentAttendance.size() * 100;
+        return attendanceRollupService.getStudentRollup(studentId)
+                .map(AttendanceRollup::getAttendanceRate)
+                .orElse(0.0);
     }
 
     public double getCourseAttendanceRate(String courseId) {
-        List<Attendance> courseAttendance = getAttendanceByCourseId(courseId);
-        if (courseAttendance.isEmpty()) {
-            return 0.0;
-        }
-
-        long presentCount = courseAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus()))
-                .count();
-
-        return (double) presentCount / courseAttendance.size() * 100;
+        return attendanceRollupService.getCourseRollup(courseId)
+                .map(AttendanceRollup::getAttendanceRate)
+                .orElse(0.0);
     }
 
     public Map<String, Object> getStudentAttendanceSummary(String studentId) {
-        List<Attendance> studentAttendance = getAttendanceByStudentId(studentId);
+        Optional<AttendanceRollup> rollup = attendanceRollupService.getStudentRollup(studentId);
 
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalSessions", studentAttendance.size());
-        summary.put("presentCount", studentAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus())).count());
-        summary.put("absentCount", studentAttendance.stream()
-                .filter(a -> "ABSENT".equals(a.getStatus())).count());
-        summary.put("lateCount", studentAttendance.stream()
-                .filter(a -> "LATE".equals(a.getStatus())).count());
-        summary.put("attendanceRate", getStudentAttendanceRate(studentId));
+        summary.put("totalSessions", rollup.map(AttendanceRollup::getTotal).orElse(0L));
+        summary.put("presentCount", rollup.map(r -> r.getCount("PRESENT")).orElse(0L));
+        summary.put("absentCount", rollup.map(r -> r.getCount("ABSENT")).orElse(0L));
+        summary.put("lateCount", rollup.map(r -> r.getCount("LATE")).orElse(0L));
+        summary.put("attendanceRate", rollup.map(AttendanceRollup::getAttendanceRate).orElse(0.0));
 
         // Recent attendance pattern (last 30 days)
         LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-        List<Attendance> recentAttendance = studentAttendance.stream()
-                .filter(a -> a.getDate().isAfter(thirtyDaysAgo))
-                .collect(Collectors.toList());
+        Map<String, Long> recentCounts = countByStatus(Criteria.where("student.studentId").is(studentId)
+                .and("date").gt(thirtyDaysAgo));
 
-        summary.put("recentAttendanceCount", recentAttendance.size());
-        summary.put("recentPresentCount", recentAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus())).count());
+        summary.put("recentAttendanceCount", total(recentCounts));
+        summary.put("recentPresentCount", recentCounts.getOrDefault("PRESENT", 0L));
 
         return summary;
     }
 
     public Map<String, Object> getCourseAttendanceSummary(String courseId) {
-        List<Attendance> courseAttendance = getAttendanceByCourseId(courseId);
+        Optional<AttendanceRollup> rollup = attendanceRollupService.getCourseRollup(courseId);
 
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalRecords", courseAttendance.size());
-        summary.put("averageAttendanceRate", getCourseAttendanceRate(courseId));
+        summary.put("totalRecords", rollup.map(AttendanceRollup::getTotal).orElse(0L));
+        summary.put("averageAttendanceRate", rollup.map(AttendanceRollup::getAttendanceRate).orElse(0.0));
 
-        // Group by student to get unique student count
-        Set<String> uniqueStudents = courseAttendance.stream()
-                .map(a -> a.getStudent().getStudentId())
-                .collect(Collectors.toSet());
-        summary.put("enrolledStudents", uniqueStudents.size());
+        // One STUDENT_COURSE rollup exists per student seen in the course
+        summary.put("enrolledStudents", attendanceRollupService.countStudentsInCourse(courseId));
 
         // Status breakdown
-        Map<String, Long> statusCounts = courseAttendance.stream()
-                .collect(Collectors.groupingBy(Attendance::getStatus, Collectors.counting()));
-        summary.put("statusBreakdown", statusCounts);
+        summary.put("statusBreakdown", statusBreakdown(rollup));
 
         return summary;
     }
 
     public Map<String, Object> getDailyAttendanceReport(LocalDate date) {
-        List<Attendance> dailyAttendance = getAttendanceByDate(date);
+        Optional<AttendanceRollup> rollup = attendanceRollupService.getDailyRollup(date);
 
         Map<String, Object> report = new HashMap<>();
         report.put("date", date);
-        report.put("totalRecords", dailyAttendance.size());
-
-        Map<String, Long> statusCounts = dailyAttendance.stream()
-                .collect(Collectors.groupingBy(Attendance::getStatus, Collectors.counting()));
-        report.put("statusBreakdown", statusCounts);
+        report.put("totalRecords", rollup.map(AttendanceRollup::getTotal).orElse(0L));
+        report.put("statusBreakdown", statusBreakdown(rollup));
 
         // Calculate overall attendance rate for the day
-        long presentCount = statusCounts.getOrDefault("PRESENT", 0L);
-        double attendanceRate = dailyAttendance.isEmpty() ? 0.0 :
-                (double) presentCount / dailyAttendance.size() * 100;
-        report.put("attendanceRate", attendanceRate);
+        report.put("attendanceRate", rollup.map(AttendanceRollup::getAttendanceRate).orElse(0.0));
 
         return report;
     }
@@ -185,33 +209,27 @@ public class AttendanceService {
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
 
-        List<Attendance> monthlyAttendance = getAttendanceByDateRange(startDate, endDate);
+        Map<LocalDate, long[]> dailyCounts = countPresentByDate(startDate, endDate);
 
         Map<String, Object> report = new HashMap<>();
         report.put("year", year);
         report.put("month", month);
-        report.put("totalRecords", monthlyAttendance.size());
-
-        // Group by date to get daily statistics
-        Map<LocalDate, List<Attendance>> dailyAttendance = monthlyAttendance.stream()
-                .collect(Collectors.groupingBy(Attendance::getDate));
 
+        // Daily statistics
+        long totalRecords = 0;
+        long totalPresent = 0;
         Map<String, Object> dailyStats = new HashMap<>();
-        for (Map.Entry<LocalDate, List<Attendance>> entry : dailyAttendance.entrySet()) {
-            List<Attendance> dayAttendance = entry.getValue();
-            long presentCount = dayAttendance.stream()
-                    .filter(a -> "PRESENT".equals(a.getStatus())).count();
-            double dayRate = (double) presentCount / dayAttendance.size() * 100;
-            dailyStats.put(entry.getKey().toString(), dayRate);
+        for (Map.Entry<LocalDate, long[]> entry : dailyCounts.entrySet()) {
+            long[] counts = entry.getValue();
+            totalRecords += counts[0];
+            totalPresent += counts[1];
+            dailyStats.put(entry.getKey().toString(), (double) counts[1] / counts[0] * 100);
         }
+        report.put("totalRecords", (int) totalRecords);
         report.put("dailyRates", dailyStats);
 
         // Overall monthly rate
-        long totalPresent = monthlyAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus()))
-                .count();
-        double monthlyRate = monthlyAttendance.isEmpty() ? 0.0 :
-                (double) totalPresent / monthlyAttendance.size() * 100;
+        double monthlyRate = totalRecords == 0 ? 0.0 : (double) totalPresent / totalRecords * 100;
         report.put("monthlyAttendanceRate", monthlyRate);
 
         return report;
@@ -233,9 +251,13 @@ public class AttendanceService {
         if (!existing.isEmpty()) {
             // Update existing record
             Attendance attendance = existing.get(0);
+            String previousStatus = attendance.getStatus();
             attendance.setStatus(status);
-            attendance.setMarkedAt(java.time.LocalDateTime.now());
-            return attendanceRepository.save(attendance);
+            attendance.setMarkedAt(LocalDateTime.now());
+            Attendance saved = attendanceRepository.save(attendance);
+            attendanceRollupService.recordStatusChange(saved, previousStatus);
+            attendanceMatrixService.apply(List.of(), List.of(saved));
+            return saved;
         }
 
         // Create new attendance record
@@ -244,83 +266,692 @@ public class AttendanceService {
 
         if (studentOpt.isPresent() && courseOpt.isPresent()) {
             Attendance attendance = new Attendance();
+            attendance.setStudent(toStudentInfo(studentOpt.get()));
+            attendance.setCourse(toCourseInfo(courseOpt.get()));
+            attendance.setDate(date);
+            attendance.setStatus(status);
+            attendance.setMarkedAt(LocalDateTime.now());
 
-            // Set student info
-            Attendance.StudentInfo studentInfo = new Attendance.StudentInfo();
-            Student student = studentOpt.get();
-            studentInfo.setStudentId(student.getStudentId());
-            studentInfo.setFirstName(student.getUser().getFirstName());
-            studentInfo.setLastName(student.getUser().getLastName());
-            studentInfo.setEmail(student.getUser().getEmail());
-            studentInfo.setGrade(student.getGrade());
-            studentInfo.setSection(student.getSection());
-            attendance.setStudent(studentInfo);
-
-            // Set course info
-            Attendance.CourseInfo courseInfo = new Attendance.CourseInfo();
-            Course course = courseOpt.get();
-            courseInfo.setCourseCode(course.getCourseCode());
-            courseInfo.setCourseName(course.getCourseName());
-            courseInfo.setDepartment(course.getDepartment());
-            attendance.setCourse(courseInfo);
+            Attendance saved = attendanceRepository.save(attendance);
+            publishChanges(List.of(), List.of(saved));
+            return saved;
+        }
+
+        throw new RuntimeException("Student or Course not found");
+    }
+
+    /**
+     * Mark a whole class at once. Student snapshots come from one $in query and
+     * every mark is written in a single unordered bulk of upserts keyed on
+     * (studentId, courseCode, date), so a 40-student roster costs a handful of
+     * round trips instead of 160.
+     */
+    public Map<String, Object> markRosterAttendance(String courseCode, LocalDate date,
+            Map<String, String> statuses, String markedBy) {
+        log.info("Marking roster attendance for course: {} on date: {} ({} students)",
+                courseCode, date, statuses.size());
+
+        Course course = courseRepository.findByCourseCode(courseCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Course", "courseCode", courseCode));
+        Attendance.CourseInfo courseInfo = toCourseInfo(course);
+
+        Map<String, Student> students = studentRepository.findSnapshotsByStudentIdIn(statuses.keySet()).stream()
+                .collect(Collectors.toMap(Student::getStudentId, student -> student, (first, second) -> first));
+
+        // Previous statuses keep the rollups right when a roster is re-submitted
+        Map<String, String> previousStatuses = new HashMap<>();
+        for (Attendance existing : attendanceRepository.findStatusesByCourseCodeAndDateAndStudentIdIn(
+                courseCode, date, statuses.keySet())) {
+            previousStatuses.put(existing.getStudent().getStudentId(), existing.getStatus());
+        }
 
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        List<Attendance> marked = new ArrayList<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+
+        for (Map.Entry<String, String> entry : statuses.entrySet()) {
+            String studentId = entry.getKey();
+            String status = entry.getValue() == null ? null : entry.getValue().toUpperCase();
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("studentId", studentId);
+            result.put("status", status);
+            results.put(studentId, result);
+
+            if (!ATTENDANCE_STATUSES.contains(status)) {
+                result.put("result", "INVALID_STATUS");
+                continue;
+            }
+            Student student = students.get(studentId);
+            if (student == null) {
+                result.put("result", "STUDENT_NOT_FOUND");
+                continue;
+            }
+
+            Attendance attendance = new Attendance();
+            attendance.setStudent(toStudentInfo(student));
+            attendance.setCourse(courseInfo);
             attendance.setDate(date);
             attendance.setStatus(status);
-            attendance.setMarkedAt(java.time.LocalDateTime.now());
+            marked.add(attendance);
 
-            return attendanceRepository.save(attendance);
+            bulkOps.upsert(attendanceKey(studentId, courseCode, date), rosterUpdate(attendance, markedBy, now));
+            result.put("result", previousStatuses.containsKey(studentId) ? "UPDATED" : "CREATED");
         }
 
-        throw new RuntimeException("Student or Course not found");
+        if (!marked.isEmpty()) {
+            try {
+                bulkOps.execute();
+            } catch (BulkOperationException e) {
+                // Unordered: everything except the reported operations was applied
+                List<Attendance> failed = new ArrayList<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    Attendance attendance = marked.get(error.getIndex());
+                    Map<String, Object> result = results.get(attendance.getStudent().getStudentId());
+                    result.put("result", "FAILED");
+                    result.put("error", error.getMessage());
+                    failed.add(attendance);
+                }
+                marked.removeAll(failed);
+                log.error("Roster attendance for course {} on {}: {} of {} writes failed",
+                        courseCode, date, failed.size(), failed.size() + marked.size());
+            }
+
+            List<Attendance> replaced = new ArrayList<>();
+            for (Attendance attendance : marked) {
+                String previousStatus = previousStatuses.get(attendance.getStudent().getStudentId());
+                if (previousStatus != null) {
+                    Attendance previous = new Attendance();
+                    previous.setStudent(attendance.getStudent());
+                    previous.setCourse(attendance.getCourse());
+                    previous.setDate(date);
+                    previous.setStatus(previousStatus);
+                    replaced.add(previous);
+                }
+            }
+            publishChanges(replaced, marked);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("courseCode", courseCode);
+        response.put("date", date);
+        response.put("totalStudents", statuses.size());
+        response.put("markedCount", marked.size());
+        response.put("results", new ArrayList<>(results.values()));
+        return response;
+    }
+
+    /**
+     * Write a batch of gate scans as one unordered bulk of upserts. Scans are
+     * first folded per (student, course, day); records created by a scan count
+     * as PRESENT in the rollups and matrices. A partly failed bulk is rethrown
+     * after the records it did create are published, so no scan is dropped silently.
+     */
+    public Map<String, Object> recordGateScans(List<GateScanRequest> scans) {
+        Map<String, Attendance> records = new LinkedHashMap<>();
+        for (GateScanRequest scan : scans) {
+            LocalDateTime scannedAt = scan.getScannedAt();
+            Attendance attendance = records.computeIfAbsent(
+                    scan.getStudentId() + "|" + scan.getCourseCode() + "|" + scannedAt.toLocalDate(), key -> {
+                        Attendance record = new Attendance();
+                        record.setStudent(new Attendance.StudentInfo());
+                        record.getStudent().setStudentId(scan.getStudentId());
+                        record.setCourse(new Attendance.CourseInfo());
+                        record.getCourse().setCourseCode(scan.getCourseCode());
+                        record.setDate(scannedAt.toLocalDate());
+                        record.setStatus("PRESENT");
+                        record.setMarkedBy(scan.getDeviceId() == null ? "gate" : "gate:" + scan.getDeviceId());
+                        return record;
+                    });
+            if ("IN".equals(scan.getDirection())) {
+                if (attendance.getCheckInTime() == null || scannedAt.isBefore(attendance.getCheckInTime())) {
+                    attendance.setCheckInTime(scannedAt);
+                }
+            } else if (attendance.getCheckOutTime() == null || scannedAt.isAfter(attendance.getCheckOutTime())) {
+                attendance.setCheckOutTime(scannedAt);
+            }
+        }
+
+        Set<String> studentIds = records.values().stream()
+                .map(attendance -> attendance.getStudent().getStudentId())
+                .collect(Collectors.toSet());
+        Map<String, Student> students = studentRepository.findSnapshotsByStudentIdIn(studentIds).stream()
+                .collect(Collectors.toMap(Student::getStudentId, student -> student, (first, second) -> first));
+        Map<String, Optional<Course>> courses = new HashMap<>();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Attendance> written = new ArrayList<>();
+        int unknown = 0;
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        for (Attendance attendance : records.values()) {
+            Student student = students.get(attendance.getStudent().getStudentId());
+            Optional<Course> course = courses.computeIfAbsent(attendance.getCourse().getCourseCode(),
+                    courseRepository::findByCourseCode);
+            if (student == null || course.isEmpty()) {
+                unknown++;
+                continue;
+            }
+            attendance.setStudent(toStudentInfo(student));
+            attendance.setCourse(toCourseInfo(course.get()));
+            bulkOps.upsert(attendanceKey(student.getStudentId(), course.get().getCourseCode(), attendance.getDate()),
+                    gateScanUpdate(attendance, now));
+            written.add(attendance);
+        }
+        if (unknown > 0) {
+            log.warn("Dropped gate scans for {} unknown student/course pairs", unknown);
+        }
+
+        List<Attendance> created = new ArrayList<>();
+        if (!written.isEmpty()) {
+            try {
+                created = created(written, bulkOps.execute());
+            } catch (BulkOperationException e) {
+                // Publish what was created, then fail the batch so the caller retries or parks it;
+                // the upserts are idempotent and a rewritten record matches instead of being created again
+                log.error("{} of {} gate scan writes failed", e.getErrors().size(), written.size());
+                publishChanges(List.of(), created(written, e.getResult()));
+                throw e;
+            }
+            publishChanges(List.of(), created);
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("scans", scans.size());
+        summary.put("records", written.size());
+        summary.put("created", created.size());
+        summary.put("unknown", unknown);
+        return summary;
+    }
+
+    private static List<Attendance> created(List<Attendance> written, BulkWriteResult result) {
+        List<Attendance> created = new ArrayList<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            created.add(written.get(upsert.getIndex()));
+        }
+        return created;
+    }
+
+    /**
+     * Apply a batch of offline marks. Each item carries a device-generated
+     * operation id: ids already seen return their original result, new ones
+     * are claimed in the idempotency store before anything is written. Marks
+     * for the same record resolve last-writer-wins on markedAt, both within
+     * the batch and against the stored record, and every write goes out in one
+     * unordered bulk so a bad item never sinks the rest.
+     */
+    public Map<String, Object> syncAttendance(List<AttendanceSyncItem> items, String markedBy) {
+        log.info("Syncing {} offline attendance items from {}", items.size(), markedBy);
+        List<Map<String, Object>> results = new ArrayList<>();
+        Map<String, Integer> itemsByOperation = new LinkedHashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            AttendanceSyncItem item = items.get(i);
+            Map<String, Object> result = new HashMap<>();
+            result.put("operationId", item.getOperationId());
+            results.add(result);
+
+            String error = validateSyncItem(item);
+            if (error != null) {
+                result.put("result", "INVALID");
+                result.put("error", error);
+            } else if (itemsByOperation.containsKey(item.getOperationId())) {
+                result.put("result", "DUPLICATE");
+            } else {
+                itemsByOperation.put(item.getOperationId(), i);
+            }
+        }
+
+        // Retries of operations that were already applied (or are being applied right now);
+        // a claim whose lease has run out is left to claim() to take over
+        Map<String, IdempotencyRecord> seen =
+                new HashMap<>(idempotencyService.find(SYNC_SCOPE, itemsByOperation.keySet()));
+        seen.values().removeIf(idempotencyService::isAbandoned);
+        seen.forEach((operationId, record) -> {
+            Map<String, Object> result = results.get(itemsByOperation.remove(operationId));
+            result.put("result", "DUPLICATE");
+            result.put("originalResult", IdempotencyRecord.STATUS_COMPLETED.equals(record.getStatus())
+                    ? record.getResult() : "IN_PROGRESS");
+        });
+        Set<String> claimed = idempotencyService.claim(SYNC_SCOPE, itemsByOperation.keySet());
+        itemsByOperation.keySet().removeIf(operationId -> {
+            if (claimed.contains(operationId)) {
+                return false;
+            }
+            Map<String, Object> result = results.get(itemsByOperation.get(operationId));
+            result.put("result", "DUPLICATE");
+            result.put("originalResult", "IN_PROGRESS");
+            return true;
+        });
+
+        // Every claim must end up completed or released, or retries see IN_PROGRESS until the TTL
+        Set<String> settled = new HashSet<>();
+        try {
+            Set<String> studentIds = new HashSet<>();
+            for (int index : itemsByOperation.values()) {
+                studentIds.add(items.get(index).getStudentId());
+            }
+            Map<String, Student> students = studentIds.isEmpty() ? Map.of()
+                    : studentRepository.findSnapshotsByStudentIdIn(studentIds).stream()
+                            .collect(Collectors.toMap(Student::getStudentId, student -> student,
+                                    (first, second) -> first));
+            Map<String, Optional<Course>> courses = new HashMap<>();
+
+            // Last writer wins inside the batch; losers never reach the database
+            Map<String, Integer> winners = new LinkedHashMap<>();
+            for (int index : itemsByOperation.values()) {
+                AttendanceSyncItem item = items.get(index);
+                Map<String, Object> result = results.get(index);
+                if (!students.containsKey(item.getStudentId())) {
+                    result.put("result", "STUDENT_NOT_FOUND");
+                    continue;
+                }
+                if (courses.computeIfAbsent(item.getCourseCode(), courseRepository::findByCourseCode).isEmpty()) {
+                    result.put("result", "COURSE_NOT_FOUND");
+                    continue;
+                }
+                String key = item.getStudentId() + "|" + item.getCourseCode() + "|" + item.getDate();
+                Integer current = winners.get(key);
+                if (current != null && item.getMarkedAt().isBefore(items.get(current).getMarkedAt())) {
+                    result.put("result", "STALE");
+                    continue;
+                }
+                if (current != null) {
+                    results.get(current).put("result", "STALE");
+                }
+                winners.put(key, index);
+            }
+
+            // Stored marks that are at least as new as the incoming ones also win
+            Map<String, Attendance> existing = findSyncTargets(
+                    winners.values().stream().map(items::get).collect(Collectors.toList()));
+            LocalDateTime now = LocalDateTime.now();
+            List<Integer> writeIndexes = new ArrayList<>();
+            List<Attendance> written = new ArrayList<>();
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+            for (Map.Entry<String, Integer> entry : winners.entrySet()) {
+                AttendanceSyncItem item = items.get(entry.getValue());
+                Attendance stored = existing.get(entry.getKey());
+                if (stored != null && stored.getMarkedAt() != null
+                        && !item.getMarkedAt().isAfter(stored.getMarkedAt())) {
+                    results.get(entry.getValue()).put("result", "STALE");
+                    continue;
+                }
+
+                Attendance attendance = new Attendance();
+                attendance.setStudent(toStudentInfo(students.get(item.getStudentId())));
+                attendance.setCourse(toCourseInfo(courses.get(item.getCourseCode()).get()));
+                attendance.setDate(item.getDate());
+                attendance.setStatus(item.getStatus());
+                attendance.setMarkedAt(item.getMarkedAt());
+                attendance.setReason(item.getReason());
+                attendance.setNotes(item.getNotes());
+
+                // The markedAt guard makes a concurrently written newer mark fail with a duplicate key instead
+                Query query = attendanceKey(item.getStudentId(), item.getCourseCode(), item.getDate());
+                query.addCriteria(new Criteria().orOperator(
+                        Criteria.where("markedAt").lt(item.getMarkedAt()),
+                        Criteria.where("markedAt").is(null)));
+                bulkOps.upsert(query, syncUpdate(attendance, markedBy, now));
+                writeIndexes.add(entry.getValue());
+                written.add(attendance);
+            }
+
+            List<String> failed = new ArrayList<>();
+            if (!written.isEmpty()) {
+                BulkWriteResult writeResult;
+                Set<Integer> rejected = new HashSet<>();
+                try {
+                    writeResult = bulkOps.execute();
+                } catch (BulkOperationException e) {
+                    writeResult = e.getResult();
+                    for (BulkWriteError error : e.getErrors()) {
+                        rejected.add(error.getIndex());
+                        int index = writeIndexes.get(error.getIndex());
+                        if (error.getCode() == DUPLICATE_KEY_ERROR) {
+                            results.get(index).put("result", "STALE");
+                        } else {
+                            results.get(index).put("result", "FAILED");
+                            results.get(index).put("error", error.getMessage());
+                            failed.add(items.get(index).getOperationId());
+                        }
+                    }
+                }
+                Set<Integer> upserted = new HashSet<>();
+                for (BulkWriteUpsert upsert : writeResult.getUpserts()) {
+                    upserted.add(upsert.getIndex());
+                }
+
+                List<Attendance> replaced = new ArrayList<>();
+                List<Attendance> applied = new ArrayList<>();
+                for (int i = 0; i < written.size(); i++) {
+                    if (rejected.contains(i)) {
+                        continue;
+                    }
+                    Attendance attendance = written.get(i);
+                    AttendanceSyncItem item = items.get(writeIndexes.get(i));
+                    Attendance previous = existing.get(
+                            item.getStudentId() + "|" + item.getCourseCode() + "|" + item.getDate());
+                    if (upserted.contains(i)) {
+                        results.get(writeIndexes.get(i)).put("result", "CREATED");
+                    } else {
+                        results.get(writeIndexes.get(i)).put("result", "UPDATED");
+                        if (previous != null) {
+                            Attendance snapshot = new Attendance();
+                            snapshot.setStudent(attendance.getStudent());
+                            snapshot.setCourse(attendance.getCourse());
+                            snapshot.setDate(attendance.getDate());
+                            snapshot.setStatus(previous.getStatus());
+                            replaced.add(snapshot);
+                        }
+                    }
+                    applied.add(attendance);
+                }
+                publishChanges(replaced, applied);
+            }
+
+            Map<String, String> completed = new HashMap<>();
+            for (String operationId : itemsByOperation.keySet()) {
+                if (!failed.contains(operationId)) {
+                    completed.put(operationId, (String) results.get(itemsByOperation.get(operationId)).get("result"));
+                }
+            }
+            idempotencyService.complete(SYNC_SCOPE, completed);
+            settled.addAll(completed.keySet());
+            // Failed writes give up their claim so the device's next retry runs them again
+            idempotencyService.release(SYNC_SCOPE, failed);
+            settled.addAll(failed);
+        } catch (RuntimeException e) {
+            List<String> unsettled = new ArrayList<>(itemsByOperation.keySet());
+            unsettled.removeAll(settled);
+            try {
+                idempotencyService.release(SYNC_SCOPE, unsettled);
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+
+        Map<String, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(result -> (String) result.get("result"), Collectors.counting()));
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalItems", items.size());
+        response.put("appliedCount", counts.getOrDefault("CREATED", 0L) + counts.getOrDefault("UPDATED", 0L));
+        response.put("resultCounts", counts);
+        response.put("results", results);
+        return response;
+    }
+
+    private static String validateSyncItem(AttendanceSyncItem item) {
+        if (item.getOperationId() == null || item.getOperationId().isBlank()) {
+            return "operationId is required";
+        }
+        if (item.getStudentId() == null || item.getCourseCode() == null || item.getDate() == null) {
+            return "studentId, courseCode and date are required";
+        }
+        if (item.getMarkedAt() == null) {
+            return "markedAt is required";
+        }
+        String status = item.getStatus() == null ? null : item.getStatus().toUpperCase();
+        if (!ATTENDANCE_STATUSES.contains(status)) {
+            return "status must be one of " + ATTENDANCE_STATUSES;
+        }
+        item.setStatus(status);
+        return null;
+    }
+
+    /**
+     * Stored status and markedAt for every record the batch touches, in one query
+     */
+    private Map<String, Attendance> findSyncTargets(List<AttendanceSyncItem> items) {
+        Map<String, Attendance> existing = new HashMap<>();
+        if (items.isEmpty()) {
+            return existing;
+        }
+        List<Criteria> keys = new ArrayList<>();
+        for (AttendanceSyncItem item : items) {
+            keys.add(Criteria.where("student.studentId").is(item.getStudentId())
+                    .and("course.courseCode").is(item.getCourseCode())
+                    .and("date").is(item.getDate()));
+        }
+        Query query = Query.query(new Criteria().orOperator(keys.toArray(new Criteria[0])));
+        query.fields().include("student.studentId").include("course.courseCode").include("date")
+                .include("status").include("markedAt");
+        for (Attendance attendance : mongoTemplate.find(query, Attendance.class)) {
+            existing.put(attendance.getStudent().getStudentId() + "|" + attendance.getCourse().getCourseCode()
+                    + "|" + attendance.getDate(), attendance);
+        }
+        return existing;
+    }
+
+    private static Query attendanceKey(String studentId, String courseCode, LocalDate date) {
+        return Query.query(Criteria.where("student.studentId").is(studentId)
+                .and("course.courseCode").is(courseCode)
+                .and("date").is(date));
+    }
+
+    /**
+     * Status fields are always overwritten; snapshots and audit fields only on insert.
+     * Key fields (studentId, courseCode, date) are copied from the query by the upsert.
+     */
+    private static Update rosterUpdate(Attendance attendance, String markedBy, LocalDateTime now) {
+        return withInsertSnapshots(new Update()
+                .set("status", attendance.getStatus())
+                .set("markedAt", now)
+                .set("markedBy", markedBy)
+                .set("updatedAt", now), attendance, now);
+    }
+
+    private static Update syncUpdate(Attendance attendance, String markedBy, LocalDateTime now) {
+        return withInsertSnapshots(new Update()
+                .set("status", attendance.getStatus())
+                .set("markedAt", attendance.getMarkedAt())
+                .set("markedBy", markedBy)
+                .set("reason", attendance.getReason())
+                .set("notes", attendance.getNotes())
+                .set("updatedAt", now), attendance, now);
+    }
+
+    /**
+     * The earliest IN and latest OUT win, so repeated scans are harmless. A scan
+     * never overrides a status a teacher has already marked.
+     */
+    private static Update gateScanUpdate(Attendance attendance, LocalDateTime now) {
+        Update update = new Update()
+                .set("updatedAt", now)
+                .setOnInsert("status", attendance.getStatus())
+                .setOnInsert("markedAt", now)
+                .setOnInsert("markedBy", attendance.getMarkedBy());
+        if (attendance.getCheckInTime() != null) {
+            update.min("checkInTime", attendance.getCheckInTime());
+        }
+        if (attendance.getCheckOutTime() != null) {
+            update.max("checkOutTime", attendance.getCheckOutTime());
+        }
+        return withInsertSnapshots(update, attendance, now);
+    }
+
+    private static Update withInsertSnapshots(Update update, Attendance attendance, LocalDateTime now) {
+        Attendance.StudentInfo student = attendance.getStudent();
+        Attendance.CourseInfo course = attendance.getCourse();
+        return update
+                .setOnInsert("student.firstName", student.getFirstName())
+                .setOnInsert("student.lastName", student.getLastName())
+                .setOnInsert("student.email", student.getEmail())
+                .setOnInsert("student.grade", student.getGrade())
+                .setOnInsert("student.section", student.getSection())
+                .setOnInsert("student.rollNumber", student.getRollNumber())
+                .setOnInsert("course.courseName", course.getCourseName())
+                .setOnInsert("course.department", course.getDepartment())
+                .setOnInsert("course.teacherName", course.getTeacherName())
+                .setOnInsert("course.classroom", course.getClassroom())
+                .setOnInsert("course.schedule", course.getSchedule())
+                .setOnInsert("createdAt", now)
+                .setOnInsert("active", true);
+    }
+
+    private static Attendance.StudentInfo toStudentInfo(Student student) {
+        Attendance.StudentInfo studentInfo = new Attendance.StudentInfo();
+        studentInfo.setStudentId(student.getStudentId());
+        if (student.getUser() != null) {
+            studentInfo.setFirstName(student.getUser().getFirstName());
+            studentInfo.setLastName(student.getUser().getLastName());
+            studentInfo.setEmail(student.getUser().getEmail());
+        }
+        studentInfo.setGrade(student.getGrade());
+        studentInfo.setSection(student.getSection());
+        studentInfo.setRollNumber(student.getRollNumber());
+        return studentInfo;
+    }
+
+    private static Attendance.CourseInfo toCourseInfo(Course course) {
+        Attendance.CourseInfo courseInfo = new Attendance.CourseInfo();
+        courseInfo.setCourseCode(course.getCourseCode());
+        courseInfo.setCourseName(course.getCourseName());
+        courseInfo.setDepartment(course.getDepartment());
+        if (course.getTeacher() != null) {
+            courseInfo.setTeacherName(course.getTeacher().getFirstName() + " " + course.getTeacher().getLastName());
+        }
+        courseInfo.setClassroom(course.getClassroom());
+        courseInfo.setSchedule(course.getSchedule());
+        return courseInfo;
     }
 
     public Map<String, Object> getAttendanceTrends(String studentId, String courseId,
             LocalDate startDate, LocalDate endDate) {
 
-        List<Attendance> attendanceRecords;
-
         // Set default date range if not provided (last 30 days)
         if (startDate == null) startDate = LocalDate.now().minusDays(30);
         if (endDate == null) endDate = LocalDate.now();
 
-        // Filter based on provided parameters
-        if (studentId != null && courseId != null) {
-            attendanceRecords = attendanceRepository.findByStudentStudentIdAndCourseCourseCodeAndDateBetween(
-                    studentId, courseId, startDate, endDate);
-        } else if (studentId != null) {
-            attendanceRecords = getStudentAttendanceByDateRange(studentId, startDate, endDate);
-        } else if (courseId != null) {
-            attendanceRecords = attendanceRepository.findByCourseCourseCodeAndDateBetween(
-                    courseId, startDate, endDate);
+        // Filter based on provided parameters; school-wide trends come straight from daily rollups
+        Map<LocalDate, long[]> dailyCounts;
+        if (studentId == null && courseId == null) {
+            dailyCounts = countPresentByDate(startDate, endDate);
         } else {
-            attendanceRecords = getAttendanceByDateRange(startDate, endDate);
+            Criteria criteria = Criteria.where("date").gte(startDate).lte(endDate);
+            if (studentId != null) {
+                criteria.and("student.studentId").is(studentId);
+            }
+            if (courseId != null) {
+                criteria.and("course.courseCode").is(courseId);
+            }
+            // Per-day counts come from the course's term matrix when the range fits in
+            // one term, otherwise from Mongo; weeks are folded here so the bucketing
+            // stays on the same LocalDate the records were written with
+            dailyCounts = courseId == null ? countPresentByDate(criteria)
+                    : attendanceMatrixService.getDailyCounts(courseId, studentId, startDate, endDate)
+                            .orElseGet(() -> countPresentByDate(criteria));
+        }
+
+        Map<Integer, long[]> weeklyData = new HashMap<>();
+        long totalRecords = 0;
+        long totalPresent = 0;
+        for (Map.Entry<LocalDate, long[]> entry : dailyCounts.entrySet()) {
+            long[] counts = entry.getValue();
+            long[] week = weeklyData.computeIfAbsent(entry.getKey().getDayOfYear() / 7, k -> new long[2]);
+            week[0] += counts[0];
+            week[1] += counts[1];
+            totalRecords += counts[0];
+            totalPresent += counts[1];
         }
 
         Map<String, Object> trends = new HashMap<>();
-        trends.put("totalRecords", attendanceRecords.size());
+        trends.put("totalRecords", (int) totalRecords);
         trends.put("dateRange", Map.of("start", startDate, "end", endDate));
 
         // Weekly trends
         Map<String, Double> weeklyTrends = new HashMap<>();
-        Map<Integer, List<Attendance>> weeklyData = attendanceRecords.stream()
-                .collect(Collectors.groupingBy(a -> a.getDate().getDayOfYear() / 7));
-
-        for (Map.Entry<Integer, List<Attendance>> entry : weeklyData.entrySet()) {
-            List<Attendance> weekData = entry.getValue();
-            long presentCount = weekData.stream()
-                    .filter(a -> "PRESENT".equals(a.getStatus())).count();
-            double weekRate = weekData.isEmpty() ? 0.0 : (double) presentCount / weekData.size() * 100;
-            weeklyTrends.put("Week " + entry.getKey(), weekRate);
+        for (Map.Entry<Integer, long[]> entry : weeklyData.entrySet()) {
+            long[] week = entry.getValue();
+            weeklyTrends.put("Week " + entry.getKey(), (double) week[1] / week[0] * 100);
         }
         trends.put("weeklyTrends", weeklyTrends);
 
         // Overall trend calculation
-        long totalPresent = attendanceRecords.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus())).count();
-        double overallRate = attendanceRecords.isEmpty() ? 0.0 :
-                (double) totalPresent / attendanceRecords.size() * 100;
+        double overallRate = totalRecords == 0 ? 0.0 : (double) totalPresent / totalRecords * 100;
         trends.put("overallAttendanceRate", overallRate);
 
         return trends;
     }
+
+    /**
+     * Recompute the attendance rollups from raw attendance records
+     */
+    public Map<String, Object> rebuildRollups() {
+        return attendanceRollupService.rebuild();
+    }
+
+    /**
+     * Feed an attendance change to the rollups and term matrices
+     */
+    private void publishChanges(List<Attendance> removed, List<Attendance> added) {
+        attendanceRollupService.apply(removed, added);
+        attendanceMatrixService.apply(removed, added);
+    }
+
+    /**
+     * Count attendance records matching the criteria, grouped by status
+     */
+    private Map<String, Long> countByStatus(Criteria criteria) {
+        TypedAggregation<Attendance> aggregation = Aggregation.newAggregation(Attendance.class,
+                Aggregation.match(criteria),
+                Aggregation.group("status").count().as("count"));
+        return toStatusCounts(mongoTemplate.aggregate(aggregation, Document.class).getMappedResults());
+    }
+
+    /**
+     * Count attendance records matching the criteria per date as {total, present}
+     */
+    private Map<LocalDate, long[]> countPresentByDate(Criteria criteria) {
+        TypedAggregation<Attendance> aggregation = Aggregation.newAggregation(Attendance.class,
+                Aggregation.match(criteria),
+                Aggregation.group("date").count().as("total")
+                        .sum(ConditionalOperators.when(Criteria.where("status").is("PRESENT"))
+                                .then(1).otherwise(0)).as("present"));
+
+        Map<LocalDate, long[]> dailyCounts = new HashMap<>();
+        for (Document day : mongoTemplate.aggregate(aggregation, Document.class)) {
+            LocalDate date = LocalDate.ofInstant(day.getDate("_id").toInstant(), ZoneId.systemDefault());
+            dailyCounts.put(date, new long[] {
+                    ((Number) day.get("total")).longValue(),
+                    ((Number) day.get("present")).longValue() });
+        }
+        return dailyCounts;
+    }
+
+    /**
+     * Per-date {total, present} counts for the whole school, read from daily rollups
+     */
+    private Map<LocalDate, long[]> countPresentByDate(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, long[]> dailyCounts = new HashMap<>();
+        for (AttendanceRollup rollup : attendanceRollupService.getDailyRollups(startDate, endDate)) {
+            if (rollup.getTotal() > 0) {
+                dailyCounts.put(rollup.getDate(), new long[] { rollup.getTotal(), rollup.getCount("PRESENT") });
+            }
+        }
+        return dailyCounts;
+    }
+
+    private static Map<String, Long> statusBreakdown(Optional<AttendanceRollup> rollup) {
+        Map<String, Long> statusCounts = new HashMap<>();
+        rollup.ifPresent(r -> r.getStatusCounts().forEach((status, count) -> {
+            if (count > 0) {
+                statusCounts.put(status, count);
+            }
+        }));
+        return statusCounts;
+    }
+
+    private static Map<String, Long> toStatusCounts(List<Document> groups) {
+        Map<String, Long> statusCounts = new HashMap<>();
+        for (Document group : groups) {
+            statusCounts.put(group.getString("_id"), ((Number) group.get("count")).longValue());
+        }
+        return statusCounts;
+    }
+
+    private static long total(Map<String, Long> statusCounts) {
+        return statusCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
 }
@@ -4,10 +4,10 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Course;
 import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.repository.CourseRepository;
@@ -25,11 +25,16 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
+    private final CursorPaginator cursorPaginator;
 
     public List<Course> getAllCourses() {
         return courseRepository.findAll();
     }
 
+    public CursorPage<Course> getCoursesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Course.class, null, cursor, limit);
+    }
+
     public Optional<Course> getCourseById(String id) {
         return courseRepository.findById(id);
     }
@@ -54,8 +59,8 @@ public class CourseService {
         return courseRepository.findByStatus(status);
     }
 
-    public Page<Course> searchCoursesByName(String name, Pageable pageable) {
-        return courseRepository.findByCourseNameContainingIgnoreCase(name, pageable);
+    public CursorPage<Course> searchCoursesByName(String name, String cursor, Integer limit) {
+        return cursorPaginator.page(Course.class, Criteria.where("courseName").regex(name, "i"), cursor, limit);
     }
 
     public List<Course> getActiveCourses() {
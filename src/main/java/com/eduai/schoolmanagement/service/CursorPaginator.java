@@ -0,0 +1,144 @@
+package com.eduai.schoolmanagement.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.dto.CursorPage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keyset pagination for list endpoints. A page is read in (sortKey, _id) order
+ * and the next one starts strictly after the last row returned, so a page costs
+ * the same at any depth instead of skipping over everything before it. The
+ * cursor handed back to the client is the last row's sort value and _id as
+ * base64url extended JSON, which keeps dates and ObjectIds typed across the
+ * round trip. Sort keys should lead an index (after any equality filter fields)
+ * with _id as the tiebreaker. A request without a limit gets the default page
+ * size, the first page included, and no page is ever larger than max-limit.
+ */
+@Service
+@RequiredArgsConstructor
+public class CursorPaginator {
+
+    private static final String ID = "_id";
+    private static final JsonWriterSettings TOKEN_JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.pagination.default-limit:50}")
+    private int defaultLimit = 50;
+
+    @Value("${app.pagination.max-limit:500}")
+    private int maxLimit = 500;
+
+    /**
+     * A page in insertion (_id) order
+     */
+    public <T> CursorPage<T> page(Class<T> type, Criteria filter, String cursor, Integer limit) {
+        return page(type, filter, ID, Sort.Direction.ASC, cursor, limit);
+    }
+
+    public <T> CursorPage<T> page(Class<T> type, Criteria filter, String sortKey, Sort.Direction direction,
+                                  String cursor, Integer limit) {
+        int size = pageSize(limit);
+        Criteria criteria = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            Criteria after = after(decode(cursor, sortKey, direction), sortKey, direction);
+            criteria = filter != null ? new Criteria().andOperator(filter, after) : after;
+        }
+
+        Query query = criteria != null ? new Query(criteria) : new Query();
+        Sort sort = ID.equals(sortKey) ? Sort.by(direction, ID) : Sort.by(direction, sortKey, ID);
+        query.with(sort).limit(size + 1);
+
+        // Raw documents so the cursor carries the stored value of the sort key, not its Java mapping
+        List<Document> rows = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = rows.subList(0, size);
+        }
+        List<T> items = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            items.add(mongoTemplate.getConverter().read(type, row));
+        }
+        String next = more ? encode(rows.get(rows.size() - 1), sortKey, direction) : null;
+        return new CursorPage<>(items, next);
+    }
+
+    int pageSize(Integer limit) {
+        if (limit == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private static Criteria after(Document token, String sortKey, Sort.Direction direction) {
+        Object id = token.get("i");
+        boolean ascending = direction.isAscending();
+        if (ID.equals(sortKey)) {
+            return ascending ? Criteria.where(ID).gt(id) : Criteria.where(ID).lt(id);
+        }
+        // null and missing sort first ascending and last descending; range operators never match them
+        Object value = token.get("v");
+        if (value == null) {
+            Criteria sameKey = new Criteria().andOperator(Criteria.where(sortKey).is(null),
+                    ascending ? Criteria.where(ID).gt(id) : Criteria.where(ID).lt(id));
+            return ascending ? new Criteria().orOperator(sameKey, Criteria.where(sortKey).ne(null)) : sameKey;
+        }
+        Criteria beyond = ascending ? Criteria.where(sortKey).gt(value) : Criteria.where(sortKey).lt(value);
+        Criteria sameKey = new Criteria().andOperator(Criteria.where(sortKey).is(value),
+                ascending ? Criteria.where(ID).gt(id) : Criteria.where(ID).lt(id));
+        return ascending ? new Criteria().orOperator(beyond, sameKey)
+                : new Criteria().orOperator(beyond, sameKey, Criteria.where(sortKey).is(null));
+    }
+
+    private static String encode(Document row, String sortKey, Sort.Direction direction) {
+        Document token = new Document("k", sortKey)
+                .append("d", direction.name())
+                .append("v", ID.equals(sortKey) ? null : valueAt(row, sortKey))
+                .append("i", row.get(ID));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(token.toJson(TOKEN_JSON).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Document decode(String cursor, String sortKey, Sort.Direction direction) {
+        Document token;
+        try {
+            token = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!sortKey.equals(token.get("k")) || !direction.name().equals(token.get("d"))
+                || token.get("i") == null) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        return token;
+    }
+
+    private static Object valueAt(Document row, String path) {
+        Object value = row;
+        for (String part : path.split("\\.")) {
+            if (!(value instanceof Document document)) {
+                return null;
+            }
+            value = document.get(part);
+        }
+        return value;
+    }
+}
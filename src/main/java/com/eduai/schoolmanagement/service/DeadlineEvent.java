@@ -0,0 +1,16 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by DeadlineScheduler when a tracked deadline is a day away (DUE_SOON) or has passed (OVERDUE)
+ */
+public record DeadlineEvent(String sourceType, String sourceId, String kind, String title, LocalDateTime deadline) {
+
+    public static final String ASSIGNMENT = "ASSIGNMENT";
+    public static final String INVOICE = "INVOICE";
+    public static final String ACCESS_CODE = "ACCESS_CODE";
+
+    public static final String DUE_SOON = "DUE_SOON";
+    public static final String OVERDUE = "OVERDUE";
+}
@@ -0,0 +1,56 @@
+package com.eduai.schoolmanagement.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.AccessCode;
+import com.eduai.schoolmanagement.entity.Invoice;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies the state changes a passed deadline implies. Each update is guarded
+ * by the state the document must still be in, so a timer left over from an
+ * invoice that was paid or a code that was revoked changes nothing; only a
+ * SENT invoice can become OVERDUE, never a DRAFT.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineEventHandler {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener
+    public void onDeadline(DeadlineEvent event) {
+        if (DeadlineEvent.DUE_SOON.equals(event.kind())) {
+            log.info("{} {} ({}) is due at {}", event.sourceType(), event.sourceId(), event.title(), event.deadline());
+            return;
+        }
+        switch (event.sourceType()) {
+            case DeadlineEvent.INVOICE -> {
+                long updated = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.sourceId())
+                                .and("paymentStatus").in("UNPAID", "PARTIAL")
+                                .and("status").is("SENT")),
+                        new Update().set("status", "OVERDUE"), Invoice.class).getModifiedCount();
+                if (updated > 0) {
+                    log.info("Invoice {} is now overdue", event.title());
+                }
+            }
+            case DeadlineEvent.ACCESS_CODE -> {
+                long updated = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.sourceId())
+                                .and("status").is("ACTIVE")),
+                        new Update().set("status", "EXPIRED").set("isExpired", true), AccessCode.class).getModifiedCount();
+                if (updated > 0) {
+                    log.info("Expired {}", event.title());
+                }
+            }
+            default -> log.info("{} {} ({}) is now overdue", event.sourceType(), event.sourceId(), event.title());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.AccessCode;
+import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.Invoice;
+import com.eduai.schoolmanagement.entity.SchedulerCheckpoint;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fires DeadlineEvents for assignment due dates, invoice due dates and access
+ * code expiries. Every open deadline sits in an in-process TimingWheel as two
+ * timers, DUE_SOON (due-soon-hours ahead) and OVERDUE; a tick only touches the
+ * timers that come due, so Mongo is never polled by date. Services reschedule
+ * a deadline whenever they save it. The wheel is rebuilt from Mongo at start
+ * from the persisted checkpoint, so deadlines that passed while the
+ * application was down fire on the first tick.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineScheduler {
+
+    static final String CHECKPOINT_ID = "deadlines";
+    private static final List<String> OPEN_PAYMENT_STATUSES = List.of("UNPAID", "PARTIAL");
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.deadlines.tick-ms:60000}")
+    private long tickMillis = 60000;
+
+    @Value("${app.deadlines.due-soon-hours:24}")
+    private long dueSoonHours = 24;
+
+    private TimingWheel<DeadlineEvent> wheel;
+
+    /**
+     * Load every deadline still ahead of the checkpoint; returns the number of pending timers
+     */
+    public int rebuild() {
+        return rebuild(System.currentTimeMillis());
+    }
+
+    synchronized int rebuild(long nowMillis) {
+        long startTime = System.currentTimeMillis();
+        SchedulerCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, SchedulerCheckpoint.class);
+        long since = checkpoint != null && checkpoint.getFiredThrough() != null
+                ? toMillis(checkpoint.getFiredThrough()) : nowMillis;
+        wheel = new TimingWheel<>(tickMillis, since);
+        LocalDateTime sinceTime = toLocalDateTime(since);
+
+        Query assignments = Query.query(Criteria.where("dueDate").gt(sinceTime));
+        assignments.fields().include("title").include("dueDate");
+        try (Stream<Assignment> stream = mongoTemplate.stream(assignments, Assignment.class)) {
+            stream.forEach(assignment -> add(DeadlineEvent.ASSIGNMENT, assignment.getId(), assignment.getTitle(),
+                    assignment.getDueDate(), since));
+        }
+
+        // A sent invoice is overdue once its due date has ended; drafts are not due yet
+        Query invoices = Query.query(Criteria.where("dueDate").gte(sinceTime.toLocalDate())
+                .and("paymentStatus").in(OPEN_PAYMENT_STATUSES)
+                .and("status").is("SENT"));
+        invoices.fields().include("invoiceNumber").include("dueDate");
+        try (Stream<Invoice> stream = mongoTemplate.stream(invoices, Invoice.class)) {
+            stream.forEach(invoice -> add(DeadlineEvent.INVOICE, invoice.getId(), invoice.getInvoiceNumber(),
+                    invoice.getDueDate().plusDays(1).atStartOfDay(), since));
+        }
+
+        Query accessCodes = Query.query(Criteria.where("expiryDate").gt(sinceTime).and("status").is("ACTIVE"));
+        accessCodes.fields().include("codeType").include("entityId").include("expiryDate");
+        try (Stream<AccessCode> stream = mongoTemplate.stream(accessCodes, AccessCode.class)) {
+            stream.forEach(code -> add(DeadlineEvent.ACCESS_CODE, code.getId(), accessCodeTitle(code),
+                    code.getExpiryDate(), since));
+        }
+
+        log.info("Deadline scheduler loaded {} timers from {} in {} ms",
+                wheel.size(), sinceTime, System.currentTimeMillis() - startTime);
+        return wheel.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.deadlines.tick-ms:60000}")
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    /**
+     * Advance the wheel to now, publish what came due and move the checkpoint; returns the number of events
+     */
+    int tick(long nowMillis) {
+        List<DeadlineEvent> fired;
+        long firedThrough;
+        synchronized (this) {
+            if (wheel == null) {
+                return 0;
+            }
+            fired = wheel.advance(nowMillis).stream().map(timer -> timer.payload).toList();
+            firedThrough = wheel.currentTimeMillis();
+        }
+        for (DeadlineEvent event : fired) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Deadline event {} {} {} failed: {}", event.kind(), event.sourceType(), event.sourceId(),
+                        e.getMessage());
+            }
+        }
+        // Checkpoint after publishing: a crash in between repeats events rather than losing them
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                new Update().set("firedThrough", toLocalDateTime(firedThrough)).set("updatedAt", LocalDateTime.now()),
+                SchedulerCheckpoint.class);
+        if (!fired.isEmpty()) {
+            log.info("Fired {} deadline events", fired.size());
+        }
+        return fired.size();
+    }
+
+    public synchronized void scheduleAssignment(Assignment assignment) {
+        if (wheel == null || assignment.getId() == null) {
+            return;
+        }
+        if (assignment.getDueDate() == null) {
+            cancel(DeadlineEvent.ASSIGNMENT, assignment.getId());
+            return;
+        }
+        add(DeadlineEvent.ASSIGNMENT, assignment.getId(), assignment.getTitle(), assignment.getDueDate(),
+                System.currentTimeMillis());
+    }
+
+    public synchronized void cancelAssignment(String assignmentId) {
+        if (wheel != null) {
+            cancel(DeadlineEvent.ASSIGNMENT, assignmentId);
+        }
+    }
+
+    public synchronized void scheduleInvoice(Invoice invoice) {
+        if (wheel == null || invoice.getId() == null) {
+            return;
+        }
+        if (invoice.getDueDate() == null || !OPEN_PAYMENT_STATUSES.contains(invoice.getPaymentStatus())
+                || !"SENT".equals(invoice.getStatus())) {
+            cancel(DeadlineEvent.INVOICE, invoice.getId());
+            return;
+        }
+        add(DeadlineEvent.INVOICE, invoice.getId(), invoice.getInvoiceNumber(),
+                invoice.getDueDate().plusDays(1).atStartOfDay(), System.currentTimeMillis());
+    }
+
+    public synchronized void scheduleAccessCode(AccessCode code) {
+        if (wheel == null || code.getId() == null) {
+            return;
+        }
+        if (code.getExpiryDate() == null || !"ACTIVE".equals(code.getStatus())) {
+            cancel(DeadlineEvent.ACCESS_CODE, code.getId());
+            return;
+        }
+        add(DeadlineEvent.ACCESS_CODE, code.getId(), accessCodeTitle(code), code.getExpiryDate(),
+                System.currentTimeMillis());
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    /**
+     * (Re)schedule both timers of a deadline, skipping any that fall at or before since
+     */
+    private void add(String sourceType, String sourceId, String title, LocalDateTime deadline, long since) {
+        long due = toMillis(deadline);
+        long dueSoon = due - TimeUnit.HOURS.toMillis(dueSoonHours);
+        schedule(sourceType, sourceId, DeadlineEvent.DUE_SOON, title, deadline, dueSoon, since);
+        schedule(sourceType, sourceId, DeadlineEvent.OVERDUE, title, deadline, due, since);
+    }
+
+    private void schedule(String sourceType, String sourceId, String kind, String title, LocalDateTime deadline,
+                          long fireAt, long since) {
+        String key = key(sourceType, sourceId, kind);
+        if (fireAt > since) {
+            wheel.schedule(key, fireAt, new DeadlineEvent(sourceType, sourceId, kind, title, deadline));
+        } else {
+            wheel.cancel(key);
+        }
+    }
+
+    private void cancel(String sourceType, String sourceId) {
+        wheel.cancel(key(sourceType, sourceId, DeadlineEvent.DUE_SOON));
+        wheel.cancel(key(sourceType, sourceId, DeadlineEvent.OVERDUE));
+    }
+
+    private static String key(String sourceType, String sourceId, String kind) {
+        return sourceType + ":" + sourceId + ":" + kind;
+    }
+
+    private static String accessCodeTitle(AccessCode code) {
+        // Never the code itself: events end up in logs
+        return code.getCodeType() + " access code for " + code.getEntityId();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -1,11 +1,11 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Employee;
 import com.eduai.schoolmanagement.repository.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +20,7 @@ public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
     private final IDGenerationService idGenerationService;
+    private final CursorPaginator cursorPaginator;
 
     // ====================
     // BASIC CRUD OPERATIONS
@@ -29,6 +30,10 @@ public class EmployeeService {
         return employeeRepository.findAll();
     }
 
+    public CursorPage<Employee> getEmployeesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Employee.class, null, cursor, limit);
+    }
+
     public Optional<Employee> getEmployeeById(String id) {
         return employeeRepository.findById(id);
     }
@@ -106,9 +111,11 @@ public class EmployeeService {
         return employeeRepository.findByStatus(status);
     }
 
-    public Page<Employee> searchEmployeesByName(String name, Pageable pageable) {
-        return employeeRepository.findByPersonalInfoFirstNameContainingIgnoreCaseOrPersonalInfoLastNameContainingIgnoreCase(
-            name, name, pageable);
+    public CursorPage<Employee> searchEmployeesByName(String name, String cursor, Integer limit) {
+        Criteria matches = new Criteria().orOperator(
+            Criteria.where("personalInfo.firstName").regex(name, "i"),
+            Criteria.where("personalInfo.lastName").regex(name, "i"));
+        return cursorPaginator.page(Employee.class, matches, cursor, limit);
     }
 
     public List<Employee> getEmployeesByManager(String manager) {
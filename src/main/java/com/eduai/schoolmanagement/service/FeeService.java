@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Fee;
 import com.eduai.schoolmanagement.repository.FeeRepository;
 
@@ -20,11 +21,16 @@ import lombok.extern.slf4j.Slf4j;
 public class FeeService {
 
     private final FeeRepository feeRepository;
+    private final CursorPaginator cursorPaginator;
 
     public List<Fee> getAllFees() {
         return feeRepository.findAll();
     }
 
+    public CursorPage<Fee> getFeesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Fee.class, null, cursor, limit);
+    }
+
     public Optional<Fee> getFeeById(String id) {
         return feeRepository.findById(id);
     }
@@ -0,0 +1,256 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.dto.GateScanRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Buffers gate scanner events in a bounded queue and writes them in groups.
+ * A single flusher thread drains up to {@code batch-size} events, or whatever
+ * arrived within {@code flush-interval-ms}, into one bulk write. When the queue
+ * is full, submit() accepts what fits and the caller answers 429.
+ *
+ * Accepted scans have already been acknowledged to the gate, so a failed
+ * write is retried with exponential backoff (which also holds the queue back)
+ * and, if it keeps failing, the batch is parked in gate_scan_dead_letters and
+ * replayed periodically. Gate scan writes are upserts, so a replay is safe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GateScanIngestService {
+
+    static final String DEAD_LETTER_COLLECTION = "gate_scan_dead_letters";
+
+    private final AttendanceService attendanceService;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.attendance.gate.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${app.attendance.gate.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.attendance.gate.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    @Value("${app.attendance.gate.write-attempts:4}")
+    private int writeAttempts = 4;
+
+    @Value("${app.attendance.gate.retry-backoff-ms:250}")
+    private long retryBackoffMs = 250;
+
+    private BlockingQueue<GateScanRequest> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("attendance.gate.queue.size", queue, Collection::size);
+        running = true;
+        flusher = new Thread(this::flushLoop, "gate-scan-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever is still queued is written from the shutdown thread
+        List<GateScanRequest> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+
+    /**
+     * Validate and enqueue scans in order; returns how many were accepted before the queue filled
+     */
+    public int submit(List<GateScanRequest> scans) {
+        LocalDateTime now = LocalDateTime.now();
+        for (GateScanRequest scan : scans) {
+            validate(scan, now);
+        }
+        int accepted = 0;
+        for (GateScanRequest scan : scans) {
+            if (!queue.offer(scan)) {
+                break;
+            }
+            accepted++;
+        }
+        meterRegistry.counter("attendance.gate.scans", "result", "accepted").increment(accepted);
+        meterRegistry.counter("attendance.gate.scans", "result", "rejected").increment(scans.size() - accepted);
+        return accepted;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Write back batches that were parked after repeated write failures. Parked scans are
+     * removed only after they are written, so a crash mid-replay leaves them for the next one.
+     */
+    @Scheduled(fixedDelayString = "${app.attendance.gate.dead-letter-replay-ms:60000}")
+    public void replayDeadLetters() {
+        List<Document> parked;
+        try {
+            parked = mongoTemplate.find(new Query().limit(batchSize), Document.class, DEAD_LETTER_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Could not read parked gate scans: {}", e.getMessage());
+            return;
+        }
+        if (parked.isEmpty()) {
+            return;
+        }
+        List<Object> ids = new ArrayList<>(parked.size());
+        List<GateScanRequest> scans = new ArrayList<>(parked.size());
+        for (Document document : parked) {
+            ids.add(document.get("_id"));
+            scans.add(mongoTemplate.getConverter().read(GateScanRequest.class, document));
+        }
+        log.info("Replaying {} parked gate scans", scans.size());
+        Exception failure = write(scans);
+        if (failure != null) {
+            log.warn("Parked gate scans still cannot be written, keeping them: {}", failure.getMessage());
+            return;
+        }
+        // A failed remove only means the scans are written again next time, which the upserts tolerate
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), DEAD_LETTER_COLLECTION);
+        meterRegistry.counter("attendance.gate.scans", "result", "replayed").increment(scans.size());
+    }
+
+    private static void validate(GateScanRequest scan, LocalDateTime now) {
+        if (scan.getStudentId() == null || scan.getStudentId().isBlank()) {
+            throw new IllegalArgumentException("studentId is required");
+        }
+        if (scan.getCourseCode() == null || scan.getCourseCode().isBlank()) {
+            throw new IllegalArgumentException("courseCode is required");
+        }
+        String direction = scan.getDirection() == null ? null : scan.getDirection().toUpperCase();
+        if (!"IN".equals(direction) && !"OUT".equals(direction)) {
+            throw new IllegalArgumentException("direction must be IN or OUT");
+        }
+        scan.setDirection(direction);
+        if (scan.getScannedAt() == null) {
+            scan.setScannedAt(now);
+        }
+    }
+
+    private void flushLoop() {
+        List<GateScanRequest> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for a first event, then gather more until the batch is full or the interval has passed
+     */
+    private void collect(List<GateScanRequest> batch) throws InterruptedException {
+        GateScanRequest first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            GateScanRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<GateScanRequest> batch) {
+        Exception failure = write(batch);
+        if (failure != null) {
+            deadLetter(batch, failure);
+        }
+    }
+
+    /**
+     * Write a batch, retrying with exponential backoff; returns the last failure, or null once written
+     */
+    private Exception write(List<GateScanRequest> batch) {
+        long startTime = System.nanoTime();
+        long backoffMs = retryBackoffMs;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Map<String, Object> result = attendanceService.recordGateScans(new ArrayList<>(batch));
+                    log.debug("Flushed {} gate scans: {}", batch.size(), result);
+                    return null;
+                } catch (Exception e) {
+                    if (attempt >= writeAttempts) {
+                        return e;
+                    }
+                    log.warn("Failed to write {} gate scans (attempt {} of {}), retrying in {} ms: {}",
+                            batch.size(), attempt, writeAttempts, backoffMs, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+                backoffMs *= 2;
+            }
+        } finally {
+            meterRegistry.timer("attendance.gate.flush").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void deadLetter(List<GateScanRequest> batch, Exception cause) {
+        try {
+            mongoTemplate.insert(new ArrayList<>(batch), DEAD_LETTER_COLLECTION);
+            meterRegistry.counter("attendance.gate.scans", "result", "parked").increment(batch.size());
+            log.error("Parked {} gate scans for replay after repeated write failures: {}",
+                    batch.size(), cause.getMessage());
+        } catch (Exception e) {
+            // Last resort: the scans are only recoverable from this log entry
+            meterRegistry.counter("attendance.gate.scans", "result", "failed").increment(batch.size());
+            log.error("Lost {} gate scans, could not park them ({}): {}", batch.size(), e.getMessage(), batch);
+        }
+    }
+}
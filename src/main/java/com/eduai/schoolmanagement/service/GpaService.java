@@ -0,0 +1,390 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.GradeRollup;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.repository.GradeRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps weighted grade sums per student and course (grade_rollups) in step with
+ * grade writes and derives Student.currentGPA and subjectPerformance from them.
+ * A grade counts once it leaves PENDING; its weight is the assignment weight, or 1
+ * when the assignment has none. Course GPA points are credit-weighted on a 4.0 scale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GpaService {
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private final GradeRollupRepository gradeRollupRepository;
+    private final MongoTemplate mongoTemplate;
+    private final RankingService rankingService;
+
+    @Value("${app.grades.gpa.recompute-threads:4}")
+    private int threads = 4;
+
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+
+    /**
+     * Stored GPA plus the per-course figures it was derived from
+     */
+    public Map<String, Object> getStudentGpa(Student student) {
+        List<Map<String, Object>> courses = new ArrayList<>();
+        for (GradeRollup rollup : gradeRollupRepository.findByStudentId(student.getId())) {
+            if (rollup.getGradeCount() <= 0) {
+                continue;
+            }
+            Map<String, Object> course = new LinkedHashMap<>();
+            course.put("courseCode", rollup.getCourseCode());
+            course.put("credits", rollup.getCredits());
+            course.put("gradeCount", rollup.getGradeCount());
+            course.put("averagePercentage", round(rollup.getAveragePercentage()));
+            course.put("gradePoints", gradePoints(rollup.getAveragePercentage()));
+            courses.add(course);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentId", student.getStudentId());
+        result.put("currentGPA", student.getCurrentGPA());
+        result.put("courses", courses);
+        return result;
+    }
+
+    /**
+     * Apply removed and added grades to the rollups, then refresh the affected students
+     */
+    public void apply(Collection<Grade> removed, Collection<Grade> added) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        for (Grade grade : removed) {
+            accumulate(deltas, grade, -1);
+        }
+        for (Grade grade : added) {
+            accumulate(deltas, grade, 1);
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradeRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> studentIds = new LinkedHashSet<>();
+        for (Map.Entry<String, RollupDelta> entry : deltas.entrySet()) {
+            RollupDelta delta = entry.getValue();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            Update update = new Update()
+                    .setOnInsert("studentId", delta.studentId)
+                    .setOnInsert("courseId", delta.courseId)
+                    .set("courseCode", delta.courseCode)
+                    .set("credits", delta.credits)
+                    .set("lastUpdated", now)
+                    .inc("weightedPercentage", delta.weightedPercentage)
+                    .inc("totalWeight", delta.totalWeight)
+                    .inc("gradeCount", delta.gradeCount);
+            if (delta.gradeLevel != null) {
+                update.set("gradeLevel", delta.gradeLevel);
+            }
+            bulkOps.upsert(Query.query(Criteria.where("_id").is(entry.getKey())), update);
+            studentIds.add(delta.studentId);
+        }
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        try {
+            bulkOps.execute();
+        } catch (Exception e) {
+            // The grade write already succeeded; a recompute brings the sums back in line
+            log.error("Failed to update grade rollups for {} students: {}", studentIds.size(), e.getMessage());
+            return;
+        }
+        refreshStudents(studentIds);
+    }
+
+    /**
+     * Rebuild every rollup from the grades collection, one course per task, then
+     * rewrite all student GPAs. Returns immediately if a recompute is already running.
+     */
+    public Map<String, Object> recomputeAll() {
+        if (!recomputing.compareAndSet(false, true)) {
+            return Map.of("status", "ALREADY_RUNNING");
+        }
+        try {
+            return recompute();
+        } finally {
+            recomputing.set(false);
+        }
+    }
+
+    public boolean isRecomputing() {
+        return recomputing.get();
+    }
+
+    private Map<String, Object> recompute() {
+        long startTime = System.currentTimeMillis();
+        List<String> courseIds = new ArrayList<>();
+        for (Object courseId : mongoTemplate.findDistinct(new Query(), "course._id", Grade.class, Object.class)) {
+            courseIds.add(courseId.toString());
+        }
+        // Courses that no longer have any grades
+        mongoTemplate.remove(Query.query(Criteria.where("courseId").nin(courseIds)), GradeRollup.class);
+
+        long rollups = 0;
+        List<String> failed = new ArrayList<>();
+        if (!courseIds.isEmpty()) {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, courseIds.size()));
+            try {
+                Map<String, Future<Integer>> futures = new LinkedHashMap<>();
+                for (String courseId : courseIds) {
+                    futures.put(courseId, pool.submit(() -> recomputeCourse(courseId)));
+                }
+                for (Map.Entry<String, Future<Integer>> entry : futures.entrySet()) {
+                    try {
+                        rollups += entry.getValue().get();
+                    } catch (ExecutionException e) {
+                        failed.add(entry.getKey());
+                        log.error("GPA recompute for course {} failed: {}", entry.getKey(), e.getCause().getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(courseIds);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        List<String> studentIds = mongoTemplate.findDistinct(new Query(), "studentId", GradeRollup.class, String.class);
+        Set<String> graded = new HashSet<>(studentIds);
+        Query withGpa = Query.query(Criteria.where("currentGPA").ne(0));
+        withGpa.fields().include("_id");
+        List<String> refresh = new ArrayList<>(studentIds);
+        for (Student student : mongoTemplate.find(withGpa, Student.class)) {
+            if (!graded.contains(student.getId())) {
+                refresh.add(student.getId());
+            }
+        }
+        for (int from = 0; from < refresh.size(); from += REFRESH_BATCH_SIZE) {
+            refreshStudents(refresh.subList(from, Math.min(from + REFRESH_BATCH_SIZE, refresh.size())));
+        }
+
+        // Rollups of courses that lost all their grades are gone; start the rankings over
+        rankingService.rebuild();
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Recomputed {} grade rollups for {} courses and {} students in {} ms",
+                rollups, courseIds.size(), refresh.size(), duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", failed.isEmpty() ? "COMPLETED" : "FAILED");
+        result.put("courses", courseIds.size());
+        result.put("failedCourses", failed);
+        result.put("rollups", rollups);
+        result.put("students", refresh.size());
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    private int recomputeCourse(String courseId) {
+        AggregationExpression weight = ConditionalOperators
+                .when(ComparisonOperators.valueOf("assignment.weight").greaterThanValue(0))
+                .thenValueOf("assignment.weight")
+                .otherwise(1);
+        TypedAggregation<Grade> aggregation = Aggregation.newAggregation(Grade.class,
+                Aggregation.match(Criteria.where("course._id").is(refId(courseId)).and("status").ne(STATUS_PENDING)),
+                Aggregation.group("student._id")
+                        .sum(ArithmeticOperators.valueOf("percentage").multiplyBy(weight)).as("weightedPercentage")
+                        .sum(weight).as("totalWeight")
+                        .count().as("gradeCount")
+                        .last("course.courseCode").as("courseCode")
+                        .last("course.credits").as("credits")
+                        .last("student.grade").as("gradeLevel"));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<GradeRollup> rollups = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Document.class)) {
+            if (group.get("_id") == null) {
+                continue;
+            }
+            GradeRollup rollup = new GradeRollup();
+            rollup.setStudentId(group.get("_id").toString());
+            rollup.setCourseId(courseId);
+            rollup.setId(GradeRollup.idOf(rollup.getStudentId(), courseId));
+            rollup.setCourseCode(group.getString("courseCode"));
+            rollup.setCredits(number(group, "credits").intValue());
+            rollup.setGradeLevel(group.getString("gradeLevel"));
+            rollup.setWeightedPercentage(number(group, "weightedPercentage").doubleValue());
+            rollup.setTotalWeight(number(group, "totalWeight").doubleValue());
+            rollup.setGradeCount(number(group, "gradeCount").longValue());
+            rollup.setLastUpdated(now);
+            rollups.add(rollup);
+        }
+
+        // Grade writes that land between these two steps need another recompute to show up
+        mongoTemplate.remove(Query.query(Criteria.where("courseId").is(courseId)), GradeRollup.class);
+        if (!rollups.isEmpty()) {
+            mongoTemplate.insert(rollups, GradeRollup.class);
+        }
+        return rollups.size();
+    }
+
+    /**
+     * Write GPA and per-course percentages for the given students (Student _ids)
+     */
+    private void refreshStudents(Collection<String> studentIds) {
+        Map<String, List<GradeRollup>> byStudent = new HashMap<>();
+        for (GradeRollup rollup : gradeRollupRepository.findByStudentIdIn(studentIds)) {
+            byStudent.computeIfAbsent(rollup.getStudentId(), id -> new ArrayList<>()).add(rollup);
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class);
+        for (String studentId : studentIds) {
+            List<GradeRollup> rollups = byStudent.getOrDefault(studentId, List.of());
+            rankingService.update(studentId, rollups);
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(studentId)), new Update()
+                    .set("currentGPA", gpa(rollups))
+                    .set("aiInsights.subjectPerformance", subjectPerformance(rollups)));
+        }
+        try {
+            bulkOps.execute();
+        } catch (Exception e) {
+            log.error("Failed to update GPA for {} students: {}", studentIds.size(), e.getMessage());
+        }
+    }
+
+    private static void accumulate(Map<String, RollupDelta> deltas, Grade grade, int sign) {
+        if (grade == null || STATUS_PENDING.equals(grade.getStatus()) || grade.getStudent() == null
+                || grade.getStudent().getId() == null || grade.getCourse() == null || grade.getCourse().getId() == null) {
+            return;
+        }
+        String studentId = grade.getStudent().getId();
+        String courseId = grade.getCourse().getId();
+        double weight = weightOf(grade);
+        RollupDelta delta = deltas.computeIfAbsent(GradeRollup.idOf(studentId, courseId),
+                id -> new RollupDelta(studentId, courseId));
+        delta.courseCode = grade.getCourse().getCourseCode();
+        delta.credits = grade.getCourse().getCredits();
+        if (grade.getStudent().getGrade() != null) {
+            delta.gradeLevel = grade.getStudent().getGrade();
+        }
+        delta.weightedPercentage += sign * grade.getPercentage() * weight;
+        delta.totalWeight += sign * weight;
+        delta.gradeCount += sign;
+    }
+
+    static double weightOf(Grade grade) {
+        return grade.getAssignment() != null && grade.getAssignment().getWeight() > 0
+                ? grade.getAssignment().getWeight() : 1.0;
+    }
+
+    /**
+     * Credit-weighted GPA; courses without credits count as one credit
+     */
+    static double gpa(Collection<GradeRollup> rollups) {
+        double points = 0;
+        double credits = 0;
+        for (GradeRollup rollup : rollups) {
+            if (rollup.getGradeCount() <= 0 || rollup.getTotalWeight() <= 0) {
+                continue;
+            }
+            int courseCredits = rollup.getCredits() > 0 ? rollup.getCredits() : 1;
+            points += gradePoints(rollup.getAveragePercentage()) * courseCredits;
+            credits += courseCredits;
+        }
+        return credits == 0 ? 0.0 : round(points / credits);
+    }
+
+    /**
+     * 4.0 scale on the same bands as the letter grades
+     */
+    static double gradePoints(double percentage) {
+        if (percentage >= 93) return 4.0;
+        if (percentage >= 90) return 3.7;
+        if (percentage >= 87) return 3.3;
+        if (percentage >= 83) return 3.0;
+        if (percentage >= 80) return 2.7;
+        if (percentage >= 77) return 2.3;
+        if (percentage >= 73) return 2.0;
+        if (percentage >= 70) return 1.7;
+        if (percentage >= 67) return 1.3;
+        if (percentage >= 63) return 1.0;
+        if (percentage >= 60) return 0.7;
+        return 0.0;
+    }
+
+    private static Map<String, Double> subjectPerformance(Collection<GradeRollup> rollups) {
+        Map<String, Double> performance = new HashMap<>();
+        for (GradeRollup rollup : rollups) {
+            if (rollup.getGradeCount() > 0 && rollup.getCourseCode() != null) {
+                performance.put(rollup.getCourseCode(), round(rollup.getAveragePercentage()));
+            }
+        }
+        return performance;
+    }
+
+    private static Number number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    private static Object refId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static class RollupDelta {
+        private final String studentId;
+        private final String courseId;
+        private String courseCode;
+        private int credits;
+        private String gradeLevel;
+        private double weightedPercentage;
+        private double totalWeight;
+        private long gradeCount;
+
+        RollupDelta(String studentId, String courseId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+
+        boolean isEmpty() {
+            return gradeCount == 0 && totalWeight == 0 && weightedPercentage == 0;
+        }
+    }
+}
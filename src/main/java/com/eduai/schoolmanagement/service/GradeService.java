@@ -1,11 +1,21 @@
 package com.eduai.schoolmanagement.service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Assignment;
 import com.eduai.schoolmanagement.entity.Course;
 import com.eduai.schoolmanagement.entity.Grade;
@@ -20,34 +30,43 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class GradeService {
 
+    private static final double PASSING_PERCENTAGE = 60;
+
     private final GradeRepository gradeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final GpaService gpaService;
+    private final CursorPaginator cursorPaginator;
 
     public List<Grade> getAllGrades() {
         return gradeRepository.findAll();
     }
 
+    public CursorPage<Grade> getGradesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Grade.class, null, cursor, limit);
+    }
+
     public Optional<Grade> getGradeById(String id) {
         return gradeRepository.findById(id);
     }
 
     public List<Grade> getGradesByStudent(Student student) {
-        return gradeRepository.findByStudent(student);
+        return gradeRepository.findByStudentId(student.getId());
     }
 
     public List<Grade> getGradesByCourse(Course course) {
-        return gradeRepository.findByCourse(course);
+        return gradeRepository.findByCourseId(course.getId());
     }
 
     public List<Grade> getGradesByAssignment(Assignment assignment) {
-        return gradeRepository.findByAssignment(assignment);
+        return gradeRepository.findByAssignmentId(assignment.getId());
     }
 
     public Optional<Grade> getGradeByStudentAndAssignment(Student student, Assignment assignment) {
-        return gradeRepository.findByStudentAndAssignment(student, assignment);
+        return gradeRepository.findByStudentIdAndAssignmentId(student.getId(), assignment.getId());
     }
 
     public List<Grade> getGradesByStudentAndCourse(Student student, Course course) {
-        return gradeRepository.findByStudentAndCourse(student, course);
+        return gradeRepository.findByStudentIdAndCourseId(student.getId(), course.getId());
     }
 
     public List<Grade> getPendingGrades() {
@@ -69,18 +88,20 @@ public class GradeService {
         calculateLetterGrade(grade);
         log.info("Saving grade for student: {} assignment: {}",
                 grade.getStudent().getStudentId(), grade.getAssignment().getTitle());
-        return gradeRepository.save(grade);
+        return persist(grade);
     }
 
     public Grade updateGrade(String id, Grade grade) {
         grade.setId(id);
         calculateLetterGrade(grade);
-        return gradeRepository.save(grade);
+        return persist(grade);
     }
 
     public void deleteGrade(String id) {
         log.info("Deleting grade with id: {}", id);
+        Optional<Grade> removed = gradeRepository.findById(id);
         gradeRepository.deleteById(id);
+        removed.ifPresent(grade -> gpaService.apply(List.of(grade), List.of()));
     }
 
     public Grade generateAIGrade(Grade grade, double aiScore, double confidence, String feedback) {
@@ -100,7 +121,7 @@ public class GradeService {
         calculateLetterGrade(grade);
 
         log.info("Generated AI grade: {} with confidence: {}", aiScore, confidence);
-        return gradeRepository.save(grade);
+        return persist(grade);
     }
 
     public Grade reviewAIGrade(String gradeId, boolean approved, String reviewComments) {
@@ -117,12 +138,112 @@ public class GradeService {
                 }
 
                 grade.setAiGrading(aiGrading);
-                return gradeRepository.save(grade);
+                return persist(grade);
             }
         }
         throw new RuntimeException("Grade not found or not AI generated");
     }
 
+    /**
+     * Grade analytics for one course, computed in a single $facet pipeline
+     */
+    public Map<String, Object> getCourseGradeAnalytics(Course course) {
+        return gradeAnalytics(Criteria.where("course._id").is(refId(course.getId())));
+    }
+
+    /**
+     * Grade analytics for one student, computed in a single $facet pipeline
+     */
+    public Map<String, Object> getStudentGradeAnalytics(Student student) {
+        return gradeAnalytics(Criteria.where("student._id").is(refId(student.getId())));
+    }
+
+    /**
+     * Matches on the embedded reference ids, so no student, course or assignment
+     * document is ever loaded; every figure comes back from one round trip.
+     */
+    private Map<String, Object> gradeAnalytics(Criteria criteria) {
+        TypedAggregation<Grade> aggregation = Aggregation.newAggregation(Grade.class,
+                Aggregation.match(criteria),
+                Aggregation.facet(
+                        Aggregation.group()
+                                .count().as("totalGrades")
+                                .sum(ConditionalOperators.when(Criteria.where("status").is("PENDING"))
+                                        .then(1).otherwise(0)).as("pendingGrades")
+                                .sum(ConditionalOperators.when(Criteria.where("status").in("GRADED", "PUBLISHED"))
+                                        .then(1).otherwise(0)).as("gradedCount")
+                                .sum(ConditionalOperators.when(Criteria.where("percentage").gte(PASSING_PERCENTAGE))
+                                        .then(1).otherwise(0)).as("passingGrades"))
+                        .as("totals")
+                        // A score of 0.0 means not graded yet
+                        .and(Aggregation.match(Criteria.where("score").gt(0)),
+                                Aggregation.group()
+                                        .count().as("gradedGrades")
+                                        .avg("score").as("averageScore")
+                                        .avg("percentage").as("averagePercentage"))
+                        .as("graded")
+                        .and(Aggregation.match(Criteria.where("letterGrade").nin(null, "")),
+                                Aggregation.group("letterGrade").count().as("count"))
+                        .as("letters"));
+
+        Document facets = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        Document totals = first(facets, "totals");
+        if (totals == null) {
+            return Map.of("message", "No grades available for analysis");
+        }
+        Document graded = first(facets, "graded");
+        long gradedGrades = graded == null ? 0 : number(graded, "gradedGrades").longValue();
+
+        Map<String, Long> letterGradeDistribution = new HashMap<>();
+        for (Document letter : facets.getList("letters", Document.class)) {
+            letterGradeDistribution.put(letter.getString("_id"), number(letter, "count").longValue());
+        }
+        double passingRate = gradedGrades == 0 ? 0.0
+                : number(totals, "passingGrades").doubleValue() * 100.0 / gradedGrades;
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalGrades", number(totals, "totalGrades").intValue());
+        analytics.put("gradedGrades", (int) gradedGrades);
+        analytics.put("averageScore", round(graded == null ? 0.0 : number(graded, "averageScore").doubleValue()));
+        analytics.put("averagePercentage", round(graded == null ? 0.0 : number(graded, "averagePercentage").doubleValue()));
+        analytics.put("pendingGrades", number(totals, "pendingGrades").longValue());
+        analytics.put("gradedCount", number(totals, "gradedCount").longValue());
+        analytics.put("letterGradeDistribution", letterGradeDistribution);
+        analytics.put("passingRate", round(passingRate));
+        return analytics;
+    }
+
+    /**
+     * Save a grade and move its contribution in the GPA rollups from the stored version to the new one
+     */
+    private Grade persist(Grade grade) {
+        Grade previous = grade.getId() == null ? null : gradeRepository.findById(grade.getId()).orElse(null);
+        Grade saved = gradeRepository.save(grade);
+        gpaService.apply(previous == null ? List.of() : List.of(previous), List.of(saved));
+        return saved;
+    }
+
+    private static Document first(Document facets, String name) {
+        List<Document> results = facets == null ? List.of() : facets.getList(name, Document.class);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private static Number number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Embedded reference _id as stored: ObjectId when the id is a valid ObjectId hex string
+     */
+    private static Object refId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
     private void calculateLetterGrade(Grade grade) {
         double percentage = grade.getPercentage();
         String letterGrade;
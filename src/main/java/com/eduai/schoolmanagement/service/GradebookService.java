@@ -0,0 +1,223 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Course;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a course gradebook as one dense students x assignments matrix. The
+ * assignment columns come from one projected query, the grades from one
+ * projected cursor sorted by studentId, and both are merged with the roster
+ * (also in studentId order) so each row is written as soon as it is complete.
+ * Rows and cells are positional arrays described by the *Columns headers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GradebookService {
+
+    public static final List<String> ASSIGNMENT_COLUMNS = List.of("id", "title", "type", "maxScore", "weight", "dueDate");
+    public static final List<String> STUDENT_COLUMNS = List.of("studentId", "firstName", "lastName", "enrolled");
+    public static final List<String> CELL_COLUMNS = List.of("score", "percentage", "letterGrade", "status");
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stream the gradebook for the course and return the number of student rows written
+     */
+    public long writeGradebook(Course course, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Object courseId = refId(course.getId());
+
+        List<Document> assignments = findAssignments(courseId);
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (Document assignment : assignments) {
+            columnIndex.put(idString(assignment.get("_id")), columnIndex.size());
+        }
+
+        List<Course.StudentInfo> roster = new ArrayList<>(
+                course.getEnrolledStudents() == null ? List.of() : course.getEnrolledStudents());
+        roster.removeIf(student -> student.getStudentId() == null);
+        roster.sort(Comparator.comparing(Course.StudentInfo::getStudentId));
+
+        long rows = 0;
+        long grades = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+             Stream<Document> cursor = mongoTemplate.stream(gradesQuery(courseId), Document.class, "grades")) {
+            // The servlet container owns the response stream
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.writeStartObject();
+            json.writeStringField("courseCode", course.getCourseCode());
+            json.writeStringField("courseName", course.getCourseName());
+            writeStrings(json, "assignmentColumns", ASSIGNMENT_COLUMNS);
+            json.writeArrayFieldStart("assignments");
+            for (Document assignment : assignments) {
+                json.writeStartArray();
+                json.writeString(idString(assignment.get("_id")));
+                json.writeString(assignment.getString("title"));
+                json.writeString(assignment.getString("type"));
+                writeNumber(json, assignment.get("maxScore"));
+                writeNumber(json, assignment.get("weight"));
+                Object dueDate = assignment.get("dueDate");
+                if (dueDate instanceof Date) {
+                    json.writeString(LocalDateTime.ofInstant(((Date) dueDate).toInstant(), ZoneId.systemDefault()).toString());
+                } else {
+                    json.writeNull();
+                }
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            writeStrings(json, "studentColumns", STUDENT_COLUMNS);
+            writeStrings(json, "cellColumns", CELL_COLUMNS);
+
+            json.writeArrayFieldStart("rows");
+            int next = 0; // next roster entry not yet written
+            Iterator<Document> iterator = cursor.iterator();
+            Document pending = iterator.hasNext() ? iterator.next() : null;
+            while (pending != null) {
+                Document student = (Document) pending.get("student");
+                String studentId = student == null ? null : student.getString("studentId");
+                Document[] cells = new Document[assignments.size()];
+                while (pending != null && sameStudent(pending, studentId)) {
+                    Document assignment = (Document) pending.get("assignment");
+                    Integer column = assignment == null ? null : columnIndex.get(idString(assignment.get("_id")));
+                    if (column != null) {
+                        cells[column] = pending;
+                    }
+                    grades++;
+                    pending = iterator.hasNext() ? iterator.next() : null;
+                }
+                if (studentId == null) {
+                    continue;
+                }
+                // Enrolled students without any grade so far sort in ahead of this one
+                while (next < roster.size() && roster.get(next).getStudentId().compareTo(studentId) < 0) {
+                    writeRow(json, roster.get(next++), null, new Document[assignments.size()]);
+                    rows++;
+                }
+                if (next < roster.size() && roster.get(next).getStudentId().equals(studentId)) {
+                    writeRow(json, roster.get(next++), null, cells);
+                } else {
+                    // Graded but no longer on the roster
+                    writeRow(json, null, student, cells);
+                }
+                rows++;
+            }
+            while (next < roster.size()) {
+                writeRow(json, roster.get(next++), null, new Document[assignments.size()]);
+                rows++;
+            }
+            json.writeEndArray();
+            json.writeNumberField("studentCount", rows);
+            json.writeEndObject();
+        }
+
+        log.info("Wrote gradebook for {}: {} students x {} assignments from {} grades in {} ms", course.getCourseCode(),
+                rows, assignments.size(), grades, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    private List<Document> findAssignments(Object courseId) {
+        Query query = Query.query(Criteria.where("course.$id").is(courseId))
+                .with(Sort.by(Sort.Order.asc("dueDate"), Sort.Order.asc("_id")));
+        query.fields().include("title").include("type").include("maxScore").include("weight").include("dueDate");
+        return mongoTemplate.find(query, Document.class, "assignments");
+    }
+
+    Query gradesQuery(Object courseId) {
+        Query query = Query.query(Criteria.where("course._id").is(courseId))
+                .with(Sort.by(Sort.Order.asc("student.studentId")));
+        query.fields()
+                .include("student.studentId").include("student.firstName").include("student.lastName")
+                .include("assignment._id")
+                .include("score").include("percentage").include("letterGrade").include("status")
+                .exclude("_id");
+        return query;
+    }
+
+    private void writeRow(JsonGenerator json, Course.StudentInfo enrolled, Document snapshot, Document[] cells)
+            throws IOException {
+        json.writeStartArray();
+        if (enrolled != null) {
+            json.writeString(enrolled.getStudentId());
+            json.writeString(enrolled.getFirstName());
+            json.writeString(enrolled.getLastName());
+        } else {
+            json.writeString(snapshot.getString("studentId"));
+            json.writeString(snapshot.getString("firstName"));
+            json.writeString(snapshot.getString("lastName"));
+        }
+        json.writeBoolean(enrolled != null);
+        json.writeStartArray();
+        for (Document cell : cells) {
+            if (cell == null) {
+                json.writeNull();
+                continue;
+            }
+            json.writeStartArray();
+            writeNumber(json, cell.get("score"));
+            writeNumber(json, cell.get("percentage"));
+            json.writeString(cell.getString("letterGrade"));
+            json.writeString(cell.getString("status"));
+            json.writeEndArray();
+        }
+        json.writeEndArray();
+        json.writeEndArray();
+    }
+
+    private static boolean sameStudent(Document grade, String studentId) {
+        Document student = (Document) grade.get("student");
+        String id = student == null ? null : student.getString("studentId");
+        return studentId == null ? id == null : studentId.equals(id);
+    }
+
+    private static void writeStrings(JsonGenerator json, String field, List<String> values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeNumber(JsonGenerator json, Object value) throws IOException {
+        if (value instanceof Number) {
+            json.writeNumber(((Number) value).doubleValue());
+        } else {
+            json.writeNull();
+        }
+    }
+
+    private static String idString(Object id) {
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id);
+    }
+
+    private static Object refId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,341 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.dto.AIGradingRequest;
+import com.eduai.schoolmanagement.dto.AIGradingResult;
+import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.GradingJob;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.repository.AssignmentRepository;
+import com.eduai.schoolmanagement.repository.GradeRepository;
+import com.eduai.schoolmanagement.repository.GradingJobRepository;
+import com.eduai.schoolmanagement.repository.SubmissionRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs AI gradings off the request thread. A batch becomes a grading_jobs
+ * document and one task per item on a fixed pool with a bounded queue; each
+ * model call also holds a permit from that model's semaphore, so a slow or
+ * rate-limited model never gets more than its own concurrency limit. Failed
+ * calls are retried with exponential backoff before the item is marked FAILED.
+ * Queue slots are reserved for a whole batch before its job is saved, so a
+ * batch is either queued in full or refused.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GradingJobService {
+
+    private final GradingJobRepository gradingJobRepository;
+    private final GradeRepository gradeRepository;
+    private final SubmissionRepository submissionRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final GradeService gradeService;
+    private final SubmissionService submissionService;
+    private final MongoTemplate mongoTemplate;
+    private final List<AIGradingModel> models;
+
+    @Value("${app.grading.threads:8}")
+    private int threads = 8;
+
+    @Value("${app.grading.queue-capacity:5000}")
+    private int queueCapacity = 5000;
+
+    @Value("${app.grading.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${app.grading.retry-backoff-ms:500}")
+    private long retryBackoffMs = 500;
+
+    @Value("${app.grading.default-model:" + SimulatedAIGradingModel.NAME + "}")
+    private String defaultModel = SimulatedAIGradingModel.NAME;
+
+    private final Map<String, AIGradingModel> modelsByName = new HashMap<>();
+    private final Map<String, Semaphore> permits = new HashMap<>();
+    private ThreadPoolExecutor executor;
+    private Semaphore queueSlots; // one permit per free queue slot; a task gives its slot back when it starts
+
+    @PostConstruct
+    void start() {
+        for (AIGradingModel model : models) {
+            modelsByName.put(model.getName(), model);
+            permits.put(model.getName(), new Semaphore(Math.max(1, model.getMaxConcurrency())));
+        }
+        queueSlots = new Semaphore(queueCapacity);
+        AtomicInteger workers = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "grading-worker-" + workers.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            resumeUnfinished();
+        } catch (Exception e) {
+            log.warn("Could not resume unfinished grading jobs: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Items still queued stay unrecorded on their job and are picked up again on the next start
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record a job for the given grade or submission ids and queue its items.
+     * Throws IllegalArgumentException for an unknown target type or model and
+     * IllegalStateException when the queue has no room for the whole batch.
+     */
+    public GradingJob submit(String targetType, List<String> ids, String modelName) {
+        if (!GradingJob.TARGET_GRADE.equals(targetType) && !GradingJob.TARGET_SUBMISSION.equals(targetType)) {
+            throw new IllegalArgumentException("Unknown grading target type: " + targetType);
+        }
+        String model = modelName == null || modelName.isBlank() ? defaultModel : modelName;
+        if (!modelsByName.containsKey(model)) {
+            throw new IllegalArgumentException("Unknown grading model: " + model);
+        }
+        List<String> itemIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (!queueSlots.tryAcquire(itemIds.size())) {
+            throw new IllegalStateException("Grading queue is full");
+        }
+
+        GradingJob job = new GradingJob();
+        job.setTargetType(targetType);
+        job.setModel(model);
+        job.setStatus(itemIds.isEmpty() ? GradingJob.STATUS_COMPLETED : GradingJob.STATUS_QUEUED);
+        job.setItemIds(itemIds);
+        job.setTotal(itemIds.size());
+        job.setCreatedAt(LocalDateTime.now());
+        if (itemIds.isEmpty()) {
+            job.setFinishedAt(job.getCreatedAt());
+        }
+        GradingJob saved;
+        try {
+            saved = gradingJobRepository.save(job);
+        } catch (RuntimeException e) {
+            queueSlots.release(itemIds.size());
+            throw e;
+        }
+
+        enqueue(saved, itemIds);
+        log.info("Queued grading job {}: {} {} items on model {}", saved.getId(), itemIds.size(), targetType, model);
+        return saved;
+    }
+
+    public Optional<GradingJob> getJob(String id) {
+        return gradingJobRepository.findById(id);
+    }
+
+    /**
+     * Re-queue the items of jobs interrupted by a shutdown
+     */
+    private void resumeUnfinished() {
+        for (GradingJob job : gradingJobRepository.findByStatusIn(
+                List.of(GradingJob.STATUS_QUEUED, GradingJob.STATUS_RUNNING))) {
+            Set<String> done = new LinkedHashSet<>();
+            for (GradingJob.ItemResult result : job.getResults()) {
+                done.add(result.getItemId());
+            }
+            List<String> remaining = new ArrayList<>();
+            for (String itemId : job.getItemIds()) {
+                if (!done.contains(itemId)) {
+                    remaining.add(itemId);
+                }
+            }
+            if (!queueSlots.tryAcquire(remaining.size())) {
+                log.warn("Grading job {} has {} unfinished items, more than the queue has room for",
+                        job.getId(), remaining.size());
+                continue;
+            }
+            log.info("Resuming grading job {} with {} of {} items left", job.getId(), remaining.size(), job.getTotal());
+            enqueue(job, remaining);
+        }
+    }
+
+    /**
+     * Queue items whose slots the caller has already reserved. Should the
+     * executor still refuse one (it is shutting down), that item and the rest
+     * are recorded as FAILED so the job can finish instead of waiting forever.
+     */
+    private void enqueue(GradingJob job, List<String> itemIds) {
+        for (int i = 0; i < itemIds.size(); i++) {
+            String itemId = itemIds.get(i);
+            try {
+                executor.execute(() -> {
+                    queueSlots.release();
+                    runItem(job, itemId);
+                });
+            } catch (RejectedExecutionException e) {
+                queueSlots.release(itemIds.size() - i);
+                log.error("Grading queue refused {} items of job {}: {}",
+                        itemIds.size() - i, job.getId(), e.getMessage());
+                for (String refused : itemIds.subList(i, itemIds.size())) {
+                    GradingJob.ItemResult result = new GradingJob.ItemResult();
+                    result.setItemId(refused);
+                    result.setStatus(GradingJob.ITEM_FAILED);
+                    result.setError("Not queued: " + e.getMessage());
+                    result.setFinishedAt(LocalDateTime.now());
+                    record(job.getId(), result);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Grade one item with retries and record the outcome on the job
+     */
+    void runItem(GradingJob job, String itemId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId()).and("status").is(GradingJob.STATUS_QUEUED)),
+                new Update().set("status", GradingJob.STATUS_RUNNING).set("startedAt", LocalDateTime.now()),
+                GradingJob.class);
+
+        GradingJob.ItemResult result = new GradingJob.ItemResult();
+        result.setItemId(itemId);
+        try {
+            Optional<AIGradingRequest> request = buildRequest(job.getTargetType(), itemId);
+            if (request.isEmpty()) {
+                result.setStatus(GradingJob.ITEM_NOT_FOUND);
+            } else {
+                AIGradingResult graded = callModel(job.getModel(), request.get(), result);
+                apply(job.getTargetType(), itemId, graded);
+                result.setStatus(GradingJob.ITEM_GRADED);
+                result.setScore(graded.getScore());
+                result.setConfidence(graded.getConfidence());
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; leave the item unrecorded so the job resumes it
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            result.setStatus(GradingJob.ITEM_FAILED);
+            result.setError(e.getMessage());
+            log.error("AI grading of {} {} in job {} failed after {} attempts: {}",
+                    job.getTargetType(), itemId, job.getId(), result.getAttempts(), e.getMessage());
+        }
+        result.setFinishedAt(LocalDateTime.now());
+        record(job.getId(), result);
+    }
+
+    private AIGradingResult callModel(String modelName, AIGradingRequest request, GradingJob.ItemResult result)
+            throws Exception {
+        AIGradingModel model = modelsByName.get(modelName);
+        if (model == null) {
+            throw new IllegalStateException("Unknown grading model: " + modelName);
+        }
+        Semaphore semaphore = permits.get(modelName);
+        long backoff = retryBackoffMs;
+        while (true) {
+            result.setAttempts(result.getAttempts() + 1);
+            semaphore.acquire();
+            try {
+                return model.grade(request);
+            } catch (Exception e) {
+                if (result.getAttempts() >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("AI grading of {} failed (attempt {} of {}), retrying in {} ms: {}",
+                        request.getItemId(), result.getAttempts(), maxAttempts, backoff, e.getMessage());
+            } finally {
+                semaphore.release();
+            }
+            // Back off without holding a permit so other items keep the model busy
+            Thread.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+
+    private Optional<AIGradingRequest> buildRequest(String targetType, String itemId) {
+        if (GradingJob.TARGET_GRADE.equals(targetType)) {
+            return gradeRepository.findById(itemId).map(grade -> {
+                // The text being graded is the student's latest submission for the assignment
+                String text = submissionRepository.findLatestSubmissionByAssignmentAndStudent(
+                                grade.getAssignment().getId(), grade.getStudent().getId())
+                        .map(Submission::getTextContent)
+                        .orElse(null);
+                return request(itemId, text, grade.getMaxScore(), grade.getAssignment().getId());
+            });
+        }
+        return submissionRepository.findById(itemId).map(submission -> request(itemId, submission.getTextContent(),
+                submission.getMaxScore() != null ? submission.getMaxScore() : submission.getAssignment().getMaxScore(),
+                submission.getAssignment().getId()));
+    }
+
+    private AIGradingRequest request(String itemId, String textContent, double maxScore, String assignmentId) {
+        AIGradingRequest request = new AIGradingRequest();
+        request.setItemId(itemId);
+        request.setTextContent(textContent);
+        request.setMaxScore(maxScore);
+        request.setRubric(assignmentRepository.findById(assignmentId)
+                .map(Assignment::getRubric)
+                .orElse(List.of()));
+        return request;
+    }
+
+    private void apply(String targetType, String itemId, AIGradingResult graded) {
+        if (GradingJob.TARGET_GRADE.equals(targetType)) {
+            Grade grade = gradeRepository.findById(itemId)
+                    .orElseThrow(() -> new IllegalStateException("Grade deleted while grading: " + itemId));
+            gradeService.generateAIGrade(grade, graded.getScore(), graded.getConfidence(), graded.getFeedback());
+        } else {
+            Submission submission = submissionRepository.findById(itemId)
+                    .orElseThrow(() -> new IllegalStateException("Submission deleted while grading: " + itemId));
+            submissionService.applyAIGrading(submission, graded);
+        }
+    }
+
+    /**
+     * Push the item result, bump the counters and close the job once every item is in
+     */
+    private void record(String jobId, GradingJob.ItemResult result) {
+        Update update = new Update().push("results", result)
+                .inc(GradingJob.ITEM_GRADED.equals(result.getStatus()) ? "succeeded" : "failed", 1)
+                .inc("retries", Math.max(0, result.getAttempts() - 1));
+        GradingJob job = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(jobId)), update,
+                FindAndModifyOptions.options().returnNew(true), GradingJob.class);
+        if (job == null || job.getSucceeded() + job.getFailed() < job.getTotal()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startedAt = job.getStartedAt() != null ? job.getStartedAt() : job.getCreatedAt();
+        String status = job.getFailed() == 0 ? GradingJob.STATUS_COMPLETED : GradingJob.STATUS_COMPLETED_WITH_ERRORS;
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId)),
+                new Update().set("status", status)
+                        .set("finishedAt", now)
+                        .set("durationMs", startedAt == null ? null : Duration.between(startedAt, now).toMillis()),
+                GradingJob.class);
+        log.info("Grading job {} {}: {} graded, {} failed, {} retries",
+                jobId, status, job.getSucceeded(), job.getFailed(), job.getRetries());
+    }
+}
@@ -0,0 +1,209 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.GradingQueueItem;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.repository.GradingQueueItemRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue of submissions awaiting a human grader. Submitting enqueues, grading
+ * or deleting a submission dequeues. Graders claim batches in priority order;
+ * each item is taken with its own findAndModify, so two graders never get the
+ * same submission, and a claim is only a lease: if the grader neither renews
+ * nor finishes it before it expires, the item is claimable again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GradingQueueService {
+
+    private static final Sort CLAIM_ORDER = Sort.by(
+            Sort.Order.asc("dueDate"), Sort.Order.asc("late"), Sort.Order.asc("submittedAt"));
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final GradingQueueItemRepository gradingQueueItemRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.grading.queue.lease-minutes:15}")
+    private long leaseMinutes = 15;
+
+    @Value("${app.grading.queue.max-batch:50}")
+    private int maxBatch = 50;
+
+    /**
+     * Add a submitted submission to the queue, or refresh its priority if already queued.
+     * An existing lease is left alone.
+     */
+    public void enqueue(Submission submission) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.upsert(byId(submission.getId()), enqueueUpdate(submission, now), GradingQueueItem.class);
+    }
+
+    /**
+     * Lease up to batchSize of the highest priority unleased items, optionally within one course
+     */
+    public List<GradingQueueItem> claim(String grader, String courseCode, int batchSize) {
+        if (grader == null || grader.isBlank()) {
+            throw new IllegalArgumentException("grader is required");
+        }
+        int limit = Math.max(1, Math.min(batchSize, maxBatch));
+        List<GradingQueueItem> claimed = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            LocalDateTime now = LocalDateTime.now();
+            Criteria criteria = Criteria.where("leaseExpiresAt").lte(now);
+            if (courseCode != null && !courseCode.isBlank()) {
+                criteria.and("courseCode").is(courseCode);
+            }
+            GradingQueueItem item = mongoTemplate.findAndModify(
+                    Query.query(criteria).with(CLAIM_ORDER),
+                    new Update().set("leaseOwner", grader)
+                            .set("leaseExpiresAt", now.plusMinutes(leaseMinutes))
+                            .inc("claimCount", 1),
+                    FindAndModifyOptions.options().returnNew(true), GradingQueueItem.class);
+            if (item == null) {
+                break;
+            }
+            claimed.add(item);
+        }
+        log.info("Grader {} claimed {} submissions{}", grader, claimed.size(),
+                courseCode == null ? "" : " in " + courseCode);
+        return claimed;
+    }
+
+    /**
+     * Extend a lease the grader still holds; empty if it has expired or been claimed by someone else
+     */
+    public Optional<GradingQueueItem> renew(String submissionId, String grader) {
+        LocalDateTime now = LocalDateTime.now();
+        return Optional.ofNullable(mongoTemplate.findAndModify(heldBy(submissionId, grader, now),
+                new Update().set("leaseExpiresAt", now.plusMinutes(leaseMinutes)),
+                FindAndModifyOptions.options().returnNew(true), GradingQueueItem.class));
+    }
+
+    /**
+     * Hand a leased item back to the queue without grading it
+     */
+    public boolean release(String submissionId, String grader) {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.updateFirst(heldBy(submissionId, grader, now),
+                new Update().set("leaseExpiresAt", now).unset("leaseOwner"),
+                GradingQueueItem.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Drop a submission from the queue once it has been graded or deleted
+     */
+    public void complete(String submissionId) {
+        if (submissionId != null) {
+            gradingQueueItemRepository.deleteById(submissionId);
+        }
+    }
+
+    public List<GradingQueueItem> getClaimedBy(String grader) {
+        return gradingQueueItemRepository.findByLeaseOwnerAndLeaseExpiresAtAfter(grader, LocalDateTime.now());
+    }
+
+    public Map<String, Object> getQueueStats(String courseCode) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria scope = courseCode == null || courseCode.isBlank()
+                ? new Criteria() : Criteria.where("courseCode").is(courseCode);
+        long available = mongoTemplate.count(Query.query(new Criteria().andOperator(scope,
+                Criteria.where("leaseExpiresAt").lte(now))), GradingQueueItem.class);
+        long leased = mongoTemplate.count(Query.query(new Criteria().andOperator(scope,
+                Criteria.where("leaseExpiresAt").gt(now))), GradingQueueItem.class);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("available", available);
+        stats.put("leased", leased);
+        stats.put("total", available + leased);
+        stats.put("leaseMinutes", leaseMinutes);
+        return stats;
+    }
+
+    /**
+     * Queue every submitted but ungraded submission; queued items keep their lease. Returns the number scanned
+     */
+    public int backfill() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("status").in("SUBMITTED", "LATE"));
+        query.fields().include("assignment").include("student").include("status").include("submittedAt");
+
+        int scanned = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradingQueueItem.class);
+        try (Stream<Submission> submissions = mongoTemplate.stream(query, Submission.class)) {
+            for (Submission submission : (Iterable<Submission>) submissions::iterator) {
+                bulk.upsert(byId(submission.getId()), enqueueUpdate(submission, now));
+                scanned++;
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradingQueueItem.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        log.info("Grading queue backfill scanned {} ungraded submissions in {} ms",
+                scanned, System.currentTimeMillis() - startTime);
+        return scanned;
+    }
+
+    private static Update enqueueUpdate(Submission submission, LocalDateTime now) {
+        LocalDateTime submittedAt = submission.getSubmittedAt() != null ? submission.getSubmittedAt() : now;
+        LocalDateTime dueDate = submission.getAssignment() != null && submission.getAssignment().getDueDate() != null
+                ? submission.getAssignment().getDueDate() : submittedAt;
+
+        Update update = new Update()
+                .set("dueDate", dueDate)
+                .set("late", "LATE".equals(submission.getStatus()))
+                .set("submittedAt", submittedAt)
+                .setOnInsert("leaseExpiresAt", now)
+                .setOnInsert("claimCount", 0)
+                .setOnInsert("enqueuedAt", now);
+        if (submission.getAssignment() != null) {
+            update.set("assignmentId", submission.getAssignment().getId())
+                    .set("assignmentTitle", submission.getAssignment().getTitle())
+                    .set("courseCode", submission.getAssignment().getCourseCode());
+        }
+        if (submission.getStudent() != null) {
+            update.set("studentId", submission.getStudent().getStudentId())
+                    .set("studentName", Stream.of(submission.getStudent().getFirstName(),
+                            submission.getStudent().getLastName()).filter(part -> part != null)
+                            .reduce((first, last) -> first + " " + last).orElse(null));
+        }
+        return update;
+    }
+
+    private static Query heldBy(String submissionId, String grader, LocalDateTime now) {
+        return Query.query(Criteria.where("_id").is(submissionId)
+                .and("leaseOwner").is(grader)
+                .and("leaseExpiresAt").gt(now));
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
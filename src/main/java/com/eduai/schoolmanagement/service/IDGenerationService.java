@@ -6,12 +6,18 @@ import com.eduai.schoolmanagement.repository.StudentRepository;
 import com.eduai.schoolmanagement.repository.TeacherRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Year;
 import java.util.Optional;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -21,69 +27,27 @@ public class IDGenerationService {
     private final IDConfigurationRepository idConfigRepository;
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
+    private final MongoTemplate mongoTemplate;
 
-    // Thread-safe locks for each ID type to prevent race conditions
-    private final ReentrantLock studentIdLock = new ReentrantLock();
-    private final ReentrantLock admissionNumberLock = new ReentrantLock();
+    // Roll numbers are derived from the students collection, not a counter, so they still need a lock
     private final ReentrantLock rollNumberLock = new ReentrantLock();
-    private final ReentrantLock employeeIdLock = new ReentrantLock();
 
     /**
      * Generate Student ID based on grade and section
      */
-    @Transactional
     public String generateStudentId(String grade, String section) {
-        studentIdLock.lock();
-        try {
-            IDConfiguration config = getActiveConfiguration("STUDENT_ID");
-            String generatedId = generateIdFromConfig(config, grade, section);
-
-            // Check for duplicates
-            while (studentRepository.existsByStudentId(generatedId)) {
-                config.setCurrentCounter(config.getCurrentCounter() + 1);
-                idConfigRepository.save(config);
-                generatedId = generateIdFromConfig(config, grade, section);
-            }
-
-            // Increment counter for next use
-            config.setCurrentCounter(config.getCurrentCounter() + 1);
-            idConfigRepository.save(config);
-
-            log.info("Generated Student ID: {} for Grade: {}, Section: {}", generatedId, grade, section);
-            return generatedId;
-
-        } finally {
-            studentIdLock.unlock();
-        }
+        String generatedId = nextId("STUDENT_ID", grade, section, studentRepository::existsByStudentId);
+        log.info("Generated Student ID: {} for Grade: {}, Section: {}", generatedId, grade, section);
+        return generatedId;
     }
 
     /**
      * Generate Admission Number
      */
-    @Transactional
     public String generateAdmissionNumber() {
-        admissionNumberLock.lock();
-        try {
-            IDConfiguration config = getActiveConfiguration("ADMISSION_NUMBER");
-            String generatedId = generateIdFromConfig(config, null, null);
-
-            // Check for duplicates
-            while (studentRepository.existsByAdmissionNumber(generatedId)) {
-                config.setCurrentCounter(config.getCurrentCounter() + 1);
-                idConfigRepository.save(config);
-                generatedId = generateIdFromConfig(config, null, null);
-            }
-
-            // Increment counter for next use
-            config.setCurrentCounter(config.getCurrentCounter() + 1);
-            idConfigRepository.save(config);
-
-            log.info("Generated Admission Number: {}", generatedId);
-            return generatedId;
-
-        } finally {
-            admissionNumberLock.unlock();
-        }
+        String generatedId = nextId("ADMISSION_NUMBER", null, null, studentRepository::existsByAdmissionNumber);
+        log.info("Generated Admission Number: {}", generatedId);
+        return generatedId;
     }
 
     /**
@@ -108,30 +72,10 @@ public class IDGenerationService {
     /**
      * Generate Employee ID
      */
-    @Transactional
     public String generateEmployeeId() {
-        employeeIdLock.lock();
-        try {
-            IDConfiguration config = getActiveConfiguration("EMPLOYEE_ID");
-            String generatedId = generateIdFromConfig(config, null, null);
-
-            // Check for duplicates (assuming we have an employee repository or teacher repository)
-            while (teacherRepository.existsByEmployeeId(generatedId)) {
-                config.setCurrentCounter(config.getCurrentCounter() + 1);
-                idConfigRepository.save(config);
-                generatedId = generateIdFromConfig(config, null, null);
-            }
-
-            // Increment counter for next use
-            config.setCurrentCounter(config.getCurrentCounter() + 1);
-            idConfigRepository.save(config);
-
-            log.info("Generated Employee ID: {}", generatedId);
-            return generatedId;
-
-        } finally {
-            employeeIdLock.unlock();
-        }
+        String generatedId = nextId("EMPLOYEE_ID", null, null, teacherRepository::existsByEmployeeId);
+        log.info("Generated Employee ID: {}", generatedId);
+        return generatedId;
     }
 
     /**
@@ -159,33 +103,27 @@ public class IDGenerationService {
     }
 
     /**
-     * Reset counter for a specific ID type (admin function)
+     * Reserve count consecutive counters with one atomic $inc. Returns the
+     * configuration as it was before the increment, so counters
+     * currentCounter + 1 .. currentCounter + count belong to the caller and can
+     * be turned into IDs with formatId without touching the database again.
      */
-    @Transactional
-    public void resetCounter(String idType, Long newCounter) {
-        Optional<IDConfiguration> configOpt = idConfigRepository.findByIdTypeAndActive(idType, true);
-        if (configOpt.isPresent()) {
-            IDConfiguration config = configOpt.get();
-            config.setCurrentCounter(newCounter);
-            idConfigRepository.save(config);
-            log.info("Reset counter for {} to {}", idType, newCounter);
-        } else {
-            throw new RuntimeException("ID Configuration not found for type: " + idType);
+    public IDConfiguration reserveBlock(String idType, int count) {
+        IDConfiguration config = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("idType").is(idType).and("active").is(true)),
+                new Update().inc("currentCounter", count),
+                FindAndModifyOptions.options().returnNew(false), IDConfiguration.class);
+        if (config == null) {
+            throw new RuntimeException("No active configuration found for ID type: " + idType);
         }
+        log.info("Reserved {} {} counters after {}", count, idType, config.getCurrentCounter());
+        return config;
     }
 
     /**
-     * Get active configuration for ID type
-     */
-    private IDConfiguration getActiveConfiguration(String idType) {
-        return idConfigRepository.findByIdTypeAndActive(idType, true)
-                .orElseThrow(() -> new RuntimeException("No active configuration found for ID type: " + idType));
-    }
-
-    /**
-     * Generate ID from configuration format
+     * Format the ID for one counter of a configuration
      */
-    private String generateIdFromConfig(IDConfiguration config, String grade, String section) {
+    public String formatId(IDConfiguration config, long counter, String grade, String section) {
         String format = config.getFormat();
         String result = format;
 
@@ -206,15 +144,61 @@ public class IDGenerationService {
             String counterPattern = result.substring(result.indexOf("{COUNTER:"), result.indexOf("}", result.indexOf("{COUNTER:")) + 1);
             String paddingStr = counterPattern.substring(counterPattern.indexOf(':') + 1, counterPattern.indexOf('}'));
             int padding = Integer.parseInt(paddingStr);
-            String formattedCounter = String.format("%0" + padding + "d", config.getCurrentCounter() + 1);
+            String formattedCounter = String.format("%0" + padding + "d", counter);
             result = result.replace(counterPattern, formattedCounter);
         } else if (result.contains("{COUNTER}")) {
-            result = result.replace("{COUNTER}", String.valueOf(config.getCurrentCounter() + 1));
+            result = result.replace("{COUNTER}", String.valueOf(counter));
         }
 
         return result;
     }
 
+    /**
+     * Reset counter for a specific ID type (admin function)
+     */
+    @Transactional
+    public void resetCounter(String idType, Long newCounter) {
+        Optional<IDConfiguration> configOpt = idConfigRepository.findByIdTypeAndActive(idType, true);
+        if (configOpt.isPresent()) {
+            IDConfiguration config = configOpt.get();
+            config.setCurrentCounter(newCounter);
+            idConfigRepository.save(config);
+            log.info("Reset counter for {} to {}", idType, newCounter);
+        } else {
+            throw new RuntimeException("ID Configuration not found for type: " + idType);
+        }
+    }
+
+    /**
+     * Get active configuration for ID type
+     */
+    private IDConfiguration getActiveConfiguration(String idType) {
+        return idConfigRepository.findByIdTypeAndActive(idType, true)
+                .orElseThrow(() -> new RuntimeException("No active configuration found for ID type: " + idType));
+    }
+
+    /**
+     * Take counters one at a time with reserveBlock until the formatted ID is free. The
+     * configuration is only ever changed by $inc, so blocks reserved by an import are kept.
+     */
+    private String nextId(String idType, String grade, String section, Predicate<String> taken) {
+        while (true) {
+            IDConfiguration config = reserveBlock(idType, 1);
+            String generatedId = formatId(config, config.getCurrentCounter() + 1, grade, section);
+            if (!taken.test(generatedId)) {
+                return generatedId;
+            }
+            log.debug("{} {} already in use, taking the next counter", idType, generatedId);
+        }
+    }
+
+    /**
+     * Generate ID from configuration format
+     */
+    private String generateIdFromConfig(IDConfiguration config, String grade, String section) {
+        return formatId(config, config.getCurrentCounter() + 1, grade, section);
+    }
+
     /**
      * Initialize default configurations if they don't exist
      */
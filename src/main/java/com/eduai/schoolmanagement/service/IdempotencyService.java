@@ -0,0 +1,148 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.IdempotencyRecord;
+import com.eduai.schoolmanagement.repository.IdempotencyRecordRepository;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Store of client operation ids. A batch first claims its new ids with one
+ * unordered insert (the _id makes concurrent retries lose the race), then
+ * records each outcome so later retries get the original answer back. A
+ * PENDING claim older than {@code pending-lease-seconds} belongs to a request
+ * that died before finishing and may be taken over by a retry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.idempotency.pending-lease-seconds:300}")
+    private long pendingLeaseSeconds = 300;
+
+    /**
+     * Previously seen operations, keyed by operation id
+     */
+    public Map<String, IdempotencyRecord> find(String scope, Collection<String> operationIds) {
+        List<String> ids = new ArrayList<>();
+        for (String operationId : operationIds) {
+            ids.add(IdempotencyRecord.idOf(scope, operationId));
+        }
+        Map<String, IdempotencyRecord> records = new HashMap<>();
+        for (IdempotencyRecord record : idempotencyRecordRepository.findAllById(ids)) {
+            records.put(record.getOperationId(), record);
+        }
+        return records;
+    }
+
+    /**
+     * Whether a record is a PENDING claim whose lease has run out
+     */
+    public boolean isAbandoned(IdempotencyRecord record) {
+        return IdempotencyRecord.STATUS_PENDING.equals(record.getStatus()) && record.getCreatedAt() != null
+                && record.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(pendingLeaseSeconds));
+    }
+
+    /**
+     * Claim operation ids as PENDING; returns the ids this caller now owns,
+     * including abandoned claims it took over
+     */
+    public Set<String> claim(String scope, Collection<String> operationIds) {
+        List<String> ordered = new ArrayList<>(operationIds);
+        Set<String> claimed = new LinkedHashSet<>(ordered);
+        if (ordered.isEmpty()) {
+            return claimed;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<IdempotencyRecord> records = new ArrayList<>();
+        for (String operationId : ordered) {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(IdempotencyRecord.idOf(scope, operationId));
+            record.setScope(scope);
+            record.setOperationId(operationId);
+            record.setStatus(IdempotencyRecord.STATUS_PENDING);
+            record.setCreatedAt(now);
+            records.add(record);
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class);
+        bulkOps.insert(records);
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // Duplicate keys are operations another request already claimed, unless that claim was abandoned
+            LocalDateTime leaseStart = now.minusSeconds(pendingLeaseSeconds);
+            for (BulkWriteError error : e.getErrors()) {
+                String operationId = ordered.get(error.getIndex());
+                Query abandoned = Query.query(Criteria.where("_id").is(IdempotencyRecord.idOf(scope, operationId))
+                        .and("status").is(IdempotencyRecord.STATUS_PENDING)
+                        .and("createdAt").lt(leaseStart));
+                if (mongoTemplate.updateFirst(abandoned, new Update().set("createdAt", now),
+                        IdempotencyRecord.class).getModifiedCount() == 0) {
+                    claimed.remove(operationId);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Store final results for claimed operations
+     */
+    public void complete(String scope, Map<String, String> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class);
+        results.forEach((operationId, result) -> bulkOps.updateOne(
+                Query.query(Criteria.where("_id").is(IdempotencyRecord.idOf(scope, operationId))),
+                new Update().set("status", IdempotencyRecord.STATUS_COMPLETED)
+                        .set("result", result)
+                        .set("completedAt", now)));
+        try {
+            bulkOps.execute();
+        } catch (Exception e) {
+            // Records stay PENDING and are reported as in progress until the TTL removes them
+            log.error("Failed to record results for {} {} operations: {}", results.size(), scope, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop claims whose operations failed so a retry can run them again
+     */
+    public void release(String scope, Collection<String> operationIds) {
+        if (operationIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>();
+        for (String operationId : operationIds) {
+            ids.add(IdempotencyRecord.idOf(scope, operationId));
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), IdempotencyRecord.class);
+    }
+}
@@ -8,9 +8,12 @@ import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Fee;
+import com.eduai.schoolmanagement.entity.FeeRef;
 import com.eduai.schoolmanagement.entity.Invoice;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.repository.InvoiceRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -23,11 +26,17 @@ public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final FeeService feeService;
+    private final DeadlineScheduler deadlineScheduler;
+    private final CursorPaginator cursorPaginator;
 
     public List<Invoice> getAllInvoices() {
         return invoiceRepository.findAll();
     }
 
+    public CursorPage<Invoice> getInvoicesPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Invoice.class, null, cursor, limit);
+    }
+
     public Optional<Invoice> getInvoiceById(String id) {
         return invoiceRepository.findById(id);
     }
@@ -37,7 +46,7 @@ public class InvoiceService {
     }
 
     public List<Invoice> getInvoicesByStudent(Student student) {
-        return invoiceRepository.findByStudent(student);
+        return invoiceRepository.findByStudentId(student.getId());
     }
 
     public List<Invoice> getInvoicesByStudentId(String studentId) {
@@ -57,7 +66,7 @@ public class InvoiceService {
     }
 
     public List<Invoice> getUnpaidInvoicesByStudent(Student student) {
-        return invoiceRepository.findUnpaidInvoicesByStudent(student);
+        return invoiceRepository.findUnpaidInvoicesByStudent(student.getId());
     }
 
     public List<Invoice> getInvoicesBetween(LocalDate startDate, LocalDate endDate) {
@@ -69,7 +78,7 @@ public class InvoiceService {
 
         Invoice invoice = new Invoice();
         invoice.setInvoiceNumber(generateInvoiceNumber());
-        invoice.setStudent(student);
+        invoice.setStudent(StudentRef.of(student));
         invoice.setAcademicYear(academicYear);
         invoice.setTerm(term);
         invoice.setInvoiceDate(LocalDate.now());
@@ -82,7 +91,7 @@ public class InvoiceService {
 
         for (Fee fee : fees) {
             Invoice.InvoiceItem item = new Invoice.InvoiceItem();
-            item.setFee(fee);
+            item.setFee(FeeRef.of(fee));
             item.setDescription(fee.getFeeName());
             item.setQuantity(1);
             item.setUnitPrice(fee.getAmount());
@@ -122,7 +131,9 @@ public class InvoiceService {
         // Set payment terms
         invoice.setTerms("Payment is due within 30 days of invoice date. Late fees may apply after due date.");
 
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        deadlineScheduler.scheduleInvoice(saved);
+        return saved;
     }
 
     public Invoice sendInvoice(String invoiceId) {
@@ -133,7 +144,9 @@ public class InvoiceService {
             invoice.setSentDate(LocalDateTime.now());
 
             log.info("Invoice sent: {}", invoice.getInvoiceNumber());
-            return invoiceRepository.save(invoice);
+            Invoice saved = invoiceRepository.save(invoice);
+            deadlineScheduler.scheduleInvoice(saved);
+            return saved;
         }
         throw new RuntimeException("Invoice not found with id: " + invoiceId);
     }
@@ -185,13 +198,17 @@ public class InvoiceService {
             invoice.setCreatedAt(LocalDateTime.now());
         }
 
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        deadlineScheduler.scheduleInvoice(saved);
+        return saved;
     }
 
     public Invoice updateInvoice(String id, Invoice invoice) {
         invoice.setId(id);
         log.info("Updating invoice with id: {}", id);
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        deadlineScheduler.scheduleInvoice(saved);
+        return saved;
     }
 
     public void deleteInvoice(String id) {
@@ -0,0 +1,190 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Word shingles, MinHash signatures and LSH band keys for near-duplicate text.
+ * Two texts agree on any one signature slot with probability equal to the
+ * Jaccard similarity of their shingle sets; with 32 bands of 4 rows they share
+ * at least one band key with probability 1 - (1 - J^4)^32, which is about 0.5
+ * at J = 0.38 and about 0.99 at J = 0.6.
+ */
+final class MinHash {
+
+    static final int SHINGLE_WORDS = 5;
+    static final int NUM_HASHES = 128;
+    static final int BANDS = 32;
+    static final int ROWS = NUM_HASHES / BANDS;
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        // Fixed seed: stored signatures must stay comparable across restarts
+        SplittableRandom random = new SplittableRandom(0x5EED_F00DL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            SEEDS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Shingles of a text in order: hash i covers words i .. i + SHINGLE_WORDS - 1,
+     * which span characters [starts[i], ends[i]) of the original text
+     */
+    static final class Shingles {
+        final long[] hashes;
+        final int[] starts;
+        final int[] ends;
+
+        private Shingles(long[] hashes, int[] starts, int[] ends) {
+            this.hashes = hashes;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        int size() {
+            return hashes.length;
+        }
+
+        boolean isEmpty() {
+            return hashes.length == 0;
+        }
+
+        Set<Long> hashSet() {
+            Set<Long> set = new HashSet<>(hashes.length * 2);
+            for (long hash : hashes) {
+                set.add(hash);
+            }
+            return set;
+        }
+    }
+
+    /**
+     * Share of one text's shingles found in another, and the matching character ranges of the first text
+     */
+    static final class Overlap {
+        final double containment;
+        final List<int[]> spans;
+
+        private Overlap(double containment, List<int[]> spans) {
+            this.containment = containment;
+            this.spans = spans;
+        }
+    }
+
+    static Shingles shingle(String text) {
+        if (text == null || text.isBlank()) {
+            return new Shingles(new long[0], new int[0], new int[0]);
+        }
+        List<String> words = new ArrayList<>();
+        List<int[]> offsets = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            words.add(matcher.group().toLowerCase(Locale.ROOT));
+            offsets.add(new int[] {matcher.start(), matcher.end()});
+        }
+        if (words.isEmpty()) {
+            return new Shingles(new long[0], new int[0], new int[0]);
+        }
+
+        // A text shorter than one shingle is a single shingle of all its words
+        int count = Math.max(1, words.size() - SHINGLE_WORDS + 1);
+        long[] hashes = new long[count];
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            int last = Math.min(i + SHINGLE_WORDS, words.size()) - 1;
+            long hash = 0xcbf29ce484222325L; // FNV-1a
+            for (int w = i; w <= last; w++) {
+                String word = words.get(w);
+                for (int c = 0; c < word.length(); c++) {
+                    hash = (hash ^ word.charAt(c)) * 0x100000001b3L;
+                }
+                hash = (hash ^ ' ') * 0x100000001b3L;
+            }
+            hashes[i] = hash;
+            starts[i] = offsets.get(i)[0];
+            ends[i] = offsets.get(last)[1];
+        }
+        return new Shingles(hashes, starts, ends);
+    }
+
+    static int[] signature(Shingles shingles) {
+        int[] signature = new int[NUM_HASHES];
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long min = Long.MAX_VALUE;
+            for (long hash : shingles.hashes) {
+                long value = mix(hash ^ SEEDS[i]);
+                if (value < min) {
+                    min = value;
+                }
+            }
+            signature[i] = (int) (min >>> 32);
+        }
+        return signature;
+    }
+
+    /**
+     * One key per band; two signatures are LSH candidates when they share any key
+     */
+    static List<Long> bandKeys(int[] signature) {
+        List<Long> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            long key = mix(band + 1L);
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key ^ (signature[band * ROWS + row] & 0xffffffffL));
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Estimated Jaccard similarity: the share of signature slots that agree
+     */
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    static Overlap overlap(Shingles mine, Set<Long> theirs) {
+        List<int[]> spans = new ArrayList<>();
+        int matched = 0;
+        int[] current = null;
+        for (int i = 0; i < mine.size(); i++) {
+            if (!theirs.contains(mine.hashes[i])) {
+                continue;
+            }
+            matched++;
+            if (current != null && mine.starts[i] <= current[1]) {
+                current[1] = Math.max(current[1], mine.ends[i]);
+            } else {
+                current = new int[] {mine.starts[i], mine.ends[i]};
+                spans.add(current);
+            }
+        }
+        return new Overlap(mine.isEmpty() ? 0.0 : (double) matched / mine.size(), spans);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
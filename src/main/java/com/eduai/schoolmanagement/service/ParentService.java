@@ -1,15 +1,20 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Parent;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.entity.User;
 import com.eduai.schoolmanagement.repository.ParentRepository;
 import com.eduai.schoolmanagement.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,15 +24,25 @@ public class ParentService {
 
     private final ParentRepository parentRepository;
     private final StudentRepository studentRepository;
+    private final ReferenceResolver referenceResolver;
+    private final CursorPaginator cursorPaginator;
 
     public List<Parent> getAllParents() {
         return parentRepository.findAll();
     }
 
+    public CursorPage<Parent> getParentsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Parent.class, null, cursor, limit);
+    }
+
     public List<Parent> getAllActiveParents() {
         return parentRepository.findByIsActiveTrue();
     }
 
+    public CursorPage<Parent> getActiveParentsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Parent.class, Criteria.where("isActive").is(true), cursor, limit);
+    }
+
     public Optional<Parent> getParentById(String id) {
         return parentRepository.findById(id);
     }
@@ -37,7 +52,7 @@ public class ParentService {
     }
 
     public Optional<Parent> getParentByUser(User user) {
-        return parentRepository.findByUser(user);
+        return parentRepository.findByUserId(user.getId());
     }
 
     public Optional<Parent> getParentByEmail(String email) {
@@ -49,7 +64,7 @@ public class ParentService {
     }
 
     public List<Parent> getParentsByStudent(Student student) {
-        return parentRepository.findByChildrenContaining(student);
+        return parentRepository.findParentsByChildId(student.getId());
     }
 
     public List<Parent> getParentsByStudentId(String studentId) {
@@ -161,8 +176,14 @@ public class ParentService {
 
     public List<Student> getChildrenByParentEmail(String parentEmail) {
         Optional<Parent> parentOpt = getActiveParentByEmail(parentEmail);
-        if (parentOpt.isPresent()) {
-            return parentOpt.get().getChildren();
+        if (parentOpt.isPresent() && parentOpt.get().getChildren() != null) {
+            // Children are embedded snapshots; load the full student documents in one query
+            List<StudentRef> children = parentOpt.get().getChildren();
+            Map<String, Student> students = referenceResolver.resolve(children, StudentRef::getId, Student.class);
+            return children.stream()
+                .map(child -> students.get(child.getId()))
+                .filter(Objects::nonNull)
+                .toList();
         }
         return List.of();
     }
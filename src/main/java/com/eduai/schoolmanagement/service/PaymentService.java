@@ -6,9 +6,12 @@ import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Fee;
+import com.eduai.schoolmanagement.entity.FeeRef;
 import com.eduai.schoolmanagement.entity.Payment;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.repository.PaymentRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -20,17 +23,22 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final CursorPaginator cursorPaginator;
 
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
 
+    public CursorPage<Payment> getPaymentsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Payment.class, null, cursor, limit);
+    }
+
     public Optional<Payment> getPaymentById(String id) {
         return paymentRepository.findById(id);
     }
 
     public List<Payment> getPaymentsByStudent(Student student) {
-        return paymentRepository.findByStudent(student);
+        return paymentRepository.findByStudentId(student.getId());
     }
 
     public List<Payment> getPaymentsByStudentId(String studentId) {
@@ -38,7 +46,7 @@ public class PaymentService {
     }
 
     public List<Payment> getPaymentsByFee(Fee fee) {
-        return paymentRepository.findByFee(fee);
+        return paymentRepository.findByFeeId(fee.getId());
     }
 
     public List<Payment> getPaymentsByStatus(String status) {
@@ -46,11 +54,11 @@ public class PaymentService {
     }
 
     public List<Payment> getCompletedPaymentsByStudent(Student student) {
-        return paymentRepository.findCompletedPaymentsByStudent(student);
+        return paymentRepository.findCompletedPaymentsByStudent(student.getId());
     }
 
     public List<Payment> getPendingPaymentsByStudent(Student student) {
-        return paymentRepository.findPendingPaymentsByStudent(student);
+        return paymentRepository.findPendingPaymentsByStudent(student.getId());
     }
 
     public List<Payment> getOverduePayments() {
@@ -77,8 +85,8 @@ public class PaymentService {
         log.info("Initiating payment for student {} for fee {}", student.getStudentId(), fee.getFeeName());
 
         Payment payment = new Payment();
-        payment.setStudent(student);
-        payment.setFee(fee);
+        payment.setStudent(StudentRef.of(student));
+        payment.setFee(FeeRef.of(fee));
         payment.setAmount(amount);
         payment.setPaymentMethod(paymentMethod);
         payment.setStatus("PENDING");
@@ -0,0 +1,266 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.entity.SubmissionFingerprint;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Plagiarism checks against other students' submissions. Every submitted text
+ * gets a MinHash fingerprint whose band keys are indexed per assignment and per
+ * course, so a check reads only the fingerprints sharing a band key, ranks them
+ * by estimated similarity and loads the text of the best few to measure the
+ * exact overlap and the matching spans. Cost depends on the number of near
+ * neighbours, not on the size of the corpus.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlagiarismService {
+
+    public static final String CHECKING_SERVICE = "MINHASH-LSH";
+    private static final int MATCHED_TEXT_LENGTH = 500;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.plagiarism.candidate-threshold:0.3}")
+    private double candidateThreshold = 0.3;
+
+    @Value("${app.plagiarism.max-candidates:500}")
+    private int maxCandidates = 500;
+
+    @Value("${app.plagiarism.max-matches:10}")
+    private int maxMatches = 10;
+
+    @Value("${app.plagiarism.review-threshold:25}")
+    private double reviewThreshold = 25;
+
+    @Value("${app.plagiarism.flag-threshold:50}")
+    private double flagThreshold = 50;
+
+    /**
+     * Compare a submission with its LSH neighbours and index its fingerprint for later checks
+     */
+    public Submission.PlagiarismCheck check(Submission submission) {
+        long startTime = System.currentTimeMillis();
+        MinHash.Shingles shingles = MinHash.shingle(submission.getTextContent());
+        List<Submission.PlagiarismMatch> matches = new ArrayList<>();
+        int candidates = 0;
+        if (!shingles.isEmpty()) {
+            SubmissionFingerprint fingerprint = fingerprint(submission, shingles);
+            List<SubmissionFingerprint> neighbours = findCandidates(fingerprint);
+            candidates = neighbours.size();
+            matches = verify(submission.getTextContent(), shingles, fingerprint, neighbours);
+            mongoTemplate.save(fingerprint);
+        }
+
+        double similarityScore = matches.isEmpty() ? 0.0 : matches.get(0).getSimilarityPercentage();
+        Submission.PlagiarismCheck check = new Submission.PlagiarismCheck();
+        check.setChecked(true);
+        check.setSimilarityScore(similarityScore);
+        check.setStatus(similarityScore >= flagThreshold ? "FLAGGED"
+                : similarityScore >= reviewThreshold ? "REVIEW_REQUIRED" : "PASSED");
+        check.setMatches(matches);
+        check.setCheckedAt(LocalDateTime.now());
+        check.setCheckingService(CHECKING_SERVICE);
+
+        log.info("Plagiarism check for submission {}: {} candidates, {} matches, similarity {}% in {} ms",
+                submission.getId(), candidates, matches.size(), similarityScore, System.currentTimeMillis() - startTime);
+        return check;
+    }
+
+    /**
+     * Add or refresh a submission's fingerprint without checking it
+     */
+    public void index(Submission submission) {
+        MinHash.Shingles shingles = MinHash.shingle(submission.getTextContent());
+        if (!shingles.isEmpty()) {
+            mongoTemplate.save(fingerprint(submission, shingles));
+        }
+    }
+
+    public void remove(String submissionId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(submissionId)), SubmissionFingerprint.class);
+    }
+
+    /**
+     * Fingerprint every submitted submission that has none yet; returns the number added
+     */
+    public int backfill() {
+        long startTime = System.currentTimeMillis();
+        Set<String> indexed = new HashSet<>();
+        Query existing = new Query();
+        existing.fields().include("_id");
+        try (Stream<SubmissionFingerprint> fingerprints = mongoTemplate.stream(existing, SubmissionFingerprint.class)) {
+            fingerprints.forEach(fingerprint -> indexed.add(fingerprint.getId()));
+        }
+
+        Query query = Query.query(Criteria.where("status").in("SUBMITTED", "LATE", "GRADED", "RETURNED")
+                .and("textContent").ne(null));
+        query.fields().include("textContent").include("assignment").include("student");
+
+        int added = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SubmissionFingerprint.class);
+        try (Stream<Submission> submissions = mongoTemplate.stream(query, Submission.class)) {
+            for (Submission submission : (Iterable<Submission>) submissions::iterator) {
+                if (indexed.contains(submission.getId())) {
+                    continue;
+                }
+                MinHash.Shingles shingles = MinHash.shingle(submission.getTextContent());
+                if (shingles.isEmpty()) {
+                    continue;
+                }
+                bulk.insert(fingerprint(submission, shingles));
+                added++;
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SubmissionFingerprint.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        log.info("Fingerprinted {} submissions ({} already indexed) in {} ms",
+                added, indexed.size(), System.currentTimeMillis() - startTime);
+        return added;
+    }
+
+    SubmissionFingerprint fingerprint(Submission submission, MinHash.Shingles shingles) {
+        int[] signature = MinHash.signature(shingles);
+        List<Integer> values = new ArrayList<>(signature.length);
+        for (int value : signature) {
+            values.add(value);
+        }
+        SubmissionFingerprint fingerprint = new SubmissionFingerprint();
+        fingerprint.setId(submission.getId());
+        if (submission.getAssignment() != null) {
+            fingerprint.setAssignmentId(submission.getAssignment().getId());
+            fingerprint.setCourseCode(submission.getAssignment().getCourseCode());
+        }
+        if (submission.getStudent() != null) {
+            fingerprint.setStudentId(submission.getStudent().getId());
+        }
+        fingerprint.setSignature(values);
+        fingerprint.setBandKeys(MinHash.bandKeys(signature));
+        fingerprint.setShingleCount(shingles.size());
+        fingerprint.setCreatedAt(LocalDateTime.now());
+        return fingerprint;
+    }
+
+    /**
+     * Fingerprints sharing at least one band key, within the course (or the assignment when it has no course)
+     */
+    private List<SubmissionFingerprint> findCandidates(SubmissionFingerprint fingerprint) {
+        Criteria criteria = fingerprint.getCourseCode() != null
+                ? Criteria.where("courseCode").is(fingerprint.getCourseCode())
+                : Criteria.where("assignmentId").is(fingerprint.getAssignmentId());
+        criteria.and("bandKeys").in(fingerprint.getBandKeys());
+        if (fingerprint.getId() != null) {
+            criteria.and("_id").ne(fingerprint.getId());
+        }
+        if (fingerprint.getStudentId() != null) {
+            criteria.and("studentId").ne(fingerprint.getStudentId());
+        }
+        Query query = Query.query(criteria).limit(maxCandidates);
+        query.fields().include("signature").include("studentId").include("assignmentId");
+        return mongoTemplate.find(query, SubmissionFingerprint.class);
+    }
+
+    /**
+     * Keep the candidates whose estimated similarity clears the threshold and measure the exact overlap of the best
+     */
+    private List<Submission.PlagiarismMatch> verify(String text, MinHash.Shingles shingles,
+                                                    SubmissionFingerprint fingerprint,
+                                                    List<SubmissionFingerprint> candidates) {
+        int[] mine = toArray(fingerprint.getSignature());
+        Map<String, Double> estimates = new HashMap<>();
+        for (SubmissionFingerprint candidate : candidates) {
+            if (candidate.getSignature() == null || candidate.getSignature().size() != MinHash.NUM_HASHES) {
+                continue;
+            }
+            double estimate = MinHash.similarity(mine, toArray(candidate.getSignature()));
+            if (estimate >= candidateThreshold) {
+                estimates.put(candidate.getId(), estimate);
+            }
+        }
+        if (estimates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> best = estimates.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxMatches)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        Query sources = Query.query(Criteria.where("_id").in(best));
+        sources.fields().include("textContent").include("assignment").include("student");
+        List<Submission.PlagiarismMatch> matches = new ArrayList<>();
+        for (Submission source : mongoTemplate.find(sources, Submission.class)) {
+            MinHash.Overlap overlap = MinHash.overlap(shingles, MinHash.shingle(source.getTextContent()).hashSet());
+            if (overlap.spans.isEmpty()) {
+                continue;
+            }
+            matches.add(match(text, source, overlap));
+        }
+        matches.sort(Comparator.comparing(Submission.PlagiarismMatch::getSimilarityPercentage).reversed());
+        return matches;
+    }
+
+    private static Submission.PlagiarismMatch match(String text, Submission source, MinHash.Overlap overlap) {
+        List<Submission.MatchSpan> spans = new ArrayList<>(overlap.spans.size());
+        int[] longest = overlap.spans.get(0);
+        for (int[] range : overlap.spans) {
+            Submission.MatchSpan span = new Submission.MatchSpan();
+            span.setStart(range[0]);
+            span.setEnd(range[1]);
+            spans.add(span);
+            if (range[1] - range[0] > longest[1] - longest[0]) {
+                longest = range;
+            }
+        }
+
+        Submission.PlagiarismMatch match = new Submission.PlagiarismMatch();
+        match.setSourceType("STUDENT_PAPER");
+        match.setSourceSubmissionId(source.getId());
+        if (source.getStudent() != null) {
+            match.setSourceStudentId(source.getStudent().getStudentId());
+        }
+        if (source.getAssignment() != null) {
+            match.setSourceTitle(source.getAssignment().getTitle());
+        }
+        match.setSimilarityPercentage(Math.round(overlap.containment * 1000.0) / 10.0);
+        match.setMatchedText(text.substring(longest[0], Math.min(longest[1], longest[0] + MATCHED_TEXT_LENGTH)));
+        match.setSpans(spans);
+        return match;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,268 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.GradeRollup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory class rank and percentiles. Each cohort (one course, or one grade
+ * level) is a Fenwick tree of member counts over fixed score buckets, so a
+ * score change, a rank lookup and a percentile lookup are all O(log buckets).
+ * Course cohorts rank the weighted course average from grade_rollups; grade
+ * level cohorts rank GPA. GpaService feeds every refreshed student in, and
+ * the whole index is rebuilt from grade_rollups at startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RankingService {
+
+    // 0.1 percentage points and 0.01 GPA points per bucket
+    private static final double COURSE_MAX = 100.0;
+    private static final double COURSE_STEP = 0.1;
+    private static final double GPA_MAX = 4.0;
+    private static final double GPA_STEP = 0.01;
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Map<String, Cohort> courseCohorts = new ConcurrentHashMap<>();
+    private volatile Map<String, Cohort> gradeLevelCohorts = new ConcurrentHashMap<>();
+
+    /**
+     * Reload every cohort from grade_rollups; returns the number of students indexed
+     */
+    public int rebuild() {
+        long startTime = System.currentTimeMillis();
+        Map<String, Cohort> courses = new ConcurrentHashMap<>();
+        Map<String, Cohort> gradeLevels = new ConcurrentHashMap<>();
+        int students = 0;
+
+        Query query = new Query().with(Sort.by(Sort.Order.asc("studentId")));
+        query.fields().include("studentId").include("courseId").include("gradeLevel").include("credits")
+                .include("weightedPercentage").include("totalWeight").include("gradeCount");
+        List<GradeRollup> current = new ArrayList<>();
+        try (Stream<GradeRollup> rollups = mongoTemplate.stream(query, GradeRollup.class)) {
+            for (GradeRollup rollup : (Iterable<GradeRollup>) rollups::iterator) {
+                if (!current.isEmpty() && !current.get(0).getStudentId().equals(rollup.getStudentId())) {
+                    index(courses, gradeLevels, current);
+                    students++;
+                    current = new ArrayList<>();
+                }
+                if (rollup.getStudentId() != null) {
+                    current.add(rollup);
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            index(courses, gradeLevels, current);
+            students++;
+        }
+
+        courseCohorts = courses;
+        gradeLevelCohorts = gradeLevels;
+        log.info("Rebuilt ranking index: {} students, {} courses, {} grade levels in {} ms",
+                students, courses.size(), gradeLevels.size(), System.currentTimeMillis() - startTime);
+        return students;
+    }
+
+    /**
+     * Move one student to their current scores, given all of their rollups
+     */
+    public void update(String studentId, Collection<GradeRollup> rollups) {
+        index(courseCohorts, gradeLevelCohorts, studentId, rollups);
+    }
+
+    /**
+     * Rank and percentile of a student (Student _id) in a course (Course _id); null if not ranked
+     */
+    public Map<String, Object> getCourseRank(String courseId, String studentId) {
+        return rank(courseCohorts.get(courseId), studentId);
+    }
+
+    public Map<String, Object> getGradeLevelRank(String gradeLevel, String studentId) {
+        return rank(gradeLevelCohorts.get(gradeLevel), studentId);
+    }
+
+    /**
+     * Course average at the given percentile (nearest rank); null for an empty course
+     */
+    public Double getCourseScoreAtPercentile(String courseId, double percentile) {
+        Cohort cohort = courseCohorts.get(courseId);
+        return cohort == null ? null : cohort.scoreAtPercentile(percentile);
+    }
+
+    public Double getGradeLevelScoreAtPercentile(String gradeLevel, double percentile) {
+        Cohort cohort = gradeLevelCohorts.get(gradeLevel);
+        return cohort == null ? null : cohort.scoreAtPercentile(percentile);
+    }
+
+    private static void index(Map<String, Cohort> courses, Map<String, Cohort> gradeLevels, List<GradeRollup> rollups) {
+        index(courses, gradeLevels, rollups.get(0).getStudentId(), rollups);
+    }
+
+    private static void index(Map<String, Cohort> courses, Map<String, Cohort> gradeLevels,
+                              String studentId, Collection<GradeRollup> rollups) {
+        String gradeLevel = null;
+        boolean graded = false;
+        for (GradeRollup rollup : rollups) {
+            if (rollup.getCourseId() == null) {
+                continue;
+            }
+            if (rollup.getGradeCount() > 0 && rollup.getTotalWeight() > 0) {
+                courses.computeIfAbsent(rollup.getCourseId(), id -> new Cohort(COURSE_MAX, COURSE_STEP))
+                        .put(studentId, rollup.getAveragePercentage());
+                graded = true;
+            } else {
+                Cohort cohort = courses.get(rollup.getCourseId());
+                if (cohort != null) {
+                    cohort.remove(studentId);
+                }
+            }
+            if (rollup.getGradeLevel() != null) {
+                gradeLevel = rollup.getGradeLevel();
+            }
+        }
+        if (gradeLevel == null) {
+            return;
+        }
+        for (Map.Entry<String, Cohort> entry : gradeLevels.entrySet()) {
+            // A student who moved up a grade leaves their old cohort
+            if (!entry.getKey().equals(gradeLevel)) {
+                entry.getValue().remove(studentId);
+            }
+        }
+        if (graded) {
+            gradeLevels.computeIfAbsent(gradeLevel, level -> new Cohort(GPA_MAX, GPA_STEP))
+                    .put(studentId, GpaService.gpa(rollups));
+        } else if (gradeLevels.containsKey(gradeLevel)) {
+            gradeLevels.get(gradeLevel).remove(studentId);
+        }
+    }
+
+    private static Map<String, Object> rank(Cohort cohort, String studentId) {
+        return cohort == null ? null : cohort.rank(studentId);
+    }
+
+    /**
+     * Fenwick tree of member counts over score buckets [0, max] of width step.
+     * Scores are kept to bucket precision; ties share a rank.
+     */
+    static final class Cohort {
+        private final double step;
+        private final int[] tree; // 1-based
+        private final Map<String, Integer> buckets = new HashMap<>();
+
+        Cohort(double max, double step) {
+            this.step = step;
+            this.tree = new int[(int) Math.round(max / step) + 2];
+        }
+
+        synchronized void put(String member, double score) {
+            int bucket = bucketOf(score);
+            Integer previous = buckets.put(member, bucket);
+            if (previous != null) {
+                if (previous == bucket) {
+                    return;
+                }
+                add(previous, -1);
+            }
+            add(bucket, 1);
+        }
+
+        synchronized void remove(String member) {
+            Integer previous = buckets.remove(member);
+            if (previous != null) {
+                add(previous, -1);
+            }
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+
+        /**
+         * rank is 1 + members scoring strictly higher; percentile is the share of members at or below
+         */
+        synchronized Map<String, Object> rank(String member) {
+            Integer bucket = buckets.get(member);
+            if (bucket == null) {
+                return null;
+            }
+            int total = buckets.size();
+            int atOrBelow = prefix(bucket);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rank", total - atOrBelow + 1);
+            result.put("of", total);
+            result.put("percentile", Math.round(atOrBelow * 1000.0 / total) / 10.0);
+            result.put("score", scoreOf(bucket));
+            return result;
+        }
+
+        /**
+         * Score of the member at the given percentile (nearest rank), or null when empty
+         */
+        synchronized Double scoreAtPercentile(double percentile) {
+            int total = buckets.size();
+            if (total == 0) {
+                return null;
+            }
+            double clamped = Math.max(0, Math.min(100, percentile));
+            int target = Math.max(1, (int) Math.ceil(clamped / 100.0 * total));
+            return scoreOf(lowerBound(target));
+        }
+
+        private int bucketOf(double score) {
+            int bucket = (int) Math.round(score / step) + 1;
+            return Math.max(1, Math.min(tree.length - 1, bucket));
+        }
+
+        private double scoreOf(int bucket) {
+            return Math.round((bucket - 1) * step * 100.0) / 100.0;
+        }
+
+        private void add(int index, int delta) {
+            for (int i = index; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private int prefix(int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Smallest bucket whose prefix count reaches target
+         */
+        private int lowerBound(int target) {
+            int position = 0;
+            int remaining = target;
+            for (int bit = Integer.highestOneBit(tree.length - 1); bit > 0; bit >>= 1) {
+                int next = position + bit;
+                if (next < tree.length && tree[next] < remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+            return position + 1;
+        }
+    }
+}
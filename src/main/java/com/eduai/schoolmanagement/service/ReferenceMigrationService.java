@@ -0,0 +1,204 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.BaseEntity;
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.CourseRef;
+import com.eduai.schoolmanagement.entity.Fee;
+import com.eduai.schoolmanagement.entity.FeeRef;
+import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.Invoice;
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Payment;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.entity.User;
+import com.eduai.schoolmanagement.entity.UserRef;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCursor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rewrites documents saved with @DBRef links into the embedded reference shape.
+ * Each collection is read in pages; per page every referenced collection is loaded
+ * with one $in query and the rewritten fields go out in one unordered bulk write.
+ * Only documents that still hold a DBRef are selected, so re-running is a no-op.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceMigrationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReferenceResolver referenceResolver;
+
+    @Value("${app.migration.references.page-size:500}")
+    private int pageSize = 500;
+
+    public Map<String, Object> migrateAll() {
+        Map<String, Object> migrated = new LinkedHashMap<>();
+        migrated.put("grades", migrate(Grade.class, List.of(
+                new RefPath<>("student", Student.class, StudentRef::of),
+                new RefPath<>("course", Course.class, CourseRef::of),
+                new RefPath<>("assignment", Assignment.class, AssignmentRef::of))));
+        migrated.put("submissions", migrate(Submission.class, List.of(
+                new RefPath<>("assignment", Assignment.class, AssignmentRef::of),
+                new RefPath<>("student", Student.class, StudentRef::of))));
+        migrated.put("invoices", migrate(Invoice.class, List.of(
+                new RefPath<>("student", Student.class, StudentRef::of),
+                new RefPath<>("items.fee", Fee.class, FeeRef::of))));
+        migrated.put("payments", migrate(Payment.class, List.of(
+                new RefPath<>("student", Student.class, StudentRef::of),
+                new RefPath<>("fee", Fee.class, FeeRef::of))));
+        migrated.put("parents", migrate(Parent.class, List.of(
+                new RefPath<>("user", User.class, UserRef::of),
+                new RefPath<>("children", Student.class, StudentRef::of))));
+        return migrated;
+    }
+
+    /**
+     * Migrate one collection; returns the number of documents rewritten
+     */
+    long migrate(Class<?> entityType, List<RefPath<?>> paths) {
+        List<Criteria> stillLinked = new ArrayList<>();
+        for (RefPath<?> path : paths) {
+            stillLinked.add(Criteria.where(path.path() + ".$ref").exists(true));
+        }
+        Document filter = new Criteria().orOperator(stillLinked).getCriteriaObject();
+        Document projection = new Document();
+        for (RefPath<?> path : paths) {
+            projection.append(path.path().split("\\.")[0], 1);
+        }
+
+        String collection = mongoTemplate.getCollectionName(entityType);
+        long migrated = 0;
+        List<Document> page = new ArrayList<>(pageSize);
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(collection)
+                .find(filter).projection(projection).batchSize(pageSize).iterator()) {
+            while (cursor.hasNext()) {
+                page.add(cursor.next());
+                if (page.size() == pageSize) {
+                    migrated += migratePage(entityType, paths, page);
+                    page.clear();
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            migrated += migratePage(entityType, paths, page);
+        }
+        log.info("Migrated {} {} documents to embedded references", migrated, collection);
+        return migrated;
+    }
+
+    private long migratePage(Class<?> entityType, List<RefPath<?>> paths, List<Document> page) {
+        // Field path within the document -> DBRef, per document and per reference path
+        List<List<Map<String, DBRef>>> links = new ArrayList<>();
+        Map<Class<? extends BaseEntity>, Set<String>> idsByType = new HashMap<>();
+        for (Document document : page) {
+            List<Map<String, DBRef>> documentLinks = new ArrayList<>();
+            for (RefPath<?> path : paths) {
+                Map<String, DBRef> found = new LinkedHashMap<>();
+                collect(document, path.path().split("\\."), 0, "", found);
+                for (DBRef ref : found.values()) {
+                    idsByType.computeIfAbsent(path.type(), type -> new HashSet<>()).add(ref.getId().toString());
+                }
+                documentLinks.add(found);
+            }
+            links.add(documentLinks);
+        }
+
+        Map<Class<? extends BaseEntity>, Map<String, ? extends BaseEntity>> resolved = new HashMap<>();
+        idsByType.forEach((type, ids) -> resolved.put(type, referenceResolver.resolve(type, ids)));
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityType);
+        int updates = 0;
+        for (int i = 0; i < page.size(); i++) {
+            Update update = new Update();
+            for (int p = 0; p < paths.size(); p++) {
+                RefPath<?> path = paths.get(p);
+                Map<String, ? extends BaseEntity> targets = resolved.getOrDefault(path.type(), Map.of());
+                for (Map.Entry<String, DBRef> link : links.get(i).get(p).entrySet()) {
+                    BaseEntity target = targets.get(link.getValue().getId().toString());
+                    // Dangling links keep just the id so the row stays readable
+                    update.set(link.getKey(), target != null ? path.snapshot(target)
+                            : new Document("_id", link.getValue().getId()));
+                }
+            }
+            if (!update.getUpdateObject().isEmpty()) {
+                bulkOps.updateOne(Query.query(Criteria.where("_id").is(page.get(i).get("_id"))), update);
+                updates++;
+            }
+        }
+        if (updates > 0) {
+            bulkOps.execute();
+        }
+        return updates;
+    }
+
+    /**
+     * Walk a dotted path through nested documents and arrays, recording every DBRef
+     * found under its concrete field path (e.g. items.2.fee)
+     */
+    private static void collect(Object value, String[] segments, int index, String fieldPath, Map<String, DBRef> found) {
+        if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                collect(list.get(i), segments, index, fieldPath + "." + i, found);
+            }
+            return;
+        }
+        if (index == segments.length) {
+            DBRef ref = toDbRef(value);
+            if (ref != null) {
+                found.put(fieldPath, ref);
+            }
+            return;
+        }
+        if (value instanceof Document document && toDbRef(document) == null) {
+            String next = fieldPath.isEmpty() ? segments[index] : fieldPath + "." + segments[index];
+            collect(document.get(segments[index]), segments, index + 1, next, found);
+        }
+    }
+
+    private static DBRef toDbRef(Object value) {
+        if (value instanceof DBRef ref) {
+            return ref;
+        }
+        if (value instanceof Document document && document.containsKey("$ref") && document.containsKey("$id")) {
+            return new DBRef(document.getString("$ref"), document.get("$id"));
+        }
+        return null;
+    }
+
+    /**
+     * A reference field to migrate: dotted path, referenced entity and its snapshot
+     */
+    record RefPath<T extends BaseEntity>(String path, Class<T> type, Function<T, Object> snapshotter) {
+
+        Object snapshot(BaseEntity target) {
+            return snapshotter.apply(type.cast(target));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.BaseEntity;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Loads the full documents behind embedded references (StudentRef, CourseRef, ...).
+ * Callers hand over a whole page, and each referenced collection is read with a
+ * single $in query instead of one lookup per row.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceResolver {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Documents of one type by id; ids that no longer exist are simply absent
+     */
+    public <T extends BaseEntity> Map<String, T> resolve(Class<T> type, Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null) {
+                distinct.add(id);
+            }
+        }
+        Map<String, T> documents = new LinkedHashMap<>();
+        if (distinct.isEmpty()) {
+            return documents;
+        }
+        for (T document : mongoTemplate.find(Query.query(Criteria.where("_id").in(distinct)), type)) {
+            documents.put(document.getId(), document);
+        }
+        return documents;
+    }
+
+    /**
+     * Resolve the reference every row of a page points at, e.g.
+     * {@code resolve(grades, grade -> grade.getStudent().getId(), Student.class)}
+     */
+    public <E, T extends BaseEntity> Map<String, T> resolve(Collection<E> page, Function<E, String> refId, Class<T> type) {
+        return resolve(type, page.stream().filter(Objects::nonNull).map(refId).toList());
+    }
+}
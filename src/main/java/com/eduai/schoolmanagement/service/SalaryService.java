@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Salary;
 import com.eduai.schoolmanagement.entity.SalaryStructure;
 import com.eduai.schoolmanagement.entity.Salary.SalaryStatus;
@@ -7,10 +8,9 @@ import com.eduai.schoolmanagement.entity.Salary.PaymentMethod;
 import com.eduai.schoolmanagement.repository.SalaryRepository;
 import com.eduai.schoolmanagement.repository.SalaryStructureRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
@@ -30,6 +30,12 @@ public class SalaryService {
     @Autowired
     private SalaryStructureRepository salaryStructureRepository;
 
+    @Autowired
+    private CursorPaginator cursorPaginator;
+
+    // Cursor sort keys, each backed by an {institutionId, key, _id} index
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("payrollYear", "payrollDate");
+
     // Constants for calculations
     private static final double PF_RATE = 0.12; // 12%
     private static final double ESI_RATE = 0.0075; // 0.75%
@@ -332,8 +338,13 @@ public class SalaryService {
             institutionId, payrollMonth, payrollYear);
     }
 
-    public Page<Salary> getSalariesByInstitution(String institutionId, Pageable pageable) {
-        return salaryRepository.findByInstitutionId(institutionId, pageable);
+    public CursorPage<Salary> getSalariesByInstitution(String institutionId, String sortBy,
+                                                       Sort.Direction direction, String cursor, Integer limit) {
+        if (!CURSOR_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Salaries can only be sorted by payrollYear or payrollDate");
+        }
+        return cursorPaginator.page(Salary.class, Criteria.where("institutionId").is(institutionId),
+            sortBy, direction, cursor, limit);
     }
 
     public List<Salary> getPendingApprovals(String institutionId) {
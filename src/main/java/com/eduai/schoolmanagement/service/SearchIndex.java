@@ -0,0 +1,261 @@
+package com.eduai.schoolmanagement.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import com.eduai.schoolmanagement.dto.SearchHit;
+
+/**
+ * Inverted index over the words of a few short fields per entry. Words are
+ * case and accent folded; every word of three or more characters is posted
+ * under each of its trigrams and the words themselves are kept sorted, so a
+ * query word of three or more characters finds the entries containing it
+ * anywhere inside a word by intersecting trigram postings, and a shorter one
+ * by a prefix range over the sorted words. Candidates are then checked and
+ * ranked: a whole word beats a word prefix beats a match inside a word, each
+ * scaled by the weight of the field it came from. Safe for concurrent use.
+ */
+final class SearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+    private final NavigableMap<String, Set<String>> words = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * One searchable row; add fields before putting it in the index
+     */
+    static final class Entry {
+        final String type;
+        final String id;
+        final String title;
+        final String subtitle;
+        private final Map<String, Integer> wordWeights = new HashMap<>();
+
+        Entry(String type, String id, String title, String subtitle) {
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.subtitle = subtitle;
+        }
+
+        Entry add(String value, int weight) {
+            for (String word : words(value)) {
+                wordWeights.merge(word, weight, Math::max);
+            }
+            return this;
+        }
+
+        /**
+         * Also index the digits on their own, so "98765 43210" finds "+91-98765-43210"
+         */
+        Entry addPhone(String value, int weight) {
+            add(value, weight);
+            if (value != null) {
+                String digits = value.replaceAll("\\D", "");
+                if (digits.length() >= 3) {
+                    wordWeights.merge(digits, weight, Math::max);
+                }
+            }
+            return this;
+        }
+
+        String key() {
+            return key(type, id);
+        }
+
+        static String key(String type, String id) {
+            return type + ':' + id;
+        }
+    }
+
+    void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            String key = entry.key();
+            unpost(entries.put(key, entry));
+            for (String word : entry.wordWeights.keySet()) {
+                words.computeIfAbsent(word, w -> new HashSet<>()).add(key);
+                for (String gram : trigrams(word)) {
+                    grams.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean remove(String type, String id) {
+        lock.writeLock().lock();
+        try {
+            Entry removed = entries.remove(Entry.key(type, id));
+            unpost(removed);
+            return removed != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries matching every word of the query, best first; types null or empty means all types
+     */
+    List<SearchHit> search(String query, Collection<String> types, int limit) {
+        Set<String> queryWords = new LinkedHashSet<>(words(query));
+        if (queryWords.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        List<String> ordered = new ArrayList<>(queryWords);
+        // Longest words first: their postings are the smallest, so the intersection shrinks fastest
+        ordered.sort(Comparator.comparingInt(String::length).reversed());
+
+        lock.readLock().lock();
+        try {
+            Set<String> candidates = null;
+            for (String word : ordered) {
+                Set<String> matches = candidates(word);
+                if (candidates == null) {
+                    candidates = new HashSet<>(matches);
+                } else {
+                    candidates.retainAll(matches);
+                }
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>();
+            for (String key : candidates) {
+                Entry entry = entries.get(key);
+                if (types != null && !types.isEmpty() && !types.contains(entry.type)) {
+                    continue;
+                }
+                int score = score(entry, ordered);
+                if (score > 0) {
+                    hits.add(new SearchHit(entry.type, entry.id, entry.title, entry.subtitle, score));
+                }
+            }
+            hits.sort(Comparator.comparingInt(SearchHit::getScore).reversed()
+                    .thenComparing(hit -> hit.getTitle() != null ? hit.getTitle() : "")
+                    .thenComparing(SearchHit::getId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> candidates(String word) {
+        if (word.length() < 3) {
+            Set<String> matches = new HashSet<>();
+            for (Set<String> keys : words.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+                matches.addAll(keys);
+            }
+            return matches;
+        }
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : trigrams(word)) {
+            Set<String> keys = grams.get(gram);
+            if (keys == null) {
+                return Set.of();
+            }
+            postings.add(keys);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<String> matches = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !matches.isEmpty(); i++) {
+            matches.retainAll(postings.get(i));
+        }
+        return matches;
+    }
+
+    /**
+     * Sum over query words of the best match in the entry; 0 when a word does
+     * not really occur (its trigrams can all appear without being adjacent)
+     */
+    private static int score(Entry entry, List<String> queryWords) {
+        int total = 0;
+        for (String query : queryWords) {
+            int best = 0;
+            for (Map.Entry<String, Integer> word : entry.wordWeights.entrySet()) {
+                String candidate = word.getKey();
+                int match = candidate.equals(query) ? 3
+                        : candidate.startsWith(query) ? 2
+                        : candidate.contains(query) ? 1 : 0;
+                best = Math.max(best, match * word.getValue());
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private void unpost(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        String key = entry.key();
+        for (String word : entry.wordWeights.keySet()) {
+            discard(words, word, key);
+            for (String gram : trigrams(word)) {
+                discard(grams, gram, key);
+            }
+        }
+    }
+
+    private static void discard(Map<String, Set<String>> postings, String term, String key) {
+        Set<String> keys = postings.get(term);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    static List<String> words(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    static Set<String> trigrams(String word) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            trigrams.add(word.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
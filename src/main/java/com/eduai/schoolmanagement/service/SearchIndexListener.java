@@ -0,0 +1,44 @@
+package com.eduai.schoolmanagement.service;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the search index current with every repository or template save and
+ * delete, bulk inserts included. Partial updates (updateFirst and the like)
+ * raise no events, so code that renames a searchable entity that way must call
+ * SearchService.index itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexListener extends AbstractMongoEventListener<Object> {
+
+    private final SearchService searchService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        searchService.index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        String type = SearchService.typeOf(event.getCollectionName());
+        if (type == null) {
+            return;
+        }
+        String id = SearchService.deletedId(event.getSource());
+        if (id != null) {
+            searchService.remove(type, id);
+        } else {
+            // deleteAll or a delete by filter: the event does not say which documents went
+            log.info("Bulk delete on {}, rebuilding the search index", event.getCollectionName());
+            searchService.rebuild();
+        }
+    }
+}
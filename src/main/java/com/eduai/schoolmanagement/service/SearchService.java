@@ -0,0 +1,255 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.dto.SearchHit;
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.Employee;
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.Teacher;
+import com.eduai.schoolmanagement.entity.UserRef;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Type-ahead search over students, parents, teachers, employees and courses by
+ * name, email, ID and phone number, served from an in-process SearchIndex so a
+ * keystroke never reaches Mongo. SearchIndexListener feeds every save and
+ * delete of these entities in, and the index is rebuilt from Mongo at startup.
+ * Changes made while a rebuild is loading are replayed onto the new index
+ * before it replaces the old one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    public static final String STUDENT = "STUDENT";
+    public static final String PARENT = "PARENT";
+    public static final String TEACHER = "TEACHER";
+    public static final String EMPLOYEE = "EMPLOYEE";
+    public static final String COURSE = "COURSE";
+    public static final Set<String> TYPES = Set.of(STUDENT, PARENT, TEACHER, EMPLOYEE, COURSE);
+
+    // Field weights: a name match outranks an ID or email match, which outranks a phone match
+    private static final int NAME = 3;
+    private static final int IDENTIFIER = 2;
+    private static final int PHONE = 1;
+
+    private static final Map<String, String> COLLECTION_TYPES = Map.of(
+            "students", STUDENT, "parents", PARENT, "teachers", TEACHER, "employees", EMPLOYEE, "courses", COURSE);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.search.default-limit:10}")
+    private int defaultLimit = 10;
+
+    @Value("${app.search.max-limit:50}")
+    private int maxLimit = 50;
+
+    private volatile SearchIndex index = new SearchIndex();
+    private final Object rebuildLock = new Object();
+    private List<Consumer<SearchIndex>> replay; // non-null while a rebuild is loading; guarded by this
+
+    /**
+     * Reload every searchable entity from Mongo; returns the number of entries indexed
+     */
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            long startTime = System.currentTimeMillis();
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            SearchIndex fresh = new SearchIndex();
+            try {
+                load(fresh, Student.class, "studentId", "admissionNumber", "grade", "section", "user");
+                load(fresh, Parent.class, "parentId", "relationship", "user");
+                load(fresh, Teacher.class, "employeeId", "department", "user");
+                load(fresh, Employee.class, "employeeId", "employmentInfo", "personalInfo");
+                load(fresh, Course.class, "courseCode", "courseName", "department", "grade");
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    replay = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                replay.forEach(change -> change.accept(fresh));
+                replay = null;
+                index = fresh;
+            }
+            log.info("Rebuilt search index: {} entries in {} ms", fresh.size(), System.currentTimeMillis() - startTime);
+            return fresh.size();
+        }
+    }
+
+    /**
+     * Best matches for a type-ahead query; types limits the entity types searched (null or empty for all)
+     */
+    public List<SearchHit> search(String query, Collection<String> types, Integer limit) {
+        Set<String> wanted = null;
+        if (types != null && !types.isEmpty()) {
+            wanted = types.stream().map(type -> type.trim().toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+            for (String type : wanted) {
+                if (!TYPES.contains(type)) {
+                    throw new IllegalArgumentException("Unknown search type: " + type);
+                }
+            }
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        int size = Math.min(limit != null ? limit : defaultLimit, maxLimit);
+        return index.search(query, wanted, size);
+    }
+
+    /**
+     * Add or refresh a saved entity; anything that is not searchable is ignored
+     */
+    public void index(Object entity) {
+        SearchIndex.Entry entry = entry(entity);
+        if (entry != null) {
+            apply(target -> target.put(entry));
+        }
+    }
+
+    public void remove(String type, String id) {
+        apply(target -> target.remove(type, id));
+    }
+
+    /**
+     * Entity type stored in a collection, or null when it is not searchable
+     */
+    static String typeOf(String collection) {
+        return collection != null ? COLLECTION_TYPES.get(collection) : null;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    private synchronized void apply(Consumer<SearchIndex> change) {
+        if (replay != null) {
+            replay.add(change);
+        }
+        change.accept(index);
+    }
+
+    private <T> void load(SearchIndex target, Class<T> type, String... fields) {
+        Query query = new Query();
+        for (String field : fields) {
+            query.fields().include(field);
+        }
+        try (Stream<T> stream = mongoTemplate.stream(query, type)) {
+            stream.forEach(entity -> {
+                SearchIndex.Entry entry = entry(entity);
+                if (entry != null) {
+                    target.put(entry);
+                }
+            });
+        }
+    }
+
+    static SearchIndex.Entry entry(Object entity) {
+        if (entity instanceof Student student && student.getId() != null) {
+            Student.UserInfo user = student.getUser();
+            SearchIndex.Entry entry = new SearchIndex.Entry(STUDENT, student.getId(),
+                    user != null ? name(user.getFirstName(), user.getLastName()) : student.getStudentId(),
+                    join(student.getStudentId(), gradeSection(student.getGrade(), student.getSection())))
+                    .add(student.getStudentId(), IDENTIFIER)
+                    .add(student.getAdmissionNumber(), IDENTIFIER);
+            if (user != null) {
+                entry.add(user.getFirstName(), NAME).add(user.getLastName(), NAME)
+                        .add(user.getEmail(), IDENTIFIER).addPhone(user.getPhone(), PHONE);
+            }
+            return entry;
+        }
+        if (entity instanceof Parent parent && parent.getId() != null) {
+            UserRef user = parent.getUser();
+            SearchIndex.Entry entry = new SearchIndex.Entry(PARENT, parent.getId(),
+                    user != null ? name(user.getFirstName(), user.getLastName()) : parent.getParentId(),
+                    join(parent.getParentId(), parent.getRelationship()))
+                    .add(parent.getParentId(), IDENTIFIER);
+            if (user != null) {
+                entry.add(user.getFirstName(), NAME).add(user.getLastName(), NAME)
+                        .add(user.getEmail(), IDENTIFIER).addPhone(user.getPhone(), PHONE);
+            }
+            return entry;
+        }
+        if (entity instanceof Teacher teacher && teacher.getId() != null) {
+            Teacher.UserInfo user = teacher.getUser();
+            SearchIndex.Entry entry = new SearchIndex.Entry(TEACHER, teacher.getId(),
+                    user != null ? name(user.getFirstName(), user.getLastName()) : teacher.getEmployeeId(),
+                    join(teacher.getEmployeeId(), teacher.getDepartment()))
+                    .add(teacher.getEmployeeId(), IDENTIFIER);
+            if (user != null) {
+                entry.add(user.getFirstName(), NAME).add(user.getLastName(), NAME)
+                        .add(user.getEmail(), IDENTIFIER).addPhone(user.getPhone(), PHONE);
+            }
+            return entry;
+        }
+        if (entity instanceof Employee employee && employee.getId() != null) {
+            Employee.PersonalInfo person = employee.getPersonalInfo();
+            Employee.EmploymentInfo employment = employee.getEmploymentInfo();
+            SearchIndex.Entry entry = new SearchIndex.Entry(EMPLOYEE, employee.getId(),
+                    person != null ? name(person.getFirstName(), person.getLastName()) : employee.getEmployeeId(),
+                    join(employee.getEmployeeId(), employment != null ? employment.getPosition() : null))
+                    .add(employee.getEmployeeId(), IDENTIFIER);
+            if (person != null) {
+                entry.add(person.getFirstName(), NAME).add(person.getLastName(), NAME)
+                        .add(person.getEmail(), IDENTIFIER).addPhone(person.getPhone(), PHONE);
+            }
+            return entry;
+        }
+        if (entity instanceof Course course && course.getId() != null) {
+            return new SearchIndex.Entry(COURSE, course.getId(), course.getCourseName(),
+                    join(course.getCourseCode(), course.getDepartment()))
+                    .add(course.getCourseName(), NAME)
+                    .add(course.getCourseCode(), IDENTIFIER);
+        }
+        return null;
+    }
+
+    /**
+     * The _id a delete event's filter names, or null when it could match more than one document
+     */
+    static String deletedId(Document filter) {
+        Object id = filter != null ? filter.get("_id") : null;
+        return id == null || id instanceof Document ? null : id.toString();
+    }
+
+    private static String name(String first, String last) {
+        return join(first, last, " ");
+    }
+
+    private static String gradeSection(String grade, String section) {
+        return grade == null ? null : section == null ? "Grade " + grade : "Grade " + grade + "-" + section;
+    }
+
+    private static String join(String first, String second) {
+        return join(first, second, ", ");
+    }
+
+    private static String join(String first, String second, String separator) {
+        if (first == null || first.isBlank()) {
+            return second;
+        }
+        return second == null || second.isBlank() ? first : first + separator + second;
+    }
+}
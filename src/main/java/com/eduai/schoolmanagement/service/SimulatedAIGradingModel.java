@@ -0,0 +1,106 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.eduai.schoolmanagement.dto.AIGradingRequest;
+import com.eduai.schoolmanagement.dto.AIGradingResult;
+import com.eduai.schoolmanagement.entity.Assignment;
+
+/**
+ * Stand-in model that scores on content length and structure with some noise.
+ * Registered as "simulated" until a real model is wired in.
+ */
+@Component
+public class SimulatedAIGradingModel implements AIGradingModel {
+
+    public static final String NAME = "simulated";
+
+    private static final String MODEL_VERSION = "GPT-4-Education-v1.0";
+
+    @Value("${app.grading.simulated.max-concurrency:8}")
+    private int maxConcurrency = 8;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public AIGradingResult grade(AIGradingRequest request) {
+        double score = generateScore(request.getTextContent(), request.getMaxScore());
+
+        AIGradingResult result = new AIGradingResult();
+        result.setScore(score);
+        result.setConfidence(calculateConfidence(request.getTextContent()));
+        result.setFeedback(generateFeedback(request.getMaxScore() > 0 ? score / request.getMaxScore() * 100 : 0));
+        result.setRubricScores(generateRubricScores(request.getRubric()));
+        result.setModel(MODEL_VERSION);
+        return result;
+    }
+
+    private double generateScore(String content, double maxScore) {
+        // Simulate AI scoring based on content length, keywords, structure
+        if (content == null || content.trim().isEmpty()) {
+            return 0.0;
+        }
+
+        double baseScore = maxScore * 0.6;
+        double contentBonus = Math.min(content.length() / 100.0, maxScore * 0.3);
+        double randomFactor = (Math.random() - 0.5) * (maxScore * 0.2);
+
+        return Math.max(0, Math.min(maxScore, baseScore + contentBonus + randomFactor));
+    }
+
+    private double calculateConfidence(String content) {
+        // Simulate confidence based on content quality indicators
+        if (content == null || content.trim().isEmpty()) {
+            return 0.3; // Low confidence for empty content
+        }
+
+        double lengthFactor = Math.min(1.0, content.length() / 500.0); // Confidence increases with length
+        double structureFactor = content.contains(".") && content.contains(" ") ? 0.8 : 0.5;
+        double randomVariation = 0.1 + (Math.random() * 0.2); // 0.1 - 0.3
+
+        return Math.min(0.95, lengthFactor * structureFactor + randomVariation);
+    }
+
+    private String generateFeedback(double percentage) {
+        if (percentage >= 90) {
+            return "Excellent work! Your submission demonstrates a thorough understanding of the topic with clear explanations and well-structured content.";
+        } else if (percentage >= 80) {
+            return "Good work! Your submission shows solid understanding. Consider expanding on key points and providing more detailed explanations.";
+        } else if (percentage >= 70) {
+            return "Satisfactory work. Your submission covers the basics but could benefit from more depth and better organization of ideas.";
+        } else if (percentage >= 60) {
+            return "Your submission shows some understanding but needs significant improvement. Focus on addressing all requirements and providing clearer explanations.";
+        } else {
+            return "This submission requires major revision. Please review the assignment requirements and seek additional help to improve your understanding.";
+        }
+    }
+
+    private Map<String, Double> generateRubricScores(List<Assignment.RubricCriterion> rubric) {
+        Map<String, Double> rubricScores = new HashMap<>();
+        if (rubric != null && !rubric.isEmpty()) {
+            for (Assignment.RubricCriterion criterion : rubric) {
+                rubricScores.put(criterion.getName(), Math.random() * criterion.getMaxPoints());
+            }
+        } else {
+            // Default rubric criteria
+            rubricScores.put("Content Quality", Math.random() * 25);
+            rubricScores.put("Organization", Math.random() * 25);
+            rubricScores.put("Grammar & Style", Math.random() * 25);
+            rubricScores.put("Requirements Met", Math.random() * 25);
+        }
+        return rubricScores;
+    }
+}
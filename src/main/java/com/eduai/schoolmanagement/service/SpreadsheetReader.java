@@ -0,0 +1,332 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the rows of a CSV file or the first worksheet of an XLSX workbook one
+ * at a time, so an import never holds the whole file in memory. XLSX is read
+ * straight from the zip with StAX; only the shared string table is loaded up
+ * front. Cells come back as strings, numbers in their plain decimal form.
+ */
+abstract class SpreadsheetReader implements Closeable {
+
+    private int rowNumber;
+
+    static SpreadsheetReader open(Path file, String format) throws IOException {
+        return "XLSX".equals(format) ? new Xlsx(file) : new Csv(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The next row's cells, or null at the end of the file
+     */
+    List<String> next() throws IOException {
+        List<String> row = readRow();
+        if (row != null) {
+            rowNumber = nextRowNumber(rowNumber);
+        }
+        return row;
+    }
+
+    /**
+     * File row number of the row last returned, starting at 1
+     */
+    int rowNumber() {
+        return rowNumber;
+    }
+
+    protected abstract List<String> readRow() throws IOException;
+
+    protected int nextRowNumber(int previous) {
+        return previous + 1;
+    }
+
+    /**
+     * RFC 4180: comma separated, fields optionally quoted with "" as an escaped
+     * quote, line breaks allowed inside quotes. A leading BOM is skipped.
+     */
+    static final class Csv extends SpreadsheetReader {
+
+        private final Reader in;
+        private boolean started;
+        private boolean eof;
+
+        Csv(Reader in) {
+            this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+        }
+
+        @Override
+        protected List<String> readRow() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c = in.read();
+            if (!started) {
+                started = true;
+                if (c == '\uFEFF') {
+                    c = in.read();
+                }
+            }
+            while (true) {
+                if (c == -1) {
+                    eof = true;
+                    if (!any && field.length() == 0 && fields.isEmpty()) {
+                        return null;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                }
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int peek = in.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            in.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        in.mark(1);
+                        if (in.read() != '\n') {
+                            in.reset();
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    static final class Xlsx extends SpreadsheetReader {
+
+        private static final XMLInputFactory XML = secureFactory();
+
+        private final ZipFile zip;
+        private final InputStream sheetStream;
+        private final XMLStreamReader sheet;
+        private final List<String> sharedStrings = new ArrayList<>();
+        private int pendingRowNumber;
+
+        Xlsx(Path file) throws IOException {
+            zip = new ZipFile(file.toFile());
+            try {
+                ZipEntry strings = zip.getEntry("xl/sharedStrings.xml");
+                if (strings != null) {
+                    readSharedStrings(strings);
+                }
+                ZipEntry first = firstSheet();
+                if (first == null) {
+                    throw new IOException("Workbook has no worksheet");
+                }
+                sheetStream = zip.getInputStream(first);
+                sheet = XML.createXMLStreamReader(sheetStream, "UTF-8");
+            } catch (XMLStreamException e) {
+                zip.close();
+                throw new IOException("Unreadable workbook: " + e.getMessage(), e);
+            } catch (IOException | RuntimeException e) {
+                zip.close();
+                throw e;
+            }
+        }
+
+        @Override
+        protected List<String> readRow() throws IOException {
+            try {
+                while (sheet.hasNext()) {
+                    if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                        String r = sheet.getAttributeValue(null, "r");
+                        pendingRowNumber = r != null ? Integer.parseInt(r) : 0;
+                        return readCells();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException | NumberFormatException e) {
+                throw new IOException("Unreadable worksheet: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        protected int nextRowNumber(int previous) {
+            // Rows with no cells are left out of the sheet entirely, so trust r when present
+            return pendingRowNumber > 0 ? pendingRowNumber : previous + 1;
+        }
+
+        private List<String> readCells() throws XMLStreamException {
+            List<String> cells = new ArrayList<>();
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    return cells;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheet.getLocalName())) {
+                    String ref = sheet.getAttributeValue(null, "r");
+                    String type = sheet.getAttributeValue(null, "t");
+                    int column = ref != null ? columnIndex(ref) : cells.size();
+                    String value = readCellValue(type);
+                    while (cells.size() < column) {
+                        cells.add("");
+                    }
+                    cells.add(value);
+                }
+            }
+            return cells;
+        }
+
+        private String readCellValue(String type) throws XMLStreamException {
+            StringBuilder value = new StringBuilder();
+            boolean inText = false;
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = sheet.getLocalName();
+                    inText = "v".equals(name) || "t".equals(name);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("c".equals(sheet.getLocalName())) {
+                        break;
+                    }
+                    inText = false;
+                } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    value.append(sheet.getText());
+                }
+            }
+            String raw = value.toString();
+            if ("s".equals(type)) {
+                int index = Integer.parseInt(raw.trim());
+                return index < sharedStrings.size() ? sharedStrings.get(index) : "";
+            }
+            if (("n".equals(type) || type == null) && !raw.isEmpty()) {
+                try {
+                    // 9876543210 is stored as 9.87654321E9; give it back as it was typed
+                    return new BigDecimal(raw.trim()).stripTrailingZeros().toPlainString();
+                } catch (NumberFormatException e) {
+                    return raw;
+                }
+            }
+            if ("b".equals(type)) {
+                return "1".equals(raw) ? "TRUE" : "FALSE";
+            }
+            return raw;
+        }
+
+        private void readSharedStrings(ZipEntry entry) throws IOException, XMLStreamException {
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader reader = XML.createXMLStreamReader(in, "UTF-8");
+                StringBuilder item = null;
+                boolean inText = false;
+                int phonetic = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "si" -> item = new StringBuilder();
+                            case "rPh" -> phonetic++;
+                            case "t" -> inText = phonetic == 0;
+                            default -> { }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "si" -> {
+                                sharedStrings.add(item.toString());
+                                item = null;
+                            }
+                            case "rPh" -> phonetic--;
+                            case "t" -> inText = false;
+                            default -> { }
+                        }
+                    } else if (inText && item != null
+                            && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                        item.append(reader.getText());
+                    }
+                }
+                reader.close();
+            }
+        }
+
+        private ZipEntry firstSheet() {
+            ZipEntry sheet1 = zip.getEntry("xl/worksheets/sheet1.xml");
+            if (sheet1 != null) {
+                return sheet1;
+            }
+            ZipEntry first = null;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().matches("xl/worksheets/[^/]+\\.xml")
+                        && (first == null || entry.getName().compareTo(first.getName()) < 0)) {
+                    first = entry;
+                }
+            }
+            return first;
+        }
+
+        /**
+         * Zero-based column of a cell reference such as "AB12"
+         */
+        static int columnIndex(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        private static XMLInputFactory secureFactory() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sheet.close();
+            } catch (XMLStreamException e) {
+                // Closing anyway
+            }
+            sheetStream.close();
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,857 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.AccessCode;
+import com.eduai.schoolmanagement.entity.BaseEntity;
+import com.eduai.schoolmanagement.entity.IDConfiguration;
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentImportJob;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.entity.UserRef;
+import com.eduai.schoolmanagement.repository.StudentImportJobRepository;
+import com.eduai.schoolmanagement.repository.StudentRepository;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk enrollment from a CSV or XLSX file, run as a background job. Rows are
+ * streamed in batches; each batch is validated on a small pool, then written
+ * with a fixed number of round trips however many rows it has: one lookup for
+ * students that already exist, one $inc per ID type to reserve a block of
+ * student IDs and admission numbers, one $in lookup for existing parents, and
+ * one unordered bulk write each for students, parents and access codes. Row
+ * problems are recorded on the job instead of failing it. The job checkpoints
+ * after every batch and resumes from the last one after a failure or restart.
+ * Jobs run one at a time, which keeps roll numbers per grade and section in
+ * step without a lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentImportService {
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern PARENT_COLUMN = Pattern.compile("parent(\\d+)(firstname|lastname|email|phone|relationship)");
+    private static final Pattern EXCEL_SERIAL = Pattern.compile("\\d+(\\.\\d+)?");
+    private static final Pattern PARENT_ID = Pattern.compile("PAR(\\d+)");
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+    private static final List<String> REQUIRED_COLUMNS = List.of("firstname", "lastname", "email", "grade");
+    private static final int MAX_ID_ROUNDS = 10;
+
+    private final StudentImportJobRepository importJobRepository;
+    private final StudentRepository studentRepository;
+    private final IDGenerationService idGenerationService;
+    private final DeadlineScheduler deadlineScheduler;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.students.import.root:./data/imports}")
+    private String root = "./data/imports";
+
+    @Value("${app.students.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.students.import.validation-threads:4}")
+    private int validationThreads = 4;
+
+    @Value("${app.students.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    private ExecutorService runner;
+    private ExecutorService validators;
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(Paths.get(root).toAbsolutePath());
+        runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "student-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger workers = new AtomicInteger();
+        validators = Executors.newFixedThreadPool(validationThreads, task -> {
+            Thread thread = new Thread(task, "student-import-validator-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (StudentImportJob job : importJobRepository.findByStatusIn(
+                    List.of(StudentImportJob.STATUS_QUEUED, StudentImportJob.STATUS_RUNNING))) {
+                log.info("Resuming student import {} after row {}", job.getId(), job.getRowsProcessed());
+                runner.execute(() -> execute(job.getId()));
+            }
+        } catch (Exception e) {
+            log.warn("Could not resume unfinished student imports: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // A running job stays RUNNING at its last checkpoint and is resumed on the next start
+        runner.shutdownNow();
+        runner.awaitTermination(10, TimeUnit.SECONDS);
+        validators.shutdownNow();
+    }
+
+    /**
+     * Spool an uploaded file to disk and queue its import. Throws
+     * IllegalArgumentException for a file that is neither .csv nor .xlsx.
+     */
+    public StudentImportJob submit(InputStream content, String fileName) throws IOException {
+        String format = formatOf(fileName);
+        StudentImportJob job = new StudentImportJob();
+        job.setFileName(fileName);
+        job.setFormat(format);
+        job.setStatus(StudentImportJob.STATUS_QUEUED);
+        job.setRowsProcessed(1);
+        job.setCreatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+
+        Path file = Paths.get(root).toAbsolutePath().resolve(job.getId() + "." + format.toLowerCase(Locale.ROOT));
+        Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+        job.setFilePath(file.toString());
+        job = importJobRepository.save(job);
+
+        String jobId = job.getId();
+        runner.execute(() -> execute(jobId));
+        log.info("Queued student import {} for {}", jobId, fileName);
+        return job;
+    }
+
+    public Optional<StudentImportJob> getJob(String id) {
+        return importJobRepository.findById(id);
+    }
+
+    /**
+     * Queue a failed import again from its last checkpoint
+     */
+    public StudentImportJob resume(String id) {
+        StudentImportJob job = importJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Student import not found with ID: " + id));
+        if (!StudentImportJob.STATUS_FAILED.equals(job.getStatus())) {
+            throw new IllegalStateException("Only a failed import can be resumed; this one is " + job.getStatus());
+        }
+        job.setStatus(StudentImportJob.STATUS_QUEUED);
+        job.setError(null);
+        job = importJobRepository.save(job);
+        runner.execute(() -> execute(id));
+        return job;
+    }
+
+    /**
+     * Import the rows after the job's checkpoint
+     */
+    void execute(String jobId) {
+        StudentImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        mongoTemplate.updateFirst(byId(jobId), new Update().set("status", StudentImportJob.STATUS_RUNNING)
+                .set("startedAt", job.getStartedAt() != null ? job.getStartedAt() : LocalDateTime.now()),
+                StudentImportJob.class);
+
+        Run run = new Run(job);
+        // A job that ran before may have written part of the batch after its checkpoint
+        run.recovering = job.getStartedAt() != null;
+        try (SpreadsheetReader reader = SpreadsheetReader.open(Paths.get(job.getFilePath()), job.getFormat())) {
+            Map<String, Integer> columns = readHeader(reader.next());
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            List<String> cells;
+            while ((cells = reader.next()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (reader.rowNumber() <= job.getRowsProcessed() || isBlank(cells)) {
+                    continue;
+                }
+                batch.add(new ImportRow(reader.rowNumber(), cells));
+                if (batch.size() == batchSize) {
+                    processBatch(run, columns, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                processBatch(run, columns, batch);
+            }
+        } catch (Exception e) {
+            log.error("Student import {} failed after row {}: {}", jobId, run.lastRow, e.getMessage());
+            mongoTemplate.updateFirst(byId(jobId), new Update().set("status", StudentImportJob.STATUS_FAILED)
+                    .set("error", e.getMessage()).set("finishedAt", LocalDateTime.now()), StudentImportJob.class);
+            return;
+        }
+
+        StudentImportJob finished = importJobRepository.findById(jobId).orElse(job);
+        String status = finished.getFailed() > 0 || !finished.getErrors().isEmpty()
+                ? StudentImportJob.STATUS_COMPLETED_WITH_ERRORS : StudentImportJob.STATUS_COMPLETED;
+        long duration = System.currentTimeMillis() - startTime;
+        mongoTemplate.updateFirst(byId(jobId), new Update().set("status", status)
+                .set("finishedAt", LocalDateTime.now()).set("durationMs", duration), StudentImportJob.class);
+        try {
+            Files.deleteIfExists(Paths.get(job.getFilePath()));
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", job.getFilePath(), e.getMessage());
+        }
+        log.info("Student import {} {}: {} imported, {} failed in {} ms",
+                jobId, status, finished.getImported(), finished.getFailed(), duration);
+    }
+
+    /**
+     * Validate and write one batch, then move the checkpoint past it
+     */
+    private void processBatch(Run run, Map<String, Integer> columns, List<ImportRow> rows) {
+        List<CompletableFuture<Candidate>> futures = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            futures.add(CompletableFuture.supplyAsync(() -> validate(row, columns), validators));
+        }
+        List<Candidate> candidates = futures.stream().map(CompletableFuture::join).toList();
+        BatchResult result = new BatchResult();
+
+        List<Candidate> valid = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error == null) {
+                candidate.error = claimUnique(run, candidate.student);
+            }
+            if (candidate.error != null) {
+                result.fail(candidate, candidate.error);
+            } else {
+                valid.add(candidate);
+            }
+        }
+
+        List<Candidate> fresh = filterExisting(run, valid, result);
+        if (!fresh.isEmpty()) {
+            List<Student> students = fresh.stream().map(candidate -> candidate.student).toList();
+            assignIds("STUDENT_ID", "studentId", students, Student::getStudentId, Student::setStudentId,
+                    run.providedStudentIds, true);
+            assignIds("ADMISSION_NUMBER", "admissionNumber", students, Student::getAdmissionNumber,
+                    Student::setAdmissionNumber, run.providedAdmissionNumbers, false);
+            assignRollNumbers(run, students);
+            insertStudents(fresh, result);
+        }
+
+        List<Candidate> enrolled = new ArrayList<>(result.recovered);
+        enrolled.addAll(result.inserted);
+        if (!enrolled.isEmpty()) {
+            linkParents(enrolled, result);
+            insertAccessCodes(enrolled, run.recovering && !result.recovered.isEmpty(), result);
+        }
+
+        run.lastRow = rows.get(rows.size() - 1).number();
+        run.recovering = false;
+        Update checkpoint = new Update()
+                .set("rowsProcessed", run.lastRow)
+                .set("lastCheckpoint", LocalDateTime.now())
+                .inc("imported", result.inserted.size() + result.recovered.size())
+                .inc("failed", result.failed)
+                .inc("parentsCreated", result.parentsCreated)
+                .inc("parentsLinked", result.parentsLinked)
+                .inc("accessCodes", result.accessCodes);
+        if (!result.errors.isEmpty()) {
+            checkpoint.push("errors").slice(maxErrors).each(result.errors.toArray());
+        }
+        mongoTemplate.updateFirst(byId(run.jobId), checkpoint, StudentImportJob.class);
+        log.info("Student import {}: rows through {} done, {} imported, {} failed",
+                run.jobId, run.lastRow, result.inserted.size() + result.recovered.size(), result.failed);
+    }
+
+    /**
+     * Map a row onto a student, reporting the first problem found
+     */
+    Candidate validate(ImportRow row, Map<String, Integer> columns) {
+        Candidate candidate = new Candidate(row.number());
+        Student student = new Student();
+        Student.UserInfo user = new Student.UserInfo();
+        user.setFirstName(cell(row, columns, "firstname"));
+        user.setLastName(cell(row, columns, "lastname"));
+        user.setEmail(cell(row, columns, "email"));
+        user.setPhone(cell(row, columns, "phone"));
+        user.setGender(upper(cell(row, columns, "gender")));
+        user.setAddress(cell(row, columns, "address"));
+        student.setUser(user);
+        student.setGrade(cell(row, columns, "grade"));
+        student.setSection(cell(row, columns, "section"));
+        student.setStudentId(cell(row, columns, "studentid"));
+        student.setAdmissionNumber(cell(row, columns, "admissionnumber"));
+        student.setRollNumber(cell(row, columns, "rollnumber"));
+        student.setEmergencyContact(cell(row, columns, "emergencycontact"));
+        student.setEmergencyContactPhone(cell(row, columns, "emergencycontactphone"));
+        candidate.student = student;
+
+        if (user.getFirstName() == null || user.getLastName() == null) {
+            return candidate.reject("First and last name are required");
+        }
+        if (user.getEmail() == null || !EMAIL.matcher(user.getEmail()).matches()) {
+            return candidate.reject("A valid email is required");
+        }
+        if (student.getGrade() == null) {
+            return candidate.reject("Grade is required");
+        }
+        if (student.getRollNumber() == null && student.getSection() == null) {
+            return candidate.reject("Section is required to assign a roll number");
+        }
+        try {
+            user.setDateOfBirth(date(cell(row, columns, "dateofbirth")));
+            LocalDate enrollmentDate = date(cell(row, columns, "enrollmentdate"));
+            student.setEnrollmentDate(enrollmentDate != null ? enrollmentDate : LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return candidate.reject("Dates must be yyyy-MM-dd: " + e.getParsedString());
+        }
+
+        List<Student.ParentInfo> parents = new ArrayList<>();
+        for (int index : parentIndexes(columns)) {
+            String prefix = "parent" + index;
+            Student.ParentInfo parent = new Student.ParentInfo();
+            parent.setFirstName(cell(row, columns, prefix + "firstname"));
+            parent.setLastName(cell(row, columns, prefix + "lastname"));
+            parent.setEmail(cell(row, columns, prefix + "email"));
+            parent.setPhone(cell(row, columns, prefix + "phone"));
+            parent.setRelationship(upper(cell(row, columns, prefix + "relationship")));
+            if (parent.getFirstName() == null && parent.getLastName() == null && parent.getEmail() == null
+                    && parent.getPhone() == null && parent.getRelationship() == null) {
+                continue;
+            }
+            if (parent.getFirstName() == null || parent.getLastName() == null || parent.getPhone() == null
+                    || parent.getRelationship() == null) {
+                return candidate.reject("Parent " + index + " needs first name, last name, phone and relationship");
+            }
+            if (parent.getEmail() == null || !EMAIL.matcher(parent.getEmail()).matches()) {
+                return candidate.reject("Parent " + index + " needs a valid email");
+            }
+            parents.add(parent);
+        }
+        student.setParents(parents.isEmpty() ? null : parents);
+        student.setAcademicStatus("ACTIVE");
+        return candidate;
+    }
+
+    /**
+     * Reject a row repeating an email, student ID or admission number seen earlier in the file
+     */
+    private String claimUnique(Run run, Student student) {
+        String email = student.getUser().getEmail().toLowerCase(Locale.ROOT);
+        if (!run.emails.add(email)) {
+            return "Email " + student.getUser().getEmail() + " appears more than once in the file";
+        }
+        if (student.getStudentId() != null && !run.providedStudentIds.add(student.getStudentId())) {
+            return "Student ID " + student.getStudentId() + " appears more than once in the file";
+        }
+        if (student.getAdmissionNumber() != null && !run.providedAdmissionNumbers.add(student.getAdmissionNumber())) {
+            return "Admission Number " + student.getAdmissionNumber() + " appears more than once in the file";
+        }
+        return null;
+    }
+
+    /**
+     * One lookup for students already in the database. While recovering, a match on email
+     * is a student this job wrote before it stopped and still needs its parents and codes.
+     */
+    private List<Candidate> filterExisting(Run run, List<Candidate> candidates, BatchResult result) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<String> emails = new ArrayList<>();
+        List<String> studentIds = new ArrayList<>();
+        List<String> admissionNumbers = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            emails.add(candidate.student.getUser().getEmail());
+            if (candidate.student.getStudentId() != null) {
+                studentIds.add(candidate.student.getStudentId());
+            }
+            if (candidate.student.getAdmissionNumber() != null) {
+                admissionNumbers.add(candidate.student.getAdmissionNumber());
+            }
+        }
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("user.email").in(emails),
+                Criteria.where("studentId").in(studentIds),
+                Criteria.where("admissionNumber").in(admissionNumbers)));
+        query.fields().include("studentId").include("admissionNumber").include("user")
+                .include("grade").include("section");
+        Map<String, Student> byEmail = new HashMap<>();
+        Set<String> takenStudentIds = new HashSet<>();
+        Set<String> takenAdmissionNumbers = new HashSet<>();
+        for (Student existing : mongoTemplate.find(query, Student.class)) {
+            if (existing.getUser() != null && existing.getUser().getEmail() != null) {
+                byEmail.put(existing.getUser().getEmail(), existing);
+            }
+            takenStudentIds.add(existing.getStudentId());
+            takenAdmissionNumbers.add(existing.getAdmissionNumber());
+        }
+
+        List<Candidate> fresh = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            Student student = candidate.student;
+            Student existing = byEmail.get(student.getUser().getEmail());
+            if (existing != null && run.recovering) {
+                existing.setParents(student.getParents());
+                candidate.student = existing;
+                result.recovered.add(candidate);
+            } else if (existing != null) {
+                result.fail(candidate, "Student with email " + student.getUser().getEmail() + " already exists");
+            } else if (student.getStudentId() != null && takenStudentIds.contains(student.getStudentId())) {
+                result.fail(candidate, "Student ID already exists: " + student.getStudentId());
+            } else if (student.getAdmissionNumber() != null
+                    && takenAdmissionNumbers.contains(student.getAdmissionNumber())) {
+                result.fail(candidate, "Admission Number already exists: " + student.getAdmissionNumber());
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Give every student without one an ID from a reserved block. IDs that turn out to be
+     * taken already, or given explicitly elsewhere in the file, are replaced from a new block.
+     */
+    private void assignIds(String idType, String field, List<Student> students, Function<Student, String> getter,
+                           BiConsumer<Student, String> setter, Set<String> provided, boolean byGradeSection) {
+        List<Student> pending = students.stream().filter(student -> getter.apply(student) == null).toList();
+        for (int round = 0; !pending.isEmpty(); round++) {
+            if (round == MAX_ID_ROUNDS) {
+                throw new IllegalStateException("Could not allocate free " + idType + " values; check its counter");
+            }
+            IDConfiguration config = idGenerationService.reserveBlock(idType, pending.size());
+            long counter = config.getCurrentCounter();
+            Map<String, Student> generated = new LinkedHashMap<>();
+            for (Student student : pending) {
+                String id = byGradeSection
+                        ? idGenerationService.formatId(config, ++counter, student.getGrade(), student.getSection())
+                        : idGenerationService.formatId(config, ++counter, null, null);
+                setter.accept(student, id);
+                generated.put(id, student);
+            }
+            Query taken = Query.query(Criteria.where(field).in(generated.keySet()));
+            taken.fields().include(field);
+            Set<String> clashes = new HashSet<>();
+            for (Student existing : mongoTemplate.find(taken, Student.class)) {
+                clashes.add(getter.apply(existing));
+            }
+            for (String id : generated.keySet()) {
+                if (provided.contains(id)) {
+                    clashes.add(id);
+                }
+            }
+            pending = clashes.stream().map(generated::get).toList();
+        }
+    }
+
+    /**
+     * Continue each grade and section's roll numbers from its highest one, read once per import
+     */
+    private void assignRollNumbers(Run run, List<Student> students) {
+        for (Student student : students) {
+            if (student.getRollNumber() != null && student.getRollNumber().matches("\\d+")) {
+                long provided = Long.parseLong(student.getRollNumber());
+                run.lastRollNumbers.merge(rollKey(student), Math.max(provided, lastRollNumber(run, student)), Math::max);
+            }
+        }
+        for (Student student : students) {
+            if (student.getRollNumber() == null) {
+                long next = lastRollNumber(run, student) + 1;
+                run.lastRollNumbers.put(rollKey(student), next);
+                student.setRollNumber(String.format("%03d", next));
+            }
+        }
+    }
+
+    private long lastRollNumber(Run run, Student student) {
+        return run.lastRollNumbers.computeIfAbsent(rollKey(student),
+                key -> studentRepository.findMaxRollNumberByGradeAndSection(student.getGrade(), student.getSection()));
+    }
+
+    private void insertStudents(List<Candidate> candidates, BatchResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Candidate candidate : candidates) {
+            assignId(candidate.student, now);
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class);
+        bulkOps.insert(candidates.stream().map(candidate -> candidate.student).toList());
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                result.fail(candidates.get(error.getIndex()), "Student could not be saved: " + error.getMessage());
+            }
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                result.inserted.add(candidates.get(i));
+            }
+        }
+    }
+
+    /**
+     * One $in lookup for the batch's parents; existing ones get the new children with
+     * $addToSet and the rest are inserted already linked, all in one bulk write
+     */
+    private void linkParents(List<Candidate> enrolled, BatchResult result) {
+        Map<String, Student.ParentInfo> infos = new LinkedHashMap<>();
+        Map<String, List<Candidate>> children = new LinkedHashMap<>();
+        for (Candidate candidate : enrolled) {
+            if (candidate.student.getParents() == null) {
+                continue;
+            }
+            for (Student.ParentInfo info : candidate.student.getParents()) {
+                infos.putIfAbsent(info.getEmail(), info);
+                children.computeIfAbsent(info.getEmail(), email -> new ArrayList<>()).add(candidate);
+            }
+        }
+        if (infos.isEmpty()) {
+            return;
+        }
+
+        Query existingQuery = Query.query(Criteria.where("user.email").in(infos.keySet()));
+        existingQuery.fields().include("user.email");
+        Map<String, String> existing = new HashMap<>();
+        for (Parent parent : mongoTemplate.find(existingQuery, Parent.class)) {
+            existing.put(parent.getUser().getEmail(), parent.getId());
+        }
+
+        List<String> operations = new ArrayList<>();
+        List<Parent> created = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        long nextNumber = 0;
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Parent.class);
+        for (Map.Entry<String, Student.ParentInfo> entry : infos.entrySet()) {
+            if (existing.containsKey(entry.getKey())) {
+                continue;
+            }
+            if (nextNumber == 0) {
+                nextNumber = nextParentNumber();
+            }
+            Student.ParentInfo info = entry.getValue();
+            UserRef user = new UserRef();
+            user.setFirstName(info.getFirstName());
+            user.setLastName(info.getLastName());
+            user.setEmail(info.getEmail());
+            user.setPhone(info.getPhone());
+            Parent parent = new Parent();
+            assignId(parent, now);
+            parent.setParentId(String.format("PAR%05d", nextNumber++));
+            parent.setUser(user);
+            parent.setRelationship(info.getRelationship());
+            parent.setIsActive(true);
+            parent.setChildren(new ArrayList<>(children.get(entry.getKey()).stream()
+                    .map(candidate -> StudentRef.of(candidate.student)).toList()));
+            created.add(parent);
+            operations.add(entry.getKey());
+        }
+        if (!created.isEmpty()) {
+            bulkOps.insert(created);
+        }
+        for (Map.Entry<String, String> entry : existing.entrySet()) {
+            Object[] refs = children.get(entry.getKey()).stream()
+                    .map(candidate -> StudentRef.of(candidate.student)).toArray();
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(entry.getValue())),
+                    new Update().addToSet("children").each(refs));
+            operations.add(entry.getKey());
+        }
+
+        Set<String> failed = new HashSet<>();
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                String email = operations.get(error.getIndex());
+                failed.add(email);
+                for (Candidate candidate : children.get(email)) {
+                    result.warn(candidate, "Parent " + email + " could not be saved: " + error.getMessage());
+                }
+            }
+        }
+        result.parentsCreated += (int) created.stream()
+                .filter(parent -> !failed.contains(parent.getUser().getEmail())).count();
+        result.parentsLinked += (int) existing.keySet().stream().filter(email -> !failed.contains(email)).count();
+        for (Candidate candidate : enrolled) {
+            if (candidate.student.getParents() != null) {
+                candidate.student.getParents().removeIf(info -> failed.contains(info.getEmail()));
+            }
+        }
+    }
+
+    /**
+     * Parent IDs continue from the highest PARnnnnn rather than the collection count,
+     * which would repeat an ID after a deletion
+     */
+    private long nextParentNumber() {
+        Query highest = new Query(Criteria.where("parentId").regex("^PAR\\d+$"))
+                .with(Sort.by(Sort.Direction.DESC, "parentId")).limit(1);
+        highest.fields().include("parentId");
+        Parent parent = mongoTemplate.findOne(highest, Parent.class);
+        if (parent == null) {
+            return 1;
+        }
+        Matcher matcher = PARENT_ID.matcher(parent.getParentId());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) + 1 : 1;
+    }
+
+    /**
+     * One student code per student and one parent code per parent and student, in one
+     * bulk insert; while recovering, codes written before the stop are not repeated
+     */
+    private void insertAccessCodes(List<Candidate> enrolled, boolean recovering, BatchResult result) {
+        Set<String> existingCodes = new HashSet<>();
+        if (recovering) {
+            Query query = Query.query(Criteria.where("studentId").in(
+                    result.recovered.stream().map(candidate -> candidate.student.getId()).toList()));
+            query.fields().include("codeType").include("studentId").include("parentEmail");
+            for (AccessCode code : mongoTemplate.find(query, AccessCode.class)) {
+                existingCodes.add(codeKey(code.getCodeType(), code.getStudentId(), code.getParentEmail()));
+            }
+        }
+
+        List<AccessCode> codes = new ArrayList<>();
+        List<Candidate> owners = new ArrayList<>();
+        for (Candidate candidate : enrolled) {
+            Student student = candidate.student;
+            String studentName = student.getUser().getFirstName() + " " + student.getUser().getLastName();
+            if (!existingCodes.contains(codeKey("STUDENT", student.getId(), null))) {
+                codes.add(AccessCode.createStudentAccessCode(student.getId(), studentName));
+                owners.add(candidate);
+            }
+            if (student.getParents() == null) {
+                continue;
+            }
+            for (Student.ParentInfo parent : student.getParents()) {
+                if (!existingCodes.contains(codeKey("PARENT", student.getId(), parent.getEmail()))) {
+                    codes.add(AccessCode.createParentAccessCode(parent.getEmail(),
+                            parent.getFirstName() + " " + parent.getLastName(), student.getId(), studentName));
+                    owners.add(candidate);
+                }
+            }
+        }
+        if (codes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (AccessCode code : codes) {
+            assignId(code, now);
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AccessCode.class);
+        bulkOps.insert(codes);
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                result.warn(owners.get(error.getIndex()), "Access code could not be saved: " + error.getMessage());
+            }
+        }
+        for (int i = 0; i < codes.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                deadlineScheduler.scheduleAccessCode(codes.get(i));
+                result.accessCodes++;
+            }
+        }
+    }
+
+    /**
+     * Map normalised header names to column indexes; fails the job when a required column is missing
+     */
+    static Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalise(header.get(i)), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing required columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static List<Integer> parentIndexes(Map<String, Integer> columns) {
+        Set<Integer> indexes = new TreeSet<>();
+        for (String column : columns.keySet()) {
+            Matcher matcher = PARENT_COLUMN.matcher(column);
+            if (matcher.matches()) {
+                indexes.add(Integer.parseInt(matcher.group(1)));
+            }
+        }
+        return new ArrayList<>(indexes);
+    }
+
+    /**
+     * Bulk inserts do not write generated ids back, and auditing treats a document with an id
+     * as already saved, so both the id and createdAt are set here
+     */
+    private static void assignId(BaseEntity entity, LocalDateTime now) {
+        entity.setId(new ObjectId().toHexString());
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+    }
+
+    private static String cell(ImportRow row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.cells().size()) {
+            return null;
+        }
+        String value = row.cells().get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * ISO dates, or the day serials a workbook stores for date cells
+     */
+    private static LocalDate date(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (EXCEL_SERIAL.matcher(value).matches()) {
+            return EXCEL_EPOCH.plusDays((long) Double.parseDouble(value));
+        }
+        return LocalDate.parse(value);
+    }
+
+    private static String upper(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalise(String header) {
+        return header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static boolean isBlank(List<String> cells) {
+        return cells.stream().allMatch(cell -> cell == null || cell.isBlank());
+    }
+
+    private static String rollKey(Student student) {
+        return student.getGrade() + "|" + student.getSection();
+    }
+
+    private static String codeKey(String codeType, String studentId, String parentEmail) {
+        return codeType + "|" + studentId + "|" + (parentEmail == null ? "" : parentEmail);
+    }
+
+    private static String formatOf(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return StudentImportJob.FORMAT_CSV;
+        }
+        if (name.endsWith(".xlsx")) {
+            return StudentImportJob.FORMAT_XLSX;
+        }
+        throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    record ImportRow(int number, List<String> cells) {
+    }
+
+    static final class Candidate {
+        final int row;
+        Student student;
+        String error;
+
+        Candidate(int row) {
+            this.row = row;
+        }
+
+        Candidate reject(String message) {
+            error = message;
+            return this;
+        }
+    }
+
+    /**
+     * State that lives for one execution of a job
+     */
+    private static final class Run {
+        final String jobId;
+        final Set<String> emails = new HashSet<>();
+        final Set<String> providedStudentIds = new HashSet<>();
+        final Set<String> providedAdmissionNumbers = new HashSet<>();
+        final Map<String, Long> lastRollNumbers = new HashMap<>();
+        boolean recovering;
+        int lastRow;
+
+        Run(StudentImportJob job) {
+            this.jobId = job.getId();
+            this.lastRow = job.getRowsProcessed();
+        }
+    }
+
+    private static final class BatchResult {
+        final List<Candidate> inserted = new ArrayList<>();
+        final List<Candidate> recovered = new ArrayList<>();
+        final List<StudentImportJob.RowError> errors = new ArrayList<>();
+        int failed;
+        int parentsCreated;
+        int parentsLinked;
+        int accessCodes;
+
+        void fail(Candidate candidate, String message) {
+            failed++;
+            errors.add(rowError(candidate, message, false));
+        }
+
+        void warn(Candidate candidate, String message) {
+            errors.add(rowError(candidate, message, true));
+        }
+
+        private static StudentImportJob.RowError rowError(Candidate candidate, String message, boolean imported) {
+            StudentImportJob.RowError error = new StudentImportJob.RowError();
+            error.setRow(candidate.row);
+            error.setEmail(candidate.student != null && candidate.student.getUser() != null
+                    ? candidate.student.getUser().getEmail() : null);
+            error.setMessage(message);
+            error.setStudentImported(imported);
+            return error;
+        }
+    }
+}
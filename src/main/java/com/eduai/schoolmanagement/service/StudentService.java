@@ -1,14 +1,15 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.entity.Parent;
 import com.eduai.schoolmanagement.entity.AccessCode;
 import com.eduai.schoolmanagement.entity.User;
+import com.eduai.schoolmanagement.entity.UserRef;
 import com.eduai.schoolmanagement.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,11 +29,16 @@ public class StudentService {
     private final IDGenerationService idGenerationService;
     private final AccessCodeService accessCodeService;
     private final ParentService parentService;
+    private final CursorPaginator cursorPaginator;
 
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
+    public CursorPage<Student> getStudentsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Student.class, null, cursor, limit);
+    }
+
     public Optional<Student> getStudentById(String id) {
         return studentRepository.findById(id);
     }
@@ -53,8 +59,8 @@ public class StudentService {
         return studentRepository.findByGradeAndSection(grade, section);
     }
 
-    public Page<Student> searchStudentsByName(String name, Pageable pageable) {
-        return studentRepository.findByFirstNameContainingIgnoreCase(name, pageable);
+    public CursorPage<Student> searchStudentsByName(String name, String cursor, Integer limit) {
+        return cursorPaginator.page(Student.class, Criteria.where("user.firstName").regex(name, "i"), cursor, limit);
     }
 
     public List<Student> getAtRiskStudents(double riskThreshold) {
@@ -192,7 +198,7 @@ public class StudentService {
             parentUser.setActive(true);
 
             Parent newParent = new Parent();
-            newParent.setUser(parentUser);
+            newParent.setUser(UserRef.of(parentUser));
             newParent.setRelationship(parentInfo.getRelationship());
             newParent.setChildren(new java.util.ArrayList<>());
 
@@ -0,0 +1,149 @@
+package com.eduai.schoolmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.eduai.schoolmanagement.entity.SubmissionRevision;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Draft history for submissions. Each save becomes a revision stored either as
+ * a deflated snapshot of the whole text or as a copy/insert delta against the
+ * latest snapshot. A new snapshot is taken every snapshot-interval revisions,
+ * or sooner once the text has drifted so far that a delta stops paying off.
+ * Deltas always point at a snapshot rather than at the previous revision, so
+ * reading any point in time costs at most two documents. Only the latest text
+ * stays on the submission itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionRevisionService {
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.submissions.revisions.snapshot-interval:20}")
+    private int snapshotInterval = 20;
+
+    /**
+     * Record the text as the submission's next revision; an unchanged text records nothing and returns the latest
+     */
+    public SubmissionRevision record(String submissionId, String text) {
+        String content = text == null ? "" : text;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return append(submissionId, content);
+            } catch (DuplicateKeyException e) {
+                // Another save took this revision number first
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Revision conflict for submission {}, retrying", submissionId);
+            }
+        }
+    }
+
+    /**
+     * Revision metadata, oldest first, without the stored text
+     */
+    public List<SubmissionRevision> listRevisions(String submissionId) {
+        Query query = Query.query(Criteria.where("submissionId").is(submissionId))
+                .with(Sort.by(Sort.Direction.ASC, "revision"));
+        query.fields().exclude("data");
+        return mongoTemplate.find(query, SubmissionRevision.class);
+    }
+
+    public Optional<String> getRevisionText(String submissionId, int revision) {
+        Query query = Query.query(Criteria.where("submissionId").is(submissionId).and("revision").is(revision));
+        return Optional.ofNullable(mongoTemplate.findOne(query, SubmissionRevision.class)).map(this::textOf);
+    }
+
+    /**
+     * The text as it stood at the given moment, from the last revision saved at or before it
+     */
+    public Optional<String> getTextAt(String submissionId, LocalDateTime at) {
+        Query query = Query.query(Criteria.where("submissionId").is(submissionId).and("createdAt").lte(at))
+                .with(Sort.by(Sort.Direction.DESC, "revision"));
+        return Optional.ofNullable(mongoTemplate.findOne(query, SubmissionRevision.class)).map(this::textOf);
+    }
+
+    public void deleteRevisions(String submissionId) {
+        mongoTemplate.remove(Query.query(Criteria.where("submissionId").is(submissionId)), SubmissionRevision.class);
+    }
+
+    private SubmissionRevision append(String submissionId, String text) {
+        SubmissionRevision latest = mongoTemplate.findOne(
+                Query.query(Criteria.where("submissionId").is(submissionId))
+                        .with(Sort.by(Sort.Direction.DESC, "revision")),
+                SubmissionRevision.class);
+
+        SubmissionRevision revision = new SubmissionRevision();
+        revision.setSubmissionId(submissionId);
+        revision.setTextLength(text.length());
+        revision.setCreatedAt(LocalDateTime.now());
+
+        byte[] snapshot = TextDelta.compress(text);
+        if (latest == null) {
+            revision.setRevision(0);
+            return save(revision, SubmissionRevision.SNAPSHOT, 0, snapshot);
+        }
+        revision.setRevision(latest.getRevision() + 1);
+
+        SubmissionRevision base = SubmissionRevision.SNAPSHOT.equals(latest.getType())
+                ? latest : findRevision(submissionId, latest.getBaseRevision());
+        String baseText = TextDelta.decompress(base.getData());
+        String latestText = latest == base ? baseText : TextDelta.apply(baseText, latest.getData());
+        if (latestText.equals(text)) {
+            return latest;
+        }
+
+        if (revision.getRevision() - base.getRevision() >= snapshotInterval) {
+            return save(revision, SubmissionRevision.SNAPSHOT, revision.getRevision(), snapshot);
+        }
+        byte[] delta = TextDelta.encode(baseText, text);
+        // Once a delta is half the size of the text itself the base is too stale to be worth keeping
+        if (delta.length * 2 > snapshot.length) {
+            return save(revision, SubmissionRevision.SNAPSHOT, revision.getRevision(), snapshot);
+        }
+        return save(revision, SubmissionRevision.DELTA, base.getRevision(), delta);
+    }
+
+    private SubmissionRevision save(SubmissionRevision revision, String type, int baseRevision, byte[] data) {
+        revision.setType(type);
+        revision.setBaseRevision(baseRevision);
+        revision.setData(data);
+        revision.setStoredBytes(data.length);
+        return mongoTemplate.insert(revision);
+    }
+
+    private String textOf(SubmissionRevision revision) {
+        if (SubmissionRevision.SNAPSHOT.equals(revision.getType())) {
+            return TextDelta.decompress(revision.getData());
+        }
+        SubmissionRevision base = findRevision(revision.getSubmissionId(), revision.getBaseRevision());
+        return TextDelta.apply(TextDelta.decompress(base.getData()), revision.getData());
+    }
+
+    private SubmissionRevision findRevision(String submissionId, int revision) {
+        SubmissionRevision found = mongoTemplate.findOne(
+                Query.query(Criteria.where("submissionId").is(submissionId).and("revision").is(revision)),
+                SubmissionRevision.class);
+        if (found == null) {
+            throw new RuntimeException("Submission revision not found with ID: " + submissionId + "@" + revision);
+        }
+        return found;
+    }
+}
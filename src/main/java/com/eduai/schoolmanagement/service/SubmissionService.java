@@ -1,15 +1,26 @@
 package com.eduai.schoolmanagement.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.AIGradingResult;
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.Attachment;
+import com.eduai.schoolmanagement.entity.AssignmentRef;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.entity.Submission;
 import com.eduai.schoolmanagement.repository.SubmissionRepository;
 
@@ -21,26 +32,42 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SubmissionService {
 
+    // Submissions whose attachments can no longer change
+    private static final List<String> LOCKED_STATUSES = List.of("SUBMITTED", "GRADED");
+    // Statuses counted in the assignment's submissions counter (see Submission.isSubmitted)
+    private static final List<String> SUBMITTED_STATUSES = List.of("SUBMITTED", "LATE", "GRADED");
+
     private final SubmissionRepository submissionRepository;
+    private final AssignmentService assignmentService;
+    private final GradingQueueService gradingQueueService;
+    private final PlagiarismService plagiarismService;
+    private final AttachmentService attachmentService;
+    private final SubmissionRevisionService submissionRevisionService;
+    private final CursorPaginator cursorPaginator;
+    private final MongoTemplate mongoTemplate;
 
     public List<Submission> getAllSubmissions() {
         return submissionRepository.findAll();
     }
 
+    public CursorPage<Submission> getSubmissionsPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Submission.class, null, cursor, limit);
+    }
+
     public Optional<Submission> getSubmissionById(String id) {
         return submissionRepository.findById(id);
     }
 
     public List<Submission> getSubmissionsByAssignment(Assignment assignment) {
-        return submissionRepository.findByAssignment(assignment);
+        return submissionRepository.findByAssignmentId(assignment.getId());
     }
 
     public List<Submission> getSubmissionsByStudent(Student student) {
-        return submissionRepository.findByStudent(student);
+        return submissionRepository.findByStudentId(student.getId());
     }
 
     public Optional<Submission> getSubmissionByAssignmentAndStudent(Assignment assignment, Student student) {
-        return submissionRepository.findLatestSubmissionByAssignmentAndStudent(assignment, student);
+        return submissionRepository.findLatestSubmissionByAssignmentAndStudent(assignment.getId(), student.getId());
     }
 
     public List<Submission> getSubmissionsByStatus(String status) {
@@ -71,11 +98,11 @@ public class SubmissionService {
         log.info("Creating submission for student {} and assignment {}", student.getStudentId(), assignment.getTitle());
 
         // Check if there's already a submission
-        Optional<Submission> existingSubmission = submissionRepository.findLatestSubmissionByAssignmentAndStudent(assignment, student);
+        Optional<Submission> existingSubmission = submissionRepository.findLatestSubmissionByAssignmentAndStudent(assignment.getId(), student.getId());
 
         Submission submission = new Submission();
-        submission.setAssignment(assignment);
-        submission.setStudent(student);
+        submission.setAssignment(AssignmentRef.of(assignment));
+        submission.setStudent(StudentRef.of(student));
         submission.setTextContent(textContent);
         submission.setAttachments(attachments);
         submission.setStatus("DRAFT");
@@ -102,64 +129,79 @@ public class SubmissionService {
         analytics.setRevisionCount(0);
         submission.setAnalytics(analytics);
 
-        return submissionRepository.save(submission);
+        Submission saved = submissionRepository.save(submission);
+        // A new attempt may list files already uploaded for an earlier one
+        attachmentService.retain(saved.getAttachments());
+        submissionRevisionService.record(saved.getId(), saved.getTextContent());
+        return saved;
     }
 
+    /**
+     * Move a draft to SUBMITTED (or LATE past the due date). The transition is a
+     * conditional update on the status, so only the request that makes it counts
+     * the submission; submitting again re-queues it without counting it twice.
+     */
     public Submission submitAssignment(String submissionId) {
         Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
         if (submissionOpt.isPresent()) {
             Submission submission = submissionOpt.get();
-            submission.setStatus(submission.isLate() ? "LATE" : "SUBMITTED");
             submission.setSubmittedAt(LocalDateTime.now());
-
-            log.info("Assignment submitted: {} by student {}",
-                submission.getAssignment().getTitle(), submission.getStudent().getStudentId());
-
-            // Trigger AI grading if enabled
-            if (submission.getAssignment().isAiGradingEnabled()) {
-                return performAIGrading(submission);
+            String status = submission.isLate() ? "LATE" : "SUBMITTED";
+
+            Submission saved = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(submissionId).and("status").nin(SUBMITTED_STATUSES)),
+                    new Update().set("status", status).set("submittedAt", submission.getSubmittedAt()),
+                    FindAndModifyOptions.options().returnNew(true), Submission.class);
+            if (saved != null) {
+                log.info("Assignment submitted: {} by student {}",
+                    saved.getAssignment().getTitle(), saved.getStudent().getStudentId());
+                assignmentService.adjustCounters(assignmentId(saved), 1, 0, 0, 0);
+            } else {
+                saved = submissionRepository.findById(submissionId)
+                        .orElseThrow(() -> new RuntimeException("Submission not found with id: " + submissionId));
             }
 
-            return submissionRepository.save(submission);
+            // AI grading, when enabled, is queued by the caller as a grading job
+            gradingQueueService.enqueue(saved);
+            // Later submissions are checked against this one
+            plagiarismService.index(saved);
+            return saved;
         }
         throw new RuntimeException("Submission not found with id: " + submissionId);
     }
 
-    public Submission performAIGrading(Submission submission) {
-        log.info("Performing AI grading for submission {}", submission.getId());
-
+    /**
+     * Store a model's grading on the submission and mark it GRADED
+     */
+    public Submission applyAIGrading(Submission submission, AIGradingResult result) {
+        GradeState before = GradeState.of(submission);
         Submission.AIGrading aiGrading = new Submission.AIGrading();
-
-        // Simulate AI grading logic
-        double aiScore = generateAIScore(submission);
-        double confidence = calculateAIConfidence(submission);
-        String aiFeedback = generateAIFeedback(submission, aiScore);
-        Map<String, Double> rubricScores = generateRubricScores(submission);
-
         aiGrading.setAiGraded(true);
-        aiGrading.setAiScore(aiScore);
-        aiGrading.setConfidence(confidence);
-        aiGrading.setAiFeedback(aiFeedback);
-        aiGrading.setRubricScores(rubricScores);
+        aiGrading.setAiScore(result.getScore());
+        aiGrading.setConfidence(result.getConfidence());
+        aiGrading.setAiFeedback(result.getFeedback());
+        aiGrading.setRubricScores(result.getRubricScores());
         aiGrading.setAiGradedAt(LocalDateTime.now());
-        aiGrading.setAiModel("GPT-4-Education-v1.0");
+        aiGrading.setAiModel(result.getModel());
         aiGrading.setHumanReviewed(false);
 
         submission.setAiGrading(aiGrading);
-        submission.setScore(aiScore);
-        submission.setPercentage((aiScore / submission.getMaxScore()) * 100);
+        submission.setScore(result.getScore());
+        submission.setPercentage((result.getScore() / submission.getMaxScore()) * 100);
         submission.setLetterGrade(calculateLetterGrade(submission.getPercentage()));
         submission.setGradedAt(LocalDateTime.now());
         submission.setStatus("GRADED");
 
-        log.info("AI grading completed: Score={}, Confidence={}", aiScore, confidence);
-        return submissionRepository.save(submission);
+        log.info("AI grading completed for submission {}: Score={}, Confidence={}",
+            submission.getId(), result.getScore(), result.getConfidence());
+        return recordGrade(before, submissionRepository.save(submission));
     }
 
     public Submission reviewAIGrading(String submissionId, boolean approved, String humanComments, Double humanScore) {
         Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
         if (submissionOpt.isPresent()) {
             Submission submission = submissionOpt.get();
+            GradeState before = GradeState.of(submission);
 
             if (submission.getAiGrading() != null) {
                 submission.getAiGrading().setHumanReviewed(true);
@@ -174,7 +216,7 @@ public class SubmissionService {
                 }
 
                 log.info("AI grading reviewed: Approved={}, Human Score={}", approved, humanScore);
-                return submissionRepository.save(submission);
+                return recordGrade(before, submissionRepository.save(submission));
             }
         }
         throw new RuntimeException("Submission not found or not AI graded");
@@ -184,22 +226,7 @@ public class SubmissionService {
         Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
         if (submissionOpt.isPresent()) {
             Submission submission = submissionOpt.get();
-
-            Submission.PlagiarismCheck plagiarismCheck = new Submission.PlagiarismCheck();
-
-            // Simulate plagiarism checking
-            double similarityScore = Math.random() * 30; // 0-30% similarity
-            String status = similarityScore > 20 ? "FLAGGED" : "PASSED";
-
-            plagiarismCheck.setChecked(true);
-            plagiarismCheck.setSimilarityScore(similarityScore);
-            plagiarismCheck.setStatus(status);
-            plagiarismCheck.setCheckedAt(LocalDateTime.now());
-            plagiarismCheck.setCheckingService("AI-PLAGIARISM-DETECTOR");
-
-            submission.setPlagiarismCheck(plagiarismCheck);
-
-            log.info("Plagiarism check completed: Similarity={}%, Status={}", similarityScore, status);
+            submission.setPlagiarismCheck(plagiarismService.check(submission));
             return submissionRepository.save(submission);
         }
         throw new RuntimeException("Submission not found with id: " + submissionId);
@@ -211,6 +238,7 @@ public class SubmissionService {
             Submission submission = submissionOpt.get();
 
             if (!"SUBMITTED".equals(submission.getStatus()) && !"GRADED".equals(submission.getStatus())) {
+                List<String> previousAttachments = submission.getAttachments();
                 submission.setTextContent(textContent);
                 submission.setAttachments(attachments);
                 submission.setLastModifiedAt(LocalDateTime.now());
@@ -222,7 +250,11 @@ public class SubmissionService {
                         submission.getAnalytics().getRevisionCount() + 1);
                 }
 
-                return submissionRepository.save(submission);
+                Submission saved = submissionRepository.save(submission);
+                attachmentService.replace(previousAttachments, attachments);
+                // Earlier drafts live on only as revisions
+                submissionRevisionService.record(saved.getId(), textContent);
+                return saved;
             } else {
                 throw new RuntimeException("Cannot modify submitted assignment");
             }
@@ -230,10 +262,38 @@ public class SubmissionService {
         throw new RuntimeException("Submission not found with id: " + submissionId);
     }
 
+    /**
+     * Store an uploaded file and $push it onto a draft's attachments; identical content is stored once
+     */
+    public Submission addAttachment(String submissionId, InputStream content, String fileName, String contentType)
+            throws IOException {
+        Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
+        if (submissionOpt.isPresent()) {
+            if (LOCKED_STATUSES.contains(submissionOpt.get().getStatus())) {
+                throw new RuntimeException("Cannot modify submitted assignment");
+            }
+            Attachment attachment = attachmentService.store(content, fileName, contentType);
+            // The status check is repeated in the update so a submit in between is not overtaken
+            Submission submission = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(submissionId).and("status").nin(LOCKED_STATUSES)),
+                    new Update().push("attachments", attachment.getId()).set("lastModifiedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), Submission.class);
+            if (submission == null) {
+                attachmentService.release(List.of(attachment.getId()));
+                throw new RuntimeException("Cannot modify submitted assignment");
+            }
+
+            log.info("Attached {} ({} bytes) to submission {}", fileName, attachment.getSize(), submissionId);
+            return submission;
+        }
+        throw new RuntimeException("Submission not found with id: " + submissionId);
+    }
+
     public Submission gradeSubmission(String submissionId, Double score, String feedback) {
         Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
         if (submissionOpt.isPresent()) {
             Submission submission = submissionOpt.get();
+            GradeState before = GradeState.of(submission);
 
             submission.setScore(score);
             submission.setPercentage((score / submission.getMaxScore()) * 100);
@@ -243,14 +303,24 @@ public class SubmissionService {
             submission.setStatus("GRADED");
 
             log.info("Manual grading completed for submission {}: Score={}", submissionId, score);
-            return submissionRepository.save(submission);
+            return recordGrade(before, submissionRepository.save(submission));
         }
         throw new RuntimeException("Submission not found with id: " + submissionId);
     }
 
     public void deleteSubmission(String id) {
         log.info("Deleting submission with id: {}", id);
+        Optional<Submission> removed = submissionRepository.findById(id);
         submissionRepository.deleteById(id);
+        gradingQueueService.complete(id);
+        plagiarismService.remove(id);
+        submissionRevisionService.deleteRevisions(id);
+        removed.ifPresent(submission -> {
+            attachmentService.release(submission.getAttachments());
+            GradeState before = GradeState.of(submission);
+            assignmentService.adjustCounters(assignmentId(submission), submission.isSubmitted() ? -1 : 0,
+                before.graded() ? -1 : 0, before.graded() ? -before.percentage() : 0, before.scored() ? -1 : 0);
+        });
     }
 
     public Object getSubmissionStatistics() {
@@ -272,8 +342,8 @@ public class SubmissionService {
     }
 
     public Object getAssignmentSubmissionAnalytics(Assignment assignment) {
-        List<Submission> submissions = submissionRepository.findByAssignment(assignment);
-        List<Submission> gradedSubmissions = submissionRepository.findGradedSubmissionsByAssignment(assignment);
+        List<Submission> submissions = submissionRepository.findByAssignmentId(assignment.getId());
+        List<Submission> gradedSubmissions = submissionRepository.findGradedSubmissionsByAssignment(assignment.getId());
 
         double averageScore = gradedSubmissions.stream()
             .mapToDouble(s -> s.getFinalScore() != null ? s.getFinalScore() : 0.0)
@@ -300,70 +370,41 @@ public class SubmissionService {
     }
 
     // Private helper methods
-    private double generateAIScore(Submission submission) {
-        // Simulate AI scoring based on content length, keywords, structure
-        String content = submission.getTextContent();
-        if (content == null || content.trim().isEmpty()) {
-            return 0.0;
-        }
-
-        // Basic scoring simulation
-        double baseScore = Math.min(submission.getMaxScore() * 0.6, submission.getMaxScore());
-        double contentBonus = Math.min(content.length() / 100.0, submission.getMaxScore() * 0.3);
-        double randomFactor = (Math.random() - 0.5) * (submission.getMaxScore() * 0.2);
-
-        return Math.max(0, Math.min(submission.getMaxScore(), baseScore + contentBonus + randomFactor));
-    }
 
-    private double calculateAIConfidence(Submission submission) {
-        // Simulate confidence based on content quality indicators
-        String content = submission.getTextContent();
-        if (content == null || content.trim().isEmpty()) {
-            return 0.3; // Low confidence for empty content
+    /**
+     * Move the assignment's graded count and score sum from the submission's previous state to its saved one,
+     * and take a graded submission off the grading queue
+     */
+    private Submission recordGrade(GradeState before, Submission saved) {
+        GradeState after = GradeState.of(saved);
+        int gradedDelta = (after.graded() ? 1 : 0) - (before.graded() ? 1 : 0);
+        double sumDelta = (after.graded() ? after.percentage() : 0) - (before.graded() ? before.percentage() : 0);
+        int countDelta = (after.scored() ? 1 : 0) - (before.scored() ? 1 : 0);
+        if (gradedDelta != 0 || sumDelta != 0 || countDelta != 0) {
+            assignmentService.adjustCounters(assignmentId(saved), 0, gradedDelta, sumDelta, countDelta);
         }
-
-        // Basic confidence calculation
-        double lengthFactor = Math.min(1.0, content.length() / 500.0); // Confidence increases with length
-        double structureFactor = content.contains(".") && content.contains(" ") ? 0.8 : 0.5;
-        double randomVariation = 0.1 + (Math.random() * 0.2); // 0.1 - 0.3
-
-        return Math.min(0.95, lengthFactor * structureFactor + randomVariation);
+        if (after.graded()) {
+            gradingQueueService.complete(saved.getId());
+        }
+        return saved;
     }
 
-    private String generateAIFeedback(Submission submission, double score) {
-        double percentage = (score / submission.getMaxScore()) * 100;
-
-        if (percentage >= 90) {
-            return "Excellent work! Your submission demonstrates a thorough understanding of the topic with clear explanations and well-structured content.";
-        } else if (percentage >= 80) {
-            return "Good work! Your submission shows solid understanding. Consider expanding on key points and providing more detailed explanations.";
-        } else if (percentage >= 70) {
-            return "Satisfactory work. Your submission covers the basics but could benefit from more depth and better organization of ideas.";
-        } else if (percentage >= 60) {
-            return "Your submission shows some understanding but needs significant improvement. Focus on addressing all requirements and providing clearer explanations.";
-        } else {
-            return "This submission requires major revision. Please review the assignment requirements and seek additional help to improve your understanding.";
-        }
+    private static String assignmentId(Submission submission) {
+        return submission.getAssignment() == null ? null : submission.getAssignment().getId();
     }
 
-    private Map<String, Double> generateRubricScores(Submission submission) {
-        Map<String, Double> rubricScores = new HashMap<>();
+    private record GradeState(boolean graded, Double percentageValue) {
+        static GradeState of(Submission submission) {
+            return new GradeState("GRADED".equals(submission.getStatus()), submission.getPercentage());
+        }
 
-        // Simulate rubric scoring for common criteria
-        if (submission.getAssignment().getRubric() != null && !submission.getAssignment().getRubric().isEmpty()) {
-            for (Assignment.RubricCriterion criterion : submission.getAssignment().getRubric()) {
-                double score = Math.random() * criterion.getMaxPoints();
-                rubricScores.put(criterion.getName(), score);
-            }
-        } else {
-            // Default rubric criteria
-            rubricScores.put("Content Quality", Math.random() * 25);
-            rubricScores.put("Organization", Math.random() * 25);
-            rubricScores.put("Grammar & Style", Math.random() * 25);
-            rubricScores.put("Requirements Met", Math.random() * 25);
+        boolean scored() {
+            return graded && percentageValue != null;
         }
 
-        return rubricScores;
+        double percentage() {
+            return scored() ? percentageValue : 0;
+        }
     }
 
     private String calculateLetterGrade(double percentage) {
@@ -6,8 +6,10 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Teacher;
 import com.eduai.schoolmanagement.repository.TeacherRepository;
 
@@ -20,11 +22,16 @@ import lombok.extern.slf4j.Slf4j;
 public class TeacherService {
 
     private final TeacherRepository teacherRepository;
+    private final CursorPaginator cursorPaginator;
 
     public List<Teacher> getAllTeachers() {
         return teacherRepository.findAll();
     }
 
+    public CursorPage<Teacher> getTeachersPage(String cursor, Integer limit) {
+        return cursorPaginator.page(Teacher.class, null, cursor, limit);
+    }
+
     public Optional<Teacher> getTeacherById(String id) {
         return teacherRepository.findById(id);
     }
@@ -53,8 +60,13 @@ public class TeacherService {
         return teacherRepository.searchByNameEmailOrEmployeeId(name);
     }
 
-    public Page<Teacher> searchTeachersByName(String name, Pageable pageable) {
-        return teacherRepository.searchByNameEmailOrEmployeeIdPageable(name, pageable);
+    public CursorPage<Teacher> searchTeachersByName(String name, String cursor, Integer limit) {
+        Criteria matches = new Criteria().orOperator(
+                Criteria.where("user.firstName").regex(name, "i"),
+                Criteria.where("user.lastName").regex(name, "i"),
+                Criteria.where("user.email").regex(name, "i"),
+                Criteria.where("employeeId").regex(name, "i"));
+        return cursorPaginator.page(Teacher.class, matches, cursor, limit);
     }
 
     public Page<Teacher> getTeachersByFirstName(String firstName, Pageable pageable) {
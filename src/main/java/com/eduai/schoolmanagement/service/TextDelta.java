@@ -0,0 +1,152 @@
+package com.eduai.schoolmanagement.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Copy/insert deltas between two texts, deflated. The base is indexed in
+ * fixed blocks; the target is scanned at every offset for a block it shares
+ * with the base, and each hit is grown in both directions into the longest
+ * copy. Everything between copies is inserted literally. An edit anywhere in
+ * a long essay therefore costs roughly the edited text plus a few varints.
+ */
+final class TextDelta {
+
+    private static final int BLOCK = 16;
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+
+    private TextDelta() {
+    }
+
+    static byte[] encode(String base, String target) {
+        Map<Long, Integer> blocks = new HashMap<>();
+        for (int j = 0; j + BLOCK <= base.length(); j += BLOCK) {
+            blocks.putIfAbsent(hash(base, j), j);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            int literalStart = 0;
+            int i = 0;
+            while (i + BLOCK <= target.length()) {
+                Integer j = blocks.get(hash(target, i));
+                if (j == null || !target.regionMatches(i, base, j, BLOCK)) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                int from = j;
+                while (start > literalStart && from > 0 && target.charAt(start - 1) == base.charAt(from - 1)) {
+                    start--;
+                    from--;
+                }
+                int end = i + BLOCK;
+                int to = j + BLOCK;
+                while (end < target.length() && to < base.length() && target.charAt(end) == base.charAt(to)) {
+                    end++;
+                    to++;
+                }
+                writeInsert(out, target, literalStart, start);
+                out.writeByte(COPY);
+                writeVarInt(out, from);
+                writeVarInt(out, end - start);
+                i = end;
+                literalStart = end;
+            }
+            writeInsert(out, target, literalStart, target.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String apply(String base, byte[] delta) {
+        StringBuilder text = new StringBuilder(base.length());
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(delta)))) {
+            int op;
+            while ((op = in.read()) != -1) {
+                if (op == COPY) {
+                    int from = readVarInt(in);
+                    text.append(base, from, from + readVarInt(in));
+                } else if (op == INSERT) {
+                    for (int length = readVarInt(in); length > 0; length--) {
+                        text.append(in.readChar());
+                    }
+                } else {
+                    throw new IllegalStateException("Corrupt text delta: unknown op " + op);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String decompress(byte[] data) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInsert(DataOutputStream out, String target, int start, int end) throws IOException {
+        if (end <= start) {
+            return;
+        }
+        // Raw UTF-16 units: a copy boundary may fall inside a surrogate pair
+        out.writeByte(INSERT);
+        writeVarInt(out, end - start);
+        out.writeChars(target.substring(start, end));
+    }
+
+    private static long hash(String text, int offset) {
+        long hash = 1125899906842597L;
+        for (int k = offset; k < offset + BLOCK; k++) {
+            hash = 31 * hash + text.charAt(k);
+        }
+        return hash;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Corrupt text delta: varint too long");
+    }
+}
@@ -0,0 +1,142 @@
+package com.eduai.schoolmanagement.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by timer name. Level 0 has one slot per tick
+ * and every higher level one slot per full turn of the level below, so with
+ * 64 slots and four levels a one-minute tick spans about 32 years. Scheduling
+ * and cancelling are hash lookups; a tick empties one level-0 slot and, when a
+ * lower level wraps, re-files one higher slot a level down. Nothing is ever
+ * scanned by deadline. Not thread-safe: callers synchronise.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Map<String, Timer<T>>>> levels = new ArrayList<>(LEVELS);
+    private final Map<String, Timer<T>> timers = new HashMap<>();
+    private final List<Timer<T>> due = new ArrayList<>();
+    private long currentTick;
+
+    static final class Timer<T> {
+        final String key;
+        final long deadlineMillis;
+        final T payload;
+        private final long tick;
+        private Map<String, Timer<T>> slot;
+
+        private Timer(String key, long deadlineMillis, T payload, long tick) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+            this.payload = payload;
+            this.tick = tick;
+        }
+    }
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Map<String, Timer<T>>> slots = new ArrayList<>(SLOTS);
+            for (int i = 0; i < SLOTS; i++) {
+                slots.add(new LinkedHashMap<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Add a timer or move an existing one with the same key; a deadline already passed fires on the next advance
+     */
+    void schedule(String key, long deadlineMillis, T payload) {
+        cancel(key);
+        // Round up so a timer never fires before its deadline
+        Timer<T> timer = new Timer<>(key, deadlineMillis, payload, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    boolean cancel(String key) {
+        Timer<T> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        if (timer.slot != null) {
+            timer.slot.remove(key);
+        } else {
+            due.remove(timer);
+        }
+        return true;
+    }
+
+    /**
+     * Move the wheel up to the given time and return the timers that came due, in deadline order within a tick
+     */
+    List<Timer<T>> advance(long nowMillis) {
+        List<Timer<T>> fired = new ArrayList<>(due);
+        due.clear();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Re-file the slots of every level whose lower levels just wrapped, highest first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(levels.get(level).get(slotIndex(currentTick, level)));
+                }
+            }
+            fired.addAll(levels.get(0).get(slotIndex(currentTick, 0)).values());
+            levels.get(0).get(slotIndex(currentTick, 0)).clear();
+            fired.addAll(due);
+            due.clear();
+        }
+        for (Timer<T> timer : fired) {
+            timers.remove(timer.key);
+            timer.slot = null;
+        }
+        fired.sort((a, b) -> Long.compare(a.deadlineMillis, b.deadlineMillis));
+        return fired;
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    long currentTimeMillis() {
+        return currentTick * tickMillis;
+    }
+
+    private void cascade(Map<String, Timer<T>> slot) {
+        List<Timer<T>> refile = new ArrayList<>(slot.values());
+        slot.clear();
+        refile.forEach(this::place);
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.tick - currentTick;
+        if (delta <= 0) {
+            timer.slot = null;
+            due.add(timer);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top level's range a timer parks in its top slot and is re-filed each time that slot comes round
+        Map<String, Timer<T>> slot = levels.get(level).get(slotIndex(timer.tick, level));
+        timer.slot = slot;
+        slot.put(timer.key, timer);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Transaction;
 import com.eduai.schoolmanagement.entity.Transaction.TransactionType;
 import com.eduai.schoolmanagement.entity.Transaction.TransactionCategory;
@@ -9,8 +10,8 @@ import com.eduai.schoolmanagement.entity.Transaction.JournalEntry;
 import com.eduai.schoolmanagement.entity.Account;
 import com.eduai.schoolmanagement.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
@@ -29,6 +30,12 @@ public class TransactionService {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private CursorPaginator cursorPaginator;
+
+    // Cursor sort keys, each backed by an {institutionId, key, _id} index
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("createdDate", "transactionDate");
+
     // Create new transaction
     public Transaction createTransaction(Transaction transaction) throws Exception {
         // Validate transaction
@@ -338,8 +345,13 @@ public class TransactionService {
         return transactionRepository.findByInstitutionId(institutionId);
     }
 
-    public Page<Transaction> getTransactionsByInstitution(String institutionId, Pageable pageable) {
-        return transactionRepository.findByInstitutionId(institutionId, pageable);
+    public CursorPage<Transaction> getTransactionsByInstitution(String institutionId, String sortBy,
+                                                                Sort.Direction direction, String cursor, Integer limit) {
+        if (!CURSOR_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Transactions can only be sorted by createdDate or transactionDate");
+        }
+        return cursorPaginator.page(Transaction.class, Criteria.where("institutionId").is(institutionId),
+            sortBy, direction, cursor, limit);
     }
 
     // Get transactions by status
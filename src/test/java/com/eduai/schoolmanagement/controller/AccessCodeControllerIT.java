@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.AccessCode;
 import com.eduai.schoolmanagement.service.AccessCodeService;
 import org.junit.jupiter.api.DisplayName;
@@ -28,7 +29,7 @@ class AccessCodeControllerIT {
     @DisplayName("should return all access codes")
     void getAllAccessCodes() throws Exception {
         AccessCode code = Mockito.mock(AccessCode.class);
-        when(accessCodeService.getAllAccessCodes()).thenReturn(List.of(code));
+        when(accessCodeService.getAccessCodesPage(null, null)).thenReturn(new CursorPage<>(List.of(code), null));
         mockMvc.perform(get("/api/access-codes").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk()); // Add more assertions for content as needed
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.AssignmentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class AssignmentControllerIT {
     @Test
     @DisplayName("should return all assignments")
     void getAllAssignments() throws Exception {
-        when(assignmentService.getAllAssignments()).thenReturn(List.of());
+        when(assignmentService.getAssignmentsPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/assignments").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
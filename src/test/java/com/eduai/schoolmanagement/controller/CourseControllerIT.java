@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.CourseService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class CourseControllerIT {
     @Test
     @DisplayName("should return all courses")
     void getAllCourses() throws Exception {
-        when(courseService.getAllCourses()).thenReturn(List.of());
+        when(courseService.getCoursesPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/courses").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.FeeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class FeeControllerIT {
     @Test
     @DisplayName("should return all fees")
     void getAllFees() throws Exception {
-        when(feeService.getAllFees()).thenReturn(List.of());
+        when(feeService.getFeesPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/fees").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.GradeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class GradeControllerIT {
     @Test
     @DisplayName("should return all grades")
     void getAllGrades() throws Exception {
-        when(gradeService.getAllGrades()).thenReturn(List.of());
+        when(gradeService.getGradesPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/grades").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.InvoiceService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class InvoiceControllerIT {
     @Test
     @DisplayName("should return all invoices")
     void getAllInvoices() throws Exception {
-        when(invoiceService.getAllInvoices()).thenReturn(List.of());
+        when(invoiceService.getInvoicesPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/invoices").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.ParentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class ParentControllerIT {
     @Test
     @DisplayName("should return all parents")
     void getAllParents() throws Exception {
-        when(parentService.getAllParents()).thenReturn(List.of());
+        when(parentService.getParentsPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/parents").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.PaymentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class PaymentControllerIT {
     @Test
     @DisplayName("should return all payments")
     void getAllPayments() throws Exception {
-        when(paymentService.getAllPayments()).thenReturn(List.of());
+        when(paymentService.getPaymentsPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/payments").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.StudentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,13 +8,16 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(StudentController.class)
@@ -26,8 +30,24 @@ class StudentControllerIT {
     @Test
     @DisplayName("should return all students")
     void getAllStudents() throws Exception {
-        when(studentService.getAllStudents()).thenReturn(List.of());
+        when(studentService.getStudentsPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/students").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("should send the next page's cursor in headers and leave them off the last page")
+    void getAllStudents_cursorHeaders() throws Exception {
+        when(studentService.getStudentsPage(null, 2)).thenReturn(new CursorPage<>(List.of(), "abc"));
+        mockMvc.perform(get("/api/students").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorResponses.NEXT_CURSOR, "abc"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("cursor=abc")))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("limit=2")));
+
+        when(studentService.getStudentsPage("abc", 2)).thenReturn(new CursorPage<>(List.of(), null));
+        mockMvc.perform(get("/api/students").param("cursor", "abc").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorResponses.NEXT_CURSOR));
+    }
 }
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.SubmissionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class SubmissionControllerIT {
     @Test
     @DisplayName("should return all submissions")
     void getAllSubmissions() throws Exception {
-        when(submissionService.getAllSubmissions()).thenReturn(List.of());
+        when(submissionService.getSubmissionsPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/submissions").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
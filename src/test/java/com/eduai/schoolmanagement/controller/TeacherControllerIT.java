@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.controller;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.service.TeacherService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,7 @@ class TeacherControllerIT {
     @Test
     @DisplayName("should return all teachers")
     void getAllTeachers() throws Exception {
-        when(teacherService.getAllTeachers()).thenReturn(List.of());
+        when(teacherService.getTeachersPage(null, null)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/api/teachers").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -0,0 +1,186 @@
+package com.eduai.schoolmanagement.it.benchmark;
+
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.entity.SubmissionFingerprint;
+import com.eduai.schoolmanagement.service.PlagiarismService;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.Indexes;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Grows a corpus of synthetic essays from 1k to 100k submissions against a
+ * local mongod and times plagiarism checks of lightly edited copies at each
+ * size. With the LSH band index a check reads only its near neighbours, so
+ * the median latency should stay flat as the corpus grows.
+ *
+ * Not part of {@code mvn test}; run with {@code mvn -P benchmarks verify}.
+ * The server defaults to mongodb://localhost:27017 and can be overridden with
+ * {@code -Dbenchmark.mongodb.uri=...}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlagiarismBenchmarkIT {
+
+    private static final int[] CORPUS_SIZES = {1_000, 10_000, 100_000};
+    private static final int COURSES = 20;
+    private static final int VOCABULARY = 5_000;
+    private static final int ESSAY_WORDS = 120;
+    private static final int CHECKS_PER_SIZE = 200;
+    private static final int INSERT_BATCH = 1_000;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final List<String> corpusTexts = new ArrayList<>();
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private PlagiarismService plagiarismService;
+    private String databaseName;
+
+    @BeforeAll
+    void setUp() {
+        String uri = System.getProperty("benchmark.mongodb.uri", "mongodb://localhost:27017");
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(5, TimeUnit.SECONDS))
+                .build());
+        databaseName = "plagiarism_benchmark_" + System.currentTimeMillis();
+        mongoTemplate = new MongoTemplate(mongoClient, databaseName);
+        mongoTemplate.getCollection("submission_fingerprints")
+                .createIndex(Indexes.ascending("courseCode", "bandKeys"));
+        mongoTemplate.getCollection("submission_fingerprints")
+                .createIndex(Indexes.ascending("assignmentId", "bandKeys"));
+        plagiarismService = new PlagiarismService(mongoTemplate);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (mongoClient != null) {
+            mongoClient.getDatabase(databaseName).drop();
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    @DisplayName("plagiarism check latency should stay flat from 1k to 100k submissions")
+    void checkLatencyIsFlatAsCorpusGrows() {
+        Map<Integer, Double> medians = new LinkedHashMap<>();
+        for (int size : CORPUS_SIZES) {
+            growCorpus(size);
+            plagiarismService.backfill();
+
+            // Warm up the connection pool and JIT before timing
+            for (int i = 0; i < 20; i++) {
+                checkCopy();
+            }
+            long[] nanos = new long[CHECKS_PER_SIZE];
+            int detected = 0;
+            for (int i = 0; i < CHECKS_PER_SIZE; i++) {
+                long start = System.nanoTime();
+                Submission.PlagiarismCheck check = checkCopy();
+                nanos[i] = System.nanoTime() - start;
+                if ("FLAGGED".equals(check.getStatus())) {
+                    detected++;
+                }
+            }
+            Arrays.sort(nanos);
+            double median = nanos[CHECKS_PER_SIZE / 2] / 1_000_000.0;
+            double p95 = nanos[CHECKS_PER_SIZE * 95 / 100] / 1_000_000.0;
+            medians.put(size, median);
+            System.out.printf("corpus=%,d fingerprints=%,d median=%.2f ms p95=%.2f ms detected=%d/%d%n",
+                    size, mongoTemplate.count(new Query(), SubmissionFingerprint.class),
+                    median, p95, detected, CHECKS_PER_SIZE);
+
+            assertThat(detected).as("copies flagged at corpus size %d", size)
+                    .isGreaterThanOrEqualTo(CHECKS_PER_SIZE * 95 / 100);
+        }
+
+        // 100x the corpus may not cost more than a small constant factor
+        double smallest = medians.get(CORPUS_SIZES[0]);
+        double largest = medians.get(CORPUS_SIZES[CORPUS_SIZES.length - 1]);
+        assertThat(largest).as("median at %d vs %d submissions", CORPUS_SIZES[CORPUS_SIZES.length - 1], CORPUS_SIZES[0])
+                .isLessThanOrEqualTo(smallest * 3 + 2.0);
+    }
+
+    private void growCorpus(int size) {
+        List<Submission> batch = new ArrayList<>(INSERT_BATCH);
+        while (corpusTexts.size() < size) {
+            String text = essay();
+            corpusTexts.add(text);
+            batch.add(submission(corpusTexts.size() % COURSES, "stu-" + corpusTexts.size(), text));
+            if (batch.size() == INSERT_BATCH) {
+                mongoTemplate.insert(batch, Submission.class);
+                batch = new ArrayList<>(INSERT_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Submission.class);
+        }
+    }
+
+    /**
+     * Check a new submission that copies a random corpus essay with a few words changed
+     */
+    private Submission.PlagiarismCheck checkCopy() {
+        int sourceIndex = random.nextInt(corpusTexts.size());
+        String[] words = corpusTexts.get(sourceIndex).split(" ");
+        for (int edit = 0; edit < 3; edit++) {
+            words[random.nextInt(words.length)] = word();
+        }
+        // Corpus entry n (1-based) was placed in course n % COURSES
+        Submission copy = submission((sourceIndex + 1) % COURSES, "copier-" + random.nextInt(1_000_000),
+                String.join(" ", words));
+        copy.setId(new ObjectId().toHexString());
+        return plagiarismService.check(copy);
+    }
+
+    private Submission submission(int course, String studentId, String text) {
+        AssignmentRef assignment = new AssignmentRef();
+        assignment.setId("assignment-" + course);
+        assignment.setTitle("Essay " + course);
+        assignment.setCourseCode("COURSE" + course);
+        StudentRef student = new StudentRef();
+        student.setId(studentId);
+        student.setStudentId(studentId);
+        Submission submission = new Submission();
+        submission.setAssignment(assignment);
+        submission.setStudent(student);
+        submission.setTextContent(text);
+        submission.setStatus("SUBMITTED");
+        return submission;
+    }
+
+    private String essay() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < ESSAY_WORDS; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word());
+        }
+        return text.toString();
+    }
+
+    private String word() {
+        return "w" + Integer.toString(random.nextInt(VOCABULARY), 36);
+    }
+}
@@ -0,0 +1,209 @@
+package com.eduai.schoolmanagement.it.repository;
+
+import com.eduai.schoolmanagement.config.IndexConfiguration;
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.repository.AttendanceRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs explain() on every query declared on {@link AttendanceRepository} against a
+ * local mongod with the indexes from {@link IndexConfiguration}, and fails if any
+ * winning plan falls back to a COLLSCAN.
+ *
+ * Not part of {@code mvn test}; run with {@code mvn -P query-plans verify}.
+ * The server defaults to mongodb://localhost:27017 and can be overridden with
+ * {@code -Dqueryplan.mongodb.uri=...}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AttendanceQueryPlanIT {
+
+    private static final Set<String> READ_COMMANDS = Set.of("find", "count", "aggregate", "distinct");
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 3);
+
+    private final List<BsonDocument> capturedCommands = new CopyOnWriteArrayList<>();
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private AttendanceRepository attendanceRepository;
+    private String databaseName;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        String uri = System.getProperty("queryplan.mongodb.uri", "mongodb://localhost:27017");
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (READ_COMMANDS.contains(event.getCommandName())) {
+                    capturedCommands.add(event.getCommand().clone());
+                }
+            }
+        };
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(5, TimeUnit.SECONDS))
+                .addCommandListener(listener)
+                .build());
+        databaseName = "attendance_query_plan_" + System.currentTimeMillis();
+        mongoTemplate = new MongoTemplate(mongoClient, databaseName);
+        attendanceRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AttendanceRepository.class);
+
+        // The planner reports EOF rather than a real plan for a missing collection
+        attendanceRepository.saveAll(List.of(
+                attendance("S1", "CS101", DATE, "PRESENT"),
+                attendance("S2", "CS101", DATE, "ABSENT"),
+                attendance("S1", "MA201", DATE.plusDays(1), "LATE")));
+
+        IndexConfiguration indexConfiguration = new IndexConfiguration();
+        ReflectionTestUtils.setField(indexConfiguration, "mongoTemplate", mongoTemplate);
+        indexConfiguration.run();
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (mongoClient != null) {
+            mongoClient.getDatabase(databaseName).drop();
+            mongoClient.close();
+        }
+    }
+
+    @TestFactory
+    @DisplayName("every attendance repository query should be index-backed")
+    Stream<DynamicTest> attendanceQueriesUseIndexes() {
+        return Arrays.stream(AttendanceRepository.class.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .sorted(Comparator.comparing(Method::getName))
+                .map(method -> DynamicTest.dynamicTest(method.getName(), () -> assertIndexBacked(method)));
+    }
+
+    private void assertIndexBacked(Method method) throws Exception {
+        capturedCommands.clear();
+        try {
+            method.invoke(attendanceRepository, sampleArguments(method));
+        } catch (InvocationTargetException e) {
+            // Result conversion may fail on sample data; the query itself has already been sent
+        }
+
+        List<BsonDocument> queries = new ArrayList<>();
+        for (BsonDocument command : capturedCommands) {
+            if ("attendance".equals(collectionOf(command))) {
+                queries.add(command);
+            }
+        }
+        assertThat(queries).as("queries issued by %s", method.getName()).isNotEmpty();
+
+        for (BsonDocument command : queries) {
+            Document explain = mongoClient.getDatabase(databaseName).runCommand(
+                    new Document("explain", explainable(command)).append("verbosity", "queryPlanner"));
+            List<String> stages = new ArrayList<>();
+            collectWinningStages(explain, false, stages);
+            assertThat(stages).as("winning plan stages for %s: %s", method.getName(), command.toJson())
+                    .isNotEmpty()
+                    .doesNotContain("COLLSCAN");
+        }
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Parameter[] parameters = method.getParameters();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameters[i].getType();
+            String name = parameters[i].getName().toLowerCase();
+            if (type == LocalDate.class) {
+                arguments[i] = name.contains("end") ? DATE.plusDays(30) : DATE;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                arguments[i] = List.of("S1", "S2");
+            } else if (name.contains("status")) {
+                arguments[i] = "PRESENT";
+            } else if (name.contains("course")) {
+                arguments[i] = "CS101";
+            } else {
+                arguments[i] = "S1";
+            }
+        }
+        return arguments;
+    }
+
+    private static String collectionOf(BsonDocument command) {
+        BsonValue target = command.get(command.getFirstKey());
+        return target != null && target.isString() ? target.asString().getValue() : null;
+    }
+
+    /**
+     * Strip session, cluster-time and database fields the driver adds; explain rejects them
+     */
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument cleaned = new BsonDocument();
+        for (String key : command.keySet()) {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                cleaned.put(key, command.get(key));
+            }
+        }
+        return cleaned;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectWinningStages(Object node, boolean inWinningPlan, List<String> stages) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (inWinningPlan && document.get("stage") instanceof String) {
+                stages.add(document.getString("stage"));
+            }
+            for (String key : document.keySet()) {
+                if (key.equals("rejectedPlans")) {
+                    continue;
+                }
+                collectWinningStages(document.get(key), inWinningPlan || key.equals("winningPlan"), stages);
+            }
+        } else if (node instanceof List) {
+            for (Object element : (List<Object>) node) {
+                collectWinningStages(element, inWinningPlan, stages);
+            }
+        }
+    }
+
+    private static Attendance attendance(String studentId, String courseCode, LocalDate date, String status) {
+        Attendance attendance = new Attendance();
+        Attendance.StudentInfo student = new Attendance.StudentInfo();
+        student.setStudentId(studentId);
+        Attendance.CourseInfo course = new Attendance.CourseInfo();
+        course.setCourseCode(courseCode);
+        attendance.setStudent(student);
+        attendance.setCourse(course);
+        attendance.setDate(date);
+        attendance.setStatus(status);
+        return attendance;
+    }
+}
@@ -32,6 +32,8 @@ class AccessCodeServiceTest {
     private StudentRepository studentRepository;
     @Mock
     private ParentRepository parentRepository;
+    @Mock
+    private DeadlineScheduler deadlineScheduler;
     @InjectMocks
     private AccessCodeService accessCodeService;
 
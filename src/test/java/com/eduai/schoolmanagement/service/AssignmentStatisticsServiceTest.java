@@ -0,0 +1,115 @@
+package com.eduai.schoolmanagement.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssignmentStatisticsServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AssignmentStatisticsService assignmentStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        assignmentStatisticsService = new AssignmentStatisticsService(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        assignmentStatisticsService.shutdown();
+    }
+
+    @Test
+    @DisplayName("should read every dashboard figure from the facets of one aggregation")
+    void getStatistics_mapsFacets() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("assignments"), eq(Document.class)))
+                .thenReturn(results());
+
+        Map<String, Object> statistics = assignmentStatisticsService.getStatistics();
+
+        assertThat(statistics)
+                .containsEntry("totalAssignments", 12L)
+                .containsEntry("overdueAssignments", 3L)
+                .containsEntry("upcomingAssignments", 4L)
+                .containsEntry("pendingGrading", 5L)
+                .containsEntry("aiGradingEnabled", 6L)
+                .containsEntry("averageSubmissionRate", 62.5);
+        assertThat(statistics.get("assignmentsByType")).isEqualTo(Map.of(
+                "HOMEWORK", 7L, "QUIZ", 5L, "TEST", 0L, "PROJECT", 0L, "PARTICIPATION", 0L));
+    }
+
+    @Test
+    @DisplayName("should answer from the snapshot until it expires")
+    void getStatistics_servesFreshSnapshot() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("assignments"), eq(Document.class)))
+                .thenReturn(results());
+
+        Map<String, Object> first = assignmentStatisticsService.getStatistics();
+        Map<String, Object> second = assignmentStatisticsService.getStatistics();
+
+        assertThat(second).isSameAs(first);
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("assignments"), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("should share one in-flight aggregation between concurrent callers")
+    void getStatistics_singleFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("assignments"), eq(Document.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return results();
+                });
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(callers.submit(assignmentStatisticsService::getStatistics));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Map<String, Object>> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).containsEntry("totalAssignments", 12L);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("assignments"), eq(Document.class));
+    }
+
+    private static AggregationResults<Document> results() {
+        Document facets = new Document()
+                .append("totals", List.of(new Document("_id", null)
+                        .append("total", 12).append("overdue", 3).append("upcoming", 4)
+                        .append("pendingGrading", 5).append("aiGradingEnabled", 6)))
+                .append("byType", List.of(new Document("_id", "HOMEWORK").append("count", 7),
+                        new Document("_id", "QUIZ").append("count", 5)))
+                .append("submissionRate", List.of(new Document("_id", null).append("rate", 62.5)));
+        return new AggregationResults<>(List.of(facets), new Document());
+    }
+}
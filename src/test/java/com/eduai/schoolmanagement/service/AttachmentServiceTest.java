@@ -0,0 +1,104 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Attachment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentServiceTest {
+    private static final byte[] CONTENT = "%PDF-1.7 essay draft".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @TempDir
+    Path root;
+
+    private AttachmentService attachmentService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        attachmentService = new AttachmentService(mongoTemplate);
+        ReflectionTestUtils.setField(attachmentService, "root", root.toString());
+        attachmentService.init();
+    }
+
+    @Test
+    @DisplayName("should store identical uploads once under their content hash and count both references")
+    void store_deduplicatesIdenticalContent() throws Exception {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Attachment.class))).thenAnswer(invocation -> attachment(invocation.getArgument(0)));
+
+        Attachment first = attachmentService.store(new ByteArrayInputStream(CONTENT), "essay.pdf", "application/pdf");
+        Attachment second = attachmentService.store(new ByteArrayInputStream(CONTENT), "copy.pdf", "application/pdf");
+
+        assertThat(first.getId()).isEqualTo(second.getId()).matches("[0-9a-f]{64}");
+        assertThat(Files.readAllBytes(attachmentService.pathOf(first.getId()))).isEqualTo(CONTENT);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Attachment.class));
+    }
+
+    @Test
+    @DisplayName("should delete the file when the last reference is released")
+    void release_lastReferenceDeletesFile() throws Exception {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Attachment.class))).thenAnswer(invocation -> attachment(invocation.getArgument(0)));
+        String hash = attachmentService.store(new ByteArrayInputStream(CONTENT), "essay.pdf", "application/pdf").getId();
+        Attachment last = new Attachment();
+        last.setId(hash);
+        last.setRefCount(0);
+        doReturn(last).when(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Attachment.class));
+
+        attachmentService.release(List.of(hash, "https://example.org/notes.pdf"));
+
+        assertThat(attachmentService.pathOf(hash)).doesNotExist();
+        verify(mongoTemplate).remove(any(Query.class), eq(Attachment.class));
+    }
+
+    @Test
+    @DisplayName("should transfer just the requested byte range")
+    void transfer_writesRange() throws Exception {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Attachment.class))).thenAnswer(invocation -> attachment(invocation.getArgument(0)));
+        String hash = attachmentService.store(new ByteArrayInputStream(CONTENT), "essay.pdf", "application/pdf").getId();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        attachmentService.transfer(hash, 1, 3, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("PDF");
+    }
+
+    private static Attachment attachment(Query query) {
+        Attachment attachment = new Attachment();
+        attachment.setId(query.getQueryObject().getString("_id"));
+        attachment.setSize(CONTENT.length);
+        attachment.setRefCount(1);
+        return attachment;
+    }
+}
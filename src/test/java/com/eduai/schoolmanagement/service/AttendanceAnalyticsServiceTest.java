@@ -0,0 +1,178 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceAnalyticsRun;
+import com.eduai.schoolmanagement.entity.StudentAttendanceAnalytics;
+import com.eduai.schoolmanagement.repository.AttendanceAnalyticsRunRepository;
+import com.eduai.schoolmanagement.repository.SemesterRepository;
+import com.eduai.schoolmanagement.repository.StudentAttendanceAnalyticsRepository;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceAnalyticsServiceTest {
+    @Mock
+    private AttendanceAnalyticsRunRepository runRepository;
+    @Mock
+    private StudentAttendanceAnalyticsRepository studentAnalyticsRepository;
+    @Mock
+    private SemesterRepository semesterRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AttendanceAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new AttendanceAnalyticsService(runRepository, studentAnalyticsRepository, semesterRepository,
+                mongoTemplate, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should classify absence runs across weekends as consecutive")
+    void absencePattern_consecutiveAcrossWeekend() {
+        // Thursday, Friday, Monday
+        List<LocalDate> absences = List.of(LocalDate.of(2025, 3, 6), LocalDate.of(2025, 3, 7), LocalDate.of(2025, 3, 10));
+        assertThat(AttendanceAnalyticsService.absencePattern(absences)).isEqualTo("CONSECUTIVE");
+    }
+
+    @Test
+    @DisplayName("should flag absences clustered on one weekday")
+    void absencePattern_frequentWeekday() {
+        List<LocalDate> absences = List.of(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 12));
+        assertThat(AttendanceAnalyticsService.absencePattern(absences)).isEqualTo("FREQUENT_MONDAY");
+        assertThat(AttendanceAnalyticsService.absencePattern(List.of())).isEqualTo("NONE");
+    }
+
+    @Test
+    @DisplayName("should derive risk level from rates and pattern")
+    void riskLevel_thresholds() {
+        assertThat(AttendanceAnalyticsService.riskLevel(95.0, 95.0, "NONE")).isEqualTo("LOW");
+        assertThat(AttendanceAnalyticsService.riskLevel(85.0, 95.0, "SPORADIC")).isEqualTo("MEDIUM");
+        assertThat(AttendanceAnalyticsService.riskLevel(95.0, 95.0, "FREQUENT_MONDAY")).isEqualTo("MEDIUM");
+        assertThat(AttendanceAnalyticsService.riskLevel(70.0, 95.0, "NONE")).isEqualTo("HIGH");
+        assertThat(AttendanceAnalyticsService.riskLevel(95.0, 95.0, "CONSECUTIVE")).isEqualTo("HIGH");
+    }
+
+    @Test
+    @DisplayName("should leave windows without records out of the risk level")
+    void riskLevel_skipsEmptyWindows() {
+        assertThat(AttendanceAnalyticsService.riskLevel(95.0, null, "NONE")).isEqualTo("LOW");
+        assertThat(AttendanceAnalyticsService.riskLevel(null, null, "NONE")).isEqualTo("LOW");
+        assertThat(AttendanceAnalyticsService.riskLevel(null, 60.0, "NONE")).isEqualTo("HIGH");
+    }
+
+    @Test
+    @DisplayName("should resume an interrupted run and only process unfinished partitions")
+    void runAnalytics_resumesFromCheckpoint() {
+        AttendanceAnalyticsRun interrupted = new AttendanceAnalyticsRun();
+        interrupted.setId("run-1");
+        interrupted.setStatus(AttendanceAnalyticsRun.STATUS_RUNNING);
+        interrupted.setAsOf(LocalDate.now());
+        interrupted.setTermStart(LocalDate.of(2025, 1, 6));
+        interrupted.setPartitionBounds(List.of("S1", "S5", "S9"));
+        interrupted.setCompletedPartitions(new ArrayList<>(List.of(0, 2)));
+        when(runRepository.findFirstByOrderByStartedAtDesc()).thenReturn(Optional.of(interrupted));
+        when(runRepository.save(interrupted)).thenReturn(interrupted);
+
+        Document group = new Document("_id", "S6")
+                .append("termTotal", 40).append("termPresent", 28)
+                .append("monthTotal", 20).append("monthPresent", 12)
+                .append("weekTotal", 5).append("weekPresent", 3)
+                .append("absences", List.of(false, date(2025, 3, 12), date(2025, 3, 13), date(2025, 3, 14)));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(group), new Document()));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentAttendanceAnalytics.class))
+                .thenReturn(bulkOperations);
+        when(mongoTemplate.remove(any(Query.class), eq(StudentAttendanceAnalytics.class)))
+                .thenReturn(DeleteResult.acknowledged(2));
+
+        Map<String, Object> result = analyticsService.runAnalytics();
+
+        assertThat(result).containsEntry("status", AttendanceAnalyticsRun.STATUS_COMPLETED)
+                .containsEntry("partitionsProcessed", 1)
+                .containsEntry("studentsProcessed", 1L)
+                .containsEntry("staleRemoved", 2L);
+        // Students the run did not write (no records in the window) are dropped
+        verify(mongoTemplate).remove(argThat((Query query) -> new Document("runId", new Document("$ne", "run-1"))
+                .equals(query.getQueryObject())), eq(StudentAttendanceAnalytics.class));
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq(Document.class));
+        verify(bulkOperations).upsert(argThat((Query query) -> "S6".equals(query.getQueryObject().get("_id"))),
+                argThat((Update update) ->
+                        "HIGH".equals(update.getUpdateObject().get("$set", Document.class).get("riskLevel"))));
+        verify(bulkOperations).execute();
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), anyString(), eq(Attendance.class), eq(String.class));
+        assertThat(meterRegistry.counter("attendance.analytics.students").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should start a fresh run for today instead of resuming one left from an earlier day")
+    void runAnalytics_abandonsStaleRun() {
+        AttendanceAnalyticsRun stale = new AttendanceAnalyticsRun();
+        stale.setId("run-1");
+        stale.setStatus(AttendanceAnalyticsRun.STATUS_FAILED);
+        stale.setAsOf(LocalDate.now().minusDays(1));
+        stale.setPartitionBounds(List.of("S1"));
+        when(runRepository.findFirstByOrderByStartedAtDesc()).thenReturn(Optional.of(stale));
+        when(semesterRepository.findActiveSemesterByDate(any(LocalDate.class))).thenReturn(Optional.empty());
+        when(mongoTemplate.findDistinct(any(Query.class), eq("student.studentId"), eq(Attendance.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(runRepository.save(any(AttendanceAnalyticsRun.class))).thenAnswer(invocation -> {
+            AttendanceAnalyticsRun run = invocation.getArgument(0);
+            run.setId("run-2");
+            return run;
+        });
+        when(mongoTemplate.remove(any(Query.class), eq(StudentAttendanceAnalytics.class)))
+                .thenReturn(DeleteResult.acknowledged(0));
+
+        Map<String, Object> result = analyticsService.runAnalytics();
+
+        assertThat(result).containsEntry("runId", "run-2").containsEntry("asOf", LocalDate.now());
+        verify(runRepository, never()).save(stale);
+    }
+
+    @Test
+    @DisplayName("should not start while another instance holds the lease, and give the lease back when done")
+    void runAnalytics_holdsLease() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(AttendanceAnalyticsService.LEASE_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("lease held"));
+
+        assertThat(analyticsService.runAnalytics()).containsEntry("status", "ALREADY_RUNNING");
+        verifyNoInteractions(runRepository);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(AttendanceAnalyticsService.LEASE_COLLECTION));
+    }
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,109 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.AttendanceExportRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceExportServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @InjectMocks
+    private AttendanceExportService attendanceExportService;
+
+    @Test
+    @DisplayName("should stream CSV with header and escaped values")
+    void export_csv() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("attendance")))
+                .thenReturn(Stream.of(record("S1", "Smith, Jr.", "PRESENT"), record("S2", "O\"Neil", "ABSENT")));
+        AttendanceExportRequest request = request("csv", List.of("studentId", "lastName", "date", "status"));
+        attendanceExportService.validate(request);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = attendanceExportService.export(request, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "studentId,lastName,date,status\r\n"
+                + "S1,\"Smith, Jr.\",2025-03-03,PRESENT\r\n"
+                + "S2,\"O\"\"Neil\",2025-03-03,ABSENT\r\n");
+    }
+
+    @Test
+    @DisplayName("should stream one JSON object per line for NDJSON")
+    void export_ndjson() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("attendance")))
+                .thenReturn(Stream.of(record("S1", "Smith", "PRESENT")));
+        AttendanceExportRequest request = request("NDJSON", List.of("studentId", "status"));
+        attendanceExportService.validate(request);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        attendanceExportService.export(request, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"studentId\":\"S1\",\"status\":\"PRESENT\"}\n");
+    }
+
+    @Test
+    @DisplayName("should project only requested columns with a bounded batch size")
+    void buildQuery_projectsColumns() {
+        AttendanceExportRequest request = request("csv", List.of("studentId", "date"));
+        request.setStatus("ABSENT");
+        attendanceExportService.validate(request);
+
+        Query query = attendanceExportService.buildQuery(request);
+
+        assertThat(query.getFieldsObject()).containsEntry("student.studentId", 1)
+                .containsEntry("date", 1)
+                .containsEntry("_id", 0)
+                .hasSize(3);
+        assertThat(query.getQueryObject()).containsEntry("status", "ABSENT");
+        assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("should reject unknown columns and formats before streaming")
+    void validate_rejectsUnknown() {
+        assertThatThrownBy(() -> attendanceExportService.validate(request("csv", List.of("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> attendanceExportService.validate(request("xml", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AttendanceExportRequest request(String format, List<String> columns) {
+        AttendanceExportRequest request = new AttendanceExportRequest();
+        request.setFormat(format);
+        request.setColumns(columns);
+        return request;
+    }
+
+    private static Document record(String studentId, String lastName, String status) {
+        Date date = Date.from(LocalDate.of(2025, 3, 3).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new Document("student", new Document("studentId", studentId).append("lastName", lastName))
+                .append("date", date)
+                .append("status", status);
+    }
+}
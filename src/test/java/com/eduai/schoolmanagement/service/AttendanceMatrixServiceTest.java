@@ -0,0 +1,203 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceMatrix;
+import com.eduai.schoolmanagement.entity.Semester;
+import com.eduai.schoolmanagement.repository.AttendanceMatrixRepository;
+import com.eduai.schoolmanagement.repository.SemesterRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceMatrixServiceTest {
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 6);
+
+    @Mock
+    private AttendanceMatrixRepository matrixRepository;
+    @Mock
+    private SemesterRepository semesterRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @InjectMocks
+    private AttendanceMatrixService attendanceMatrixService;
+
+    private Semester semester;
+    private AttendanceMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        semester = new Semester();
+        semester.setSemesterCode("SPRING2025");
+        semester.setStartDate(TERM_START);
+        semester.setEndDate(LocalDate.of(2025, 5, 15));
+        matrix = AttendanceMatrix.create("CS101", semester);
+    }
+
+    @Test
+    @DisplayName("should round-trip every status through the bit planes")
+    void matrix_setAndGet() {
+        LocalDate day = TERM_START.plusDays(70); // second word of each plane
+        for (String status : List.of("PRESENT", "ABSENT", "LATE", "EXCUSED")) {
+            matrix.set("S1", day, status);
+            assertThat(matrix.get("S1", day)).isEqualTo(status);
+        }
+        matrix.set("S1", day, null);
+        assertThat(matrix.get("S1", day)).isNull();
+        assertThat(matrix.getCells()).hasSize(3 * matrix.getWordsPerPlane());
+    }
+
+    @Test
+    @DisplayName("should count marked and present cells across word boundaries")
+    void matrix_countRange() {
+        for (int day = 60; day < 70; day++) {
+            matrix.set("S1", TERM_START.plusDays(day), day % 2 == 0 ? "PRESENT" : "LATE");
+        }
+        matrix.set("S2", TERM_START.plusDays(63), "ABSENT");
+
+        assertThat(matrix.count("S1", 60, 69)).containsExactly(10, 5);
+        assertThat(matrix.count(null, 62, 64)).containsExactly(4, 2);
+        assertThat(matrix.count("S3", 0, matrix.getDays())).containsExactly(0, 0);
+    }
+
+    @Test
+    @DisplayName("should report absence streaks over marked days only")
+    void getChronicAbsences_skipsUnmarkedDays() {
+        // Friday, Monday, Tuesday absent across a weekend; then present; then two more absences
+        matrix.set("S1", TERM_START.plusDays(4), "ABSENT");
+        matrix.set("S1", TERM_START.plusDays(7), "ABSENT");
+        matrix.set("S1", TERM_START.plusDays(8), "ABSENT");
+        matrix.set("S1", TERM_START.plusDays(9), "PRESENT");
+        matrix.set("S1", TERM_START.plusDays(10), "ABSENT");
+        matrix.set("S1", TERM_START.plusDays(11), "ABSENT");
+        matrix.set("S2", TERM_START.plusDays(4), "ABSENT");
+        matrix.set("S2", TERM_START.plusDays(7), "PRESENT");
+        givenStoredMatrix();
+
+        Map<String, Object> result = attendanceMatrixService.getChronicAbsences("CS101", "SPRING2025", 3);
+
+        assertThat(result).containsEntry("students", List.of(
+                Map.of("studentId", "S1", "longestAbsenceRun", 3, "currentAbsenceRun", 2)));
+    }
+
+    @Test
+    @DisplayName("should compute a rolling rate from the window only")
+    void getRollingRate_window() {
+        matrix.set("S1", TERM_START, "ABSENT");
+        matrix.set("S1", TERM_START.plusDays(30), "PRESENT");
+        matrix.set("S2", TERM_START.plusDays(31), "ABSENT");
+        givenStoredMatrix();
+
+        Map<String, Object> result = attendanceMatrixService.getRollingRate("CS101", "SPRING2025",
+                TERM_START.plusDays(31), 30);
+
+        assertThat(result).containsEntry("attendanceRate", 50.0)
+                .containsEntry("studentRates", Map.of("S1", 100.0, "S2", 0.0));
+    }
+
+    @Test
+    @DisplayName("should write changes through and replay them after a concurrent update")
+    void apply_retriesOnVersionConflict() {
+        when(semesterRepository.findByActiveTrue()).thenReturn(List.of(semester));
+        AttendanceMatrix stored = AttendanceMatrix.create("CS101", semester);
+        givenStoredVersion(null);
+        when(matrixRepository.findById(matrix.getId())).thenReturn(Optional.of(matrix), Optional.of(stored));
+        when(matrixRepository.save(any(AttendanceMatrix.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        attendanceMatrixService.apply(List.of(), List.of(attendance("S1", TERM_START.plusDays(2), "LATE")));
+
+        verify(matrixRepository, times(2)).save(any(AttendanceMatrix.class));
+        assertThat(stored.get("S1", TERM_START.plusDays(2))).isEqualTo("LATE");
+    }
+
+    @Test
+    @DisplayName("should drop the stored matrix when conflicts outlast the retries so it is rebuilt")
+    void apply_dropsMatrixAfterRepeatedConflicts() {
+        when(semesterRepository.findByActiveTrue()).thenReturn(List.of(semester));
+        givenStoredVersion(null);
+        when(matrixRepository.findById(matrix.getId())).thenReturn(Optional.of(matrix));
+        when(matrixRepository.save(any(AttendanceMatrix.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        attendanceMatrixService.apply(List.of(), List.of(attendance("S1", TERM_START.plusDays(2), "LATE")));
+
+        verify(matrixRepository, times(3)).save(any(AttendanceMatrix.class));
+        verify(mongoTemplate).remove(argThat((Query query) -> matrix.getId().equals(query.getQueryObject().get("_id"))),
+                eq("attendance_matrices"));
+    }
+
+    @Test
+    @DisplayName("should reload a cached matrix once another instance has saved a newer version")
+    void read_reloadsOnVersionMismatch() {
+        matrix.setVersion(1L);
+        AttendanceMatrix newer = AttendanceMatrix.create("CS101", semester);
+        newer.setVersion(2L);
+        newer.set("S1", TERM_START, "PRESENT");
+        when(semesterRepository.findBySemesterCode("SPRING2025")).thenReturn(Optional.of(semester));
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("attendance_matrices")))
+                .thenReturn(new Document("_id", matrix.getId()).append("version", 1L))
+                .thenReturn(new Document("_id", matrix.getId()).append("version", 1L))
+                .thenReturn(new Document("_id", matrix.getId()).append("version", 2L));
+        when(matrixRepository.findById(matrix.getId())).thenReturn(Optional.of(matrix), Optional.of(newer));
+
+        attendanceMatrixService.getRollingRate("CS101", "SPRING2025", TERM_START, 1);
+        attendanceMatrixService.getRollingRate("CS101", "SPRING2025", TERM_START, 1);
+        verify(matrixRepository, times(1)).findById(matrix.getId());
+
+        Map<String, Object> result = attendanceMatrixService.getRollingRate("CS101", "SPRING2025", TERM_START, 1);
+        verify(matrixRepository, times(2)).findById(matrix.getId());
+        assertThat(result).containsEntry("studentRates", Map.of("S1", 100.0));
+    }
+
+    @Test
+    @DisplayName("should ignore records outside any active term")
+    void apply_outsideTerm() {
+        when(semesterRepository.findByActiveTrue()).thenReturn(List.of(semester));
+
+        attendanceMatrixService.apply(List.of(), List.of(attendance("S1", LocalDate.of(2025, 7, 1), "PRESENT")));
+
+        verifyNoInteractions(matrixRepository);
+    }
+
+    private void givenStoredMatrix() {
+        when(semesterRepository.findBySemesterCode("SPRING2025")).thenReturn(Optional.of(semester));
+        givenStoredVersion(matrix.getVersion());
+        when(matrixRepository.findById(matrix.getId())).thenReturn(Optional.of(matrix));
+    }
+
+    private void givenStoredVersion(Long version) {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("attendance_matrices")))
+                .thenReturn(new Document("_id", matrix.getId()).append("version", version));
+    }
+
+    private static Attendance attendance(String studentId, LocalDate date, String status) {
+        Attendance attendance = new Attendance();
+        attendance.setStudent(new Attendance.StudentInfo());
+        attendance.getStudent().setStudentId(studentId);
+        attendance.setCourse(new Attendance.CourseInfo());
+        attendance.getCourse().setCourseCode("CS101");
+        attendance.setDate(date);
+        attendance.setStatus(status);
+        return attendance;
+    }
+}
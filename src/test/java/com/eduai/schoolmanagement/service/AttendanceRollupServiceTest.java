@@ -0,0 +1,172 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceRollup;
+import com.eduai.schoolmanagement.repository.AttendanceRollupRepository;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceRollupServiceTest {
+    @Mock
+    private AttendanceRollupRepository rollupRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
+    @InjectMocks
+    private AttendanceRollupService attendanceRollupService;
+
+    @Test
+    @DisplayName("should upsert student, course, student-course and date rollups for a new record")
+    void apply_incrementsAllScopes() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        attendanceRollupService.apply(List.of(), List.of(attendance("S1", "CS101", "PRESENT")));
+
+        verify(bulkOperations, times(4)).upsert(queries.capture(), updates.capture());
+        verify(bulkOperations).execute();
+        assertThat(queries.getAllValues()).extracting(q -> q.getQueryObject().getString("_id"))
+                .containsExactly("STUDENT:S1", "COURSE:CS101", "STUDENT_COURSE:S1|CS101", "DATE:2025-03-03");
+        Document inc = updates.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("total", 1L).containsEntry("statusCounts.PRESENT", 1L);
+    }
+
+    @Test
+    @DisplayName("should move counters between statuses without changing totals")
+    void recordStatusChange_keepsTotal() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        attendanceRollupService.recordStatusChange(attendance("S1", "CS101", "PRESENT"), "ABSENT");
+
+        verify(bulkOperations, times(4)).upsert(any(Query.class), updates.capture());
+        Document inc = updates.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("total", 0L)
+                .containsEntry("statusCounts.PRESENT", 1L)
+                .containsEntry("statusCounts.ABSENT", -1L);
+    }
+
+    @Test
+    @DisplayName("should skip the bulk write when a replacement changes nothing")
+    void apply_unchangedReplacement() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+
+        attendanceRollupService.apply(List.of(attendance("S1", "CS101", "LATE")),
+                List.of(attendance("S1", "CS101", "LATE")));
+
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("should request a rebuild when the counter bulk fails")
+    void apply_failedBulkRequestsRebuild() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        attendanceRollupService.apply(List.of(), List.of(attendance("S1", "CS101", "PRESENT")));
+
+        verify(mongoTemplate).upsert(argThat((Query query) ->
+                        "attendance_rollups".equals(query.getQueryObject().getString("_id"))),
+                any(Update.class), eq(AttendanceRollupService.REBUILD_REQUESTS_COLLECTION));
+    }
+
+    @Test
+    @DisplayName("should rebuild on a pending request and clear only that request")
+    void rebuildIfRequested_clearsObservedRequest() {
+        Date requestedAt = new Date();
+        when(mongoTemplate.findById(AttendanceRollupService.REBUILD_REQUEST_ID, Document.class,
+                AttendanceRollupService.REBUILD_REQUESTS_COLLECTION))
+                .thenReturn(new Document("_id", "attendance_rollups").append("requestedAt", requestedAt));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.remove(any(Query.class), eq(AttendanceRollup.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        attendanceRollupService.rebuildIfRequested();
+
+        verify(mongoTemplate, times(4)).aggregate(any(TypedAggregation.class), eq(Document.class));
+        verify(mongoTemplate).remove(argThat((Query query) -> requestedAt.equals(query.getQueryObject().get("requestedAt"))),
+                eq(AttendanceRollupService.REBUILD_REQUESTS_COLLECTION));
+    }
+
+    @Test
+    @DisplayName("should do nothing when no rebuild was requested")
+    void rebuildIfRequested_noRequest() {
+        attendanceRollupService.rebuildIfRequested();
+
+        verify(mongoTemplate, never()).aggregate(any(TypedAggregation.class), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("should ignore records without student, course or date")
+    void apply_incompleteRecord() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+
+        attendanceRollupService.apply(List.of(), List.of(new Attendance()));
+
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("should overwrite rollups in place and delete only those not rebuilt or written since")
+    void rebuild_overwritesInPlace() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceRollup.class)).thenReturn(bulkOperations);
+        Document group = new Document("_id", new Document("studentId", "S1").append("status", "PRESENT"))
+                .append("count", 3);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(group), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.remove(any(Query.class), eq(AttendanceRollup.class))).thenReturn(DeleteResult.acknowledged(2));
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        assertThat(attendanceRollupService.rebuild()).containsEntry("rollupCount", 1).containsEntry("removedCount", 2L);
+
+        verify(bulkOperations).upsert(queries.capture(), updates.capture());
+        assertThat(queries.getValue().getQueryObject().getString("_id")).isEqualTo("STUDENT:S1");
+        Document set = updates.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsEntry("total", 3L);
+        assertThat(updates.getValue().getUpdateObject()).doesNotContainKey("$inc");
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(AttendanceRollup.class));
+        assertThat(removed.getValue().getQueryObject().get("lastUpdated", Document.class)).containsKey("$lt");
+    }
+
+    private static Attendance attendance(String studentId, String courseCode, String status) {
+        Attendance attendance = new Attendance();
+        Attendance.StudentInfo student = new Attendance.StudentInfo();
+        student.setStudentId(studentId);
+        Attendance.CourseInfo course = new Attendance.CourseInfo();
+        course.setCourseCode(courseCode);
+        attendance.setStudent(student);
+        attendance.setCourse(course);
+        attendance.setDate(LocalDate.of(2025, 3, 3));
+        attendance.setStatus(status);
+        return attendance;
+    }
+}
@@ -0,0 +1,446 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.AttendanceSyncItem;
+import com.eduai.schoolmanagement.dto.GateScanRequest;
+import com.eduai.schoolmanagement.entity.Attendance;
+import com.eduai.schoolmanagement.entity.AttendanceRollup;
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.IdempotencyRecord;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.exception.ResourceNotFoundException;
+import com.eduai.schoolmanagement.repository.AttendanceRepository;
+import com.eduai.schoolmanagement.repository.CourseRepository;
+import com.eduai.schoolmanagement.repository.StudentRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceServiceTest {
+    @Mock
+    private AttendanceRepository attendanceRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private CourseRepository courseRepository;
+    @Mock
+    private AttendanceRollupService attendanceRollupService;
+    @Mock
+    private AttendanceMatrixService attendanceMatrixService;
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @InjectMocks
+    private AttendanceService attendanceService;
+
+    @Test
+    @DisplayName("should return attendance by id")
+    void getAttendanceById_found() {
+        Attendance attendance = mock(Attendance.class);
+        when(attendanceRepository.findById("id")).thenReturn(Optional.of(attendance));
+        assertThat(attendanceService.getAttendanceById("id")).contains(attendance);
+    }
+
+    @Test
+    @DisplayName("should read student summary totals from rollup")
+    void getStudentAttendanceSummary_fromRollup() {
+        when(attendanceRollupService.getStudentRollup("S1"))
+                .thenReturn(Optional.of(rollup(Map.of("PRESENT", 8L, "ABSENT", 1L, "LATE", 1L))));
+        aggregateReturns(List.of(status("PRESENT", 3), status("ABSENT", 1)));
+
+        Map<String, Object> summary = attendanceService.getStudentAttendanceSummary("S1");
+
+        assertThat(summary).containsEntry("totalSessions", 10L)
+                .containsEntry("presentCount", 8L)
+                .containsEntry("absentCount", 1L)
+                .containsEntry("lateCount", 1L)
+                .containsEntry("attendanceRate", 80.0)
+                .containsEntry("recentAttendanceCount", 4L)
+                .containsEntry("recentPresentCount", 3L);
+    }
+
+    @Test
+    @DisplayName("should read course summary from rollups and drop zeroed statuses")
+    void getCourseAttendanceSummary_fromRollup() {
+        when(attendanceRollupService.getCourseRollup("CS101"))
+                .thenReturn(Optional.of(rollup(Map.of("PRESENT", 3L, "ABSENT", 1L, "LATE", 0L))));
+        when(attendanceRollupService.countStudentsInCourse("CS101")).thenReturn(2L);
+
+        Map<String, Object> summary = attendanceService.getCourseAttendanceSummary("CS101");
+
+        assertThat(summary).containsEntry("totalRecords", 4L)
+                .containsEntry("averageAttendanceRate", 75.0)
+                .containsEntry("enrolledStudents", 2L)
+                .containsEntry("statusBreakdown", Map.of("PRESENT", 3L, "ABSENT", 1L));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should return zero rate when there is no rollup")
+    void getStudentAttendanceRate_empty() {
+        when(attendanceRollupService.getStudentRollup("S1")).thenReturn(Optional.empty());
+        assertThat(attendanceService.getStudentAttendanceRate("S1")).isZero();
+    }
+
+    @Test
+    @DisplayName("should compute monthly daily rates from daily rollups")
+    void getMonthlyAttendanceReport_fromDailyRollups() {
+        AttendanceRollup first = rollup(Map.of("PRESENT", 3L, "ABSENT", 1L));
+        first.setDate(LocalDate.of(2025, 3, 3));
+        AttendanceRollup second = rollup(Map.of("PRESENT", 2L));
+        second.setDate(LocalDate.of(2025, 3, 4));
+        when(attendanceRollupService.getDailyRollups(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)))
+                .thenReturn(List.of(first, second));
+
+        Map<String, Object> report = attendanceService.getMonthlyAttendanceReport(2025, 3);
+
+        assertThat(report).containsEntry("totalRecords", 6)
+                .containsEntry("dailyRates", Map.of("2025-03-03", 75.0, "2025-03-04", 100.0));
+        assertThat((double) report.get("monthlyAttendanceRate")).isCloseTo(83.33, within(0.01));
+    }
+
+    @Test
+    @DisplayName("should fold per-date groups into weekly trends for a student")
+    void getAttendanceTrends_forStudent() {
+        aggregateReturns(List.of(day(LocalDate.of(2025, 3, 3), 4, 3), day(LocalDate.of(2025, 3, 4), 2, 2)));
+
+        Map<String, Object> trends = attendanceService.getAttendanceTrends("S1", null,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertThat(trends).containsEntry("totalRecords", 6)
+                .containsEntry("weeklyTrends", Map.of("Week 8", 75.0, "Week 9", 100.0));
+    }
+
+    @Test
+    @DisplayName("should read course trends from the term matrix when the range fits one term")
+    void getAttendanceTrends_forCourseFromMatrix() {
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        LocalDate end = LocalDate.of(2025, 3, 31);
+        when(attendanceMatrixService.getDailyCounts("CS101", null, start, end))
+                .thenReturn(Optional.of(Map.of(LocalDate.of(2025, 3, 3), new long[] { 4, 3 })));
+
+        Map<String, Object> trends = attendanceService.getAttendanceTrends(null, "CS101", start, end);
+
+        assertThat(trends).containsEntry("totalRecords", 4)
+                .containsEntry("weeklyTrends", Map.of("Week 8", 75.0));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should move rollup counters when an existing mark changes status")
+    void markStudentPresent_existingRecord() {
+        Attendance attendance = new Attendance();
+        attendance.setStatus("ABSENT");
+        when(attendanceRepository.findByStudentStudentIdAndCourseCourseCodeAndDate("S1", "CS101", LocalDate.of(2025, 3, 3)))
+                .thenReturn(List.of(attendance));
+        when(attendanceRepository.save(attendance)).thenReturn(attendance);
+
+        attendanceService.markStudentPresent("S1", "CS101", LocalDate.of(2025, 3, 3));
+
+        assertThat(attendance.getStatus()).isEqualTo("PRESENT");
+        verify(attendanceRollupService).recordStatusChange(attendance, "ABSENT");
+        verify(attendanceMatrixService).apply(List.of(), List.of(attendance));
+    }
+
+    @Test
+    @DisplayName("should decrement rollups for a deleted record")
+    void deleteAttendance_updatesRollups() {
+        Attendance attendance = new Attendance();
+        when(attendanceRepository.findById("id")).thenReturn(Optional.of(attendance));
+
+        attendanceService.deleteAttendance("id");
+
+        verify(attendanceRepository).deleteById("id");
+        verify(attendanceRollupService).apply(List.of(attendance), List.of());
+        verify(attendanceMatrixService).apply(List.of(attendance), List.of());
+    }
+
+    @Test
+    @DisplayName("should mark a roster with one bulk write and report per student")
+    @SuppressWarnings("unchecked")
+    void markRosterAttendance_bulkUpserts() {
+        LocalDate date = LocalDate.of(2025, 3, 3);
+        Course course = new Course();
+        course.setCourseCode("CS101");
+        course.setCourseName("Intro");
+        when(courseRepository.findByCourseCode("CS101")).thenReturn(Optional.of(course));
+        when(studentRepository.findSnapshotsByStudentIdIn(any())).thenReturn(List.of(student("S1"), student("S2")));
+        Attendance existing = new Attendance();
+        existing.setStudent(new Attendance.StudentInfo());
+        existing.getStudent().setStudentId("S2");
+        existing.setStatus("ABSENT");
+        when(attendanceRepository.findStatusesByCourseCodeAndDateAndStudentIdIn(eq("CS101"), eq(date), any()))
+                .thenReturn(List.of(existing));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)).thenReturn(bulkOperations);
+
+        Map<String, String> statuses = new LinkedHashMap<>();
+        statuses.put("S1", "present");
+        statuses.put("S2", "LATE");
+        statuses.put("S3", "PRESENT");
+        statuses.put("S4", "SLEEPING");
+        Map<String, Object> response = attendanceService.markRosterAttendance("CS101", date, statuses, "teacher");
+
+        verify(bulkOperations, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+        assertThat(response).containsEntry("markedCount", 2).containsEntry("totalStudents", 4);
+        assertThat((List<Map<String, Object>>) response.get("results"))
+                .extracting(r -> r.get("result"))
+                .containsExactly("CREATED", "UPDATED", "STUDENT_NOT_FOUND", "INVALID_STATUS");
+
+        ArgumentCaptor<List<Attendance>> removed = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Attendance>> added = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRollupService).apply(removed.capture(), added.capture());
+        assertThat(removed.getValue()).extracting(Attendance::getStatus).containsExactly("ABSENT");
+        assertThat(added.getValue()).extracting(Attendance::getStatus).containsExactly("PRESENT", "LATE");
+        verify(attendanceMatrixService).apply(removed.getValue(), added.getValue());
+    }
+
+    @Test
+    @DisplayName("should reject a roster for an unknown course")
+    void markRosterAttendance_unknownCourse() {
+        when(courseRepository.findByCourseCode("NOPE")).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> attendanceService.markRosterAttendance("NOPE", LocalDate.now(), Map.of("S1", "PRESENT"), null))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should fold duplicate gate scans into one upsert and publish only created records")
+    @SuppressWarnings("unchecked")
+    void recordGateScans_coalescesDuplicates() {
+        Course course = new Course();
+        course.setCourseCode("CS101");
+        when(courseRepository.findByCourseCode("CS101")).thenReturn(Optional.of(course));
+        when(studentRepository.findSnapshotsByStudentIdIn(any())).thenReturn(List.of(student("S1"), student("S2")));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1,
+                List.of(new BulkWriteUpsert(1, new BsonString("new-id"))), List.of()));
+
+        LocalDateTime bell = LocalDateTime.of(2025, 3, 3, 8, 0);
+        Map<String, Object> summary = attendanceService.recordGateScans(List.of(
+                gateScan("S1", "IN", bell.plusMinutes(2)),
+                gateScan("S1", "IN", bell),
+                gateScan("S2", "IN", bell),
+                gateScan("S1", "OUT", bell.plusHours(6)),
+                gateScan("S9", "IN", bell)));
+
+        assertThat(summary).containsEntry("scans", 5).containsEntry("records", 2)
+                .containsEntry("created", 1).containsEntry("unknown", 1);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(any(Query.class), updates.capture());
+        Document first = updates.getAllValues().get(0).getUpdateObject();
+        assertThat(first.get("$min", Document.class)).containsEntry("checkInTime", bell);
+        assertThat(first.get("$max", Document.class)).containsEntry("checkOutTime", bell.plusHours(6));
+
+        ArgumentCaptor<List<Attendance>> added = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRollupService).apply(eq(List.of()), added.capture());
+        assertThat(added.getValue()).extracting(a -> a.getStudent().getStudentId()).containsExactly("S2");
+    }
+
+    @Test
+    @DisplayName("should publish what a partly failed gate scan bulk created and rethrow the failure")
+    @SuppressWarnings("unchecked")
+    void recordGateScans_rethrowsBulkFailure() {
+        Course course = new Course();
+        course.setCourseCode("CS101");
+        when(courseRepository.findByCourseCode("CS101")).thenReturn(Optional.of(course));
+        when(studentRepository.findSnapshotsByStudentIdIn(any())).thenReturn(List.of(student("S1"), student("S2")));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)).thenReturn(bulkOperations);
+        BulkWriteResult partial = BulkWriteResult.acknowledged(0, 0, 0, 0,
+                List.of(new BulkWriteUpsert(0, new BsonString("new-id"))), List.of());
+        BulkOperationException failure = new BulkOperationException("bulk failed", new MongoBulkWriteException(
+                partial, List.of(new BulkWriteError(11000, "duplicate", new BsonDocument(), 1)),
+                null, new ServerAddress(), Set.of()));
+        when(bulkOperations.execute()).thenThrow(failure);
+
+        LocalDateTime bell = LocalDateTime.of(2025, 3, 3, 8, 0);
+        assertThatThrownBy(() -> attendanceService.recordGateScans(List.of(
+                gateScan("S1", "IN", bell), gateScan("S2", "IN", bell))))
+                .isSameAs(failure);
+
+        ArgumentCaptor<List<Attendance>> added = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRollupService).apply(eq(List.of()), added.capture());
+        assertThat(added.getValue()).extracting(a -> a.getStudent().getStudentId()).containsExactly("S1");
+    }
+
+    @Test
+    @DisplayName("should dedupe operation ids and resolve offline marks last-writer-wins")
+    @SuppressWarnings("unchecked")
+    void syncAttendance_idempotentLastWriterWins() {
+        LocalDate day1 = LocalDate.of(2025, 3, 3);
+        LocalDate day2 = LocalDate.of(2025, 3, 4);
+        LocalDateTime eight = LocalDateTime.of(2025, 3, 3, 8, 0);
+        IdempotencyRecord seen = new IdempotencyRecord();
+        seen.setOperationId("op4");
+        seen.setStatus(IdempotencyRecord.STATUS_COMPLETED);
+        seen.setResult("CREATED");
+        when(idempotencyService.find(eq("attendance-sync"), any())).thenReturn(Map.of("op4", seen));
+        when(idempotencyService.claim(eq("attendance-sync"), any()))
+                .thenAnswer(invocation -> new LinkedHashSet<>((Collection<String>) invocation.getArgument(1)));
+        when(studentRepository.findSnapshotsByStudentIdIn(any())).thenReturn(List.of(student("S1"), student("S2")));
+        Course course = new Course();
+        course.setCourseCode("CS101");
+        when(courseRepository.findByCourseCode("CS101")).thenReturn(Optional.of(course));
+        when(mongoTemplate.find(any(Query.class), eq(Attendance.class)))
+                .thenReturn(List.of(stored("S1", day1, "ABSENT", eight), stored("S1", day2, "PRESENT", eight)));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1,
+                List.of(new BulkWriteUpsert(1, new BsonString("new-id"))), List.of()));
+
+        Map<String, Object> response = attendanceService.syncAttendance(List.of(
+                syncItem("op1", "S1", day1, "present", eight.plusHours(1)),
+                syncItem("op2", "S2", day1, "LATE", eight.plusHours(1)),
+                syncItem("op3", "S2", day1, "PRESENT", eight.plusHours(1).plusMinutes(5)),
+                syncItem("op4", "S2", day2, "PRESENT", eight),
+                syncItem("op1", "S1", day1, "PRESENT", eight.plusHours(1)),
+                syncItem("op5", "S1", day1, "BOGUS", eight),
+                syncItem("op6", "S1", day2, "ABSENT", eight.minusHours(1))), "teacher");
+
+        assertThat((List<Map<String, Object>>) response.get("results"))
+                .extracting(r -> r.get("result"))
+                .containsExactly("UPDATED", "STALE", "CREATED", "DUPLICATE", "DUPLICATE", "INVALID", "STALE");
+        assertThat(response).containsEntry("appliedCount", 2L);
+        verify(bulkOperations, times(2)).upsert(any(Query.class), any(Update.class));
+
+        ArgumentCaptor<List<Attendance>> removed = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Attendance>> added = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRollupService).apply(removed.capture(), added.capture());
+        assertThat(removed.getValue()).extracting(Attendance::getStatus).containsExactly("ABSENT");
+        assertThat(added.getValue()).extracting(Attendance::getStatus).containsExactly("PRESENT", "PRESENT");
+        verify(idempotencyService).complete("attendance-sync",
+                Map.of("op1", "UPDATED", "op2", "STALE", "op3", "CREATED", "op6", "STALE"));
+        verify(idempotencyService).release("attendance-sync", List.of());
+    }
+
+    @Test
+    @DisplayName("should release every claim when the sync fails outside the bulk write")
+    @SuppressWarnings("unchecked")
+    void syncAttendance_releasesClaimsOnFailure() {
+        when(idempotencyService.find(eq("attendance-sync"), any())).thenReturn(Map.of());
+        when(idempotencyService.claim(eq("attendance-sync"), any()))
+                .thenAnswer(invocation -> new LinkedHashSet<>((Collection<String>) invocation.getArgument(1)));
+        when(studentRepository.findSnapshotsByStudentIdIn(any())).thenReturn(List.of(student("S1")));
+        Course course = new Course();
+        course.setCourseCode("CS101");
+        when(courseRepository.findByCourseCode("CS101")).thenReturn(Optional.of(course));
+        when(mongoTemplate.find(any(Query.class), eq(Attendance.class))).thenReturn(List.of());
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("timeout"));
+        LocalDateTime eight = LocalDateTime.of(2025, 3, 3, 8, 0);
+
+        assertThatThrownBy(() -> attendanceService.syncAttendance(List.of(
+                syncItem("op1", "S1", LocalDate.of(2025, 3, 3), "PRESENT", eight),
+                syncItem("op2", "S1", LocalDate.of(2025, 3, 4), "ABSENT", eight)), "teacher"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(idempotencyService, never()).complete(any(), any());
+        verify(idempotencyService).release("attendance-sync", List.of("op1", "op2"));
+    }
+
+    private static AttendanceSyncItem syncItem(String operationId, String studentId, LocalDate date,
+            String status, LocalDateTime markedAt) {
+        AttendanceSyncItem item = new AttendanceSyncItem();
+        item.setOperationId(operationId);
+        item.setStudentId(studentId);
+        item.setCourseCode("CS101");
+        item.setDate(date);
+        item.setStatus(status);
+        item.setMarkedAt(markedAt);
+        return item;
+    }
+
+    private static Attendance stored(String studentId, LocalDate date, String status, LocalDateTime markedAt) {
+        Attendance attendance = new Attendance();
+        attendance.setStudent(new Attendance.StudentInfo());
+        attendance.getStudent().setStudentId(studentId);
+        attendance.setCourse(new Attendance.CourseInfo());
+        attendance.getCourse().setCourseCode("CS101");
+        attendance.setDate(date);
+        attendance.setStatus(status);
+        attendance.setMarkedAt(markedAt);
+        return attendance;
+    }
+
+    private static GateScanRequest gateScan(String studentId, String direction, LocalDateTime scannedAt) {
+        GateScanRequest scan = new GateScanRequest();
+        scan.setStudentId(studentId);
+        scan.setCourseCode("CS101");
+        scan.setDirection(direction);
+        scan.setScannedAt(scannedAt);
+        return scan;
+    }
+
+    private static Student student(String studentId) {
+        Student student = new Student();
+        student.setStudentId(studentId);
+        Student.UserInfo user = new Student.UserInfo();
+        user.setFirstName("First");
+        user.setLastName("Last");
+        student.setUser(user);
+        return student;
+    }
+
+    private void aggregateReturns(List<Document> documents) {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(documents, new Document()));
+    }
+
+    private static AttendanceRollup rollup(Map<String, Long> statusCounts) {
+        AttendanceRollup rollup = new AttendanceRollup();
+        rollup.setStatusCounts(new HashMap<>(statusCounts));
+        rollup.setTotal(statusCounts.values().stream().mapToLong(Long::longValue).sum());
+        return rollup;
+    }
+
+    private static Document status(String status, int count) {
+        return new Document("_id", status).append("count", count);
+    }
+
+    private static Document day(LocalDate date, int total, int present) {
+        Date id = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new Document("_id", id).append("total", total).append("present", present);
+    }
+}
@@ -0,0 +1,158 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.CursorPage;
+import com.eduai.schoolmanagement.entity.Transaction;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CursorPaginatorTest {
+    private static final String COLLECTION = "transactions";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CursorPaginator cursorPaginator;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        lenient().when(mongoTemplate.getConverter()).thenReturn(converter);
+        lenient().when(mongoTemplate.getCollectionName(Transaction.class)).thenReturn(COLLECTION);
+        cursorPaginator = new CursorPaginator(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should read one row past the page to decide whether a next cursor is needed")
+    void page_returnsCursorOnlyWhenMoreRows() {
+        ObjectId a = new ObjectId(), b = new ObjectId(), c = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(List.of(row(a, null), row(b, null), row(c, null)))
+                .thenReturn(List.of(row(c, null)));
+
+        CursorPage<Transaction> first = cursorPaginator.page(Transaction.class, null, null, 2);
+        assertThat(first.getItems()).extracting(Transaction::getTransactionId)
+                .containsExactly(a.toHexString(), b.toHexString());
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CursorPage<Transaction> second = cursorPaginator.page(Transaction.class, null, first.getNextCursor(), 2);
+        assertThat(second.getItems()).hasSize(1);
+        assertThat(second.getNextCursor()).isNull();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Document.class), eq(COLLECTION));
+        assertThat(queries.getAllValues().get(0).getLimit()).isEqualTo(3);
+        assertThat(queries.getAllValues().get(0).getSortObject()).isEqualTo(new Document("_id", 1));
+        // Seeks past the last row returned instead of skipping
+        assertThat(queries.getAllValues().get(1).getQueryObject())
+                .isEqualTo(new Document("_id", new Document("$gt", b)));
+    }
+
+    @Test
+    @DisplayName("should seek on (sortKey, _id) with the stored value type and keep the caller's filter")
+    void page_seeksOnSortKeyAndId() {
+        ObjectId a = new ObjectId(), b = new ObjectId();
+        LocalDateTime created = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Date stored = Date.from(created.atZone(ZoneId.systemDefault()).toInstant());
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(List.of(row(a, stored), row(b, stored)))
+                .thenReturn(List.of());
+        Criteria institution = Criteria.where("institutionId").is("inst-1");
+
+        CursorPage<Transaction> first = cursorPaginator.page(Transaction.class, institution, "createdDate",
+                Sort.Direction.DESC, null, 1);
+        assertThat(first.getItems().get(0).getCreatedDate()).isEqualTo(created);
+        cursorPaginator.page(Transaction.class, Criteria.where("institutionId").is("inst-1"), "createdDate",
+                Sort.Direction.DESC, first.getNextCursor(), 1);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Document.class), eq(COLLECTION));
+        assertThat(queries.getAllValues().get(0).getSortObject())
+                .isEqualTo(new Document("createdDate", -1).append("_id", -1));
+        Document seek = queries.getAllValues().get(1).getQueryObject();
+        List<?> and = seek.getList("$and", Object.class);
+        assertThat(and.get(0)).isEqualTo(new Document("institutionId", "inst-1"));
+        List<Document> or = ((Document) and.get(1)).getList("$or", Document.class);
+        assertThat(or).containsExactly(
+                new Document("createdDate", new Document("$lt", stored)),
+                new Document("$and", List.of(new Document("createdDate", stored),
+                        new Document("_id", new Document("$lt", a)))),
+                new Document("createdDate", null));
+    }
+
+    @Test
+    @DisplayName("should reject tampered cursors, cursors from another sort and non-positive limits, and cap large ones")
+    void page_validatesCursorAndLimit() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(List.of(row(new ObjectId(), null), row(new ObjectId(), null)));
+        String cursor = cursorPaginator.page(Transaction.class, null, null, 1).getNextCursor();
+
+        assertThatThrownBy(() -> cursorPaginator.page(Transaction.class, null, "not-a-cursor", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cursorPaginator.page(Transaction.class, null, "createdDate",
+                Sort.Direction.DESC, cursor, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cursorPaginator.page(Transaction.class, null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(cursorPaginator.pageSize(10_000)).isEqualTo(500);
+        assertThat(cursorPaginator.pageSize(null)).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("should cap a first page requested without a limit at the default size and hand out a cursor")
+    void page_defaultLimitOnFirstPage() {
+        List<Document> rows = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            rows.add(row(new ObjectId(), null));
+        }
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(rows);
+
+        CursorPage<Transaction> page = cursorPaginator.page(Transaction.class, null, null, null);
+        assertThat(page.getItems()).hasSize(50);
+        assertThat(page.getNextCursor()).isNotNull();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq(COLLECTION));
+        assertThat(query.getValue().getLimit()).isEqualTo(51);
+    }
+
+    private static Document row(ObjectId id, Date createdDate) {
+        Document row = new Document("_id", id).append("institutionId", "inst-1");
+        if (createdDate != null) {
+            row.append("createdDate", createdDate);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,167 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.AccessCode;
+import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.Invoice;
+import com.eduai.schoolmanagement.entity.SchedulerCheckpoint;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineSchedulerTest {
+    private static final long MINUTE = 60_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private DeadlineScheduler deadlineScheduler;
+
+    @BeforeEach
+    void setUp() {
+        deadlineScheduler = new DeadlineScheduler(mongoTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("timing wheel should fire each timer on the first tick at or after its deadline, across all levels")
+    void timingWheel_firesAtDeadline() {
+        long start = millis(NOW);
+        TimingWheel<String> wheel = new TimingWheel<>(MINUTE, start);
+        wheel.schedule("minutes", start + 5 * MINUTE, "minutes");
+        wheel.schedule("hours", start + 90 * MINUTE, "hours");
+        wheel.schedule("days", start + 3 * 24 * 60 * MINUTE + 30_000, "days");
+        wheel.schedule("moved", start + 10 * MINUTE, "moved");
+        wheel.schedule("moved", start + 200 * MINUTE, "moved");
+        wheel.schedule("cancelled", start + 20 * MINUTE, "cancelled");
+        wheel.cancel("cancelled");
+
+        assertThat(wheel.advance(start + 4 * MINUTE)).isEmpty();
+        assertThat(keys(wheel.advance(start + 5 * MINUTE))).containsExactly("minutes");
+        assertThat(keys(wheel.advance(start + 89 * MINUTE))).isEmpty();
+        assertThat(keys(wheel.advance(start + 90 * MINUTE))).containsExactly("hours");
+        assertThat(keys(wheel.advance(start + 200 * MINUTE))).containsExactly("moved");
+        // Rounded up to the next tick, never early
+        assertThat(keys(wheel.advance(start + 3 * 24 * 60 * MINUTE))).isEmpty();
+        assertThat(keys(wheel.advance(start + (3 * 24 * 60 + 1) * MINUTE))).containsExactly("days");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should fire deadlines that passed while down once on the first tick and move the checkpoint")
+    void rebuild_catchesUpFromCheckpoint() {
+        SchedulerCheckpoint checkpoint = new SchedulerCheckpoint();
+        checkpoint.setFiredThrough(NOW.minusHours(2));
+        when(mongoTemplate.findById(DeadlineScheduler.CHECKPOINT_ID, SchedulerCheckpoint.class)).thenReturn(checkpoint);
+        when(mongoTemplate.stream(any(Query.class), eq(Assignment.class))).thenReturn(Stream.of(
+                assignment("a1", NOW.minusHours(1)), assignment("a2", NOW.plusHours(30))));
+        when(mongoTemplate.stream(any(Query.class), eq(Invoice.class))).thenReturn(Stream.of());
+        when(mongoTemplate.stream(any(Query.class), eq(AccessCode.class))).thenReturn(Stream.of());
+
+        assertThat(deadlineScheduler.rebuild(millis(NOW))).isEqualTo(3);
+        assertThat(deadlineScheduler.tick(millis(NOW))).isEqualTo(1);
+
+        ArgumentCaptor<DeadlineEvent> event = ArgumentCaptor.forClass(DeadlineEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().sourceId()).isEqualTo("a1");
+        assertThat(event.getValue().kind()).isEqualTo(DeadlineEvent.OVERDUE);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(SchedulerCheckpoint.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("firedThrough"))
+                .isEqualTo(NOW);
+
+        // a2 is due in 30 hours, so its DUE_SOON timer fires six hours from now
+        assertThat(deadlineScheduler.tick(millis(NOW.plusHours(6)))).isEqualTo(1);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        assertThat(event.getValue().sourceId()).isEqualTo("a2");
+        assertThat(event.getValue().kind()).isEqualTo(DeadlineEvent.DUE_SOON);
+    }
+
+    @Test
+    @DisplayName("should move an assignment's timers when its due date changes and drop them when it is deleted")
+    void scheduleAssignment_followsDueDate() {
+        when(mongoTemplate.stream(any(Query.class), any(Class.class))).thenAnswer(invocation -> Stream.of());
+        long now = System.currentTimeMillis();
+        deadlineScheduler.rebuild(now);
+
+        Assignment assignment = assignment("a1", LocalDateTime.now().plusDays(3));
+        deadlineScheduler.scheduleAssignment(assignment);
+        assertThat(deadlineScheduler.getPendingCount()).isEqualTo(2);
+
+        // Pushed out by a week: nothing fires at the old due date
+        assignment.setDueDate(assignment.getDueDate().plusWeeks(1));
+        deadlineScheduler.scheduleAssignment(assignment);
+        assertThat(deadlineScheduler.getPendingCount()).isEqualTo(2);
+        assertThat(deadlineScheduler.tick(now + 4 * 24 * 60 * MINUTE)).isZero();
+
+        deadlineScheduler.cancelAssignment("a1");
+        assertThat(deadlineScheduler.getPendingCount()).isZero();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("should only time an invoice once it is sent, and only let a sent invoice turn overdue")
+    void scheduleInvoice_onlySentInvoices() {
+        when(mongoTemplate.stream(any(Query.class), any(Class.class))).thenAnswer(invocation -> Stream.of());
+        deadlineScheduler.rebuild(System.currentTimeMillis());
+
+        Invoice invoice = new Invoice();
+        invoice.setId("i1");
+        invoice.setInvoiceNumber("INV-1");
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        invoice.setPaymentStatus("UNPAID");
+        invoice.setStatus("DRAFT");
+        deadlineScheduler.scheduleInvoice(invoice);
+        assertThat(deadlineScheduler.getPendingCount()).isZero();
+
+        invoice.setStatus("SENT");
+        deadlineScheduler.scheduleInvoice(invoice);
+        assertThat(deadlineScheduler.getPendingCount()).isEqualTo(2);
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.updateFirst(guard.capture(), any(Update.class), eq(Invoice.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        new DeadlineEventHandler(mongoTemplate).onDeadline(new DeadlineEvent(DeadlineEvent.INVOICE, "i1",
+                DeadlineEvent.OVERDUE, "INV-1", LocalDateTime.now()));
+        assertThat(guard.getValue().getQueryObject().get("status")).isEqualTo("SENT");
+    }
+
+    private static Assignment assignment(String id, LocalDateTime dueDate) {
+        Assignment assignment = new Assignment();
+        assignment.setId(id);
+        assignment.setTitle("Essay " + id);
+        assignment.setDueDate(dueDate);
+        return assignment;
+    }
+
+    private static List<String> keys(List<TimingWheel.Timer<String>> timers) {
+        return timers.stream().map(timer -> timer.payload).toList();
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,164 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.GateScanRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GateScanIngestServiceTest {
+    @Mock
+    private AttendanceService attendanceService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private GateScanIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        ingestService = new GateScanIngestService(attendanceService, mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ingestService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(ingestService, "batchSize", 1);
+        ReflectionTestUtils.setField(ingestService, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(ingestService, "retryBackoffMs", 1L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestService.stop();
+    }
+
+    @Test
+    @DisplayName("should accept only what fits while the flusher is busy")
+    void submit_backpressureWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(attendanceService.recordGateScans(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of();
+        });
+        ingestService.start();
+
+        assertThat(ingestService.submit(List.of(scan("S1", "in")))).isEqualTo(1);
+        verify(attendanceService, timeout(1000)).recordGateScans(anyList());
+
+        // Flusher is blocked on the first batch; the queue holds two more
+        assertThat(ingestService.submit(List.of(scan("S2", "IN"), scan("S3", "IN"), scan("S4", "OUT")))).isEqualTo(2);
+        release.countDown();
+        verify(attendanceService, timeout(1000).times(3)).recordGateScans(anyList());
+    }
+
+    @Test
+    @DisplayName("should reject a malformed scan before enqueueing anything")
+    void submit_rejectsInvalidDirection() {
+        ingestService.start();
+        assertThatThrownBy(() -> ingestService.submit(List.of(scan("S1", "IN"), scan("S2", "SIDEWAYS"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ingestService.getQueueSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("should retry a failed write and park the batch once retries run out")
+    void flush_retriesThenParks() {
+        when(attendanceService.recordGateScans(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Map.of())
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ingestService.start();
+
+        ingestService.submit(List.of(scan("S1", "IN")));
+        verify(attendanceService, timeout(1000).times(2)).recordGateScans(anyList());
+        verify(mongoTemplate, never()).insert(anyList(), anyString());
+
+        ingestService.submit(List.of(scan("S2", "IN")));
+        verify(mongoTemplate, timeout(1000)).insert(argThat((List<GateScanRequest> scans) ->
+                scans.size() == 1 && "S2".equals(scans.get(0).getStudentId())),
+                eq(GateScanIngestService.DEAD_LETTER_COLLECTION));
+        verify(attendanceService, times(6)).recordGateScans(anyList());
+    }
+
+    @Test
+    @DisplayName("should write parked scans back and only then remove them")
+    void replayDeadLetters_flushesParkedScans() {
+        ingestService.start();
+        ObjectId id = new ObjectId();
+        stubParked(id, scan("S1", "IN"));
+        when(attendanceService.recordGateScans(anyList())).thenReturn(Map.of());
+
+        ingestService.replayDeadLetters();
+
+        InOrder inOrder = inOrder(attendanceService, mongoTemplate);
+        inOrder.verify(attendanceService).recordGateScans(List.of(scan("S1", "IN")));
+        inOrder.verify(mongoTemplate).remove(argThat((Query query) ->
+                        query.getQueryObject().toJson().contains(id.toHexString())),
+                eq(GateScanIngestService.DEAD_LETTER_COLLECTION));
+    }
+
+    @Test
+    @DisplayName("should keep parked scans that still cannot be written")
+    void replayDeadLetters_keepsScansOnFailure() {
+        ingestService.start();
+        stubParked(new ObjectId(), scan("S1", "IN"));
+        when(attendanceService.recordGateScans(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        ingestService.replayDeadLetters();
+
+        verify(attendanceService, times(4)).recordGateScans(anyList());
+        verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+        verify(mongoTemplate, never()).insert(anyList(), anyString());
+    }
+
+    private void stubParked(ObjectId id, GateScanRequest scan) {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+
+        Document parked = new Document("_id", id)
+                .append("studentId", scan.getStudentId())
+                .append("courseCode", scan.getCourseCode())
+                .append("direction", scan.getDirection());
+        when(mongoTemplate.find(any(Query.class), eq(Document.class),
+                eq(GateScanIngestService.DEAD_LETTER_COLLECTION))).thenReturn(List.of(parked));
+    }
+
+    private static GateScanRequest scan(String studentId, String direction) {
+        GateScanRequest scan = new GateScanRequest();
+        scan.setStudentId(studentId);
+        scan.setCourseCode("CS101");
+        scan.setDirection(direction);
+        return scan;
+    }
+}
@@ -0,0 +1,123 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.CourseRef;
+import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.GradeRollup;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.repository.GradeRollupRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpaServiceTest {
+    @Mock
+    private GradeRollupRepository gradeRollupRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private RankingService rankingService;
+    @InjectMocks
+    private GpaService gpaService;
+
+    @Test
+    @DisplayName("should map percentages to grade points on the letter grade bands")
+    void gradePoints_bands() {
+        assertThat(GpaService.gradePoints(95)).isEqualTo(4.0);
+        assertThat(GpaService.gradePoints(85)).isEqualTo(3.0);
+        assertThat(GpaService.gradePoints(60)).isEqualTo(0.7);
+        assertThat(GpaService.gradePoints(59.9)).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("should apply a regrade as a delta and refresh the student's credit-weighted GPA")
+    void apply_regradeUpdatesRollupAndStudent() {
+        Grade before = grade(50, 2, "GRADED");
+        Grade after = grade(90, 2, "GRADED");
+        BulkOperations rollupOps = mock(BulkOperations.class);
+        BulkOperations studentOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradeRollup.class)).thenReturn(rollupOps);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class)).thenReturn(studentOps);
+        when(gradeRollupRepository.findByStudentIdIn(any())).thenReturn(List.of(
+                rollup("MATH101", 3, 95 * 4.0, 4.0),
+                rollup("ART101", 1, 85 * 2.0, 2.0)));
+
+        gpaService.apply(List.of(before), List.of(after));
+
+        ArgumentCaptor<Update> rollupUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(rollupOps).upsert(any(Query.class), rollupUpdate.capture());
+        Document inc = rollupUpdate.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("weightedPercentage", 80.0)
+                .containsEntry("totalWeight", 0.0)
+                .containsEntry("gradeCount", 0L);
+
+        ArgumentCaptor<Update> studentUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(studentOps).updateOne(any(Query.class), studentUpdate.capture());
+        Document set = studentUpdate.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.get("currentGPA")).isEqualTo(3.75);
+        assertThat(set.get("aiInsights.subjectPerformance")).isEqualTo(Map.of("MATH101", 95.0, "ART101", 85.0));
+        verify(rankingService).update(eq("s1"), anyList());
+    }
+
+    @Test
+    @DisplayName("should ignore pending grades")
+    void apply_skipsPending() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradeRollup.class)).thenReturn(mock(BulkOperations.class));
+
+        gpaService.apply(List.of(), List.of(grade(0, 1, "PENDING")));
+
+        verifyNoInteractions(gradeRollupRepository);
+        verify(mongoTemplate, never()).bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class);
+    }
+
+    private static Grade grade(double percentage, double weight, String status) {
+        StudentRef student = new StudentRef();
+        student.setId("s1");
+        CourseRef course = new CourseRef();
+        course.setId("c1");
+        course.setCourseCode("MATH101");
+        course.setCredits(3);
+        AssignmentRef assignment = new AssignmentRef();
+        assignment.setId("a1");
+        assignment.setWeight(weight);
+        Grade grade = new Grade();
+        grade.setId("g1");
+        grade.setStudent(student);
+        grade.setCourse(course);
+        grade.setAssignment(assignment);
+        grade.setPercentage(percentage);
+        grade.setStatus(status);
+        return grade;
+    }
+
+    private static GradeRollup rollup(String courseCode, int credits, double weightedPercentage, double totalWeight) {
+        GradeRollup rollup = new GradeRollup();
+        rollup.setStudentId("s1");
+        rollup.setCourseCode(courseCode);
+        rollup.setCredits(credits);
+        rollup.setWeightedPercentage(weightedPercentage);
+        rollup.setTotalWeight(totalWeight);
+        rollup.setGradeCount(2);
+        return rollup;
+    }
+}
@@ -0,0 +1,107 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.Grade;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.repository.GradeRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradeServiceTest {
+    @Mock
+    private GradeRepository gradeRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private GpaService gpaService;
+    @InjectMocks
+    private GradeService gradeService;
+
+    @Test
+    @DisplayName("should build course analytics from one facet result without loading grades")
+    @SuppressWarnings("unchecked")
+    void getCourseGradeAnalytics_fromFacets() {
+        String courseId = new ObjectId().toHexString();
+        Course course = new Course();
+        course.setId(courseId);
+        Document facets = new Document("totals", List.of(new Document("totalGrades", 5)
+                        .append("pendingGrades", 1).append("gradedCount", 4).append("passingGrades", 3)))
+                .append("graded", List.of(new Document("gradedGrades", 4)
+                        .append("averageScore", 77.456).append("averagePercentage", 81.234)))
+                .append("letters", List.of(new Document("_id", "A").append("count", 2),
+                        new Document("_id", "F").append("count", 1)));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+
+        Map<String, Object> analytics = gradeService.getCourseGradeAnalytics(course);
+
+        assertThat(analytics).containsEntry("totalGrades", 5)
+                .containsEntry("gradedGrades", 4)
+                .containsEntry("averageScore", 77.46)
+                .containsEntry("averagePercentage", 81.23)
+                .containsEntry("pendingGrades", 1L)
+                .containsEntry("gradedCount", 4L)
+                .containsEntry("passingRate", 75.0)
+                .containsEntry("letterGradeDistribution", Map.of("A", 2L, "F", 1L));
+        verifyNoInteractions(gradeRepository);
+
+        ArgumentCaptor<TypedAggregation<?>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Document.class));
+        Document match = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0);
+        assertThat(match.get("$match", Document.class)).containsEntry("course._id", new ObjectId(courseId));
+    }
+
+    @Test
+    @DisplayName("should report no grades when the facets are empty")
+    void getCourseGradeAnalytics_empty() {
+        Course course = new Course();
+        course.setId("not-an-object-id");
+        Document facets = new Document("totals", List.of()).append("graded", List.of()).append("letters", List.of());
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+
+        assertThat(gradeService.getCourseGradeAnalytics(course))
+                .containsEntry("message", "No grades available for analysis");
+    }
+
+    @Test
+    @DisplayName("should pass the stored and saved versions of a grade to the GPA rollups")
+    void updateGrade_appliesGpaDelta() {
+        Grade stored = new Grade();
+        stored.setId("g1");
+        stored.setPercentage(70);
+        Grade changed = new Grade();
+        changed.setStudent(new StudentRef());
+        changed.setAssignment(new AssignmentRef());
+        changed.setPercentage(91);
+        when(gradeRepository.findById("g1")).thenReturn(Optional.of(stored));
+        when(gradeRepository.save(changed)).thenReturn(changed);
+
+        Grade saved = gradeService.updateGrade("g1", changed);
+
+        assertThat(saved.getLetterGrade()).isEqualTo("A-");
+        verify(gpaService).apply(List.of(stored), List.of(changed));
+    }
+}
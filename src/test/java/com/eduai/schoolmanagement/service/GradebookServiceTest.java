@@ -0,0 +1,87 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Course;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradebookServiceTest {
+    private static final ObjectId A1 = new ObjectId();
+    private static final ObjectId A2 = new ObjectId();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @InjectMocks
+    private GradebookService gradebookService;
+
+    @Test
+    @DisplayName("should merge roster and sorted grades into a dense matrix")
+    void writeGradebook_mergesRosterAndGrades() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("assignments"))).thenReturn(List.of(
+                new Document("_id", A1).append("title", "Quiz 1").append("type", "QUIZ").append("maxScore", 10.0),
+                new Document("_id", A2).append("title", "Essay").append("type", "HOMEWORK").append("maxScore", 20.0)));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("grades"))).thenReturn(Stream.of(
+                grade("S2", A2, 18, "A-"),
+                grade("S2", A1, 7, "C-"),
+                grade("S9", A1, 10, "A+")));
+        Course course = new Course();
+        course.setId(new ObjectId().toHexString());
+        course.setCourseCode("MATH101");
+        course.setEnrolledStudents(List.of(student("S3"), student("S1"), student("S2")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = gradebookService.writeGradebook(course, out);
+
+        assertThat(rows).isEqualTo(4);
+        JsonNode gradebook = objectMapper.readTree(out.toByteArray());
+        assertThat(gradebook.get("assignments")).hasSize(2);
+        JsonNode matrix = gradebook.get("rows");
+        assertThat(matrix.get(0).get(0).asText()).isEqualTo("S1");
+        assertThat(matrix.get(0).get(4).get(0).isNull()).isTrue();
+        assertThat(matrix.get(1).get(0).asText()).isEqualTo("S2");
+        assertThat(matrix.get(1).get(4).get(0).get(2).asText()).isEqualTo("C-");
+        assertThat(matrix.get(1).get(4).get(1).get(0).asDouble()).isEqualTo(18.0);
+        assertThat(matrix.get(2).get(0).asText()).isEqualTo("S3");
+        // Graded but no longer enrolled
+        assertThat(matrix.get(3).get(0).asText()).isEqualTo("S9");
+        assertThat(matrix.get(3).get(3).asBoolean()).isFalse();
+    }
+
+    private static Document grade(String studentId, ObjectId assignmentId, double score, String letterGrade) {
+        return new Document("student", new Document("studentId", studentId).append("firstName", "F").append("lastName", "L"))
+                .append("assignment", new Document("_id", assignmentId))
+                .append("score", score)
+                .append("letterGrade", letterGrade)
+                .append("status", "GRADED");
+    }
+
+    private static Course.StudentInfo student(String studentId) {
+        Course.StudentInfo student = new Course.StudentInfo();
+        student.setStudentId(studentId);
+        student.setFirstName("First " + studentId);
+        student.setLastName("Last " + studentId);
+        return student;
+    }
+}
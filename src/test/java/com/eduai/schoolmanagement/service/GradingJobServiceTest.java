@@ -0,0 +1,185 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.AIGradingRequest;
+import com.eduai.schoolmanagement.dto.AIGradingResult;
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.GradingJob;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.repository.AssignmentRepository;
+import com.eduai.schoolmanagement.repository.GradeRepository;
+import com.eduai.schoolmanagement.repository.GradingJobRepository;
+import com.eduai.schoolmanagement.repository.SubmissionRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradingJobServiceTest {
+    @Mock
+    private GradingJobRepository gradingJobRepository;
+    @Mock
+    private GradeRepository gradeRepository;
+    @Mock
+    private SubmissionRepository submissionRepository;
+    @Mock
+    private AssignmentRepository assignmentRepository;
+    @Mock
+    private GradeService gradeService;
+    @Mock
+    private SubmissionService submissionService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final StubModel model = new StubModel();
+    private GradingJobService gradingJobService;
+
+    @BeforeEach
+    void setUp() {
+        gradingJobService = new GradingJobService(gradingJobRepository, gradeRepository, submissionRepository,
+                assignmentRepository, gradeService, submissionService, mongoTemplate, List.of(model));
+        ReflectionTestUtils.setField(gradingJobService, "threads", 1);
+        ReflectionTestUtils.setField(gradingJobService, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(gradingJobService, "defaultModel", "stub");
+        gradingJobService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gradingJobService.stop();
+    }
+
+    @Test
+    @DisplayName("should retry a failed model call and record the graded item with its attempts")
+    void runItem_retriesThenRecords() {
+        model.failuresLeft.set(1);
+        Submission submission = new Submission();
+        submission.setId("sub1");
+        submission.setTextContent("An essay.");
+        submission.setMaxScore(10.0);
+        AssignmentRef assignment = new AssignmentRef();
+        assignment.setId("a1");
+        submission.setAssignment(assignment);
+        when(submissionRepository.findById("sub1")).thenReturn(Optional.of(submission));
+        GradingJob progress = new GradingJob();
+        progress.setTotal(2);
+        progress.setSucceeded(1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(GradingJob.class))).thenReturn(progress);
+
+        gradingJobService.runItem(job("job1"), "sub1");
+
+        assertThat(model.calls.get()).isEqualTo(2);
+        verify(submissionService).applyAIGrading(eq(submission), any(AIGradingResult.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(GradingJob.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("succeeded", 1).containsEntry("retries", 1);
+        GradingJob.ItemResult result = (GradingJob.ItemResult) update.getValue().getUpdateObject()
+                .get("$push", Document.class).get("results");
+        assertThat(result.getStatus()).isEqualTo(GradingJob.ITEM_GRADED);
+        assertThat(result.getAttempts()).isEqualTo(2);
+        assertThat(result.getScore()).isEqualTo(8.0);
+    }
+
+    @Test
+    @DisplayName("should reject unknown target types and models")
+    void submit_rejectsUnknownTargetOrModel() {
+        assertThatThrownBy(() -> gradingJobService.submit("ESSAY", List.of("x"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> gradingJobService.submit(GradingJob.TARGET_GRADE, List.of("x"), "gpt-x"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(gradingJobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should refuse a batch larger than the free queue slots before saving its job")
+    void submit_reservesQueueSlots() throws InterruptedException {
+        gradingJobService.stop();
+        ReflectionTestUtils.setField(gradingJobService, "queueCapacity", 2);
+        gradingJobService.start();
+        when(gradingJobRepository.save(any(GradingJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThatThrownBy(() -> gradingJobService.submit(GradingJob.TARGET_SUBMISSION, List.of("a", "b", "c"), null))
+                .isInstanceOf(IllegalStateException.class);
+        verify(gradingJobRepository, never()).save(any());
+
+        gradingJobService.submit(GradingJob.TARGET_SUBMISSION, List.of("a", "b"), null);
+        verify(gradingJobRepository).save(any(GradingJob.class));
+    }
+
+    @Test
+    @DisplayName("should record items the executor refuses as failed so the job still finishes")
+    void submit_recordsRefusedItemsAsFailed() throws InterruptedException {
+        gradingJobService.stop();
+        when(gradingJobRepository.save(any(GradingJob.class))).thenAnswer(invocation -> {
+            GradingJob job = invocation.getArgument(0);
+            job.setId("job1");
+            return job;
+        });
+
+        gradingJobService.submit(GradingJob.TARGET_SUBMISSION, List.of("a", "b"), null);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(GradingJob.class));
+        assertThat(updates.getAllValues()).allSatisfy(update -> assertThat(
+                update.getUpdateObject().get("$inc", Document.class)).containsEntry("failed", 1));
+    }
+
+    private static GradingJob job(String id) {
+        GradingJob job = new GradingJob();
+        job.setId(id);
+        job.setTargetType(GradingJob.TARGET_SUBMISSION);
+        job.setModel("stub");
+        return job;
+    }
+
+    private static class StubModel implements AIGradingModel {
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return 1;
+        }
+
+        @Override
+        public AIGradingResult grade(AIGradingRequest request) {
+            calls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("model unavailable");
+            }
+            AIGradingResult result = new AIGradingResult();
+            result.setScore(request.getMaxScore() * 0.8);
+            result.setConfidence(0.9);
+            result.setModel("stub-1");
+            return result;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.GradingQueueItem;
+import com.eduai.schoolmanagement.repository.GradingQueueItemRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradingQueueServiceTest {
+    @Mock
+    private GradingQueueItemRepository gradingQueueItemRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private GradingQueueService gradingQueueService;
+
+    @BeforeEach
+    void setUp() {
+        gradingQueueService = new GradingQueueService(gradingQueueItemRepository, mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should claim items one atomic update at a time until the queue runs dry")
+    void claim_stopsWhenQueueEmpty() {
+        GradingQueueItem first = new GradingQueueItem();
+        first.setId("s1");
+        GradingQueueItem second = new GradingQueueItem();
+        second.setId("s2");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(GradingQueueItem.class))).thenReturn(first, second, null);
+
+        List<GradingQueueItem> claimed = gradingQueueService.claim("ta1", "CS101", 5);
+
+        assertThat(claimed).extracting(GradingQueueItem::getId).containsExactly("s1", "s2");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(GradingQueueItem.class));
+        // Only unleased items in the course, highest priority first
+        assertThat(query.getValue().getQueryObject()).containsEntry("courseCode", "CS101").containsKey("leaseExpiresAt");
+        assertThat(query.getValue().getSortObject().keySet()).containsExactly("dueDate", "late", "submittedAt");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsEntry("leaseOwner", "ta1");
+    }
+
+    @Test
+    @DisplayName("should cap the batch size and require a grader")
+    void claim_capsBatchAndRequiresGrader() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(GradingQueueItem.class))).thenReturn(new GradingQueueItem());
+
+        assertThat(gradingQueueService.claim("ta1", null, 1000)).hasSize(50);
+        assertThatThrownBy(() -> gradingQueueService.claim(" ", null, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.IdempotencyRecord;
+import com.eduai.schoolmanagement.repository.IdempotencyRecordRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @Test
+    @DisplayName("should not claim operation ids another request inserted first")
+    void claim_skipsDuplicateKeys() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class)).thenReturn(bulkOperations);
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("duplicate",
+                new MongoBulkWriteException(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()),
+                        List.of(duplicate), null, new ServerAddress(), Set.of())));
+
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThat(idempotencyService.claim("attendance-sync", List.of("op1", "op2", "op3")))
+                .containsExactly("op1", "op3");
+        verify(bulkOperations).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("should take over a PENDING claim whose lease has run out")
+    void claim_takesOverAbandonedClaim() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class)).thenReturn(bulkOperations);
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("duplicate",
+                new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()),
+                        List.of(duplicate), null, new ServerAddress(), Set.of())));
+        ArgumentCaptor<Query> takeover = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.updateFirst(takeover.capture(), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(idempotencyService.claim("attendance-sync", List.of("op1"))).containsExactly("op1");
+        assertThat(takeover.getValue().getQueryObject())
+                .containsEntry("_id", "attendance-sync:op1")
+                .containsEntry("status", IdempotencyRecord.STATUS_PENDING)
+                .containsKey("createdAt");
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setStatus(IdempotencyRecord.STATUS_PENDING);
+        record.setCreatedAt(LocalDateTime.now().minusHours(1));
+        assertThat(idempotencyService.isAbandoned(record)).isTrue();
+        record.setCreatedAt(LocalDateTime.now());
+        assertThat(idempotencyService.isAbandoned(record)).isFalse();
+    }
+}
@@ -2,6 +2,7 @@ package com.eduai.schoolmanagement.service;
 
 import com.eduai.schoolmanagement.entity.Parent;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.entity.User;
 import com.eduai.schoolmanagement.repository.ParentRepository;
 import com.eduai.schoolmanagement.repository.StudentRepository;
@@ -13,9 +14,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +28,8 @@ class ParentServiceTest {
     private ParentRepository parentRepository;
     @Mock
     private StudentRepository studentRepository;
+    @Mock
+    private ReferenceResolver referenceResolver;
     @InjectMocks
     private ParentService parentService;
 
@@ -69,9 +75,10 @@ class ParentServiceTest {
     @Test
     @DisplayName("should return parent by user")
     void getParentByUser_found() {
-        User user = mock(User.class);
+        User user = new User();
+        user.setId("u1");
         Parent parent = mock(Parent.class);
-        when(parentRepository.findByUser(user)).thenReturn(Optional.of(parent));
+        when(parentRepository.findByUserId("u1")).thenReturn(Optional.of(parent));
         assertThat(parentService.getParentByUser(user)).contains(parent);
     }
 
@@ -94,9 +101,10 @@ class ParentServiceTest {
     @Test
     @DisplayName("should return parents by student")
     void getParentsByStudent() {
-        Student student = mock(Student.class);
+        Student student = new Student();
+        student.setId("s1");
         List<Parent> parents = List.of(mock(Parent.class));
-        when(parentRepository.findByChildrenContaining(student)).thenReturn(parents);
+        when(parentRepository.findParentsByChildId("s1")).thenReturn(parents);
         assertThat(parentService.getParentsByStudent(student)).isEqualTo(parents);
     }
 
@@ -107,4 +115,24 @@ class ParentServiceTest {
         when(parentRepository.findParentsByChildStudentId("sid")).thenReturn(parents);
         assertThat(parentService.getParentsByStudentId("sid")).isEqualTo(parents);
     }
+
+    @Test
+    @DisplayName("should load embedded children in one batch and keep their order")
+    void getChildrenByParentEmail_resolvesInBatch() {
+        Student first = new Student();
+        first.setId("s1");
+        Student second = new Student();
+        second.setId("s2");
+        Parent parent = new Parent();
+        parent.addChild(second);
+        parent.addChild(first);
+        parent.addChild(first);
+        when(parentRepository.findActiveParentByEmail("mail@x.com")).thenReturn(Optional.of(parent));
+        when(referenceResolver.resolve(eq(parent.getChildren()), any(), eq(Student.class)))
+                .thenReturn(Map.of("s1", first, "s2", second));
+
+        assertThat(parent.getChildren()).extracting(StudentRef::getId).containsExactly("s2", "s1");
+        assertThat(parentService.getChildrenByParentEmail("mail@x.com")).containsExactly(second, first);
+        verifyNoInteractions(studentRepository);
+    }
 }
@@ -51,9 +51,10 @@ class PaymentServiceTest {
     @Test
     @DisplayName("should return payments by student")
     void getPaymentsByStudent() {
-        Student student = mock(Student.class);
+        Student student = new Student();
+        student.setId("s1");
         List<Payment> payments = List.of(mock(Payment.class));
-        when(paymentRepository.findByStudent(student)).thenReturn(payments);
+        when(paymentRepository.findByStudentId("s1")).thenReturn(payments);
         assertThat(paymentService.getPaymentsByStudent(student)).isEqualTo(payments);
     }
 
@@ -68,9 +69,10 @@ class PaymentServiceTest {
     @Test
     @DisplayName("should return payments by fee")
     void getPaymentsByFee() {
-        Fee fee = mock(Fee.class);
+        Fee fee = new Fee();
+        fee.setId("f1");
         List<Payment> payments = List.of(mock(Payment.class));
-        when(paymentRepository.findByFee(fee)).thenReturn(payments);
+        when(paymentRepository.findByFeeId("f1")).thenReturn(payments);
         assertThat(paymentService.getPaymentsByFee(fee)).isEqualTo(payments);
     }
 
@@ -0,0 +1,108 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.entity.Submission;
+import com.eduai.schoolmanagement.entity.SubmissionFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlagiarismServiceTest {
+    private static final String SOURCE_TEXT = "The industrial revolution began in Britain in the late eighteenth century "
+            + "and transformed manufacturing, transport and the daily lives of ordinary workers across Europe.";
+    private static final String UNRELATED_TEXT = "Photosynthesis converts light energy into chemical energy stored in "
+            + "glucose, releasing oxygen as a by-product inside the chloroplasts of green plant cells.";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PlagiarismService plagiarismService;
+
+    @BeforeEach
+    void setUp() {
+        plagiarismService = new PlagiarismService(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should estimate high similarity and shared band keys only for near-duplicate texts")
+    void minHash_separatesNearDuplicatesFromUnrelatedText() {
+        int[] source = MinHash.signature(MinHash.shingle(SOURCE_TEXT));
+        int[] copy = MinHash.signature(MinHash.shingle(SOURCE_TEXT + " It also changed where people lived."));
+        int[] unrelated = MinHash.signature(MinHash.shingle(UNRELATED_TEXT));
+
+        assertThat(MinHash.similarity(source, copy)).isGreaterThan(0.6);
+        assertThat(MinHash.similarity(source, unrelated)).isLessThan(0.1);
+        assertThat(MinHash.bandKeys(copy)).containsAnyElementsOf(MinHash.bandKeys(source));
+        assertThat(MinHash.bandKeys(unrelated)).doesNotContainAnyElementsOf(MinHash.bandKeys(source));
+    }
+
+    @Test
+    @DisplayName("should flag a copied submission with the source id and the copied span")
+    void check_flagsCopiedSubmissionWithSpans() {
+        Submission source = submission("src1", "stu-a", SOURCE_TEXT);
+        SubmissionFingerprint sourceFingerprint = plagiarismService.fingerprint(source, MinHash.shingle(SOURCE_TEXT));
+        String prefix = "In my view, ";
+        Submission copied = submission("sub2", "stu-b", prefix + SOURCE_TEXT);
+        when(mongoTemplate.find(any(Query.class), eq(SubmissionFingerprint.class))).thenReturn(List.of(sourceFingerprint));
+        when(mongoTemplate.find(any(Query.class), eq(Submission.class))).thenReturn(List.of(source));
+
+        Submission.PlagiarismCheck check = plagiarismService.check(copied);
+
+        assertThat(check.getStatus()).isEqualTo("FLAGGED");
+        assertThat(check.getCheckingService()).isEqualTo(PlagiarismService.CHECKING_SERVICE);
+        assertThat(check.getMatches()).hasSize(1);
+        Submission.PlagiarismMatch match = check.getMatches().get(0);
+        assertThat(match.getSourceSubmissionId()).isEqualTo("src1");
+        assertThat(match.getSpans()).hasSize(1);
+        assertThat(match.getSpans().get(0).getStart()).isEqualTo(prefix.length());
+        assertThat(match.getSpans().get(0).getEnd()).isEqualTo(prefix.length() + SOURCE_TEXT.length() - 1);
+        // The candidate lookup is confined to the course's band keys and skips the student's own work
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(SubmissionFingerprint.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("courseCode", "HIST101").containsKey("bandKeys");
+        verify(mongoTemplate).save(any(SubmissionFingerprint.class));
+    }
+
+    @Test
+    @DisplayName("should pass a submission with no LSH neighbours without loading any text")
+    void check_passesWithoutCandidates() {
+        when(mongoTemplate.find(any(Query.class), eq(SubmissionFingerprint.class))).thenReturn(List.of());
+
+        Submission.PlagiarismCheck check = plagiarismService.check(submission("sub3", "stu-c", UNRELATED_TEXT));
+
+        assertThat(check.getStatus()).isEqualTo("PASSED");
+        assertThat(check.getSimilarityScore()).isZero();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Submission.class));
+    }
+
+    private static Submission submission(String id, String studentId, String text) {
+        AssignmentRef assignment = new AssignmentRef();
+        assignment.setId("a1");
+        assignment.setTitle("Essay");
+        assignment.setCourseCode("HIST101");
+        StudentRef student = new StudentRef();
+        student.setId(studentId);
+        student.setStudentId(studentId.toUpperCase());
+        Submission submission = new Submission();
+        submission.setId(id);
+        submission.setAssignment(assignment);
+        submission.setStudent(student);
+        submission.setTextContent(text);
+        return submission;
+    }
+}
@@ -0,0 +1,77 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.GradeRollup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankingServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @InjectMocks
+    private RankingService rankingService;
+
+    @Test
+    @DisplayName("should rank with shared ties and answer nearest-rank percentiles")
+    void cohort_rankAndPercentile() {
+        RankingService.Cohort cohort = new RankingService.Cohort(100, 0.1);
+        cohort.put("a", 95);
+        cohort.put("b", 80);
+        cohort.put("c", 80);
+        cohort.put("d", 60.04);
+
+        assertThat(cohort.rank("a")).containsEntry("rank", 1).containsEntry("of", 4).containsEntry("percentile", 100.0);
+        assertThat(cohort.rank("b")).containsEntry("rank", 2).containsEntry("percentile", 75.0);
+        assertThat(cohort.rank("d")).containsEntry("rank", 4).containsEntry("score", 60.0);
+        assertThat(cohort.scoreAtPercentile(50)).isEqualTo(80.0);
+        assertThat(cohort.scoreAtPercentile(90)).isEqualTo(95.0);
+        assertThat(cohort.scoreAtPercentile(0)).isEqualTo(60.0);
+
+        cohort.put("d", 99);
+        cohort.remove("a");
+        assertThat(cohort.rank("d")).containsEntry("rank", 1).containsEntry("of", 3);
+        assertThat(cohort.rank("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("should rebuild course and grade-level cohorts from rollups and follow later updates")
+    void rebuild_thenUpdate() {
+        when(mongoTemplate.stream(any(Query.class), eq(GradeRollup.class))).thenReturn(Stream.of(
+                rollup("s1", "c1", 92, 3), rollup("s1", "c2", 70, 1),
+                rollup("s2", "c1", 85, 3)));
+
+        assertThat(rankingService.rebuild()).isEqualTo(2);
+        assertThat(rankingService.getCourseRank("c1", "s1")).containsEntry("rank", 1).containsEntry("of", 2);
+        assertThat(rankingService.getGradeLevelRank("10", "s2")).containsEntry("rank", 2);
+
+        rankingService.update("s2", List.of(rollup("s2", "c1", 98, 3)));
+        assertThat(rankingService.getCourseRank("c1", "s1")).containsEntry("rank", 2);
+        assertThat(rankingService.getCourseScoreAtPercentile("c1", 100)).isEqualTo(98.0);
+    }
+
+    private static GradeRollup rollup(String studentId, String courseId, double average, int credits) {
+        GradeRollup rollup = new GradeRollup();
+        rollup.setStudentId(studentId);
+        rollup.setCourseId(courseId);
+        rollup.setGradeLevel("10");
+        rollup.setCredits(credits);
+        rollup.setWeightedPercentage(average);
+        rollup.setTotalWeight(1);
+        rollup.setGradeCount(1);
+        return rollup;
+    }
+}
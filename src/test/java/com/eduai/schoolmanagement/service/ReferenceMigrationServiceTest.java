@@ -0,0 +1,95 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
+import com.eduai.schoolmanagement.entity.User;
+import com.eduai.schoolmanagement.entity.UserRef;
+import com.mongodb.DBRef;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceMigrationServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private ReferenceResolver referenceResolver;
+    @InjectMocks
+    private ReferenceMigrationService migrationService;
+
+    @Test
+    @DisplayName("should replace DBRefs with snapshots using one lookup per referenced collection")
+    @SuppressWarnings("unchecked")
+    void migrate_rewritesDbRefsPerPage() {
+        ObjectId userId = new ObjectId();
+        ObjectId childId = new ObjectId();
+        ObjectId deletedChildId = new ObjectId();
+        Document stored = new Document("_id", new ObjectId())
+                .append("user", new DBRef("users", userId))
+                .append("children", List.of(new DBRef("students", childId), new DBRef("students", deletedChildId)));
+
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> found = mock(FindIterable.class);
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(mongoTemplate.getCollectionName(Parent.class)).thenReturn("parents");
+        when(mongoTemplate.getCollection("parents")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        when(found.projection(any(Bson.class))).thenReturn(found);
+        when(found.batchSize(500)).thenReturn(found);
+        when(found.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(stored);
+
+        User user = new User();
+        user.setId(userId.toHexString());
+        user.setEmail("parent@x.com");
+        Student child = new Student();
+        child.setId(childId.toHexString());
+        child.setStudentId("STU001");
+        when(referenceResolver.resolve(User.class, Set.of(userId.toHexString())))
+                .thenReturn(Map.of(user.getId(), user));
+        when(referenceResolver.resolve(Student.class, Set.of(childId.toHexString(), deletedChildId.toHexString())))
+                .thenReturn(Map.of(child.getId(), child));
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Parent.class)).thenReturn(bulkOps);
+
+        long migrated = migrationService.migrate(Parent.class, List.of(
+                new ReferenceMigrationService.RefPath<>("user", User.class, UserRef::of),
+                new ReferenceMigrationService.RefPath<>("children", Student.class, StudentRef::of)));
+
+        assertThat(migrated).isEqualTo(1);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOps).updateOne(any(Query.class), update.capture());
+        verify(bulkOps).execute();
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(((UserRef) set.get("user")).getEmail()).isEqualTo("parent@x.com");
+        assertThat(((StudentRef) set.get("children.0")).getStudentId()).isEqualTo("STU001");
+        assertThat(set.get("children.1")).isEqualTo(new Document("_id", deletedChildId));
+        verify(referenceResolver, times(2)).resolve(any(Class.class), any(Set.class));
+    }
+}
@@ -0,0 +1,145 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.dto.SearchHit;
+import com.eduai.schoolmanagement.entity.Course;
+import com.eduai.schoolmanagement.entity.Employee;
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.Teacher;
+import com.eduai.schoolmanagement.entity.UserRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new SearchService(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should rank whole-word name matches above prefixes, infixes and identifier matches")
+    void search_ranksMatches() {
+        stubCollections(
+                List.of(student("s1", "John", "Smith", "john.smith@school.edu", "+91-98765-43210", "STU001"),
+                        student("s2", "Johnny", "Appleseed", "johnny@school.edu", null, "STU002")),
+                List.of(parent("p1", "Zoë", "Johnson", "zoe@mail.com")),
+                List.of(course("c1", "Algebra", "MATH-101")));
+        assertThat(searchService.rebuild()).isEqualTo(4);
+
+        assertThat(searchService.search("john", null, null)).extracting(SearchHit::getId)
+                .containsExactly("s1", "s2", "p1");
+        assertThat(searchService.search("zoe", null, null)).extracting(SearchHit::getTitle)
+                .containsExactly("Zoë Johnson");
+        assertThat(searchService.search("ohn smi", null, null)).extracting(SearchHit::getId).containsExactly("s1");
+        assertThat(searchService.search("98765 43210", null, null)).extracting(SearchHit::getId).containsExactly("s1");
+        assertThat(searchService.search("stu002", null, null)).extracting(SearchHit::getSubtitle)
+                .containsExactly("STU002, Grade 10-A");
+        assertThat(searchService.search("math 101", List.of("course"), null)).extracting(SearchHit::getId)
+                .containsExactly("c1");
+        assertThat(searchService.search("john", List.of("PARENT"), 1)).extracting(SearchHit::getId)
+                .containsExactly("p1");
+        assertThatThrownBy(() -> searchService.search("john", List.of("INVOICE"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should follow saves and deletes, and rebuild when a delete names no single document")
+    void listener_keepsIndexCurrent() {
+        SearchIndexListener listener = new SearchIndexListener(searchService);
+        Student student = student("s1", "John", "Smith", "john@school.edu", null, "STU001");
+        searchService.index(student);
+        searchService.index(new Object());
+        assertThat(searchService.search("smith", null, null)).hasSize(1);
+
+        student.getUser().setLastName("Smyth");
+        searchService.index(student);
+        assertThat(searchService.search("smith", null, null)).isEmpty();
+        assertThat(searchService.search("smyth", null, null)).hasSize(1);
+
+        listener.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "s1"), Object.class, "students"));
+        assertThat(searchService.search("smyth", null, null)).isEmpty();
+
+        // Deletes in other collections are ignored; a filtered delete reloads everything
+        listener.onAfterDelete(new AfterDeleteEvent<>(new Document(), Object.class, "invoices"));
+        verifyNoInteractions(mongoTemplate);
+        stubCollections(List.of(), List.of(), List.of());
+        listener.onAfterDelete(new AfterDeleteEvent<>(new Document("grade", "10"), Object.class, "students"));
+        verify(mongoTemplate).stream(any(Query.class), eq(Student.class));
+    }
+
+    @Test
+    @DisplayName("should take the ObjectId of a single-document delete and nothing else")
+    void deletedId_onlyForSingleDocuments() {
+        ObjectId id = new ObjectId();
+        assertThat(SearchService.deletedId(new Document("_id", id))).isEqualTo(id.toHexString());
+        assertThat(SearchService.deletedId(new Document("_id", new Document("$in", List.of(id))))).isNull();
+        assertThat(SearchService.deletedId(new Document())).isNull();
+    }
+
+    private void stubCollections(List<Student> students, List<Parent> parents, List<Course> courses) {
+        when(mongoTemplate.stream(any(Query.class), eq(Student.class))).thenAnswer(invocation -> students.stream());
+        when(mongoTemplate.stream(any(Query.class), eq(Parent.class))).thenAnswer(invocation -> parents.stream());
+        when(mongoTemplate.stream(any(Query.class), eq(Teacher.class))).thenAnswer(invocation -> Stream.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Employee.class))).thenAnswer(invocation -> Stream.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Course.class))).thenAnswer(invocation -> courses.stream());
+    }
+
+    private static Student student(String id, String firstName, String lastName, String email, String phone,
+                                   String studentId) {
+        Student student = new Student();
+        student.setId(id);
+        student.setStudentId(studentId);
+        student.setGrade("10");
+        student.setSection("A");
+        Student.UserInfo user = new Student.UserInfo();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setPhone(phone);
+        student.setUser(user);
+        return student;
+    }
+
+    private static Parent parent(String id, String firstName, String lastName, String email) {
+        Parent parent = new Parent();
+        parent.setId(id);
+        parent.setParentId("PAR" + id);
+        UserRef user = new UserRef();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        parent.setUser(user);
+        return parent;
+    }
+
+    private static Course course(String id, String courseName, String courseCode) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCourseName(courseName);
+        course.setCourseCode(courseCode);
+        return course;
+    }
+}
@@ -0,0 +1,280 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.AccessCode;
+import com.eduai.schoolmanagement.entity.IDConfiguration;
+import com.eduai.schoolmanagement.entity.Parent;
+import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentImportJob;
+import com.eduai.schoolmanagement.entity.UserRef;
+import com.eduai.schoolmanagement.repository.StudentImportJobRepository;
+import com.eduai.schoolmanagement.repository.StudentRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentImportServiceTest {
+    private static final String HEADER = "First Name,Last Name,Email,Grade,Section,Parent1 First Name,Parent1 Last Name,"
+            + "Parent1 Email,Parent1 Phone,Parent1 Relationship\n";
+
+    @Mock
+    private StudentImportJobRepository importJobRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private IDGenerationService idGenerationService;
+    @Mock
+    private DeadlineScheduler deadlineScheduler;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations studentBulk;
+    @Mock
+    private BulkOperations parentBulk;
+    @Mock
+    private BulkOperations codeBulk;
+    @TempDir
+    Path root;
+
+    private StudentImportService studentImportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        studentImportService = new StudentImportService(importJobRepository, studentRepository, idGenerationService,
+                deadlineScheduler, mongoTemplate);
+        ReflectionTestUtils.setField(studentImportService, "root", root.toString());
+        studentImportService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        studentImportService.stop();
+    }
+
+    @Test
+    @DisplayName("should read quoted CSV fields and XLSX shared, inline and numeric cells")
+    void spreadsheetReader_readsCsvAndXlsx() throws Exception {
+        try (SpreadsheetReader csv = new SpreadsheetReader.Csv(
+                new StringReader("\uFEFFname,notes\r\n\"Doe, Jane\",\"said \"\"hi\"\"\nthen left\"\n"))) {
+            assertThat(csv.next()).containsExactly("name", "notes");
+            assertThat(csv.next()).containsExactly("Doe, Jane", "said \"hi\"\nthen left");
+            assertThat(csv.rowNumber()).isEqualTo(2);
+            assertThat(csv.next()).isNull();
+        }
+
+        Path workbook = root.resolve("students.xlsx");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(workbook))) {
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            zip.write(("<sst><si><t>email</t></si><si><t>phone</t></si>"
+                    + "<si><r><t>ann@</t></r><r><t>school.edu</t></r></si></sst>").getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write(("<worksheet><sheetData>"
+                    + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"C1\" t=\"s\"><v>1</v></c></row>"
+                    + "<row r=\"4\"><c r=\"A4\" t=\"s\"><v>2</v></c><c r=\"B4\" t=\"inlineStr\"><is><t>x</t></is></c>"
+                    + "<c r=\"C4\"><v>9.87654321E9</v></c></row>"
+                    + "</sheetData></worksheet>").getBytes(StandardCharsets.UTF_8));
+        }
+        try (SpreadsheetReader xlsx = SpreadsheetReader.open(workbook, StudentImportJob.FORMAT_XLSX)) {
+            assertThat(xlsx.next()).containsExactly("email", "", "phone");
+            assertThat(xlsx.next()).containsExactly("ann@school.edu", "x", "9876543210");
+            assertThat(xlsx.rowNumber()).isEqualTo(4);
+            assertThat(xlsx.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("should write a batch with one ID block per type, one parent lookup and one bulk write per collection")
+    void execute_writesBatchInBulk() throws Exception {
+        StudentImportJob job = job(csv(HEADER
+                + "Ann,Lee,ann@school.edu,10,A,Mary,Lee,mary@home.com,555-0101,mother\n"
+                + "Ben,Ray,ben@school.edu,10,A,Tom,Ray,tom@home.com,555-0102,Father\n"
+                + "Cal,Fox,not-an-email,10,A,,,,,\n"
+                + "Ann,Lee,ANN@school.edu,10,A,,,,,\n"), 1, null);
+        when(importJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        when(mongoTemplate.find(any(Query.class), eq(Student.class))).thenReturn(List.of());
+        when(idGenerationService.reserveBlock(anyString(), eq(2))).thenReturn(counterAt(40));
+        when(idGenerationService.formatId(any(IDConfiguration.class), anyLong(), any(), any()))
+                .thenAnswer(invocation -> "ID-" + invocation.getArgument(1));
+        when(studentRepository.findMaxRollNumberByGradeAndSection("10", "A")).thenReturn(4L);
+        when(mongoTemplate.find(any(Query.class), eq(Parent.class))).thenReturn(List.of(parent("p1", "mary@home.com")));
+        Parent highest = new Parent();
+        highest.setParentId("PAR00041");
+        when(mongoTemplate.findOne(any(Query.class), eq(Parent.class))).thenReturn(highest);
+        stubBulkOps();
+
+        studentImportService.execute("job-1");
+
+        ArgumentCaptor<List<Student>> students = listCaptor();
+        verify(studentBulk).insert(students.capture());
+        assertThat(students.getValue()).extracting(Student::getStudentId).containsExactly("ID-41", "ID-42");
+        assertThat(students.getValue()).extracting(Student::getRollNumber).containsExactly("005", "006");
+        verify(idGenerationService).reserveBlock("STUDENT_ID", 2);
+        verify(idGenerationService).reserveBlock("ADMISSION_NUMBER", 2);
+
+        ArgumentCaptor<List<Parent>> parents = listCaptor();
+        verify(parentBulk).insert(parents.capture());
+        assertThat(parents.getValue()).singleElement().satisfies(parent -> {
+            assertThat(parent.getParentId()).isEqualTo("PAR00042");
+            assertThat(parent.getRelationship()).isEqualTo("FATHER");
+            assertThat(parent.getChildren()).extracting("studentId").containsExactly("ID-42");
+        });
+        verify(parentBulk).updateOne(any(Query.class), any(Update.class));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Parent.class));
+
+        ArgumentCaptor<List<AccessCode>> codes = listCaptor();
+        verify(codeBulk).insert(codes.capture());
+        assertThat(codes.getValue()).extracting(AccessCode::getCodeType)
+                .containsExactly("STUDENT", "PARENT", "STUDENT", "PARENT");
+        verify(deadlineScheduler, times(4)).scheduleAccessCode(any(AccessCode.class));
+
+        Document checkpoint = checkpoint();
+        assertThat(checkpoint.get("$set", Document.class).get("rowsProcessed")).isEqualTo(5);
+        assertThat(checkpoint.get("$inc", Document.class))
+                .containsEntry("imported", 2).containsEntry("failed", 2)
+                .containsEntry("parentsCreated", 1).containsEntry("parentsLinked", 1)
+                .containsEntry("accessCodes", 4);
+        Update.Modifiers errors = (Update.Modifiers) checkpoint.get("$push", Document.class).get("errors");
+        Object[] pushed = (Object[]) errors.getModifiers().stream()
+                .filter(modifier -> "$each".equals(modifier.getKey()))
+                .findFirst().orElseThrow().getValue();
+        assertThat(pushed).extracting("row", "message")
+                .containsExactly(tuple(4, "A valid email is required"),
+                        tuple(5, "Email ANN@school.edu appears more than once in the file"));
+    }
+
+    @Test
+    @DisplayName("should resume after the checkpoint without inserting students written before the stop again")
+    void execute_resumesFromCheckpoint() throws Exception {
+        StudentImportJob job = job(csv(HEADER
+                + "Ann,Lee,ann@school.edu,10,A,,,,,\n"
+                + "Ben,Ray,ben@school.edu,10,A,,,,,\n"
+                + "Cal,Fox,cal@school.edu,10,A,,,,,\n"), 2, LocalDateTime.now().minusMinutes(5));
+        when(importJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        Student written = new Student();
+        written.setId("s-ben");
+        written.setStudentId("ID-7");
+        Student.UserInfo user = new Student.UserInfo();
+        user.setFirstName("Ben");
+        user.setLastName("Ray");
+        user.setEmail("ben@school.edu");
+        written.setUser(user);
+        when(mongoTemplate.find(any(Query.class), eq(Student.class))).thenReturn(List.of(written), List.of());
+        when(idGenerationService.reserveBlock(anyString(), eq(1))).thenReturn(counterAt(7));
+        when(idGenerationService.formatId(any(IDConfiguration.class), anyLong(), any(), any()))
+                .thenAnswer(invocation -> "ID-" + invocation.getArgument(1));
+        when(studentRepository.findMaxRollNumberByGradeAndSection("10", "A")).thenReturn(1L);
+        AccessCode existingCode = AccessCode.createStudentAccessCode("s-ben", "Ben Ray");
+        when(mongoTemplate.find(any(Query.class), eq(AccessCode.class))).thenReturn(List.of(existingCode));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class)).thenReturn(studentBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AccessCode.class)).thenReturn(codeBulk);
+
+        studentImportService.execute("job-1");
+
+        ArgumentCaptor<List<Student>> students = listCaptor();
+        verify(studentBulk).insert(students.capture());
+        assertThat(students.getValue()).extracting(student -> student.getUser().getEmail())
+                .containsExactly("cal@school.edu");
+        ArgumentCaptor<List<AccessCode>> codes = listCaptor();
+        verify(codeBulk).insert(codes.capture());
+        assertThat(codes.getValue()).extracting(AccessCode::getStudentId)
+                .containsExactly(students.getValue().get(0).getId());
+
+        Document checkpoint = checkpoint();
+        assertThat(checkpoint.get("$set", Document.class).get("rowsProcessed")).isEqualTo(4);
+        assertThat(checkpoint.get("$inc", Document.class)).containsEntry("imported", 2).containsEntry("failed", 0);
+    }
+
+    @Test
+    @DisplayName("should refuse files that are neither CSV nor XLSX")
+    void submit_rejectsUnknownFormat() {
+        assertThatThrownBy(() -> studentImportService.submit(
+                new ByteArrayInputStream(new byte[0]), "students.xls"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(importJobRepository, never()).save(any());
+    }
+
+    private void stubBulkOps() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class)).thenReturn(studentBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Parent.class)).thenReturn(parentBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AccessCode.class)).thenReturn(codeBulk);
+    }
+
+    private Document checkpoint() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), updates.capture(), eq(StudentImportJob.class));
+        return updates.getAllValues().stream()
+                .map(Update::getUpdateObject)
+                .filter(update -> update.containsKey("$inc"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    private Path csv(String content) throws Exception {
+        Path file = root.resolve("students.csv");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static StudentImportJob job(Path file, int rowsProcessed, LocalDateTime startedAt) {
+        StudentImportJob job = new StudentImportJob();
+        job.setId("job-1");
+        job.setFormat(StudentImportJob.FORMAT_CSV);
+        job.setFilePath(file.toString());
+        job.setStatus(StudentImportJob.STATUS_QUEUED);
+        job.setRowsProcessed(rowsProcessed);
+        job.setStartedAt(startedAt);
+        job.setErrors(new ArrayList<>());
+        return job;
+    }
+
+    private static IDConfiguration counterAt(long counter) {
+        IDConfiguration config = new IDConfiguration();
+        config.setCurrentCounter(counter);
+        return config;
+    }
+
+    private static Parent parent(String id, String email) {
+        UserRef user = new UserRef();
+        user.setEmail(email);
+        Parent parent = new Parent();
+        parent.setId(id);
+        parent.setUser(user);
+        return parent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return ArgumentCaptor.forClass((Class<List<T>>) (Class<?>) List.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.eduai.schoolmanagement.service;
 
+import com.eduai.schoolmanagement.dto.CursorPage;
 import com.eduai.schoolmanagement.entity.Student;
 import com.eduai.schoolmanagement.entity.Parent;
 import com.eduai.schoolmanagement.entity.AccessCode;
@@ -10,8 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +29,8 @@ class StudentServiceTest {
     private AccessCodeService accessCodeService;
     @Mock
     private ParentService parentService;
+    @Mock
+    private CursorPaginator cursorPaginator;
     @InjectMocks
     private StudentService studentService;
 
@@ -90,9 +92,8 @@ class StudentServiceTest {
     @Test
     @DisplayName("should search students by name")
     void searchStudentsByName() {
-        Page<Student> page = mock(Page.class);
-        Pageable pageable = mock(Pageable.class);
-        when(studentRepository.findByFirstNameContainingIgnoreCase("John", pageable)).thenReturn(page);
-        assertThat(studentService.searchStudentsByName("John", pageable)).isEqualTo(page);
+        CursorPage<Student> page = new CursorPage<>(List.of(mock(Student.class)), "next");
+        when(cursorPaginator.page(eq(Student.class), any(Criteria.class), eq("cursor"), eq(20))).thenReturn(page);
+        assertThat(studentService.searchStudentsByName("John", "cursor", 20)).isEqualTo(page);
     }
 }
@@ -0,0 +1,140 @@
+package com.eduai.schoolmanagement.service;
+
+import com.eduai.schoolmanagement.entity.SubmissionRevision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubmissionRevisionServiceTest {
+    private static final String ESSAY = essay();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SubmissionRevisionService submissionRevisionService;
+
+    @BeforeEach
+    void setUp() {
+        submissionRevisionService = new SubmissionRevisionService(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should encode a small edit to a long text as a small delta that restores it exactly")
+    void textDelta_roundTripsSmallEdit() {
+        String edited = ESSAY.substring(0, 3000) + " A sentence added in the middle. "
+                + ESSAY.substring(3000, 6000) + ESSAY.substring(6400);
+
+        byte[] delta = TextDelta.encode(ESSAY, edited);
+
+        assertThat(TextDelta.apply(ESSAY, delta)).isEqualTo(edited);
+        assertThat(delta.length).isLessThan(TextDelta.compress(edited).length / 10);
+        assertThat(TextDelta.apply("", TextDelta.encode("", "short"))).isEqualTo("short");
+        assertThat(TextDelta.apply(ESSAY, TextDelta.encode(ESSAY, ""))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should store the first revision as a snapshot")
+    void record_firstRevisionIsSnapshot() {
+        when(mongoTemplate.insert(any(SubmissionRevision.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SubmissionRevision revision = submissionRevisionService.record("sub1", ESSAY);
+
+        assertThat(revision.getRevision()).isZero();
+        assertThat(revision.getType()).isEqualTo(SubmissionRevision.SNAPSHOT);
+        assertThat(TextDelta.decompress(revision.getData())).isEqualTo(ESSAY);
+    }
+
+    @Test
+    @DisplayName("should store an edit as a delta against the latest snapshot and rebuild it from two documents")
+    void record_editIsDeltaAgainstSnapshot() {
+        SubmissionRevision snapshot = revision(4, SubmissionRevision.SNAPSHOT, 4, TextDelta.compress(ESSAY));
+        SubmissionRevision previous = revision(6, SubmissionRevision.DELTA, 4,
+                TextDelta.encode(ESSAY, ESSAY + " First addition."));
+        when(mongoTemplate.findOne(any(Query.class), eq(SubmissionRevision.class)))
+                .thenReturn(previous, snapshot);
+        when(mongoTemplate.insert(any(SubmissionRevision.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        String edited = ESSAY + " First addition. Second addition.";
+
+        SubmissionRevision revision = submissionRevisionService.record("sub1", edited);
+
+        assertThat(revision.getRevision()).isEqualTo(7);
+        assertThat(revision.getType()).isEqualTo(SubmissionRevision.DELTA);
+        assertThat(revision.getBaseRevision()).isEqualTo(4);
+        assertThat(revision.getStoredBytes()).isLessThan(100);
+
+        reset(mongoTemplate);
+        when(mongoTemplate.findOne(any(Query.class), eq(SubmissionRevision.class))).thenReturn(revision, snapshot);
+        assertThat(submissionRevisionService.getRevisionText("sub1", 7)).contains(edited);
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(SubmissionRevision.class));
+    }
+
+    @Test
+    @DisplayName("should not record an autosave whose text has not changed")
+    void record_skipsUnchangedText() {
+        SubmissionRevision snapshot = revision(3, SubmissionRevision.SNAPSHOT, 3, TextDelta.compress(ESSAY));
+        when(mongoTemplate.findOne(any(Query.class), eq(SubmissionRevision.class))).thenReturn(snapshot);
+
+        assertThat(submissionRevisionService.record("sub1", ESSAY)).isSameAs(snapshot);
+        verify(mongoTemplate, never()).insert(any(SubmissionRevision.class));
+    }
+
+    @Test
+    @DisplayName("should take a fresh snapshot once the snapshot interval is reached")
+    void record_snapshotsAtInterval() {
+        SubmissionRevision snapshot = revision(0, SubmissionRevision.SNAPSHOT, 0, TextDelta.compress(ESSAY));
+        SubmissionRevision previous = revision(19, SubmissionRevision.DELTA, 0,
+                TextDelta.encode(ESSAY, ESSAY + " More."));
+        when(mongoTemplate.findOne(any(Query.class), eq(SubmissionRevision.class)))
+                .thenReturn(previous, snapshot);
+        when(mongoTemplate.insert(any(SubmissionRevision.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SubmissionRevision revision = submissionRevisionService.record("sub1", ESSAY + " More. Even more.");
+
+        assertThat(revision.getRevision()).isEqualTo(20);
+        assertThat(revision.getType()).isEqualTo(SubmissionRevision.SNAPSHOT);
+        assertThat(revision.getBaseRevision()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("should take a fresh snapshot when the text no longer resembles the snapshot")
+    void record_snapshotsWhenRewritten() {
+        SubmissionRevision snapshot = revision(2, SubmissionRevision.SNAPSHOT, 2, TextDelta.compress(ESSAY));
+        when(mongoTemplate.findOne(any(Query.class), eq(SubmissionRevision.class))).thenReturn(snapshot);
+        when(mongoTemplate.insert(any(SubmissionRevision.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SubmissionRevision revision = submissionRevisionService.record("sub1", new StringBuilder(ESSAY).reverse().toString());
+
+        assertThat(revision.getType()).isEqualTo(SubmissionRevision.SNAPSHOT);
+        assertThat(revision.getRevision()).isEqualTo(3);
+    }
+
+    private static SubmissionRevision revision(int number, String type, int base, byte[] data) {
+        SubmissionRevision revision = new SubmissionRevision();
+        revision.setSubmissionId("sub1");
+        revision.setRevision(number);
+        revision.setType(type);
+        revision.setBaseRevision(base);
+        revision.setData(data);
+        return revision;
+    }
+
+    private static String essay() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Paragraph ").append(i).append(" discusses cause ").append(i * 7 % 13)
+                    .append(" and its effect on outcome ").append(i * 11 % 17).append(". ");
+        }
+        return text.toString();
+    }
+}
@@ -1,26 +1,49 @@
 package com.eduai.schoolmanagement.service;
 
 import com.eduai.schoolmanagement.entity.Assignment;
+import com.eduai.schoolmanagement.entity.AssignmentRef;
+import com.eduai.schoolmanagement.entity.Attachment;
 import com.eduai.schoolmanagement.entity.Student;
+import com.eduai.schoolmanagement.entity.StudentRef;
 import com.eduai.schoolmanagement.entity.Submission;
 import com.eduai.schoolmanagement.repository.SubmissionRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SubmissionServiceTest {
     @Mock
     private SubmissionRepository submissionRepository;
+    @Mock
+    private AssignmentService assignmentService;
+    @Mock
+    private GradingQueueService gradingQueueService;
+    @Mock
+    private PlagiarismService plagiarismService;
+    @Mock
+    private AttachmentService attachmentService;
+    @Mock
+    private SubmissionRevisionService submissionRevisionService;
+    @Mock
+    private MongoTemplate mongoTemplate;
     @InjectMocks
     private SubmissionService submissionService;
 
@@ -50,28 +73,32 @@ class SubmissionServiceTest {
     @Test
     @DisplayName("should return submissions by assignment")
     void getSubmissionsByAssignment() {
-        Assignment assignment = mock(Assignment.class);
+        Assignment assignment = new Assignment();
+        assignment.setId("a1");
         List<Submission> submissions = List.of(mock(Submission.class));
-        when(submissionRepository.findByAssignment(assignment)).thenReturn(submissions);
+        when(submissionRepository.findByAssignmentId("a1")).thenReturn(submissions);
         assertThat(submissionService.getSubmissionsByAssignment(assignment)).isEqualTo(submissions);
     }
 
     @Test
     @DisplayName("should return submissions by student")
     void getSubmissionsByStudent() {
-        Student student = mock(Student.class);
+        Student student = new Student();
+        student.setId("s1");
         List<Submission> submissions = List.of(mock(Submission.class));
-        when(submissionRepository.findByStudent(student)).thenReturn(submissions);
+        when(submissionRepository.findByStudentId("s1")).thenReturn(submissions);
         assertThat(submissionService.getSubmissionsByStudent(student)).isEqualTo(submissions);
     }
 
     @Test
     @DisplayName("should return submission by assignment and student")
     void getSubmissionByAssignmentAndStudent() {
-        Assignment assignment = mock(Assignment.class);
-        Student student = mock(Student.class);
+        Assignment assignment = new Assignment();
+        assignment.setId("a1");
+        Student student = new Student();
+        student.setId("s1");
         Submission submission = mock(Submission.class);
-        when(submissionRepository.findLatestSubmissionByAssignmentAndStudent(assignment, student)).thenReturn(Optional.of(submission));
+        when(submissionRepository.findLatestSubmissionByAssignmentAndStudent("a1", "s1")).thenReturn(Optional.of(submission));
         assertThat(submissionService.getSubmissionByAssignmentAndStudent(assignment, student)).contains(submission);
     }
 
@@ -106,4 +133,87 @@ class SubmissionServiceTest {
         when(submissionRepository.findSubmissionsNeedingHumanReview()).thenReturn(submissions);
         assertThat(submissionService.getSubmissionsNeedingHumanReview()).isEqualTo(submissions);
     }
+
+    @Test
+    @DisplayName("should count a submission once when it is first submitted")
+    void submitAssignment_incrementsSubmissionsOnce() {
+        Submission submission = submission("DRAFT", null);
+        Submission submitted = submission("SUBMITTED", null);
+        when(submissionRepository.findById("s1")).thenReturn(Optional.of(submission));
+        // The second submit no longer matches the draft-only update
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Submission.class))).thenReturn(submitted, (Submission) null);
+
+        submissionService.submitAssignment("s1");
+        submissionService.submitAssignment("s1");
+
+        verify(assignmentService, times(1)).adjustCounters("a1", 1, 0, 0, 0);
+        verify(gradingQueueService).enqueue(submitted);
+        verify(gradingQueueService).enqueue(submission);
+        verify(submissionRepository, never()).save(any(Submission.class));
+        verify(mongoTemplate, times(2)).findAndModify(argThat((Query query) ->
+                        query.getQueryObject().get("status", Document.class).containsKey("$nin")),
+                any(Update.class), any(FindAndModifyOptions.class), eq(Submission.class));
+    }
+
+    @Test
+    @DisplayName("should move the score sum rather than recount when a graded submission is regraded")
+    void gradeSubmission_regradeAdjustsScoreSum() {
+        Submission submission = submission("GRADED", 70.0);
+        when(submissionRepository.findById("s1")).thenReturn(Optional.of(submission));
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        submissionService.gradeSubmission("s1", 9.0, "Better");
+
+        verify(assignmentService).adjustCounters("a1", 0, 0, 20.0, 0);
+    }
+
+    @Test
+    @DisplayName("should count a first grade and add its percentage")
+    void gradeSubmission_firstGradeCounts() {
+        Submission submission = submission("SUBMITTED", null);
+        when(submissionRepository.findById("s1")).thenReturn(Optional.of(submission));
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        submissionService.gradeSubmission("s1", 8.0, "Good");
+
+        verify(assignmentService).adjustCounters("a1", 0, 1, 80.0, 1);
+        verify(gradingQueueService).complete("s1");
+    }
+
+    private static Submission submission(String status, Double percentage) {
+        AssignmentRef assignment = new AssignmentRef();
+        assignment.setId("a1");
+        assignment.setTitle("Essay");
+        Submission submission = new Submission();
+        submission.setId("s1");
+        submission.setAssignment(assignment);
+        submission.setStudent(new StudentRef());
+        submission.setStatus(status);
+        submission.setMaxScore(10.0);
+        submission.setPercentage(percentage);
+        return submission;
+    }
+
+    @Test
+    @DisplayName("should $push an attachment onto a draft and give it back if the draft was submitted meanwhile")
+    void addAttachment_pushesOntoDraft() throws Exception {
+        Submission draft = new Submission();
+        draft.setId("sub1");
+        draft.setStatus("DRAFT");
+        Attachment attachment = new Attachment();
+        attachment.setId("hash1");
+        when(submissionRepository.findById("sub1")).thenReturn(Optional.of(draft));
+        when(attachmentService.store(any(), eq("essay.pdf"), eq("application/pdf"))).thenReturn(attachment);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Submission.class))).thenReturn(draft).thenReturn(null);
+
+        assertThat(submissionService.addAttachment("sub1", new ByteArrayInputStream(new byte[1]), "essay.pdf",
+                "application/pdf")).isSameAs(draft);
+        verify(submissionRepository, never()).save(any());
+
+        assertThatThrownBy(() -> submissionService.addAttachment("sub1", new ByteArrayInputStream(new byte[1]),
+                "essay.pdf", "application/pdf")).hasMessageContaining("Cannot modify");
+        verify(attachmentService).release(List.of("hash1"));
+    }
 }